@@ -60,6 +60,19 @@ export interface DashboardSnapshot {
   activeAlerts: AlertDTO[];
 }
 
+export interface SequencedDashboardSnapshot {
+  sequence: number;
+  snapshot: DashboardSnapshot;
+}
+
+export interface DashboardPatch extends Partial<Omit<DashboardSnapshot, 'attractionStatuses' | 'activeAlerts'>> {
+  sequence: number;
+  attractionStatuses?: AttractionStatus[];
+  removedAttractionIds?: number[];
+  activeAlerts?: AlertDTO[];
+  removedAlertIds?: number[];
+}
+
 export interface SimulatorStatus {
   running: boolean;
   simulatedVisitors: number;
@@ -71,6 +84,8 @@ export interface SimulatorStatus {
 export class MonitoringService {
   private baseUrl = `${getBackendBaseUrl()}/api/v1/monitoring`;
   private stompClient: Client | null = null;
+  private dashboard: DashboardSnapshot | null = null;
+  private sequence = -1;
 
   private dashboardSubject = new Subject<DashboardSnapshot>();
   private alertSubject = new Subject<AlertDTO>();
@@ -134,10 +149,10 @@ export class MonitoringService {
   private subscribeToTopics(): void {
     if (!this.stompClient) return;
 
-    this.stompClient.subscribe('/topic/dashboard', (message) => {
-      const snapshot = JSON.parse(message.body) as DashboardSnapshot;
-      this.dashboardSubject.next(snapshot);
+    this.stompClient.subscribe('/topic/dashboard/delta', (message) => {
+      this.applyPatch(JSON.parse(message.body) as DashboardPatch);
     });
+    this.requestDashboardSnapshot();
 
     this.stompClient.subscribe('/topic/alerts', (message) => {
       const alert = JSON.parse(message.body) as AlertDTO;
@@ -145,8 +160,51 @@ export class MonitoringService {
     });
   }
 
+  private requestDashboardSnapshot(): void {
+    if (!this.stompClient) return;
+    this.dashboard = null;
+    this.sequence = -1;
+    const subscription = this.stompClient.subscribe('/app/dashboard', (message) => {
+      subscription.unsubscribe();
+      const frame = JSON.parse(message.body) as SequencedDashboardSnapshot;
+      this.dashboard = frame.snapshot;
+      this.sequence = frame.sequence;
+      this.dashboardSubject.next(this.dashboard);
+    });
+  }
+
+  private applyPatch(patch: DashboardPatch): void {
+    if (!this.dashboard || patch.sequence <= this.sequence) return;
+    if (patch.sequence !== this.sequence + 1) {
+      this.requestDashboardSnapshot();
+      return;
+    }
+    const { sequence, attractionStatuses, removedAttractionIds, activeAlerts, removedAlertIds, ...counters } = patch;
+    const next: DashboardSnapshot = { ...this.dashboard, ...counters };
+    next.attractionStatuses = this.merge(this.dashboard.attractionStatuses, attractionStatuses,
+      removedAttractionIds, s => s.attractionId);
+    next.activeAlerts = this.merge(this.dashboard.activeAlerts, activeAlerts, removedAlertIds, a => a.id);
+    this.dashboard = next;
+    this.sequence = sequence;
+    this.dashboardSubject.next(next);
+  }
+
+  private merge<T>(current: T[], changed: T[] | undefined, removed: number[] | undefined,
+                   id: (item: T) => number): T[] {
+    const removedIds = new Set(removed ?? []);
+    const changedById = new Map((changed ?? []).map(item => [id(item), item] as [number, T]));
+    const merged = current
+      .filter(item => !removedIds.has(id(item)))
+      .map(item => changedById.get(id(item)) ?? item);
+    const known = new Set(merged.map(id));
+    (changed ?? []).filter(item => !known.has(id(item))).forEach(item => merged.push(item));
+    return merged;
+  }
+
   disconnectWebSocket(): void {
     this.stompClient?.deactivate();
     this.stompClient = null;
+    this.dashboard = null;
+    this.sequence = -1;
   }
 }
@@ -16,6 +16,7 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(AttractionChangeListener.class)
 @Table(name = "attraction")
 public class Attraction extends BaseEntity {
 
@@ -0,0 +1,107 @@
+package com.magicworld.tfg_angular_springboot.attraction;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copy-on-write, versioned snapshot of all attractions keyed by id. Reads never touch the
+ * database unless an attraction changed since the last snapshot was built; changes are signalled
+ * by {@link AttractionChangeListener} and again when the writing transaction completes, so a
+ * rolled back or not yet committed change is never kept. Other nodes hear of the change through
+ * {@link ClusterCacheSync}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AttractionCatalog {
+
+    static final String CACHE_NAME = "attractions";
+
+    private final AttractionRepository attractionRepository;
+    private final ClusterCacheSync clusterCacheSync;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    @PostConstruct
+    public void registerSync() {
+        clusterCacheSync.register(CACHE_NAME, keys -> stale.set(true));
+    }
+
+    public Snapshot current() {
+        if (stale.getAndSet(false)) {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                stale.set(true);
+                throw e;
+            }
+        }
+        return snapshot.get();
+    }
+
+    public List<AttractionView> getAll() {
+        return current().getAll();
+    }
+
+    public List<AttractionView> getActive() {
+        return current().getActive();
+    }
+
+    public Optional<AttractionView> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(current().getById().get(id));
+    }
+
+    public String getName(Long id) {
+        return findById(id).map(AttractionView::getName).orElse(null);
+    }
+
+    public void markChanged() {
+        stale.set(true);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    stale.set(true);
+                }
+            });
+        }
+        clusterCacheSync.publish(CACHE_NAME);
+    }
+
+    private void reload() {
+        Map<Long, AttractionView> byId = new LinkedHashMap<>();
+        attractionRepository.findAll().forEach(a -> byId.put(a.getId(), new AttractionView(a)));
+        snapshot.set(new Snapshot(snapshot.get().getVersion() + 1, byId));
+    }
+
+    @Getter
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, Map.of());
+
+        private final long version;
+        private final Map<Long, AttractionView> byId;
+        private final List<AttractionView> all;
+        private final List<AttractionView> active;
+
+        Snapshot(long version, Map<Long, AttractionView> byId) {
+            this.version = version;
+            this.byId = Collections.unmodifiableMap(byId);
+            this.all = List.copyOf(byId.values());
+            this.active = all.stream().filter(AttractionView::isActive).toList();
+        }
+    }
+}
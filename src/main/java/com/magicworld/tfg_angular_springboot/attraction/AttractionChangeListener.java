@@ -0,0 +1,28 @@
+package com.magicworld.tfg_angular_springboot.attraction;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener that invalidates the {@link AttractionCatalog} whenever an attraction is created,
+ * updated or deleted, whether through {@link AttractionService} or another repository caller.
+ */
+public class AttractionChangeListener {
+
+    private final ObjectProvider<AttractionCatalog> catalog;
+
+    public AttractionChangeListener(ObjectProvider<AttractionCatalog> catalog) {
+        this.catalog = catalog;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PreRemove
+    @PostRemove
+    public void onChange(Attraction attraction) {
+        catalog.ifAvailable(AttractionCatalog::markChanged);
+    }
+}
@@ -5,6 +5,8 @@ import com.magicworld.tfg_angular_springboot.employee.WeeklyScheduleRepository;
 import com.magicworld.tfg_angular_springboot.employee.service.WorkLogService;
 import com.magicworld.tfg_angular_springboot.exceptions.BadRequestException;
 import com.magicworld.tfg_angular_springboot.exceptions.ResourceNotFoundException;
+import com.magicworld.tfg_angular_springboot.monitoring.alert.ActiveAlertIndex;
+import com.magicworld.tfg_angular_springboot.monitoring.retention.MonitoringRetentionService;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,6 +22,8 @@ public class AttractionService {
     private final AttractionRepository attractionRepository;
     private final WeeklyScheduleRepository weeklyScheduleRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final ActiveAlertIndex activeAlertIndex;
+    private final MonitoringRetentionService retentionService;
 
     @Transactional
     public Attraction saveAttraction(Attraction attraction) {
@@ -74,9 +78,10 @@ public class AttractionService {
         jdbcTemplate.update("UPDATE daily_assignment SET current_attraction_id = NULL WHERE current_attraction_id = ?",
                 id);
 
-        // Delete related monitoring and alert records
-        jdbcTemplate.update("DELETE FROM park_event WHERE attraction_id = ?", id);
+        // Delete related monitoring and alert records; events and rollups in chunks once this commits
+        retentionService.purgeAttractionAfterCommit(id);
         jdbcTemplate.update("DELETE FROM park_alert WHERE attraction_id = ?", id);
+        activeAlertIndex.invalidate();
 
         attractionRepository.delete(attraction);
     }
@@ -0,0 +1,26 @@
+package com.magicworld.tfg_angular_springboot.attraction;
+
+import lombok.Getter;
+
+/**
+ * Immutable copy of the attraction fields the monitoring subsystem reads on every tick.
+ */
+@Getter
+public final class AttractionView {
+
+    private final Long id;
+    private final String name;
+    private final boolean active;
+    private final double mapPositionX;
+    private final double mapPositionY;
+    private final Intensity intensity;
+
+    public AttractionView(Attraction attraction) {
+        this.id = attraction.getId();
+        this.name = attraction.getName();
+        this.active = Boolean.TRUE.equals(attraction.getIsActive());
+        this.mapPositionX = attraction.getMapPositionX() != null ? attraction.getMapPositionX() : 0;
+        this.mapPositionY = attraction.getMapPositionY() != null ? attraction.getMapPositionY() : 0;
+        this.intensity = attraction.getIntensity();
+    }
+}
@@ -0,0 +1,36 @@
+package com.magicworld.tfg_angular_springboot.cluster;
+
+import com.magicworld.tfg_angular_springboot.util.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to data held in a node-local cache, written in the transaction that made it so the
+ * other nodes learn about it only once it commits. Rows are read and purged by
+ * {@link ClusterCacheSync}.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "cache_invalidation", indexes = {
+    @Index(name = "idx_cache_invalidation_created", columnList = "created_at")
+})
+public class CacheInvalidation extends BaseEntity {
+
+    @Column(name = "cache_name", nullable = false, length = 64)
+    private String cacheName;
+
+    @Column(name = "entry_key", length = 200)
+    private String entryKey;
+
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
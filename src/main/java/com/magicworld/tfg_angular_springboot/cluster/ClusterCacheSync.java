@@ -0,0 +1,149 @@
+package com.magicworld.tfg_angular_springboot.cluster;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidations of node-local caches between backend nodes. A cache publishes every
+ * change it hears about from its JPA listener; the change is recorded in {@code cache_invalidation}
+ * in the writing transaction, and every other node polls the table and hands the keys to the
+ * cache's handler, which drops or adjusts its own copy.
+ * <p>
+ * Active when several nodes can run, i.e. with the relay broker, unless
+ * {@code app.cache.sync.enabled} says otherwise. Rows are read again for {@code lookback-seconds}
+ * so a transaction that commits after a later one is not missed, and purged after
+ * {@code retention-minutes}. The first poll only marks the rows already there as seen: this node's
+ * caches and counters were loaded after those changes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClusterCacheSync {
+
+    private static final String INSERT = "INSERT INTO cache_invalidation (cache_name, entry_key, node_id, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String SELECT = "SELECT id, cache_name, entry_key, node_id, created_at FROM cache_invalidation "
+            + "WHERE created_at >= ? ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Consumer<List<String>>> handlers = new ConcurrentHashMap<>();
+    private final Map<Long, LocalDateTime> seen = new HashMap<>();
+    private boolean primed;
+
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${app.cache.sync.enabled:}")
+    private String enabledSetting;
+
+    @Value("${app.cache.sync.lookback-seconds:60}")
+    private long lookbackSeconds;
+
+    @Value("${app.cache.sync.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @PostConstruct
+    public void logMode() {
+        if (isEnabled()) {
+            log.info("Sincronización de cachés entre nodos activa (nodo {})", nodeId);
+        } else if ("relay".equalsIgnoreCase(brokerMode)) {
+            log.warn("Broker relay sin sincronización de cachés: ejecute un único nodo o active app.cache.sync.enabled");
+        }
+    }
+
+    public boolean isEnabled() {
+        if (enabledSetting == null || enabledSetting.isBlank()) {
+            return "relay".equalsIgnoreCase(brokerMode);
+        }
+        return Boolean.parseBoolean(enabledSetting.trim());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Receives the keys published by other nodes for {@code cache} since the previous poll; a
+     * {@code null} key means the whole cache.
+     */
+    public void register(String cache, Consumer<List<String>> handler) {
+        handlers.put(cache, handler);
+    }
+
+    public void publish(String cache) {
+        publish(cache, null);
+    }
+
+    public void publish(String cache, String key) {
+        if (isEnabled()) {
+            jdbcTemplate.update(INSERT, cache, key, nodeId, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Applies the invalidations other nodes recorded since the previous poll.
+     *
+     * @return number of invalidations applied
+     */
+    @Scheduled(fixedDelayString = "${app.cache.sync.poll-interval-ms:1000}")
+    public synchronized int poll() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        LocalDateTime since = LocalDateTime.now().minusSeconds(lookbackSeconds);
+        Map<String, List<String>> keysByCache = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT, rs -> {
+            long id = rs.getLong("id");
+            LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
+            if (seen.putIfAbsent(id, createdAt) == null && !nodeId.equals(rs.getString("node_id"))) {
+                keysByCache.computeIfAbsent(rs.getString("cache_name"), name -> new ArrayList<>())
+                        .add(rs.getString("entry_key"));
+            }
+        }, since);
+        seen.values().removeIf(at -> at.isBefore(since));
+        if (!primed) {
+            primed = true;
+            return 0;
+        }
+
+        int applied = 0;
+        for (Map.Entry<String, List<String>> entry : keysByCache.entrySet()) {
+            Consumer<List<String>> handler = handlers.get(entry.getKey());
+            if (handler == null) {
+                continue;
+            }
+            try {
+                handler.accept(entry.getValue());
+                applied += entry.getValue().size();
+            } catch (RuntimeException e) {
+                log.warn("Error aplicando invalidaciones de la caché {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        return applied;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.sync.purge-interval-ms:600000}")
+    public void purge() {
+        if (isEnabled()) {
+            jdbcTemplate.update("DELETE FROM cache_invalidation WHERE created_at < ?",
+                    LocalDateTime.now().minusMinutes(retentionMinutes));
+        }
+    }
+}
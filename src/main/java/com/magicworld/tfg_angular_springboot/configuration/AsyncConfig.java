@@ -1,18 +1,39 @@
 package com.magicworld.tfg_angular_springboot.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
 
+/**
+ * Executors for {@code @Async} and {@code @Scheduled} methods. With
+ * {@code spring.threads.virtual.enabled=true} (which also moves Tomcat request handling to
+ * virtual threads) async tasks get a virtual thread each and scheduled tasks run on virtual
+ * threads, so blocking calls to MySQL, Stripe, SendGrid/SMTP or Gemini no longer hold platform
+ * threads. Otherwise the bounded platform pools are used.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.scheduling.pool-size:4}")
+    private int schedulingPoolSize;
+
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Async-Executor-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(20);
@@ -21,5 +42,20 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
 
+    /**
+     * Named {@code taskScheduler} so {@code @Scheduled} methods use it rather than the STOMP
+     * broker's scheduler. A pooled scheduler is kept in virtual mode too, only with a virtual
+     * thread factory, so fixed-rate tasks still never overlap themselves.
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(schedulingPoolSize);
+        scheduler.setThreadNamePrefix("Scheduled-");
+        if (virtualThreads) {
+            scheduler.setThreadFactory(Thread.ofVirtual().name("Scheduled-", 0).factory());
+        }
+        return scheduler;
+    }
+}
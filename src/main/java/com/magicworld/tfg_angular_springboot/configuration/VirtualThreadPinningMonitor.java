@@ -0,0 +1,136 @@
+package com.magicworld.tfg_angular_springboot.configuration;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listens for {@code jdk.VirtualThreadPinned} JFR events while virtual threads are enabled. A
+ * virtual thread that blocks inside a {@code synchronized} block or a native frame keeps its
+ * carrier thread busy, which silently caps concurrency at the carrier pool size. Pinning sites
+ * are grouped by the first application frame and logged once the application is ready, again
+ * after the warm-up window and on shutdown.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.magicworld.";
+    private static final int REPORT_SITES = 10;
+
+    @Value("${app.virtual-threads.pinning.threshold-ms:20}")
+    private long thresholdMs;
+
+    @Value("${app.virtual-threads.pinning.warm-up-seconds:120}")
+    private long warmUpSeconds;
+
+    private final Map<String, PinningSite> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportAfterStartup() {
+        log.info("Hilos virtuales activos: peticiones Tomcat, @Async y @Scheduled (umbral de pinning {} ms)",
+                thresholdMs);
+        logReport("arranque");
+        Thread.ofVirtual().name("pinning-report").start(() -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(warmUpSeconds));
+                logReport("calentamiento");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        logReport("parada");
+        stream.close();
+    }
+
+    public List<Map<String, Object>> getReport() {
+        return sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, PinningSite> e) -> e.getValue().count.sum())
+                        .reversed())
+                .map(e -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("site", e.getKey());
+                    row.put("count", e.getValue().count.sum());
+                    row.put("totalMs", e.getValue().totalNanos.sum() / 1_000_000);
+                    row.put("maxMs", e.getValue().maxNanos.get() / 1_000_000);
+                    return row;
+                })
+                .toList();
+    }
+
+    private void record(RecordedEvent event) {
+        PinningSite site = sites.computeIfAbsent(siteOf(event), key -> new PinningSite());
+        long nanos = event.getDuration().toNanos();
+        site.count.increment();
+        site.totalNanos.add(nanos);
+        site.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void logReport(String phase) {
+        List<Map<String, Object>> report = getReport();
+        if (report.isEmpty()) {
+            log.info("Informe de pinning ({}): ningún hilo virtual bloqueado más de {} ms", phase, thresholdMs);
+            return;
+        }
+        log.warn("Informe de pinning ({}): {} puntos bloquean su hilo portador más de {} ms",
+                phase, report.size(), thresholdMs);
+        report.stream().limit(REPORT_SITES).forEach(row -> log.warn("  {} x{} total={} ms max={} ms",
+                row.get("site"), row.get("count"), row.get("totalMs"), row.get("maxMs")));
+    }
+
+    private static String siteOf(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "<sin traza>";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        RecordedFrame top = frames.get(0);
+        RecordedFrame app = frames.stream()
+                .filter(f -> f.getMethod().getType().getName().startsWith(APP_PACKAGE))
+                .findFirst()
+                .orElse(top);
+        return app == top ? describe(top) : describe(app) + " -> " + describe(top);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static final class PinningSite {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+    }
+}
@@ -3,6 +3,7 @@ package com.magicworld.tfg_angular_springboot.discount;
 import com.magicworld.tfg_angular_springboot.util.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -15,6 +16,7 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(DiscountRuleListener.class)
 @Table(name = "discount")
 public class Discount extends BaseEntity {
 
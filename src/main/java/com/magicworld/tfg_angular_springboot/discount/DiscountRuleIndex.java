@@ -0,0 +1,94 @@
+package com.magicworld.tfg_angular_springboot.discount;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.discount_ticket_type.DiscountTicketTypeRepository;
+import com.magicworld.tfg_angular_springboot.util.InvalidatingSnapshot;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of every discount rule: code, percentage, expiry and the ids of the ticket
+ * types it applies to as a bitset, so pricing a cart runs no queries. It is loaded with two
+ * queries and dropped by {@link DiscountRuleListener} and {@link DiscountService} whenever
+ * discounts or their ticket types change, here and, through {@link ClusterCacheSync}, on the
+ * other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class DiscountRuleIndex {
+
+    static final String CACHE_NAME = "discount-rules";
+
+    private final DiscountRepository discountRepository;
+    private final DiscountTicketTypeRepository discountTicketTypeRepository;
+    private final ClusterCacheSync clusterCacheSync;
+
+    private final InvalidatingSnapshot<Map<String, DiscountRule>> rules = new InvalidatingSnapshot<>(() -> load());
+
+    @PostConstruct
+    public void registerSync() {
+        clusterCacheSync.register(CACHE_NAME, keys -> rules.invalidate());
+    }
+
+    public DiscountRule find(String code) {
+        return snapshot().get(code);
+    }
+
+    public Map<String, DiscountRule> snapshot() {
+        return rules.get();
+    }
+
+    public void invalidate() {
+        rules.invalidate();
+        clusterCacheSync.publish(CACHE_NAME);
+    }
+
+    private Map<String, DiscountRule> load() {
+        Map<Long, BitSet> ticketTypesByDiscount = new HashMap<>();
+        for (Object[] pair : discountTicketTypeRepository.findAllDiscountAndTicketTypeIds()) {
+            ticketTypesByDiscount.computeIfAbsent((Long) pair[0], id -> new BitSet())
+                    .set(Math.toIntExact((Long) pair[1]));
+        }
+        Map<String, DiscountRule> loaded = new HashMap<>();
+        for (Discount discount : discountRepository.findAll()) {
+            loaded.putIfAbsent(discount.getDiscountCode(), new DiscountRule(discount,
+                    ticketTypesByDiscount.getOrDefault(discount.getId(), new BitSet())));
+        }
+        return Map.copyOf(loaded);
+    }
+
+    @Getter
+    public static final class DiscountRule {
+
+        private final Long id;
+        private final String code;
+        private final int percentage;
+        private final LocalDate expiryDate;
+        @Getter(lombok.AccessLevel.NONE)
+        private final BitSet ticketTypeIds;
+
+        DiscountRule(Discount discount, BitSet ticketTypeIds) {
+            this.id = discount.getId();
+            this.code = discount.getDiscountCode();
+            this.percentage = discount.getDiscountPercentage();
+            this.expiryDate = discount.getExpiryDate();
+            this.ticketTypeIds = (BitSet) ticketTypeIds.clone();
+        }
+
+        public boolean isValidOn(LocalDate date) {
+            return !expiryDate.isBefore(date);
+        }
+
+        public boolean appliesTo(Long ticketTypeId) {
+            return ticketTypeId != null && ticketTypeId <= Integer.MAX_VALUE
+                    && ticketTypeIds.get(ticketTypeId.intValue());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.magicworld.tfg_angular_springboot.discount;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on discounts and their ticket type links; any change drops the
+ * {@link DiscountRuleIndex}.
+ */
+public class DiscountRuleListener {
+
+    private final ObjectProvider<DiscountRuleIndex> index;
+
+    public DiscountRuleListener(ObjectProvider<DiscountRuleIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        index.ifAvailable(DiscountRuleIndex::invalidate);
+    }
+}
@@ -18,6 +18,7 @@ public class DiscountService {
     private final DiscountRepository discountRepository;
     private final TicketTypeService ticketTypeService;
     private final DiscountTicketTypeService discountTicketTypeService;
+    private final DiscountRuleIndex discountRuleIndex;
 
     @Transactional(readOnly = true)
     public List<Discount> findAll() {
@@ -44,6 +45,7 @@ public class DiscountService {
         }
         Discount savedDiscount = discountRepository.save(discount);
         discountTicketTypeService.replaceAssociations(savedDiscount, applicableTicketTypes);
+        discountRuleIndex.invalidate();
         return savedDiscount;
     }
 
@@ -61,6 +63,7 @@ public class DiscountService {
         }
         discountTicketTypeService.replaceAssociations(existingDiscount, applicableTicketTypes);
         discountRepository.save(existingDiscount);
+        discountRuleIndex.invalidate();
         return existingDiscount;
     }
 
@@ -69,5 +72,6 @@ public class DiscountService {
         Discount discount = findById(id);
         discountTicketTypeService.deleteByDiscountId(discount.getId());
         discountRepository.delete(discount);
+        discountRuleIndex.invalidate();
     }
 }
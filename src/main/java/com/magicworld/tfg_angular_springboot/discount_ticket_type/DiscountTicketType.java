@@ -1,9 +1,11 @@
 package com.magicworld.tfg_angular_springboot.discount_ticket_type;
 
 import com.magicworld.tfg_angular_springboot.discount.Discount;
+import com.magicworld.tfg_angular_springboot.discount.DiscountRuleListener;
 import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
 import com.magicworld.tfg_angular_springboot.util.BaseEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -18,6 +20,7 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(DiscountRuleListener.class)
 @Table(name = "discount_ticket_type", uniqueConstraints = @UniqueConstraint(columnNames = {"discount_id","ticket_type_id"}))
 public class DiscountTicketType extends BaseEntity {
 
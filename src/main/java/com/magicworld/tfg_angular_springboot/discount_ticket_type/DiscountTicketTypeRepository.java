@@ -18,6 +18,9 @@ public interface DiscountTicketTypeRepository extends JpaRepository<DiscountTick
     @Query("delete from DiscountTicketType d where d.discount.id = :discountId")
     void deleteByDiscountId(Long discountId);
 
+    @Query("SELECT dtt.discount.id, dtt.ticketType.id FROM DiscountTicketType dtt")
+    List<Object[]> findAllDiscountAndTicketTypeIds();
+
     Boolean existsByTicketTypeId(Long ticketTypeId);
 
     @Query("SELECT CASE WHEN COUNT(dtt) > 0 THEN true ELSE false END FROM DiscountTicketType dtt " +
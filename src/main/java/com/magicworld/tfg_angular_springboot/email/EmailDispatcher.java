@@ -0,0 +1,217 @@
+package com.magicworld.tfg_angular_springboot.email;
+
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends the email outbox. Each poll claims due messages in batches of up to {@code batch-size}
+ * with one conditional update, hands the batch to the {@link EmailTransport} and records the
+ * outcome per message. A token bucket caps messages per second across batches; a failed message
+ * is retried with exponential backoff up to {@code max-attempts}.
+ * <p>
+ * A claim is a lease: if the process stops mid-batch the messages fall due again once it lapses,
+ * so delivery is at least once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailDispatcher {
+
+    private static final long THROUGHPUT_WINDOW_MS = 60_000;
+
+    private final EmailMessageRepository messageRepository;
+    private final EmailTransport transport;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${app.mail.outbox.max-per-second:10}")
+    private long maxPerSecond = 10;
+
+    @Value("${app.mail.outbox.claim-seconds:300}")
+    private long claimSeconds = 300;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${app.mail.outbox.retry-base-ms:5000}")
+    private long retryBaseMs = 5000;
+
+    @Value("${app.mail.outbox.retry-max-ms:3600000}")
+    private long retryMaxMs = 3600000;
+
+    @Value("${app.mail.outbox.retention-hours:168}")
+    private long retentionHours = 168;
+
+    private final LongAdder sentViaSendGrid = new LongAdder();
+    private final LongAdder sentViaSmtp = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final ReentrantLock statsLock = new ReentrantLock();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private final ArrayDeque<long[]> recentSends = new ArrayDeque<>();
+
+    private Bucket rateLimiter;
+
+    @PostConstruct
+    public void start() {
+        rateLimiter = Bucket.builder()
+                .addLimit(Bandwidth.classic(maxPerSecond, Refill.greedy(maxPerSecond, Duration.ofSeconds(1))))
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        while (true) {
+            long granted = rateLimiter.tryConsumeAsMuchAsPossible(batchSize);
+            if (granted == 0) {
+                return;
+            }
+            int claimed = dispatchBatch((int) granted);
+            if (claimed < granted) {
+                rateLimiter.addTokens(granted - claimed);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeSent() {
+        int purged = messageRepository.deleteSentBefore(EmailStatus.SENT,
+                LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Purged {} sent emails from the outbox", purged);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        LocalDateTime oldestPending = messageRepository.findOldestCreatedAt(EmailStatus.PENDING);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", messageRepository.countByStatus(EmailStatus.PENDING));
+        stats.put("failed", messageRepository.countByStatus(EmailStatus.FAILED));
+        stats.put("oldestPendingSeconds", oldestPending == null ? 0
+                : Duration.between(oldestPending, LocalDateTime.now()).toSeconds());
+        stats.put("sentViaSendGrid", sentViaSendGrid.sum());
+        stats.put("sentViaSmtp", sentViaSmtp.sum());
+        stats.put("retried", retried.sum());
+        stats.put("abandoned", abandoned.sum());
+        stats.put("availableTokens", rateLimiter.getAvailableTokens());
+        statsLock.lock();
+        try {
+            long sentLastMinute = pruneRecentSends(System.currentTimeMillis());
+            stats.put("sentLastMinute", sentLastMinute);
+            stats.put("sentPerSecond", sentLastMinute * 1000.0 / THROUGHPUT_WINDOW_MS);
+            stats.put("batches", batchLatency.toSummary());
+        } finally {
+            statsLock.unlock();
+        }
+        return stats;
+    }
+
+    private int dispatchBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = messageRepository.findDueIds(EmailStatus.PENDING, now, PageRequest.of(0, limit));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        String token = UUID.randomUUID().toString();
+        List<EmailMessage> batch = transactionTemplate.execute(status -> {
+            messageRepository.claim(due, token, EmailStatus.PENDING, now, now.plusSeconds(claimSeconds));
+            return messageRepository.findByClaimToken(token);
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        EmailTransport.BatchResult result = transport.deliver(batch);
+        long elapsed = System.nanoTime() - start;
+
+        LocalDateTime sentAt = LocalDateTime.now();
+        List<Long> ids = batch.stream().map(EmailMessage::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> messageRepository.findAllById(ids).forEach(message -> {
+            Exception failure = result.failures().get(message.getId());
+            if (failure == null) {
+                message.setStatus(EmailStatus.SENT);
+                message.setSentAt(sentAt);
+                message.setLastError(null);
+            } else {
+                retryOrFail(message, failure);
+            }
+        }));
+
+        sentViaSendGrid.add(result.viaSendGrid());
+        sentViaSmtp.add(result.viaSmtp());
+        record(elapsed, result.viaSendGrid() + result.viaSmtp());
+        return batch.size();
+    }
+
+    private void retryOrFail(EmailMessage message, Exception failure) {
+        String error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        boolean abandon = message.getAttempts() >= maxAttempts;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusNanos(backoffMs(message.getAttempts()) * 1_000_000);
+        message.setStatus(abandon ? EmailStatus.FAILED : EmailStatus.PENDING);
+        message.setNextAttemptAt(nextAttemptAt);
+        message.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+        if (abandon) {
+            abandoned.increment();
+            log.error("Email {} to {} abandoned after {} attempts: {}", message.getId(),
+                    EmailTransport.maskEmail(message.getRecipient()), message.getAttempts(), error);
+        } else {
+            retried.increment();
+            log.warn("Email {} to {} failed (attempt {}), retrying at {}: {}", message.getId(),
+                    EmailTransport.maskEmail(message.getRecipient()), message.getAttempts(), nextAttemptAt, error);
+        }
+    }
+
+    private long backoffMs(int attempts) {
+        int exponent = Math.max(0, Math.min(attempts - 1, 30));
+        return Math.min(retryBaseMs << exponent, retryMaxMs);
+    }
+
+    private void record(long batchNanos, int sent) {
+        long now = System.currentTimeMillis();
+        statsLock.lock();
+        try {
+            batchLatency.record(batchNanos);
+            recentSends.addLast(new long[]{now, sent});
+            pruneRecentSends(now);
+        } finally {
+            statsLock.unlock();
+        }
+    }
+
+    private long pruneRecentSends(long now) {
+        while (!recentSends.isEmpty() && recentSends.peekFirst()[0] < now - THROUGHPUT_WINDOW_MS) {
+            recentSends.pollFirst();
+        }
+        long sent = 0;
+        for (long[] entry : recentSends) {
+            sent += entry[1];
+        }
+        return sent;
+    }
+}
@@ -0,0 +1,80 @@
+package com.magicworld.tfg_angular_springboot.email;
+
+import com.magicworld.tfg_angular_springboot.util.BaseEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for an outgoing email, written in the transaction of the change that triggers it and
+ * delivered by the {@link EmailDispatcher}. The body is stored already rendered.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_email_outbox_claim", columnList = "claim_token")
+})
+public class EmailMessage extends BaseEntity {
+
+    @NotNull
+    @Size(max = 320)
+    @Column(name = "recipient", nullable = false, length = 320)
+    private String recipient;
+
+    @NotNull
+    @Size(max = 255)
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @NotNull
+    @Lob
+    @Column(name = "body", nullable = false)
+    private String body;
+
+    @NotNull
+    @Column(name = "html", nullable = false)
+    private Boolean html;
+
+    /** PNG shown inline as {@code cid:qrCode}, if any. */
+    @Lob
+    @Column(name = "inline_image")
+    private byte[] inlineImage;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private EmailStatus status;
+
+    @NotNull
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    /** When the message is next due; while a dispatcher holds it, when its claim lapses. */
+    @NotNull
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /** Identifies the batch that last claimed the message. */
+    @Size(max = 36)
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Size(max = 500)
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
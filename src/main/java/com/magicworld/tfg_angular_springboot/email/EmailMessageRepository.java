@@ -0,0 +1,43 @@
+package com.magicworld.tfg_angular_springboot.email;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailMessageRepository extends JpaRepository<EmailMessage, Long> {
+
+    long countByStatus(EmailStatus status);
+
+    List<EmailMessage> findByClaimToken(String claimToken);
+
+    @Query("SELECT MIN(m.createdAt) FROM EmailMessage m WHERE m.status = :status")
+    LocalDateTime findOldestCreatedAt(@Param("status") EmailStatus status);
+
+    @Query("SELECT m.id FROM EmailMessage m WHERE m.status = :status AND m.nextAttemptAt <= :now "
+            + "ORDER BY m.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") EmailStatus status, @Param("now") LocalDateTime now, Pageable page);
+
+    /**
+     * Takes the still-due messages among {@code ids} for one attempt, tagging them with
+     * {@code token} and pushing their due time to {@code claimedUntil}. Messages claimed elsewhere
+     * in the meantime are skipped.
+     */
+    @Modifying
+    @Query("UPDATE EmailMessage m SET m.claimToken = :token, m.nextAttemptAt = :claimedUntil, "
+            + "m.attempts = m.attempts + 1 "
+            + "WHERE m.id IN :ids AND m.status = :status AND m.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("status") EmailStatus status,
+            @Param("now") LocalDateTime now, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("DELETE FROM EmailMessage m WHERE m.status = :status AND m.sentAt < :before")
+    int deleteSentBefore(@Param("status") EmailStatus status, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,7 @@
+package com.magicworld.tfg_angular_springboot.email;
+
+public enum EmailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
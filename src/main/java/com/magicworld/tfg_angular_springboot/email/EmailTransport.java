@@ -0,0 +1,203 @@
+package com.magicworld.tfg_angular_springboot.email;
+
+import com.sendgrid.Method;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import com.sendgrid.helpers.mail.Mail;
+import com.sendgrid.helpers.mail.objects.Attachments;
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivers outbox messages through SendGrid when an API key is configured and SMTP otherwise or
+ * as fallback. One SendGrid client, and with it its HTTP connection pool, serves every message;
+ * the SMTP share of a batch goes out in a single {@link JavaMailSender#send(MimeMessage...)} call,
+ * which reuses one connection to the server for the whole batch.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailTransport {
+
+    static final String INLINE_QR_CONTENT_ID = "qrCode";
+    private static final String DEFAULT_FROM_ADDRESS = "noreply.magicworld@gmail.com";
+
+    private final JavaMailSender mailSender;
+
+    @Value("${sendgrid.api-key:${SENDGRID_API_KEY:}}")
+    private String sendGridApiKey;
+
+    @Value("${app.mail.from:${SPRING_MAIL_USERNAME:noreply.magicworld@gmail.com}}")
+    private String mailFrom;
+
+    private SendGrid sendGrid;
+
+    /**
+     * Outcome of one batch: how many messages each channel accepted and, by message id, why the
+     * others were not sent.
+     */
+    public record BatchResult(int viaSendGrid, int viaSmtp, Map<Long, Exception> failures) {
+    }
+
+    public BatchResult deliver(List<EmailMessage> batch) {
+        Map<Long, Exception> failures = new LinkedHashMap<>();
+        List<EmailMessage> smtpBatch = new ArrayList<>();
+        int viaSendGrid = 0;
+
+        if (isSendGridEnabled()) {
+            for (EmailMessage message : batch) {
+                try {
+                    invokeSendGridApi(toSendGridMail(message));
+                    viaSendGrid++;
+                } catch (Exception ex) {
+                    log.warn("SendGrid failed for email to {}. Falling back to SMTP.",
+                            maskEmail(message.getRecipient()), ex);
+                    smtpBatch.add(message);
+                }
+            }
+        } else {
+            smtpBatch.addAll(batch);
+        }
+
+        int viaSmtp = sendWithSmtp(smtpBatch, failures);
+        return new BatchResult(viaSendGrid, viaSmtp, failures);
+    }
+
+    Response invokeSendGridApi(Mail mail) throws IOException {
+        Request request = new Request();
+        request.setMethod(Method.POST);
+        request.setEndpoint("mail/send");
+        request.setBody(mail.build());
+
+        Response response = sendGridClient().api(request);
+        int statusCode = response.getStatusCode();
+        if (statusCode < 200 || statusCode >= 300) {
+            throw new IllegalStateException("SendGrid request failed with status " + statusCode);
+        }
+
+        return response;
+    }
+
+    private synchronized SendGrid sendGridClient() {
+        if (sendGrid == null) {
+            sendGrid = new SendGrid(sendGridApiKey);
+        }
+        return sendGrid;
+    }
+
+    private int sendWithSmtp(List<EmailMessage> messages, Map<Long, Exception> failures) {
+        Map<MimeMessage, EmailMessage> mimeMessages = new LinkedHashMap<>();
+        for (EmailMessage message : messages) {
+            try {
+                mimeMessages.put(toMimeMessage(message), message);
+            } catch (MessagingException ex) {
+                failures.put(message.getId(), ex);
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            mailSender.send(mimeMessages.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException ex) {
+            Map<Object, Exception> failed = ex.getFailedMessages();
+            mimeMessages.forEach((mimeMessage, message) -> {
+                Exception cause = failed.isEmpty() ? ex : failed.get(mimeMessage);
+                if (cause != null) {
+                    failures.put(message.getId(), cause);
+                }
+            });
+        } catch (MailException ex) {
+            mimeMessages.values().forEach(message -> failures.put(message.getId(), ex));
+        }
+
+        return (int) mimeMessages.values().stream()
+                .filter(message -> !failures.containsKey(message.getId()))
+                .count();
+    }
+
+    private MimeMessage toMimeMessage(EmailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        boolean hasImage = hasInlineImage(message);
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, hasImage, "UTF-8");
+        helper.setFrom(resolveFromAddress());
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody(), message.getHtml());
+
+        if (hasImage) {
+            helper.addInline(INLINE_QR_CONTENT_ID, new ByteArrayResource(message.getInlineImage()), "image/png");
+        }
+
+        return mimeMessage;
+    }
+
+    private Mail toSendGridMail(EmailMessage message) {
+        Mail mail = new Mail(
+                new Email(resolveFromAddress()),
+                message.getSubject(),
+                new Email(message.getRecipient()),
+                new Content(message.getHtml() ? "text/html" : "text/plain", message.getBody())
+        );
+
+        if (hasInlineImage(message)) {
+            Attachments attachment = new Attachments();
+            attachment.setType("image/png");
+            attachment.setFilename("qrcode.png");
+            attachment.setDisposition("inline");
+            attachment.setContentId(INLINE_QR_CONTENT_ID);
+            attachment.setContent(Base64.getEncoder().encodeToString(message.getInlineImage()));
+            mail.addAttachments(attachment);
+        }
+
+        return mail;
+    }
+
+    private boolean hasInlineImage(EmailMessage message) {
+        return message.getInlineImage() != null && message.getInlineImage().length > 0;
+    }
+
+    private boolean isSendGridEnabled() {
+        return sendGridApiKey != null && !sendGridApiKey.isBlank();
+    }
+
+    private String resolveFromAddress() {
+        if (mailFrom == null || mailFrom.isBlank()) {
+            return DEFAULT_FROM_ADDRESS;
+        }
+        return mailFrom;
+    }
+
+    static String maskEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return "unknown";
+        }
+
+        int atIndex = email.indexOf('@');
+        if (atIndex <= 1) {
+            return "***";
+        }
+
+        return email.charAt(0) + "***" + email.substring(atIndex);
+    }
+}
@@ -17,6 +17,7 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(StaffAvailabilityListener.class)
 @Table(name = "daily_assignment", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "employee_id", "assignment_date" })
 })
@@ -28,6 +28,10 @@ public interface DailyAssignmentRepository extends JpaRepository<DailyAssignment
             @Param("status") DailyStatus status,
             @Param("role") EmployeeRole role);
 
+    @Query("SELECT e.role, COUNT(da) FROM DailyAssignment da JOIN da.employee e " +
+            "WHERE da.assignmentDate = :date AND da.currentStatus = :status GROUP BY e.role")
+    List<Object[]> countByRoleAndDate(@Param("date") LocalDate date, @Param("status") DailyStatus status);
+
     @Query("SELECT da FROM DailyAssignment da WHERE da.assignmentDate = :date AND da.assignedAlert.id = :alertId")
     List<DailyAssignment> findByDateAndAlert(@Param("date") LocalDate date, @Param("alertId") Long alertId);
 
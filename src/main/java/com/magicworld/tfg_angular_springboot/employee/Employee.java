@@ -15,6 +15,7 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(StaffAvailabilityListener.class)
 @Table(name = "employee")
 public class Employee extends BaseEntity {
 
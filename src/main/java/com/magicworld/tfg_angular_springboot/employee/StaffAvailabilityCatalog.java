@@ -0,0 +1,89 @@
+package com.magicworld.tfg_angular_springboot.employee;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cached count of today's WORKING employees per role, loaded with a single GROUP BY query.
+ * Invalidated by {@link StaffAvailabilityListener} whenever a daily assignment or employee
+ * changes, again when the writing transaction completes, and on day rollover.
+ */
+@Component
+@RequiredArgsConstructor
+public class StaffAvailabilityCatalog {
+
+    private final DailyAssignmentRepository dailyAssignmentRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    public Snapshot current() {
+        Snapshot loaded = snapshot.get();
+        if (stale.getAndSet(false) || loaded == null || !loaded.getDate().equals(LocalDate.now())) {
+            try {
+                loaded = reload();
+            } catch (RuntimeException e) {
+                stale.set(true);
+                throw e;
+            }
+        }
+        return loaded;
+    }
+
+    public boolean isAvailable(EmployeeRole role) {
+        return current().isAvailable(role);
+    }
+
+    public void markChanged() {
+        stale.set(true);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    stale.set(true);
+                }
+            });
+        }
+    }
+
+    private Snapshot reload() {
+        LocalDate today = LocalDate.now();
+        Map<EmployeeRole, Long> counts = new EnumMap<>(EmployeeRole.class);
+        for (Object[] row : dailyAssignmentRepository.countByRoleAndDate(today, DailyStatus.WORKING)) {
+            counts.put((EmployeeRole) row[0], ((Number) row[1]).longValue());
+        }
+        Snapshot loaded = new Snapshot(today, counts);
+        snapshot.set(loaded);
+        return loaded;
+    }
+
+    @Getter
+    public static final class Snapshot {
+
+        private final LocalDate date;
+        private final Map<EmployeeRole, Long> availableByRole;
+
+        Snapshot(LocalDate date, Map<EmployeeRole, Long> availableByRole) {
+            this.date = date;
+            this.availableByRole = Collections.unmodifiableMap(availableByRole);
+        }
+
+        public long getAvailable(EmployeeRole role) {
+            return availableByRole.getOrDefault(role, 0L);
+        }
+
+        public boolean isAvailable(EmployeeRole role) {
+            return getAvailable(role) > 0;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.magicworld.tfg_angular_springboot.employee;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on {@link DailyAssignment} and {@link Employee} that invalidates the
+ * {@link StaffAvailabilityCatalog} when a status, role or assignment changes.
+ */
+public class StaffAvailabilityListener {
+
+    private final ObjectProvider<StaffAvailabilityCatalog> catalog;
+
+    public StaffAvailabilityListener(ObjectProvider<StaffAvailabilityCatalog> catalog) {
+        this.catalog = catalog;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PreRemove
+    @PostRemove
+    public void onChange(Object entity) {
+        catalog.ifAvailable(StaffAvailabilityCatalog::markChanged);
+    }
+}
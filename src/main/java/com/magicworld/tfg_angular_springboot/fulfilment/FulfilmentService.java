@@ -0,0 +1,313 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+import com.magicworld.tfg_angular_springboot.email.EmailService;
+import com.magicworld.tfg_angular_springboot.payment.AvailabilityBroadcaster;
+import com.magicworld.tfg_angular_springboot.payment.PaymentCheckout;
+import com.magicworld.tfg_angular_springboot.payment.PaymentCheckoutService;
+import com.magicworld.tfg_angular_springboot.payment.PaymentRequest;
+import com.magicworld.tfg_angular_springboot.qr.QrCodeService;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeService;
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Post-purchase fulfilment, run off the checkout path. {@link #enqueue} writes an outbox row in
+ * the purchase transaction and hands it to the worker pool once that commits; a poller picks up
+ * rows whose hand-off was lost (restart, full pool) and rows due for a retry.
+ * <p>
+ * A worker claims a row with a conditional update, so a row is worked by one worker at a time,
+ * then generates the QR code, renders the confirmation email into the email outbox and broadcasts
+ * the date's availability. A failed attempt is retried with exponential backoff up to
+ * {@code max-attempts}; the email is queued in the same transaction that marks it sent, so once it
+ * is queued a retry only repeats the broadcast.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FulfilmentService {
+
+    private final FulfilmentTaskRepository taskRepository;
+    private final PaymentCheckoutService checkoutService;
+    private final TicketTypeService ticketTypeService;
+    private final QrCodeService qrCodeService;
+    private final EmailService emailService;
+    private final PurchaseConfirmationRenderer confirmationRenderer;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${park.fulfilment.workers:4}")
+    private int workers = 4;
+
+    @Value("${park.fulfilment.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${park.fulfilment.claim-seconds:300}")
+    private long claimSeconds = 300;
+
+    @Value("${park.fulfilment.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${park.fulfilment.retry-base-ms:2000}")
+    private long retryBaseMs = 2000;
+
+    @Value("${park.fulfilment.retry-max-ms:600000}")
+    private long retryMaxMs = 600000;
+
+    @Value("${park.fulfilment.retention-hours:72}")
+    private long retentionHours = 72;
+
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final LongAdder fulfilled = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final ReentrantLock statsLock = new ReentrantLock();
+    private final Map<Step, LatencyHistogram> stepLatency = new EnumMap<>(Step.class);
+
+    private ExecutorService pool;
+
+    enum Step {
+        QR_CODE, EMAIL, BROADCAST
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Step step : Step.values()) {
+            stepLatency.put(step, new LatencyHistogram());
+        }
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("fulfilment-", 0).factory()
+                : Thread.ofPlatform().name("fulfilment-", 0).daemon().factory();
+        pool = Executors.newFixedThreadPool(workers, threads);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Records the fulfilment of a purchase. Must run inside the transaction that records the
+     * purchase; the row reaches a worker only once that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long purchaseId, Long checkoutId) {
+        LocalDateTime now = LocalDateTime.now();
+        FulfilmentTask task = taskRepository.save(FulfilmentTask.builder()
+                .purchaseId(purchaseId)
+                .checkoutId(checkoutId)
+                .status(FulfilmentStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(task.getId());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${park.fulfilment.poll-interval-ms:5000}")
+    public void dispatchDue() {
+        List<Long> due = taskRepository.findDueIds(FulfilmentStatus.PENDING, LocalDateTime.now(),
+                PageRequest.of(0, batchSize));
+        due.forEach(this::submit);
+    }
+
+    @Scheduled(fixedDelayString = "${park.fulfilment.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeCompleted() {
+        int purged = taskRepository.deleteCompletedBefore(FulfilmentStatus.DONE,
+                LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Eliminadas {} tareas de entrega completadas", purged);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", taskRepository.countByStatus(FulfilmentStatus.PENDING));
+        stats.put("failed", taskRepository.countByStatus(FulfilmentStatus.FAILED));
+        stats.put("queued", queued.size());
+        stats.put("fulfilled", fulfilled.sum());
+        stats.put("retried", retried.sum());
+        stats.put("abandoned", failed.sum());
+        Map<String, Object> steps = new LinkedHashMap<>();
+        statsLock.lock();
+        try {
+            stepLatency.forEach((step, histogram) -> steps.put(step.name().toLowerCase(), histogram.toSummary()));
+        } finally {
+            statsLock.unlock();
+        }
+        stats.put("steps", steps);
+        return stats;
+    }
+
+    private void submit(Long taskId) {
+        if (!queued.add(taskId)) {
+            return;
+        }
+        try {
+            pool.execute(() -> {
+                try {
+                    process(taskId);
+                } finally {
+                    queued.remove(taskId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(taskId);
+        }
+    }
+
+    void process(Long taskId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> taskRepository.claim(taskId,
+                FulfilmentStatus.PENDING, now, now.plusSeconds(claimSeconds)));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        FulfilmentTask task = taskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return;
+        }
+        try {
+            fulfil(task);
+            transactionTemplate.executeWithoutResult(status -> taskRepository.findById(taskId).ifPresent(t -> {
+                t.setStatus(FulfilmentStatus.DONE);
+                t.setCompletedAt(LocalDateTime.now());
+                t.setLastError(null);
+            }));
+            fulfilled.increment();
+        } catch (RuntimeException e) {
+            retryOrFail(task, e);
+        }
+    }
+
+    private void fulfil(FulfilmentTask task) {
+        PaymentCheckout checkout = checkoutService.findById(task.getCheckoutId());
+        PaymentRequest request = checkoutService.readRequest(checkout);
+        if (task.getEmailSentAt() == null) {
+            String qrContent = "MAGICWORLD-TICKET-" + task.getPurchaseId() + "-" + request.getVisitDate();
+            byte[] qrCode = timed(Step.QR_CODE, () -> qrCodeService.generateQrCodeBytes(qrContent));
+            transactionTemplate.executeWithoutResult(status -> {
+                run(Step.EMAIL, () -> sendConfirmationEmail(task.getPurchaseId(), checkout, request, qrCode));
+                taskRepository.findById(task.getId()).ifPresent(t -> t.setEmailSentAt(LocalDateTime.now()));
+            });
+        }
+        run(Step.BROADCAST, () -> availabilityBroadcaster.broadcast(request.getVisitDate()));
+    }
+
+    private void retryOrFail(FulfilmentTask task, RuntimeException e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        String lastError = error.length() > 500 ? error.substring(0, 500) : error;
+        boolean abandon = task.getAttempts() >= maxAttempts;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusNanos(backoffMs(task.getAttempts()) * 1_000_000);
+        transactionTemplate.executeWithoutResult(status -> taskRepository.findById(task.getId()).ifPresent(t -> {
+            t.setStatus(abandon ? FulfilmentStatus.FAILED : FulfilmentStatus.PENDING);
+            t.setNextAttemptAt(nextAttemptAt);
+            t.setLastError(lastError);
+        }));
+        if (abandon) {
+            failed.increment();
+            log.error("Entrega de la compra {} abandonada tras {} intentos", task.getPurchaseId(),
+                    task.getAttempts(), e);
+        } else {
+            retried.increment();
+            log.warn("Entrega de la compra {} fallida (intento {}), reintento a las {}: {}",
+                    task.getPurchaseId(), task.getAttempts(), nextAttemptAt, error);
+        }
+    }
+
+    private long backoffMs(int attempts) {
+        int exponent = Math.max(0, Math.min(attempts - 1, 30));
+        return Math.min(retryBaseMs << exponent, retryMaxMs);
+    }
+
+    private <T> T timed(Step step, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(step, System.nanoTime() - start);
+        }
+    }
+
+    private void run(Step step, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(step, System.nanoTime() - start);
+        }
+    }
+
+    private void record(Step step, long nanos) {
+        statsLock.lock();
+        try {
+            stepLatency.get(step).record(nanos);
+        } finally {
+            statsLock.unlock();
+        }
+    }
+
+    private void sendConfirmationEmail(Long purchaseId, PaymentCheckout checkout, PaymentRequest request,
+            byte[] qrCode) {
+        boolean isSpanish = "es".equalsIgnoreCase(checkout.getLang());
+        BigDecimal exchangeRate = isSpanish ? BigDecimal.ONE : new BigDecimal("1.08");
+
+        List<PurchaseConfirmation.Line> lines = new ArrayList<>();
+        for (PaymentRequest.PaymentLineItem item : request.getItems()) {
+            TicketType tt = ticketTypeService.findByTypeName(item.getTicketTypeName());
+            BigDecimal lineTotalEur = tt.getCost().multiply(BigDecimal.valueOf(item.getQuantity()));
+            lines.add(new PurchaseConfirmation.Line(item.getTicketTypeName(), item.getQuantity(),
+                    lineTotalEur.multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP)));
+        }
+
+        PurchaseConfirmation confirmation = new PurchaseConfirmation(checkout.getLang(), purchaseId,
+                request.getFirstName(), request.getVisitDate(), lines,
+                checkout.getDiscountAmount().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP),
+                checkout.getTotalAmount().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP));
+        emailService.sendRenderedHtmlEmailWithQr(request.getEmail(), confirmationRenderer.subject(checkout.getLang()),
+                confirmationRenderer.render(confirmation), qrCode);
+    }
+}
@@ -0,0 +1,7 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+public enum FulfilmentStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
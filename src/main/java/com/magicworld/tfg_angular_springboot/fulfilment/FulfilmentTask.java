@@ -0,0 +1,65 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+import com.magicworld.tfg_angular_springboot.util.BaseEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for the work that follows a purchase: QR code, confirmation email and availability
+ * broadcast. It is written in the transaction that records the purchase, so the work is neither
+ * lost if the process stops nor started for a purchase that rolled back.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "fulfilment_outbox", indexes = {
+        @Index(name = "idx_fulfilment_outbox_status_next", columnList = "status, next_attempt_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_fulfilment_outbox_purchase", columnNames = "purchase_id")
+})
+public class FulfilmentTask extends BaseEntity {
+
+    @NotNull
+    @Column(name = "purchase_id", nullable = false)
+    private Long purchaseId;
+
+    /** The {@link com.magicworld.tfg_angular_springboot.payment.PaymentCheckout} holding the order. */
+    @NotNull
+    @Column(name = "checkout_id", nullable = false)
+    private Long checkoutId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private FulfilmentStatus status;
+
+    @NotNull
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    /** When the task is next due; while a worker holds it, when its claim lapses. */
+    @NotNull
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "email_sent_at")
+    private LocalDateTime emailSentAt;
+
+    @Size(max = 500)
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
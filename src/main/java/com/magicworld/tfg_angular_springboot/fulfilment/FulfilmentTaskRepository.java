@@ -0,0 +1,35 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FulfilmentTaskRepository extends JpaRepository<FulfilmentTask, Long> {
+
+    long countByStatus(FulfilmentStatus status);
+
+    @Query("SELECT t.id FROM FulfilmentTask t WHERE t.status = :status AND t.nextAttemptAt <= :now "
+            + "ORDER BY t.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") FulfilmentStatus status, @Param("now") LocalDateTime now, Pageable page);
+
+    /**
+     * Takes a due task for one attempt by pushing its due time to {@code claimedUntil}. Returns 0
+     * if another worker claimed it first or it is no longer pending.
+     */
+    @Modifying
+    @Query("UPDATE FulfilmentTask t SET t.nextAttemptAt = :claimedUntil, t.attempts = t.attempts + 1 "
+            + "WHERE t.id = :id AND t.status = :status AND t.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("status") FulfilmentStatus status, @Param("now") LocalDateTime now,
+            @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("DELETE FROM FulfilmentTask t WHERE t.status = :status AND t.completedAt < :before")
+    int deleteCompletedBefore(@Param("status") FulfilmentStatus status, @Param("before") LocalDateTime before);
+}
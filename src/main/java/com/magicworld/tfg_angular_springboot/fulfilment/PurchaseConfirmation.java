@@ -0,0 +1,16 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The per-order fields of a purchase confirmation email, with amounts already converted to the
+ * currency of {@code lang}.
+ */
+public record PurchaseConfirmation(String lang, Long purchaseId, String firstName, LocalDate visitDate,
+                                   List<Line> lines, BigDecimal discountAmount, BigDecimal totalAmount) {
+
+    public record Line(String ticketTypeName, int quantity, BigDecimal totalCost) {
+    }
+}
@@ -0,0 +1,236 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the {@code purchase-confirmation} email. Its labels depend only on the language, so the
+ * template is rendered once per language with markers in the per-order fields and cut at the
+ * markers into static fragments; an email is then those fragments with the escaped order fields in
+ * between, written into a per-thread buffer. If the template no longer has the expected layout or
+ * fails to render with markers, emails are rendered through Thymeleaf instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PurchaseConfirmationRenderer {
+
+    static final String TEMPLATE = "purchase-confirmation";
+
+    private static final DateTimeFormatter VISIT_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final Pattern MARKER = Pattern.compile("@@MW:([a-zA-Z0-9.]+)@@");
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    /** Field order of the template rendered with three lines and a discount. */
+    private static final List<String> MULTI_LINE_FIELDS = List.of("firstName", "visitDate",
+            "line0.name", "line0.quantity", "line0.total", "line1.name", "line1.quantity", "line1.total",
+            "line2.name", "line2.quantity", "line2.total", "discount", "total", "purchaseId");
+
+    /** Field order of the template rendered with one line and no discount. */
+    private static final List<String> SINGLE_LINE_FIELDS = List.of("firstName", "visitDate",
+            "line0.name", "line0.quantity", "line0.total", "total", "purchaseId");
+
+    private static final Map<String, Map<String, Object>> LABELS = Map.of(
+            "es", Map.ofEntries(
+                    Map.entry("subject", "Confirmación de compra - MagicWorld"),
+                    Map.entry("headerText", "Confirmación de Compra"),
+                    Map.entry("thankYouMessage", "¡Gracias por tu compra! Aquí tienes los detalles de tu pedido."),
+                    Map.entry("visitDateLabel", "Fecha de visita"),
+                    Map.entry("orderSummaryTitle", "Resumen del Pedido"),
+                    Map.entry("currencySymbol", "€"),
+                    Map.entry("discountLabel", "Descuento"),
+                    Map.entry("totalLabel", "Total"),
+                    Map.entry("qrTitle", "Tu Código QR de Entrada"),
+                    Map.entry("qrInstructions", "Muestra este código QR en la entrada del parque"),
+                    Map.entry("footerMessage", "¡Te esperamos en MagicWorld!"),
+                    Map.entry("footerRights", "Todos los derechos reservados"),
+                    Map.entry("contactInfo", "Contáctanos en info@magicworld.com")),
+            "en", Map.ofEntries(
+                    Map.entry("subject", "Purchase Confirmation - MagicWorld"),
+                    Map.entry("headerText", "Purchase Confirmation"),
+                    Map.entry("thankYouMessage", "Thank you for your purchase! Here are your order details."),
+                    Map.entry("visitDateLabel", "Visit Date"),
+                    Map.entry("orderSummaryTitle", "Order Summary"),
+                    Map.entry("currencySymbol", "$"),
+                    Map.entry("discountLabel", "Discount"),
+                    Map.entry("totalLabel", "Total"),
+                    Map.entry("qrTitle", "Your Entry QR Code"),
+                    Map.entry("qrInstructions", "Show this QR code at the park entrance"),
+                    Map.entry("footerMessage", "We look forward to seeing you at MagicWorld!"),
+                    Map.entry("footerRights", "All rights reserved"),
+                    Map.entry("contactInfo", "Contact us at info@magicworld.com")));
+
+    private final TemplateEngine templateEngine;
+
+    private final Map<String, Optional<Layout>> layouts = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
+    public String subject(String lang) {
+        return (String) LABELS.get(language(lang)).get("subject");
+    }
+
+    public String render(PurchaseConfirmation confirmation) {
+        Layout layout = layouts.computeIfAbsent(language(confirmation.lang()), this::compile).orElse(null);
+        if (layout == null || confirmation.lines().isEmpty()) {
+            return renderWithTemplate(confirmation);
+        }
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        layout.writeTo(buffer, confirmation);
+        String html = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return html;
+    }
+
+    /** Renders the whole template through Thymeleaf, as every email was before the fragments. */
+    String renderWithTemplate(PurchaseConfirmation confirmation) {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (PurchaseConfirmation.Line line : confirmation.lines()) {
+            lines.add(line(line.ticketTypeName(), line.quantity(), line.totalCost()));
+        }
+        return process(language(confirmation.lang()), confirmation.firstName(),
+                confirmation.visitDate().format(VISIT_DATE), lines, confirmation.discountAmount().signum() > 0,
+                confirmation.discountAmount(), confirmation.totalAmount(), confirmation.purchaseId());
+    }
+
+    private Optional<Layout> compile(String language) {
+        try {
+            return compileLayout(language);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo precompilar la plantilla {} ({}); se renderizará completa en cada email",
+                    TEMPLATE, language, e);
+            return Optional.empty();
+        }
+    }
+
+    private Optional<Layout> compileLayout(String language) {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            lines.add(line(marker("line" + i + ".name"), marker("line" + i + ".quantity"),
+                    marker("line" + i + ".total")));
+        }
+        Segments multi = Segments.split(process(language, marker("firstName"), marker("visitDate"), lines,
+                true, marker("discount"), marker("total"), marker("purchaseId")));
+        Segments single = Segments.split(process(language, marker("firstName"), marker("visitDate"),
+                lines.subList(0, 1), false, marker("discount"), marker("total"), marker("purchaseId")));
+
+        List<String> m = multi.statics();
+        List<String> s = single.statics();
+        boolean matches = multi.fields().equals(MULTI_LINE_FIELDS) && single.fields().equals(SINGLE_LINE_FIELDS)
+                && m.get(5).equals(m.get(8))
+                && m.get(3).equals(m.get(6)) && m.get(3).equals(m.get(9))
+                && m.get(4).equals(m.get(7)) && m.get(4).equals(m.get(10))
+                && s.subList(0, 5).equals(m.subList(0, 5))
+                && s.get(6).equals(m.get(13)) && s.get(7).equals(m.get(14));
+        if (!matches) {
+            log.warn("La plantilla {} no tiene la estructura esperada; se renderizará completa en cada email",
+                    TEMPLATE);
+            return Optional.empty();
+        }
+        return Optional.of(new Layout(m.get(0), m.get(1), m.get(2), m.get(3), m.get(4), m.get(5), m.get(11),
+                m.get(12), s.get(5), m.get(13), m.get(14)));
+    }
+
+    private String process(String language, Object firstName, Object visitDate, List<Map<String, Object>> lines,
+            boolean discountApplied, Object discountAmount, Object totalAmount, Object purchaseId) {
+        Map<String, Object> vars = new HashMap<>(LABELS.get(language));
+        vars.put("greeting", "es".equals(language) ? "¡Hola " + firstName + "!" : "Hello " + firstName + "!");
+        vars.put("visitDate", visitDate);
+        vars.put("orderLines", lines);
+        vars.put("discountApplied", discountApplied);
+        vars.put("discountAmount", discountAmount);
+        vars.put("totalAmount", totalAmount);
+        vars.put("purchaseId", purchaseId);
+        Context context = new Context();
+        context.setVariables(vars);
+        return templateEngine.process(TEMPLATE, context);
+    }
+
+    private static Map<String, Object> line(Object ticketTypeName, Object quantity, Object totalCost) {
+        Map<String, Object> line = new HashMap<>();
+        line.put("ticketTypeName", ticketTypeName);
+        line.put("quantity", quantity);
+        line.put("totalCost", totalCost);
+        return line;
+    }
+
+    private static String marker(String field) {
+        return "@@MW:" + field + "@@";
+    }
+
+    private static String language(String lang) {
+        return "es".equalsIgnoreCase(lang) ? "es" : "en";
+    }
+
+    private record Segments(List<String> statics, List<String> fields) {
+
+        static Segments split(String html) {
+            List<String> statics = new ArrayList<>();
+            List<String> fields = new ArrayList<>();
+            Matcher matcher = MARKER.matcher(html);
+            int last = 0;
+            while (matcher.find()) {
+                statics.add(html.substring(last, matcher.start()));
+                fields.add(matcher.group(1));
+                last = matcher.end();
+            }
+            statics.add(html.substring(last));
+            return new Segments(statics, fields);
+        }
+    }
+
+    /** The static text of one language's email, named by the fields it sits between. */
+    private record Layout(String head, String nameToDate, String dateToLines, String nameToQuantity,
+                          String quantityToCost, String lineGap, String linesToDiscount, String discountToTotal,
+                          String linesToTotal, String totalToId, String tail) {
+
+        void writeTo(StringBuilder buffer, PurchaseConfirmation confirmation) {
+            buffer.append(head);
+            escape(buffer, confirmation.firstName());
+            buffer.append(nameToDate);
+            escape(buffer, confirmation.visitDate().format(VISIT_DATE));
+            buffer.append(dateToLines);
+            List<PurchaseConfirmation.Line> lines = confirmation.lines();
+            for (int i = 0; i < lines.size(); i++) {
+                PurchaseConfirmation.Line line = lines.get(i);
+                if (i > 0) {
+                    buffer.append(lineGap);
+                }
+                escape(buffer, line.ticketTypeName());
+                buffer.append(nameToQuantity).append(line.quantity()).append(quantityToCost);
+                escape(buffer, line.totalCost());
+            }
+            if (confirmation.discountAmount().signum() > 0) {
+                buffer.append(linesToDiscount);
+                escape(buffer, confirmation.discountAmount());
+                buffer.append(discountToTotal);
+            } else {
+                buffer.append(linesToTotal);
+            }
+            escape(buffer, confirmation.totalAmount());
+            buffer.append(totalToId);
+            escape(buffer, confirmation.purchaseId());
+            buffer.append(tail);
+        }
+
+        private static void escape(StringBuilder buffer, Object value) {
+            buffer.append(HtmlEscape.escapeHtml4Xml(String.valueOf(value)));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.magicworld.tfg_angular_springboot.monitoring.alert;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of active alerts by (attraction, type, severity), used to deduplicate alerts
+ * without querying {@code park_alert}. It is loaded once, then kept current by
+ * {@link ActiveAlertIndexListener} on every persist, update and removal; if a transaction that
+ * touched alerts rolls back, or alerts are deleted outside JPA, the index is reloaded on next use.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveAlertIndex {
+
+    private final ParkAlertRepository alertRepository;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Key> activeById = new HashMap<>();
+    private final Map<Key, Integer> activeCounts = new HashMap<>();
+    private boolean loaded;
+
+    public boolean contains(Long attractionId, AlertType type, AlertSeverity severity) {
+        lock.lock();
+        try {
+            ensureLoaded();
+            return activeCounts.containsKey(new Key(attractionId, type, severity));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            ensureLoaded();
+            return activeById.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSaved(ParkAlert alert) {
+        lock.lock();
+        try {
+            if (Boolean.TRUE.equals(alert.getIsActive())) {
+                add(alert);
+            } else {
+                remove(alert.getId());
+            }
+            reloadOnRollback();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onRemoved(ParkAlert alert) {
+        lock.lock();
+        try {
+            remove(alert.getId());
+            reloadOnRollback();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        lock.lock();
+        try {
+            loaded = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        activeById.clear();
+        activeCounts.clear();
+        alertRepository.findByIsActiveTrueOrderByTimestampDesc().forEach(this::index);
+        loaded = true;
+    }
+
+    private void add(ParkAlert alert) {
+        if (loaded) {
+            index(alert);
+        }
+    }
+
+    private void index(ParkAlert alert) {
+        if (alert.getId() == null) {
+            return;
+        }
+        Key key = new Key(alert.getAttractionId(), alert.getAlertType(), alert.getSeverity());
+        Key previous = activeById.put(alert.getId(), key);
+        if (previous != null) {
+            decrement(previous);
+        }
+        activeCounts.merge(key, 1, Integer::sum);
+    }
+
+    private void remove(Long alertId) {
+        Key key = alertId != null ? activeById.remove(alertId) : null;
+        if (key != null) {
+            decrement(key);
+        }
+    }
+
+    private void decrement(Key key) {
+        activeCounts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void reloadOnRollback() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    invalidate();
+                }
+            }
+        });
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+        private final Long attractionId;
+        private final AlertType type;
+        private final AlertSeverity severity;
+
+        private Key(Long attractionId, AlertType type, AlertSeverity severity) {
+            this.attractionId = attractionId;
+            this.type = type;
+            this.severity = severity;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.magicworld.tfg_angular_springboot.monitoring.alert;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Keeps the {@link ActiveAlertIndex} in sync with every JPA write to {@link ParkAlert}.
+ */
+public class ActiveAlertIndexListener {
+
+    private final ObjectProvider<ActiveAlertIndex> index;
+
+    public ActiveAlertIndexListener(ObjectProvider<ActiveAlertIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(ParkAlert alert) {
+        index.ifAvailable(i -> i.onSaved(alert));
+    }
+
+    @PreRemove
+    public void onRemove(ParkAlert alert) {
+        index.ifAvailable(i -> i.onRemoved(alert));
+    }
+}
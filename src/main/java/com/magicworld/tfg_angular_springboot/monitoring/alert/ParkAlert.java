@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(ActiveAlertIndexListener.class)
 @Table(name = "park_alert", indexes = {
     @Index(name = "idx_park_alert_timestamp", columnList = "timestamp"),
     @Index(name = "idx_park_alert_active", columnList = "is_active")
@@ -1,6 +1,9 @@
 package com.magicworld.tfg_angular_springboot.monitoring.alert;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -16,4 +19,7 @@ public interface ParkAlertRepository extends JpaRepository<ParkAlert, Long> {
     List<ParkAlert> findByAttractionIdAndIsActiveTrue(Long attractionId);
 
     List<ParkAlert> findBySeverityAndIsActiveTrue(AlertSeverity severity);
+
+    @Query("SELECT a.id FROM ParkAlert a WHERE a.isActive = false AND a.timestamp < :cutoff ORDER BY a.timestamp")
+    List<Long> findResolvedIdsBefore(@Param("cutoff") LocalDateTime cutoff, Pageable page);
 }
@@ -0,0 +1,26 @@
+package com.magicworld.tfg_angular_springboot.monitoring.controller;
+
+import com.magicworld.tfg_angular_springboot.monitoring.dto.SequencedDashboardSnapshot;
+import com.magicworld.tfg_angular_springboot.monitoring.service.DashboardDeltaService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+/**
+ * STOMP entry point for the dashboard delta protocol. Subscribing to {@code /app/dashboard}
+ * replies once with the sequence-numbered full snapshot; clients subscribe again to resync after
+ * a gap in {@code /topic/dashboard/delta}.
+ */
+@Controller
+@RequiredArgsConstructor
+public class DashboardStreamController {
+
+    private final DashboardService dashboardService;
+    private final DashboardDeltaService dashboardDeltaService;
+
+    @SubscribeMapping("/dashboard")
+    public SequencedDashboardSnapshot subscribeDashboard() {
+        return dashboardDeltaService.currentFrame(dashboardService::getSnapshot);
+    }
+}
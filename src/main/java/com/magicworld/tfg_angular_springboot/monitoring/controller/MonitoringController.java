@@ -1,21 +1,39 @@
 package com.magicworld.tfg_angular_springboot.monitoring.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magicworld.tfg_angular_springboot.email.EmailDispatcher;
 import com.magicworld.tfg_angular_springboot.employee.service.DailyOperationsService;
+import com.magicworld.tfg_angular_springboot.fulfilment.FulfilmentService;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.BulkEventResponse;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.BulkEventResult;
 import com.magicworld.tfg_angular_springboot.monitoring.dto.DashboardSnapshot;
 import com.magicworld.tfg_angular_springboot.monitoring.dto.EventRequest;
 import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.retention.MonitoringRetentionService;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.BroadcastCoalescer;
 import com.magicworld.tfg_angular_springboot.monitoring.service.DashboardService;
 import com.magicworld.tfg_angular_springboot.monitoring.service.EventIngestionService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.EventWriteBehindService;
 import com.magicworld.tfg_angular_springboot.monitoring.service.MonitoringWebSocketService;
+import com.magicworld.tfg_angular_springboot.payment.CheckoutTracer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/monitoring")
@@ -23,10 +41,21 @@ import java.util.List;
 @Tag(name = "Monitoring", description = "Park monitoring and dashboard endpoints")
 public class MonitoringController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
     private final DashboardService dashboardService;
     private final EventIngestionService eventService;
     private final MonitoringWebSocketService webSocketService;
     private final DailyOperationsService dailyOperationsService;
+    private final EventWriteBehindService writeBehindService;
+    private final BroadcastCoalescer broadcastCoalescer;
+    private final ParkEventRollupService rollupService;
+    private final MonitoringRetentionService retentionService;
+    private final CheckoutTracer checkoutTracer;
+    private final FulfilmentService fulfilmentService;
+    private final EmailDispatcher emailDispatcher;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Get dashboard snapshot")
     @GetMapping("/dashboard")
@@ -46,10 +75,107 @@ public class MonitoringController {
         return ResponseEntity.ok(event);
     }
 
+    @Operation(summary = "Record a batch of park events from a JSON array")
+    @PostMapping(value = "/events/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkEventResponse> recordEvents(@RequestBody List<EventRequest> requests) {
+        return ResponseEntity.ok(recordBatch(requests));
+    }
+
+    @Operation(summary = "Record a batch of park events from an NDJSON stream")
+    @PostMapping(value = "/events/bulk", consumes = NDJSON)
+    public ResponseEntity<BulkEventResponse> recordEventStream(HttpServletRequest request) throws IOException {
+        List<EventRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = request.getReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    eventService.checkBulkSize(requests.size() + 1);
+                    requests.add(parseLine(line));
+                }
+            }
+        }
+        return ResponseEntity.ok(recordBatch(requests));
+    }
+
     @Operation(summary = "Get recent events")
     @GetMapping("/events")
     public ResponseEntity<List<ParkEvent>> getRecentEvents(
             @RequestParam(defaultValue = "30") int minutes) {
         return ResponseEntity.ok(eventService.getRecentEvents(minutes));
     }
+
+    @Operation(summary = "Get event ingestion throughput and buffer stats")
+    @GetMapping("/events/ingestion-stats")
+    public ResponseEntity<Map<String, Object>> getIngestionStats() {
+        return ResponseEntity.ok(writeBehindService.getStats());
+    }
+
+    @Operation(summary = "Get websocket event broadcast statistics")
+    @GetMapping("/events/broadcast-stats")
+    public ResponseEntity<Map<String, Object>> getBroadcastStats() {
+        return ResponseEntity.ok(broadcastCoalescer.getStats());
+    }
+
+    @Operation(summary = "Get checkout latency by stage and the slowest recent checkouts")
+    @GetMapping("/checkout/stats")
+    public ResponseEntity<Map<String, Object>> getCheckoutStats() {
+        return ResponseEntity.ok(checkoutTracer.getStats());
+    }
+
+    @Operation(summary = "Export checkout latency histograms in Prometheus text format")
+    @GetMapping(value = "/checkout/metrics", produces = PROMETHEUS_TEXT)
+    public ResponseEntity<String> getCheckoutMetrics() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PROMETHEUS_TEXT))
+                .body(checkoutTracer.toPrometheus());
+    }
+
+    @Operation(summary = "Get post-purchase fulfilment backlog, retries and step latency")
+    @GetMapping("/fulfilment/stats")
+    public ResponseEntity<Map<String, Object>> getFulfilmentStats() {
+        return ResponseEntity.ok(fulfilmentService.getStats());
+    }
+
+    @Operation(summary = "Get email outbox backlog, throughput and retries")
+    @GetMapping("/email/stats")
+    public ResponseEntity<Map<String, Object>> getEmailStats() {
+        return ResponseEntity.ok(emailDispatcher.getStats());
+    }
+
+    @Operation(summary = "Recompute event rollups from raw events for a past date range")
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        long events = rollupService.rebuild(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        return ResponseEntity.ok(Map.of("eventsAggregated", events));
+    }
+
+    @Operation(summary = "Archive events and resolved alerts older than the retention window")
+    @PostMapping("/retention/run")
+    public ResponseEntity<Map<String, Object>> runRetention() {
+        return ResponseEntity.ok(retentionService.archiveExpired());
+    }
+
+    private BulkEventResponse recordBatch(List<EventRequest> requests) {
+        BulkEventResponse response = eventService.recordEvents(requests);
+        response.getResults().stream()
+                .filter(BulkEventResult::isAccepted)
+                .map(result -> requests.get(result.getIndex()))
+                .filter(r -> r.getAttractionId() != null)
+                .forEach(r -> dashboardService.updateAttractionState(
+                        r.getAttractionId(), r.getEventType(), r.getQueueSize()));
+        if (response.getAccepted() > 0) {
+            webSocketService.broadcastDashboard(dashboardService.getSnapshot());
+        }
+        return response;
+    }
+
+    private EventRequest parseLine(String line) {
+        try {
+            return objectMapper.readValue(line, EventRequest.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
 }
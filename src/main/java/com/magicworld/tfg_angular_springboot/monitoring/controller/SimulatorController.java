@@ -1,10 +1,13 @@
 package com.magicworld.tfg_angular_springboot.monitoring.controller;
 
+import com.magicworld.tfg_angular_springboot.monitoring.dto.LoadGenerationRequest;
 import com.magicworld.tfg_angular_springboot.monitoring.service.DashboardService;
 import com.magicworld.tfg_angular_springboot.monitoring.service.MonitoringWebSocketService;
+import com.magicworld.tfg_angular_springboot.monitoring.simulator.ParkLoadGeneratorService;
 import com.magicworld.tfg_angular_springboot.monitoring.simulator.ParkSimulatorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +21,7 @@ import java.util.Map;
 public class SimulatorController {
 
     private final ParkSimulatorService simulatorService;
+    private final ParkLoadGeneratorService loadGeneratorService;
     private final DashboardService dashboardService;
     private final MonitoringWebSocketService webSocketService;
 
@@ -47,4 +51,17 @@ public class SimulatorController {
         webSocketService.broadcastDashboard(dashboardService.getSnapshot());
         return ResponseEntity.ok().build();
     }
+
+    @Operation(summary = "Start a reproducible load-generation run against the ingestion pipeline")
+    @PostMapping("/load")
+    public ResponseEntity<Map<String, Object>> startLoad(@Valid @RequestBody LoadGenerationRequest request) {
+        loadGeneratorService.start(request);
+        return ResponseEntity.accepted().body(loadGeneratorService.getStatus());
+    }
+
+    @Operation(summary = "Get load-generation status and the last run report")
+    @GetMapping("/load")
+    public ResponseEntity<Map<String, Object>> getLoadStatus() {
+        return ResponseEntity.ok(loadGeneratorService.getStatus());
+    }
 }
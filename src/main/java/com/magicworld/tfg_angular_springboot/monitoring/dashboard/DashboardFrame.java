@@ -0,0 +1,36 @@
+package com.magicworld.tfg_angular_springboot.monitoring.dashboard;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The last dashboard snapshot published on the delta topic, with its sequence. A single row,
+ * written by the publishing node so nodes behind the same relay broker can hand new subscribers
+ * the frame the shared delta stream continues from.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "dashboard_frame")
+public class DashboardFrame {
+
+    public static final long CURRENT = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "sequence_number", nullable = false)
+    private long sequence;
+
+    @Lob
+    @Column(name = "snapshot_json", nullable = false)
+    private String snapshotJson;
+
+    @Column(name = "published_at", nullable = false)
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,8 @@
+package com.magicworld.tfg_angular_springboot.monitoring.dashboard;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DashboardFrameRepository extends JpaRepository<DashboardFrame, Long> {
+}
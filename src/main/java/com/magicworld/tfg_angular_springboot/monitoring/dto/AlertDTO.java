@@ -3,14 +3,18 @@ package com.magicworld.tfg_angular_springboot.monitoring.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.magicworld.tfg_angular_springboot.monitoring.alert.AlertSeverity;
 import com.magicworld.tfg_angular_springboot.monitoring.alert.AlertType;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class AlertDTO {
     private Long id;
     private AlertType alertType;
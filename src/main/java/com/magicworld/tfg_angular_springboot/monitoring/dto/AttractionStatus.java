@@ -1,11 +1,15 @@
 package com.magicworld.tfg_angular_springboot.monitoring.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class AttractionStatus {
     private Long attractionId;
     private String name;
@@ -0,0 +1,19 @@
+package com.magicworld.tfg_angular_springboot.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEventResponse {
+    private int received;
+    private int accepted;
+    private int rejected;
+    private List<BulkEventResult> results;
+}
@@ -0,0 +1,16 @@
+package com.magicworld.tfg_angular_springboot.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEventResult {
+    private int index;
+    private boolean accepted;
+    private String error;
+}
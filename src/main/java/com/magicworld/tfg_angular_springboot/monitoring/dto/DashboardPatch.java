@@ -0,0 +1,30 @@
+package com.magicworld.tfg_angular_springboot.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Changes between two consecutive dashboard snapshots. Only the counters, attraction statuses and
+ * alerts that differ are present; clients apply patches whose sequence follows the last one seen.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardPatch {
+    private long sequence;
+    private Integer currentVisitors;
+    private Integer totalEntriesToday;
+    private Integer totalSalesToday;
+    private Integer activeAttractions;
+    private Integer totalAttractions;
+    private Double avgParkWaitTime;
+    private Integer ticketsSoldToday;
+    private Integer parkMaxCapacity;
+    private List<AttractionStatus> attractionStatuses;
+    private List<Long> removedAttractionIds;
+    private List<AlertDTO> activeAlerts;
+    private List<Long> removedAlertIds;
+}
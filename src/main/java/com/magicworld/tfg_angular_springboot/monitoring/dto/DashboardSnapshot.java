@@ -1,12 +1,16 @@
 package com.magicworld.tfg_angular_springboot.monitoring.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.List;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class DashboardSnapshot {
     private int currentVisitors;
     private int totalEntriesToday;
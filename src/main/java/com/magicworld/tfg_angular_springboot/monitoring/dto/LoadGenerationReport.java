@@ -0,0 +1,34 @@
+package com.magicworld.tfg_angular_springboot.monitoring.dto;
+
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadGenerationReport {
+    private long seed;
+    private int visitors;
+    private int workers;
+    private int targetEventsPerSecond;
+    private int durationSeconds;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long eventsGenerated;
+    private double generationSeconds;
+    private double achievedEventsPerSecond;
+    private double drainSeconds;
+    private String fingerprint;
+    private Map<ParkEventType, Long> eventsByType;
+    private Map<String, Object> enqueueLatency;
+    private Map<String, Object> scheduleLatency;
+    private Map<String, Object> endToEndLatency;
+    private Map<String, Object> writeBehind;
+}
@@ -0,0 +1,22 @@
+package com.magicworld.tfg_angular_springboot.monitoring.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class LoadGenerationRequest {
+    private long seed = 42L;
+    @Min(1)
+    @Max(100_000)
+    private int visitors = 10_000;
+    @Min(1)
+    @Max(64)
+    private int workers = 4;
+    @Min(1)
+    @Max(200_000)
+    private int targetEventsPerSecond = 2_000;
+    @Min(1)
+    @Max(3_600)
+    private int durationSeconds = 30;
+}
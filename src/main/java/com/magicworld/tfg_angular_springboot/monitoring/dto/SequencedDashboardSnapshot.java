@@ -0,0 +1,11 @@
+package com.magicworld.tfg_angular_springboot.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SequencedDashboardSnapshot {
+    private long sequence;
+    private DashboardSnapshot snapshot;
+}
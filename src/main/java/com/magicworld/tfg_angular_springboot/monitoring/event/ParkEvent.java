@@ -1,5 +1,6 @@
 package com.magicworld.tfg_angular_springboot.monitoring.event;
 
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupListener;
 import com.magicworld.tfg_angular_springboot.util.BaseEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(ParkEventRollupListener.class)
 @Table(name = "park_event", indexes = {
     @Index(name = "idx_park_event_timestamp", columnList = "timestamp"),
     @Index(name = "idx_park_event_type", columnList = "event_type"),
@@ -43,4 +45,11 @@ public class ParkEvent extends BaseEntity {
 
     @Column(name = "metadata", length = 500)
     private String metadata;
+
+    /**
+     * {@link System#nanoTime()} when the event was created, set by producers that measure how long
+     * it takes to reach the database; zero when not measured. Never persisted.
+     */
+    @Transient
+    private long createdNanos;
 }
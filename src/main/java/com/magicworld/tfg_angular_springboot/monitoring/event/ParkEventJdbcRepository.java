@@ -0,0 +1,115 @@
+package com.magicworld.tfg_angular_springboot.monitoring.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC batch writer for {@link ParkEvent}. The entity uses IDENTITY ids,
+ * which prevents Hibernate from batching inserts, so bulk paths go through here.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ParkEventJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO park_event "
+            + "(event_type, timestamp, attraction_id, user_id, visitor_count, queue_size, metadata) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_RANGE_SQL = "SELECT event_type, timestamp, attraction_id, user_id, "
+            + "visitor_count, queue_size FROM park_event WHERE timestamp >= ? AND timestamp < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts {@code events} in JDBC batches of {@code batchSize} and sets each event's generated
+     * id, so they can be broadcast as stored.
+     */
+    public int batchInsert(List<ParkEvent> events, int batchSize) {
+        for (int from = 0; from < events.size(); from += batchSize) {
+            List<ParkEvent> chunk = events.subList(from, Math.min(from + batchSize, events.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[] { "id" }),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            bind(ps, chunk.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }, keyHolder);
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            }
+        }
+        return events.size();
+    }
+
+    /**
+     * Streams the events in {@code [from, to)} row by row without materializing the result.
+     */
+    public void forEachBetween(LocalDateTime from, LocalDateTime to, Consumer<ParkEvent> consumer) {
+        RowCallbackHandler handler = rs -> consumer.accept(mapRow(rs));
+        jdbcTemplate.query(SELECT_RANGE_SQL, handler, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public LocalDateTime findEarliestTimestamp() {
+        Timestamp earliest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM park_event", Timestamp.class);
+        return earliest != null ? earliest.toLocalDateTime() : null;
+    }
+
+    private static void bind(PreparedStatement ps, ParkEvent event) throws SQLException {
+        ps.setString(1, event.getEventType().name());
+        ps.setTimestamp(2, Timestamp.valueOf(event.getTimestamp()));
+        setNullableLong(ps, 3, event.getAttractionId());
+        setNullableLong(ps, 4, event.getUserId());
+        setNullableInt(ps, 5, event.getVisitorCount());
+        setNullableInt(ps, 6, event.getQueueSize());
+        ps.setString(7, event.getMetadata());
+    }
+
+    private static ParkEvent mapRow(ResultSet rs) throws SQLException {
+        return ParkEvent.builder()
+                .eventType(ParkEventType.valueOf(rs.getString("event_type")))
+                .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                .attractionId(rs.getObject("attraction_id", Long.class))
+                .userId(rs.getObject("user_id", Long.class))
+                .visitorCount(rs.getObject("visitor_count", Integer.class))
+                .queueSize(rs.getObject("queue_size", Integer.class))
+                .build();
+    }
+
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.magicworld.tfg_angular_springboot.monitoring.event;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +20,11 @@ public interface ParkEventRepository extends JpaRepository<ParkEvent, Long> {
     List<ParkEvent> findByAttractionIdAndTimestampBetween(
             Long attractionId, LocalDateTime start, LocalDateTime end);
 
+    List<ParkEvent> findByTimestampBeforeOrderByTimestampAsc(LocalDateTime cutoff, Pageable page);
+
+    @Query("SELECT e.id FROM ParkEvent e WHERE e.attractionId = :attractionId ORDER BY e.id")
+    List<Long> findIdsByAttractionId(@Param("attractionId") Long attractionId, Pageable page);
+
     @Query("SELECT COUNT(e) FROM ParkEvent e WHERE e.eventType = :type AND e.timestamp >= :since")
     long countByEventTypeSince(@Param("type") ParkEventType type, @Param("since") LocalDateTime since);
 
@@ -28,16 +34,4 @@ public interface ParkEventRepository extends JpaRepository<ParkEvent, Long> {
             @Param("attractionId") Long attractionId,
             @Param("types") List<ParkEventType> types,
             @Param("since") LocalDateTime since);
-
-    @Query("SELECT e.attractionId, COUNT(e), " +
-           "COALESCE(MAX(e.queueSize), 0), " +
-           "COALESCE(AVG(e.queueSize), 0) " +
-           "FROM ParkEvent e " +
-           "WHERE e.eventType = 'ATTRACTION_QUEUE_JOIN' " +
-           "AND e.attractionId IS NOT NULL " +
-           "AND e.timestamp BETWEEN :from AND :to " +
-           "GROUP BY e.attractionId " +
-           "ORDER BY COUNT(e) DESC")
-    List<Object[]> findAttractionPerformanceStats(
-            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
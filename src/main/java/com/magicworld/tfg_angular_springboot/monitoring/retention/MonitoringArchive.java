@@ -0,0 +1,109 @@
+package com.magicworld.tfg_angular_springboot.monitoring.retention;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed NDJSON archive with one file per table and day
+ * ({@code <table>/<table>-yyyy-MM-dd.ndjson.gz}). Every archived chunk is appended as a new
+ * gzip member, so files never need to be rewritten. Rows carry their id and readers skip
+ * repeated ids, which makes re-archiving a chunk whose delete was rolled back harmless.
+ */
+@Component
+@RequiredArgsConstructor
+public class MonitoringArchive {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${park.retention.archive-dir:archive}")
+    private String archiveDir;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    public <T> void append(String table, List<T> rows, Function<T, LocalDateTime> timestampOf) {
+        appendLock.lock();
+        try {
+            Map<LocalDate, List<T>> byDay = rows.stream()
+                    .collect(Collectors.groupingBy(row -> timestampOf.apply(row).toLocalDate(), TreeMap::new,
+                            Collectors.toList()));
+            byDay.forEach((day, dayRows) -> appendDay(table, day, dayRows));
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Streams the archived rows of {@code table} whose timestamp falls in {@code [from, to)}.
+     */
+    public <T> void forEachBetween(String table, Class<T> type, LocalDateTime from, LocalDateTime to,
+                                   Function<T, LocalDateTime> timestampOf, Function<T, Long> idOf,
+                                   Consumer<T> consumer) {
+        for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+            Path file = fileFor(table, day);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            Set<Long> seen = new HashSet<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    T row = objectMapper.readValue(line, type);
+                    LocalDateTime timestamp = timestampOf.apply(row);
+                    if (!timestamp.isBefore(from) && timestamp.isBefore(to) && seen.add(idOf.apply(row))) {
+                        consumer.accept(row);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error leyendo archivo " + file, e);
+            }
+        }
+    }
+
+    private <T> void appendDay(String table, LocalDate day, List<T> rows) {
+        Path file = fileFor(table, day);
+        try {
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)),
+                    StandardCharsets.UTF_8))) {
+                for (T row : rows) {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error escribiendo archivo " + file, e);
+        }
+    }
+
+    private Path fileFor(String table, LocalDate day) {
+        return Path.of(archiveDir, table, table + "-" + day + ".ndjson.gz");
+    }
+}
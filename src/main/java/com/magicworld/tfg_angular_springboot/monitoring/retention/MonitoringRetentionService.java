@@ -0,0 +1,174 @@
+package com.magicworld.tfg_angular_springboot.monitoring.retention;
+
+import com.magicworld.tfg_angular_springboot.monitoring.alert.ParkAlertRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.RollupGranularity;
+import com.magicworld.tfg_angular_springboot.util.BaseEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps {@code park_event} and {@code park_alert} limited to the last {@code hot-days} days.
+ * Older events are appended to the {@link MonitoringArchive} and older resolved alerts, which
+ * nothing reads back, are dropped; both are deleted by id in chunks of {@code chunk-size}, each in
+ * its own short transaction. Hourly rollups are kept, so statistics over archived ranges keep
+ * working; per-minute rollups follow the hot window.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MonitoringRetentionService {
+
+    public static final String EVENTS_TABLE = "park_event";
+
+    private final ParkEventRepository eventRepository;
+    private final ParkAlertRepository alertRepository;
+    private final ParkEventRollupRepository rollupRepository;
+    private final MonitoringArchive archive;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${park.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${park.retention.hot-days:30}")
+    private int hotDays;
+
+    @Value("${park.retention.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${park.retention.max-chunks-per-run:1000}")
+    private int maxChunksPerRun;
+
+    @Scheduled(cron = "${park.retention.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        if (enabled) {
+            archiveExpired();
+        }
+    }
+
+    public LocalDateTime getCutoff() {
+        return LocalDate.now().minusDays(hotDays).atStartOfDay();
+    }
+
+    public Map<String, Object> archiveExpired() {
+        LocalDateTime cutoff = getCutoff();
+        long events = archiveInChunks(EVENTS_TABLE,
+                () -> eventRepository.findByTimestampBeforeOrderByTimestampAsc(cutoff, PageRequest.of(0, chunkSize)),
+                ParkEvent::getTimestamp, eventRepository::deleteAllByIdInBatch);
+        long alerts = deleteInChunks(transactionTemplate, maxChunksPerRun,
+                () -> alertRepository.findResolvedIdsBefore(cutoff, PageRequest.of(0, chunkSize)),
+                alertRepository::deleteAllByIdInBatch);
+        Integer minuteRollups = transactionTemplate.execute(status ->
+                rollupRepository.deleteBucketsBefore(RollupGranularity.MINUTE, cutoff));
+
+        log.info("Retención de monitorización antes de {}: {} eventos archivados y {} alertas eliminadas",
+                cutoff, events, alerts);
+        return Map.of(
+                "cutoff", cutoff,
+                "eventsArchived", events,
+                "alertsDeleted", alerts,
+                "minuteRollupsDeleted", minuteRollups != null ? minuteRollups : 0);
+    }
+
+    /**
+     * Streams archived events in {@code [from, to)}, for ranges older than the hot window.
+     */
+    public void forEachArchivedEvent(LocalDateTime from, LocalDateTime to, Consumer<ParkEvent> consumer) {
+        archive.forEachBetween(EVENTS_TABLE, ParkEvent.class, from, to, ParkEvent::getTimestamp,
+                ParkEvent::getId, consumer);
+    }
+
+    /**
+     * Purges the attraction once the caller's transaction commits, so a rolled-back deletion keeps
+     * its history; without a transaction it purges immediately.
+     */
+    public void purgeAttractionAfterCommit(Long attractionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            purgeAttraction(attractionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                purgeAttraction(attractionId);
+            }
+        });
+    }
+
+    /**
+     * Deletes every event and rollup of an attraction by id in chunks. Each chunk commits on its
+     * own even when the caller is transactional, so removing a busy attraction never holds one
+     * long delete over {@code park_event}.
+     */
+    public long purgeAttraction(Long attractionId) {
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        long events = deleteInChunks(chunkTransaction, Integer.MAX_VALUE,
+                () -> eventRepository.findIdsByAttractionId(attractionId, PageRequest.of(0, chunkSize)),
+                eventRepository::deleteAllByIdInBatch);
+        long rollups = deleteInChunks(chunkTransaction, Integer.MAX_VALUE,
+                () -> rollupRepository.findIdsByAttractionId(attractionId, PageRequest.of(0, chunkSize)),
+                rollupRepository::deleteAllByIdInBatch);
+        log.info("Eliminados {} eventos y {} agregados de la atracción {}", events, rollups, attractionId);
+        return events + rollups;
+    }
+
+    private long deleteInChunks(TransactionTemplate transaction, int maxChunks, Supplier<List<Long>> loader,
+                                Consumer<List<Long>> deleter) {
+        long total = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            Integer deleted = transaction.execute(status -> {
+                List<Long> ids = loader.get();
+                if (!ids.isEmpty()) {
+                    deleter.accept(ids);
+                }
+                return ids.size();
+            });
+            if (deleted == null || deleted == 0) {
+                break;
+            }
+            total += deleted;
+        }
+        return total;
+    }
+
+    private <T extends BaseEntity> long archiveInChunks(String table, Supplier<List<T>> loader,
+                                                        Function<T, LocalDateTime> timestampOf,
+                                                        Consumer<List<Long>> deleter) {
+        long total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer archived = transactionTemplate.execute(status -> {
+                List<T> rows = loader.get();
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                archive.append(table, rows, timestampOf);
+                deleter.accept(rows.stream().map(BaseEntity::getId).toList());
+                return rows.size();
+            });
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+        }
+        return total;
+    }
+}
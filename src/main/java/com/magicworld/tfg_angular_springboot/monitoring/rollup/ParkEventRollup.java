@@ -0,0 +1,61 @@
+package com.magicworld.tfg_angular_springboot.monitoring.rollup;
+
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.util.BaseEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate of the park events of one type, for one attraction, within one time bucket.
+ * Park-wide events (entries, exits) use {@link #PARK_WIDE} as attraction id.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "park_event_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_park_event_rollup_bucket",
+                columnNames = {"granularity", "bucket_start", "attraction_id", "event_type"}),
+        indexes = @Index(name = "idx_park_event_rollup_attraction", columnList = "attraction_id"))
+public class ParkEventRollup extends BaseEntity {
+
+    public static final long PARK_WIDE = 0L;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @NotNull
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @NotNull
+    @Column(name = "attraction_id", nullable = false)
+    private Long attractionId;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private ParkEventType eventType;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "queue_samples", nullable = false)
+    private long queueSamples;
+
+    @Column(name = "queue_sum", nullable = false)
+    private long queueSum;
+
+    @Column(name = "max_queue", nullable = false)
+    private int maxQueue;
+
+    @Column(name = "visitor_sum", nullable = false)
+    private long visitorSum;
+}
@@ -0,0 +1,76 @@
+package com.magicworld.tfg_angular_springboot.monitoring.rollup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Adds {@link RollupBucket} deltas to the stored rollups: one batched UPDATE for every bucket,
+ * then an INSERT for each bucket that did not exist yet (once per new period).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ParkEventRollupJdbcRepository {
+
+    private static final String UPDATE_SQL = "UPDATE park_event_rollup SET "
+            + "event_count = event_count + ?, queue_samples = queue_samples + ?, queue_sum = queue_sum + ?, "
+            + "max_queue = GREATEST(max_queue, ?), visitor_sum = visitor_sum + ? "
+            + "WHERE granularity = ? AND bucket_start = ? AND attraction_id = ? AND event_type = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO park_event_rollup "
+            + "(event_count, queue_samples, queue_sum, max_queue, visitor_sum, "
+            + "granularity, bucket_start, attraction_id, event_type) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addAll(Collection<RollupBucket> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        List<RollupBucket> ordered = new ArrayList<>(buckets);
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, ordered, ordered.size(),
+                ParkEventRollupJdbcRepository::bind);
+
+        List<RollupBucket> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(ordered.get(index));
+                }
+                index++;
+            }
+        }
+        missing.forEach(this::insert);
+    }
+
+    private void insert(RollupBucket bucket) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, bucket));
+        } catch (DuplicateKeyException e) {
+            // Created concurrently by another writer since the batched UPDATE ran
+            jdbcTemplate.update(UPDATE_SQL, ps -> bind(ps, bucket));
+        }
+    }
+
+    private static void bind(PreparedStatement ps, RollupBucket bucket) throws SQLException {
+        ps.setLong(1, bucket.getEventCount());
+        ps.setLong(2, bucket.getQueueSamples());
+        ps.setLong(3, bucket.getQueueSum());
+        ps.setInt(4, bucket.getMaxQueue());
+        ps.setLong(5, bucket.getVisitorSum());
+        ps.setString(6, bucket.getKey().getGranularity().name());
+        ps.setTimestamp(7, Timestamp.valueOf(bucket.getKey().getBucketStart()));
+        ps.setLong(8, bucket.getKey().getAttractionId());
+        ps.setString(9, bucket.getKey().getEventType().name());
+    }
+}
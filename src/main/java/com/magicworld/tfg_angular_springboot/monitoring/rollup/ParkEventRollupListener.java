@@ -0,0 +1,25 @@
+package com.magicworld.tfg_angular_springboot.monitoring.rollup;
+
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+/**
+ * Adds events persisted through JPA to the rollups in the same transaction. The JDBC batch
+ * paths call {@link ParkEventRollupService#apply} themselves.
+ */
+public class ParkEventRollupListener {
+
+    private final ObjectProvider<ParkEventRollupService> rollupService;
+
+    public ParkEventRollupListener(ObjectProvider<ParkEventRollupService> rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @PostPersist
+    public void onPersist(ParkEvent event) {
+        rollupService.ifAvailable(service -> service.apply(List.of(event)));
+    }
+}
@@ -0,0 +1,43 @@
+package com.magicworld.tfg_angular_springboot.monitoring.rollup;
+
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ParkEventRollupRepository extends JpaRepository<ParkEventRollup, Long> {
+
+    List<ParkEventRollup> findByGranularityAndAttractionIdAndEventType(
+            RollupGranularity granularity, Long attractionId, ParkEventType eventType);
+
+    @Query("SELECT r.attractionId, SUM(r.eventCount), MAX(r.maxQueue), SUM(r.queueSum), SUM(r.queueSamples) " +
+           "FROM ParkEventRollup r " +
+           "WHERE r.granularity = :granularity " +
+           "AND r.eventType = 'ATTRACTION_QUEUE_JOIN' " +
+           "AND r.attractionId <> 0 " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.attractionId " +
+           "ORDER BY SUM(r.eventCount) DESC")
+    List<Object[]> findAttractionPerformanceStats(
+            @Param("granularity") RollupGranularity granularity,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM ParkEventRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteBucketsBefore(@Param("granularity") RollupGranularity granularity,
+                            @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ParkEventRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteBucketsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.id FROM ParkEventRollup r WHERE r.attractionId = :attractionId ORDER BY r.id")
+    List<Long> findIdsByAttractionId(@Param("attractionId") Long attractionId, Pageable page);
+}
@@ -0,0 +1,161 @@
+package com.magicworld.tfg_angular_springboot.monitoring.rollup;
+
+import com.magicworld.tfg_angular_springboot.exceptions.BadRequestException;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventJdbcRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.retention.MonitoringRetentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Maintains per-minute and per-hour aggregates of {@code park_event} per attraction and event
+ * type. Every ingestion path adds its events here in the same transaction, so statistics read a
+ * number of rows proportional to the buckets in range instead of the events.
+ * <p>
+ * On startup, the events recorded before rollups were first maintained are backfilled in the
+ * background, resuming from the watermark in {@link RollupBackfillState}; {@link #rebuild}
+ * recomputes closed hours on demand, reading archived events for ranges older than the retention
+ * window.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParkEventRollupService {
+
+    private final ParkEventRollupJdbcRepository rollupJdbcRepository;
+    private final ParkEventRollupRepository rollupRepository;
+    private final RollupBackfillStateRepository backfillStateRepository;
+    private final ParkEventJdbcRepository eventJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MonitoringRetentionService retentionService;
+
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    @Value("${park.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    public void apply(Collection<ParkEvent> events) {
+        if (!events.isEmpty()) {
+            rollupJdbcRepository.addAll(RollupBucket.aggregate(events));
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            resumeBackfill();
+        }
+    }
+
+    /**
+     * Aggregates the events between the backfill watermark and the point where live maintenance
+     * began. Whole hours are recomputed from the raw events, so a chunk interrupted before an
+     * earlier version persisted its progress is not counted twice; the trailing partial hour is
+     * only added on a fresh install, where no rollup for it can exist yet.
+     *
+     * @return number of events aggregated
+     */
+    public long resumeBackfill() {
+        RollupBackfillState state = backfillStateRepository.findById(RollupBackfillState.CURRENT).orElse(null);
+        if (state == null) {
+            state = startBackfill();
+        }
+        LocalDateTime from = state.getCoveredUntil();
+        LocalDateTime to = state.getBackfillUntil();
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+        LocalDateTime closedHours = to.truncatedTo(ChronoUnit.HOURS);
+        long events = 0;
+        if (from.isBefore(closedHours)) {
+            events += backfill(from.truncatedTo(ChronoUnit.HOURS), closedHours, true, state);
+            from = closedHours;
+        }
+        if (from.isBefore(to)) {
+            events += backfill(from, to, false, state);
+        }
+        log.info("Backfill de rollups completado: {} eventos anteriores a {}", events, to);
+        return events;
+    }
+
+    private RollupBackfillState startBackfill() {
+        boolean maintained = rollupRepository.count() > 0;
+        LocalDateTime until = maintained ? startedAt.truncatedTo(ChronoUnit.HOURS) : startedAt;
+        LocalDateTime earliest = eventJdbcRepository.findEarliestTimestamp();
+        LocalDateTime covered = earliest == null || !earliest.isBefore(until)
+                ? until
+                : earliest.truncatedTo(ChronoUnit.HOURS);
+        return backfillStateRepository.save(RollupBackfillState.builder()
+                .id(RollupBackfillState.CURRENT)
+                .backfillUntil(until)
+                .coveredUntil(covered)
+                .build());
+    }
+
+    /**
+     * Recomputes the rollups of every whole hour in {@code [from, to)} from the raw events. The
+     * current hour is excluded because it is still being updated by ingestion.
+     *
+     * @return number of events aggregated
+     */
+    public long rebuild(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS);
+        if (end.isAfter(currentHour)) {
+            end = currentHour;
+        }
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("error.monitoring.rollup.invalid_range");
+        }
+        long events = backfill(start, end, true, null);
+        log.info("Rollups reconstruidos entre {} y {}: {} eventos", start, end, events);
+        return events;
+    }
+
+    private long backfill(LocalDateTime from, LocalDateTime to, boolean replace, RollupBackfillState progress) {
+        AtomicLong total = new AtomicLong();
+        LocalDateTime chunkStart = from;
+        while (chunkStart.isBefore(to)) {
+            LocalDateTime chunkEnd = chunkStart.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            LocalDateTime end = chunkEnd.isAfter(to) ? to : chunkEnd;
+            LocalDateTime start = chunkStart;
+            transactionTemplate.executeWithoutResult(status -> {
+                if (replace) {
+                    rollupRepository.deleteBucketsBetween(start, end);
+                }
+                Map<RollupBucket.Key, RollupBucket> buckets = new LinkedHashMap<>();
+                Consumer<ParkEvent> aggregate = event -> {
+                    RollupBucket.addTo(buckets, event);
+                    total.incrementAndGet();
+                };
+                if (start.isBefore(retentionService.getCutoff())) {
+                    retentionService.forEachArchivedEvent(start, end, aggregate);
+                }
+                eventJdbcRepository.forEachBetween(start, end, aggregate);
+                rollupJdbcRepository.addAll(buckets.values());
+                if (progress != null) {
+                    progress.setCoveredUntil(end);
+                    backfillStateRepository.save(progress);
+                }
+            });
+            chunkStart = end;
+        }
+        return total.get();
+    }
+}
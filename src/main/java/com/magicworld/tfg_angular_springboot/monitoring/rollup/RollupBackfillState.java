@@ -0,0 +1,32 @@
+package com.magicworld.tfg_angular_springboot.monitoring.rollup;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the startup backfill of rollups. A single row: events before {@code backfillUntil}
+ * predate live rollup maintenance and are aggregated by the backfill, which advances
+ * {@code coveredUntil} in the same transaction as each chunk so a restart resumes where it stopped.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rollup_backfill_state")
+public class RollupBackfillState {
+
+    public static final long CURRENT = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "backfill_until", nullable = false)
+    private LocalDateTime backfillUntil;
+
+    @Column(name = "covered_until", nullable = false)
+    private LocalDateTime coveredUntil;
+}
@@ -0,0 +1,81 @@
+package com.magicworld.tfg_angular_springboot.monitoring.rollup;
+
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory delta for one rollup row, accumulated from a batch of events before it is added to
+ * the stored aggregate.
+ */
+@Getter
+public final class RollupBucket {
+
+    private final Key key;
+    private long eventCount;
+    private long queueSamples;
+    private long queueSum;
+    private int maxQueue;
+    private long visitorSum;
+
+    private RollupBucket(Key key) {
+        this.key = key;
+    }
+
+    /**
+     * Aggregates the events into one bucket per granularity, attraction, event type and period.
+     */
+    public static Collection<RollupBucket> aggregate(Iterable<ParkEvent> events) {
+        Map<Key, RollupBucket> buckets = new LinkedHashMap<>();
+        for (ParkEvent event : events) {
+            addTo(buckets, event);
+        }
+        return buckets.values();
+    }
+
+    static void addTo(Map<Key, RollupBucket> buckets, ParkEvent event) {
+        if (event.getTimestamp() == null || event.getEventType() == null) {
+            return;
+        }
+        long attractionId = event.getAttractionId() != null ? event.getAttractionId() : ParkEventRollup.PARK_WIDE;
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Key key = new Key(granularity, granularity.bucketOf(event.getTimestamp()), attractionId,
+                    event.getEventType());
+            buckets.computeIfAbsent(key, RollupBucket::new).add(event);
+        }
+    }
+
+    private void add(ParkEvent event) {
+        eventCount++;
+        if (event.getQueueSize() != null) {
+            queueSamples++;
+            queueSum += event.getQueueSize();
+            maxQueue = Math.max(maxQueue, event.getQueueSize());
+        }
+        if (event.getVisitorCount() != null) {
+            visitorSum += event.getVisitorCount();
+        }
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    public static final class Key {
+        private final RollupGranularity granularity;
+        private final LocalDateTime bucketStart;
+        private final long attractionId;
+        private final ParkEventType eventType;
+
+        Key(RollupGranularity granularity, LocalDateTime bucketStart, long attractionId, ParkEventType eventType) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.attractionId = attractionId;
+            this.eventType = eventType;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Map;
 public class AlertResolutionService {
 
     private final ParkAlertRepository alertRepository;
+    private final ActiveAlertIndex activeAlertIndex;
     private final AttractionRepository attractionRepository;
     private final DailyAssignmentRepository dailyAssignmentRepository;
     private final DailyOperationsService dailyOperationsService;
@@ -31,12 +32,14 @@ public class AlertResolutionService {
 
     public AlertResolutionService(
             ParkAlertRepository alertRepository,
+            ActiveAlertIndex activeAlertIndex,
             AttractionRepository attractionRepository,
             DailyAssignmentRepository dailyAssignmentRepository,
             DailyOperationsService dailyOperationsService,
             @Lazy DashboardService dashboardService,
             @Lazy ParkSimulatorService simulatorService) {
         this.alertRepository = alertRepository;
+        this.activeAlertIndex = activeAlertIndex;
         this.attractionRepository = attractionRepository;
         this.dailyAssignmentRepository = dailyAssignmentRepository;
         this.dailyOperationsService = dailyOperationsService;
@@ -245,6 +248,8 @@ public class AlertResolutionService {
         alert.setIsActive(false);
         alert.setResolvedAt(LocalDateTime.now());
         alertRepository.save(alert);
+        // @PostUpdate only fires on flush; later dedup checks in this transaction must see it now
+        activeAlertIndex.onSaved(alert);
 
         releaseAssignedEmployees(alert.getId());
     }
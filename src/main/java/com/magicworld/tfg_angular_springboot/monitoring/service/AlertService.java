@@ -1,7 +1,7 @@
 package com.magicworld.tfg_angular_springboot.monitoring.service;
 
-import com.magicworld.tfg_angular_springboot.attraction.Attraction;
-import com.magicworld.tfg_angular_springboot.attraction.AttractionRepository;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionCatalog;
+import com.magicworld.tfg_angular_springboot.employee.StaffAvailabilityCatalog;
 import com.magicworld.tfg_angular_springboot.monitoring.alert.*;
 import com.magicworld.tfg_angular_springboot.monitoring.dto.*;
 import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
@@ -20,22 +20,28 @@ public class AlertService {
     private static final int CRITICAL_QUEUE_THRESHOLD = 120;
 
     private final ParkAlertRepository alertRepository;
-    private final AttractionRepository attractionRepository;
+    private final ActiveAlertIndex activeAlertIndex;
+    private final AttractionCatalog attractionCatalog;
     private final MonitoringWebSocketService webSocketService;
     private final ResolutionOptionsService resolutionOptionsService;
+    private final StaffAvailabilityCatalog staffAvailabilityCatalog;
     private final AlertResolutionService alertResolutionService;
     private final Random random = new Random();
 
     public AlertService(
             ParkAlertRepository alertRepository,
-            AttractionRepository attractionRepository,
+            ActiveAlertIndex activeAlertIndex,
+            AttractionCatalog attractionCatalog,
             MonitoringWebSocketService webSocketService,
             ResolutionOptionsService resolutionOptionsService,
+            StaffAvailabilityCatalog staffAvailabilityCatalog,
             @Lazy AlertResolutionService alertResolutionService) {
         this.alertRepository = alertRepository;
-        this.attractionRepository = attractionRepository;
+        this.activeAlertIndex = activeAlertIndex;
+        this.attractionCatalog = attractionCatalog;
         this.webSocketService = webSocketService;
         this.resolutionOptionsService = resolutionOptionsService;
+        this.staffAvailabilityCatalog = staffAvailabilityCatalog;
         this.alertResolutionService = alertResolutionService;
     }
 
@@ -75,8 +81,9 @@ public class AlertService {
 
     @Transactional(readOnly = true)
     public List<AlertDTO> getActiveAlerts() {
+        StaffAvailabilityCatalog.Snapshot staff = staffAvailabilityCatalog.current();
         return alertRepository.findByIsActiveTrueOrderByTimestampDesc().stream()
-                .map(this::toDTO)
+                .map(alert -> toDTO(alert, staff))
                 .toList();
     }
 
@@ -89,10 +96,7 @@ public class AlertService {
     }
 
     private void createQueueAlert(ParkEvent event, AlertSeverity severity, String message) {
-        List<ParkAlert> existing = alertRepository.findByAttractionIdAndIsActiveTrue(event.getAttractionId());
-        boolean alreadyAlerted = existing.stream()
-                .anyMatch(a -> a.getAlertType() == AlertType.HIGH_QUEUE && a.getSeverity() == severity);
-        if (alreadyAlerted) return;
+        if (activeAlertIndex.contains(event.getAttractionId(), AlertType.HIGH_QUEUE, severity)) return;
 
         ParkAlert alert = buildAlert(AlertType.HIGH_QUEUE, severity, message,
                 "alerts.suggestions.high_queue", event.getAttractionId());
@@ -160,11 +164,11 @@ public class AlertService {
     }
 
     private AlertDTO toDTO(ParkAlert alert) {
-        String attractionName = null;
-        if (alert.getAttractionId() != null) {
-            attractionName = attractionRepository.findById(alert.getAttractionId())
-                    .map(Attraction::getName).orElse(null);
-        }
+        return toDTO(alert, staffAvailabilityCatalog.current());
+    }
+
+    private AlertDTO toDTO(ParkAlert alert, StaffAvailabilityCatalog.Snapshot staff) {
+        String attractionName = attractionCatalog.getName(alert.getAttractionId());
 
         return AlertDTO.builder()
                 .id(alert.getId())
@@ -176,7 +180,7 @@ public class AlertService {
                 .attractionName(attractionName)
                 .timestamp(alert.getTimestamp())
                 .active(alert.getIsActive())
-                .resolutionOptions(resolutionOptionsService.getResolutionOptions(alert))
+                .resolutionOptions(resolutionOptionsService.getResolutionOptions(alert, staff))
                 .build();
     }
 }
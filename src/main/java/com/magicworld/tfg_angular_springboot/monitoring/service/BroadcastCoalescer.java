@@ -0,0 +1,129 @@
+package com.magicworld.tfg_angular_springboot.monitoring.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects messages per destination and publishes everything gathered during a short window as a
+ * single array frame from a dedicated thread, so producers never wait on STOMP fan-out.
+ * <p>
+ * Each destination buffers at most {@code max-pending} messages; further submissions are dropped.
+ * A window holding more than {@code max-frame-size} messages is sampled down evenly. Both cases
+ * are counted in {@link #getStats()}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BroadcastCoalescer {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${park.websocket.coalesce.window-ms:100}")
+    private long windowMs;
+
+    @Value("${park.websocket.coalesce.max-pending:5000}")
+    private int maxPending;
+
+    @Value("${park.websocket.coalesce.max-frame-size:200}")
+    private int maxFrameSize;
+
+    private final Map<String, BlockingQueue<Object>> pending = new ConcurrentHashMap<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-broadcast-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public void submit(String destination, Object payload) {
+        submitted.increment();
+        BlockingQueue<Object> queue = pending.computeIfAbsent(destination, d -> new ArrayBlockingQueue<>(maxPending));
+        if (!queue.offer(payload)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Publishes one frame per destination with everything buffered so far.
+     */
+    public synchronized void flush() {
+        pending.forEach((destination, queue) -> {
+            List<Object> batch = new ArrayList<>();
+            queue.drainTo(batch);
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Object> frame = sample(batch);
+            try {
+                messagingTemplate.convertAndSend(destination, frame);
+                frames.increment();
+                published.add(frame.size());
+            } catch (RuntimeException e) {
+                dropped.add(frame.size());
+                log.error("Error difundiendo {} mensajes a {}", frame.size(), destination, e);
+            }
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "submitted", submitted.sum(),
+                "published", published.sum(),
+                "frames", frames.sum(),
+                "dropped", dropped.sum(),
+                "sampledOut", sampledOut.sum(),
+                "pending", pending.values().stream().mapToInt(BlockingQueue::size).sum(),
+                "windowMs", windowMs);
+    }
+
+    private List<Object> sample(List<Object> batch) {
+        if (batch.size() <= maxFrameSize) {
+            return batch;
+        }
+        List<Object> sampled = new ArrayList<>(maxFrameSize);
+        double step = (double) batch.size() / maxFrameSize;
+        for (int i = 0; i < maxFrameSize; i++) {
+            sampled.add(batch.get((int) (i * step)));
+        }
+        sampledOut.add((long) batch.size() - sampled.size());
+        return sampled;
+    }
+}
@@ -0,0 +1,211 @@
+package com.magicworld.tfg_angular_springboot.monitoring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magicworld.tfg_angular_springboot.monitoring.dashboard.DashboardFrame;
+import com.magicworld.tfg_angular_springboot.monitoring.dashboard.DashboardFrameRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.AlertDTO;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.AttractionStatus;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.DashboardPatch;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.DashboardSnapshot;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.SequencedDashboardSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Delta protocol for the dashboard. Subscribers fetch a sequence-numbered full snapshot once
+ * (and again whenever they detect a gap), then receive on {@code /topic/dashboard/delta} only the
+ * fields that changed since the previous sequence. Unchanged ticks are not sent at all.
+ * <p>
+ * Behind the relay broker every node shares one delta topic, so only the node configured with
+ * {@code app.websocket.dashboard.publisher=true} publishes (and runs the simulator). It stores
+ * each frame in {@link DashboardFrame}; the other nodes answer subscriptions from that row, so
+ * their clients resume the same sequence.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardDeltaService {
+
+    public static final String TOPIC_DASHBOARD_DELTA = "/topic/dashboard/delta";
+
+    private static final DashboardSnapshot EMPTY = DashboardSnapshot.builder()
+            .attractionStatuses(List.of())
+            .activeAlerts(List.of())
+            .build();
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DashboardFrameRepository frameRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode = "simple";
+
+    @Value("${app.websocket.dashboard.publisher:}")
+    private String publisherSetting = "";
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private DashboardSnapshot last;
+    private long sequence;
+
+    /**
+     * Whether this node publishes dashboard deltas. Defaults to true with the in-JVM broker and to
+     * false with the relay, where exactly one node must opt in.
+     */
+    public boolean isPublisher() {
+        if (publisherSetting == null || publisherSetting.isBlank()) {
+            return !isRelay();
+        }
+        return Boolean.parseBoolean(publisherSetting);
+    }
+
+    public void publish(DashboardSnapshot snapshot) {
+        if (!isPublisher()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (last == null && isRelay()) {
+                // Continue the shared sequence after a restart so subscribers don't drop our patches
+                sequence = frameRepository.findById(DashboardFrame.CURRENT).map(DashboardFrame::getSequence).orElse(0L);
+            }
+            DashboardPatch patch = diff(sequence + 1, last != null ? last : EMPTY, snapshot);
+            last = snapshot;
+            if (patch == null) {
+                return;
+            }
+            sequence = patch.getSequence();
+            if (isRelay()) {
+                storeFrame();
+            }
+            messagingTemplate.convertAndSend(TOPIC_DASHBOARD_DELTA, patch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes a fresh snapshot from {@code loader}, so existing subscribers get any pending
+     * changes as a patch, and returns it together with the sequence it corresponds to.
+     */
+    public SequencedDashboardSnapshot currentFrame(Supplier<DashboardSnapshot> loader) {
+        if (!isPublisher()) {
+            return sharedFrame(loader);
+        }
+        lock.lock();
+        try {
+            publish(loader.get());
+            return new SequencedDashboardSnapshot(sequence, last);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SequencedDashboardSnapshot sharedFrame(Supplier<DashboardSnapshot> loader) {
+        DashboardFrame frame = isRelay() ? frameRepository.findById(DashboardFrame.CURRENT).orElse(null) : null;
+        if (frame == null) {
+            return new SequencedDashboardSnapshot(0, loader.get());
+        }
+        try {
+            return new SequencedDashboardSnapshot(frame.getSequence(),
+                    objectMapper.readValue(frame.getSnapshotJson(), DashboardSnapshot.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable dashboard frame " + frame.getSequence(), e);
+        }
+    }
+
+    private void storeFrame() {
+        try {
+            frameRepository.save(DashboardFrame.builder()
+                    .id(DashboardFrame.CURRENT)
+                    .sequence(sequence)
+                    .snapshotJson(objectMapper.writeValueAsString(last))
+                    .publishedAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("No se pudo guardar el frame {} del dashboard: {}", sequence, e.getMessage());
+        }
+    }
+
+    private boolean isRelay() {
+        return "relay".equalsIgnoreCase(brokerMode);
+    }
+
+    static DashboardPatch diff(long sequence, DashboardSnapshot previous, DashboardSnapshot next) {
+        List<AttractionStatus> changedStatuses = new ArrayList<>();
+        List<Long> removedAttractionIds = new ArrayList<>();
+        diffById(previous.getAttractionStatuses(), next.getAttractionStatuses(), AttractionStatus::getAttractionId,
+                changedStatuses, removedAttractionIds);
+
+        List<AlertDTO> changedAlerts = new ArrayList<>();
+        List<Long> removedAlertIds = new ArrayList<>();
+        diffById(previous.getActiveAlerts(), next.getActiveAlerts(), AlertDTO::getId,
+                changedAlerts, removedAlertIds);
+
+        DashboardPatch patch = DashboardPatch.builder()
+                .sequence(sequence)
+                .currentVisitors(changed(previous.getCurrentVisitors(), next.getCurrentVisitors()))
+                .totalEntriesToday(changed(previous.getTotalEntriesToday(), next.getTotalEntriesToday()))
+                .totalSalesToday(changed(previous.getTotalSalesToday(), next.getTotalSalesToday()))
+                .activeAttractions(changed(previous.getActiveAttractions(), next.getActiveAttractions()))
+                .totalAttractions(changed(previous.getTotalAttractions(), next.getTotalAttractions()))
+                .avgParkWaitTime(changed(previous.getAvgParkWaitTime(), next.getAvgParkWaitTime()))
+                .ticketsSoldToday(changed(previous.getTicketsSoldToday(), next.getTicketsSoldToday()))
+                .parkMaxCapacity(changed(previous.getParkMaxCapacity(), next.getParkMaxCapacity()))
+                .attractionStatuses(changedStatuses.isEmpty() ? null : changedStatuses)
+                .removedAttractionIds(removedAttractionIds.isEmpty() ? null : removedAttractionIds)
+                .activeAlerts(changedAlerts.isEmpty() ? null : changedAlerts)
+                .removedAlertIds(removedAlertIds.isEmpty() ? null : removedAlertIds)
+                .build();
+
+        return isEmpty(patch) ? null : patch;
+    }
+
+    private static <T> void diffById(List<T> previous, List<T> next, Function<T, Long> id,
+                                     List<T> changed, List<Long> removed) {
+        Map<Long, T> previousById = new LinkedHashMap<>();
+        if (previous != null) {
+            previous.forEach(item -> previousById.put(id.apply(item), item));
+        }
+        if (next != null) {
+            for (T item : next) {
+                T before = previousById.remove(id.apply(item));
+                if (!item.equals(before)) {
+                    changed.add(item);
+                }
+            }
+        }
+        removed.addAll(previousById.keySet());
+    }
+
+    private static <T> T changed(T previous, T next) {
+        return Objects.equals(previous, next) ? null : next;
+    }
+
+    private static boolean isEmpty(DashboardPatch patch) {
+        return patch.equals(DashboardPatch.builder().sequence(patch.getSequence()).build());
+    }
+}
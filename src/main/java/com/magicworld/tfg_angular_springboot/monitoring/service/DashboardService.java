@@ -1,17 +1,14 @@
 package com.magicworld.tfg_angular_springboot.monitoring.service;
 
-import com.magicworld.tfg_angular_springboot.attraction.Attraction;
-import com.magicworld.tfg_angular_springboot.attraction.AttractionRepository;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionCatalog;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionView;
 import com.magicworld.tfg_angular_springboot.monitoring.dto.*;
 import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
-import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -20,10 +17,9 @@ import java.util.concurrent.ConcurrentHashMap;
 @RequiredArgsConstructor
 public class DashboardService {
 
-    private final EventIngestionService eventService;
+    private final ParkCounterService counterService;
     private final AlertService alertService;
-    private final AttractionRepository attractionRepository;
-    private final PurchaseLineService purchaseLineService;
+    private final AttractionCatalog attractionCatalog;
 
     @Value("${park.max-capacity:500}")
     private int parkMaxCapacity;
@@ -32,16 +28,14 @@ public class DashboardService {
 
     @Transactional(readOnly = true)
     public DashboardSnapshot getSnapshot() {
-        LocalDate today = LocalDate.now();
-        int ticketsSoldToday = purchaseLineService.getTotalSoldForDate(today);
+        int ticketsSoldToday = counterService.getTicketsSoldToday();
         int visitorLimit = Math.max(0, Math.min(ticketsSoldToday, parkMaxCapacity));
 
-        LocalDateTime todayStart = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        long entries = eventService.countEntriesSince(todayStart);
-        long exits = eventService.countExitsSince(todayStart);
+        long entries = counterService.getEntriesToday();
+        long exits = counterService.getExitsToday();
         int currentVisitors = Math.max(0, Math.min((int) (entries - exits), visitorLimit));
 
-        List<Attraction> allAttractions = attractionRepository.findAll();
+        List<AttractionView> allAttractions = attractionCatalog.getAll();
         List<AttractionStatus> statuses = allAttractions.stream()
                 .map(this::buildAttractionStatus)
                 .toList();
@@ -66,13 +60,13 @@ public class DashboardService {
                 .build();
     }
 
-    private AttractionStatus buildAttractionStatus(Attraction attraction) {
+    private AttractionStatus buildAttractionStatus(AttractionView attraction) {
         AttractionState state = attractionStates.computeIfAbsent(
                 attraction.getId(),
-                k -> new AttractionState(attraction.getIsActive()));
+                k -> new AttractionState(attraction.isActive()));
 
         // Always sync open/closed state from the database
-        state.isOpen = attraction.getIsActive();
+        state.isOpen = attraction.isActive();
 
         int waitTime = state.isOpen ? calculateWaitTime(state.queueSize) : 0;
 
@@ -124,9 +118,9 @@ public class DashboardService {
     }
 
     public void initializeAttractionStates() {
-        attractionRepository.findAll().forEach(a -> {
-            AttractionState state = new AttractionState(a.getIsActive());
-            state.isOpen = a.getIsActive();
+        attractionCatalog.getAll().forEach(a -> {
+            AttractionState state = new AttractionState(a.isActive());
+            state.isOpen = a.isActive();
             state.queueSize = 0;
             attractionStates.put(a.getId(), state);
         });
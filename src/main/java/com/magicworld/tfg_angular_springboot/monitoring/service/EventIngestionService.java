@@ -1,15 +1,27 @@
 package com.magicworld.tfg_angular_springboot.monitoring.service;
 
+import com.magicworld.tfg_angular_springboot.exceptions.BadRequestException;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.BulkEventResponse;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.BulkEventResult;
 import com.magicworld.tfg_angular_springboot.monitoring.dto.EventRequest;
 import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventJdbcRepository;
 import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventRepository;
 import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -18,25 +30,80 @@ public class EventIngestionService {
     private final ParkEventRepository eventRepository;
     private final MonitoringWebSocketService webSocketService;
     private final AlertService alertService;
+    private final EventWriteBehindService writeBehindService;
+    private final ParkEventJdbcRepository jdbcRepository;
+    private final Validator validator;
+    private final ParkCounterService counterService;
+    private final ParkEventRollupService rollupService;
+
+    @Value("${park.events.bulk.max-items:5000}")
+    private int bulkMaxItems;
+
+    @Value("${park.events.write-behind.flush-size:500}")
+    private int jdbcBatchSize;
 
     @Transactional
     public ParkEvent recordEvent(EventRequest request) {
-        ParkEvent event = ParkEvent.builder()
-                .eventType(request.getEventType())
-                .timestamp(LocalDateTime.now())
-                .attractionId(request.getAttractionId())
-                .userId(request.getUserId())
-                .visitorCount(request.getVisitorCount())
-                .queueSize(request.getQueueSize())
-                .metadata(request.getMetadata())
-                .build();
-
-        ParkEvent saved = eventRepository.save(event);
+        ParkEvent saved = eventRepository.save(toEvent(request));
+        counterService.recordEventsAfterCommit(List.of(saved));
         webSocketService.broadcastEvent(saved);
         alertService.checkAndTriggerAlerts(saved);
         return saved;
     }
 
+    /**
+     * Rejects a batch once it holds more than {@code park.events.bulk.max-items} items. Streaming callers
+     * call it per line so an oversized body is refused before it is fully read.
+     */
+    public void checkBulkSize(int count) {
+        if (count > bulkMaxItems) {
+            throw new BadRequestException("error.monitoring.bulk.too_many_events");
+        }
+    }
+
+    /**
+     * Validates every item independently and persists the valid ones with a single JDBC batch in one
+     * transaction. Alerts are evaluated once per attraction for the whole batch. A {@code null} item
+     * stands for a line that could not be parsed.
+     */
+    @Transactional
+    public BulkEventResponse recordEvents(List<EventRequest> requests) {
+        checkBulkSize(requests.size());
+
+        List<BulkEventResult> results = new ArrayList<>(requests.size());
+        List<ParkEvent> events = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String error = validate(requests.get(i));
+            if (error != null) {
+                results.add(BulkEventResult.builder().index(i).accepted(false).error(error).build());
+            } else {
+                events.add(toEvent(requests.get(i)));
+                results.add(BulkEventResult.builder().index(i).accepted(true).build());
+            }
+        }
+
+        jdbcRepository.batchInsert(events, jdbcBatchSize);
+        rollupService.apply(events);
+        counterService.recordEventsAfterCommit(events);
+        alertCandidates(events).forEach(alertService::checkAndTriggerAlerts);
+        events.forEach(webSocketService::broadcastEvent);
+
+        return BulkEventResponse.builder()
+                .received(requests.size())
+                .accepted(events.size())
+                .rejected(requests.size() - events.size())
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Hands the event to the write-behind buffer instead of persisting it inline.
+     * Used by high-rate producers that do not need the generated id back.
+     */
+    public void enqueueEvent(EventRequest request) {
+        writeBehindService.enqueue(toEvent(request));
+    }
+
     @Transactional(readOnly = true)
     public List<ParkEvent> getRecentEvents(int minutes) {
         LocalDateTime since = LocalDateTime.now().minusMinutes(minutes);
@@ -52,4 +119,48 @@ public class EventIngestionService {
     public long countExitsSince(LocalDateTime since) {
         return eventRepository.countByEventTypeSince(ParkEventType.PARK_EXIT, since);
     }
+
+    private String validate(EventRequest request) {
+        if (request == null) {
+            return "error.monitoring.event.malformed";
+        }
+        Set<ConstraintViolation<EventRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<EventRequest> first = violations.iterator().next();
+        return first.getPropertyPath() + ": " + first.getMessage();
+    }
+
+    /**
+     * Reduces a batch to the events that can raise an alert: the largest queue join and the first
+     * closure of each attraction.
+     */
+    private List<ParkEvent> alertCandidates(List<ParkEvent> events) {
+        Map<Long, ParkEvent> largestQueueJoin = new LinkedHashMap<>();
+        Map<Long, ParkEvent> firstClose = new LinkedHashMap<>();
+        for (ParkEvent event : events) {
+            if (event.getEventType() == ParkEventType.ATTRACTION_QUEUE_JOIN && event.getQueueSize() != null) {
+                largestQueueJoin.merge(event.getAttractionId(), event,
+                        (current, candidate) -> candidate.getQueueSize() > current.getQueueSize() ? candidate : current);
+            } else if (event.getEventType() == ParkEventType.ATTRACTION_CLOSE) {
+                firstClose.putIfAbsent(event.getAttractionId(), event);
+            }
+        }
+        List<ParkEvent> candidates = new ArrayList<>(largestQueueJoin.values());
+        candidates.addAll(firstClose.values());
+        return candidates;
+    }
+
+    private ParkEvent toEvent(EventRequest request) {
+        return ParkEvent.builder()
+                .eventType(request.getEventType())
+                .timestamp(LocalDateTime.now())
+                .attractionId(request.getAttractionId())
+                .userId(request.getUserId())
+                .visitorCount(request.getVisitorCount())
+                .queueSize(request.getQueueSize())
+                .metadata(request.getMetadata())
+                .build();
+    }
 }
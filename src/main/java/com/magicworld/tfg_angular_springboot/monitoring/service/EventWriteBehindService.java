@@ -0,0 +1,242 @@
+package com.magicworld.tfg_angular_springboot.monitoring.service;
+
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventJdbcRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupService;
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind stage for park events. Producers enqueue into a bounded ring buffer and a
+ * dedicated writer thread drains it in JDBC batches. Once a batch has committed, alerts are
+ * evaluated event by event, so a failing check neither rolls back the batch nor stops the others,
+ * and the events are broadcast.
+ * <p>
+ * When the buffer is full, producers wait up to {@code offer-timeout-ms}; if it is still full the
+ * event is written on the caller thread, so producers are slowed down rather than events dropped.
+ * <p>
+ * Events carrying a creation time are measured from creation to the commit of their batch, which
+ * includes the time spent in the buffer and the batch write.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventWriteBehindService {
+
+    private final ParkEventJdbcRepository jdbcRepository;
+    private final MonitoringWebSocketService webSocketService;
+    private final AlertService alertService;
+    private final ParkCounterService counterService;
+    private final ParkEventRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${park.events.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${park.events.write-behind.flush-size:500}")
+    private int flushSize;
+
+    @Value("${park.events.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${park.events.write-behind.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    private final LongAdder eventsWritten = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+    private final LongAdder callerRunsWrites = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private final LongAdder failedAlertChecks = new LongAdder();
+    private final AtomicLong pending = new AtomicLong();
+    private LatencyHistogram commitLatency = new LatencyHistogram();
+
+    private BlockingQueue<ParkEvent> buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+    private volatile long startedAtNanos;
+    private volatile double lastFlushEventsPerSecond;
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        startedAtNanos = System.nanoTime();
+        writerThread = new Thread(this::runWriter, "park-event-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Write-behind de eventos detenido ({} eventos escritos, {} fallidos)",
+                eventsWritten.sum(), failedEvents.sum());
+    }
+
+    public void enqueue(ParkEvent event) {
+        pending.incrementAndGet();
+        if (buffer.offer(event)) {
+            return;
+        }
+        backpressureWaits.increment();
+        try {
+            if (buffer.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        callerRunsWrites.increment();
+        writeBatch(List.of(event));
+    }
+
+    /**
+     * Drains everything currently buffered on the calling thread and waits for batches already
+     * taken by the writer, so every event enqueued before the call is written when it returns.
+     */
+    public void flush() {
+        List<ParkEvent> batch = new ArrayList<>(flushSize);
+        while (buffer.drainTo(batch, flushSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pending.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Returns the creation-to-commit latencies recorded since the previous call and starts a new
+     * histogram.
+     */
+    public synchronized LatencyHistogram drainCommitLatency() {
+        LatencyHistogram drained = commitLatency;
+        commitLatency = new LatencyHistogram();
+        return drained;
+    }
+
+    public Map<String, Object> getStats() {
+        double elapsedSeconds = (System.nanoTime() - startedAtNanos) / 1_000_000_000.0;
+        long written = eventsWritten.sum();
+        return Map.of(
+                "bufferSize", buffer.size(),
+                "bufferCapacity", capacity,
+                "eventsWritten", written,
+                "flushes", flushes.sum(),
+                "backpressureWaits", backpressureWaits.sum(),
+                "callerRunsWrites", callerRunsWrites.sum(),
+                "failedEvents", failedEvents.sum(),
+                "failedAlertChecks", failedAlertChecks.sum(),
+                "averageEventsPerSecond", elapsedSeconds > 0 ? written / elapsedSeconds : 0.0,
+                "lastFlushEventsPerSecond", lastFlushEventsPerSecond);
+    }
+
+    private void runWriter() {
+        List<ParkEvent> batch = new ArrayList<>(flushSize);
+        while (running) {
+            try {
+                ParkEvent first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<ParkEvent> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < flushSize) {
+            buffer.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0) {
+                return;
+            }
+            ParkEvent next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(List<ParkEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcRepository.batchInsert(batch, flushSize);
+                rollupService.apply(batch);
+                counterService.shareEvents(batch);
+            });
+        } catch (RuntimeException e) {
+            failedEvents.add(batch.size());
+            pending.addAndGet(-batch.size());
+            log.error("Error escribiendo lote de {} eventos del parque", batch.size(), e);
+            return;
+        }
+        recordCommitLatency(batch);
+        try {
+            long elapsedNanos = Math.max(1, System.nanoTime() - start);
+            lastFlushEventsPerSecond = batch.size() * 1_000_000_000.0 / elapsedNanos;
+            eventsWritten.add(batch.size());
+            flushes.increment();
+            batch.forEach(this::checkAlerts);
+            counterService.recordEvents(batch);
+            batch.forEach(webSocketService::broadcastEvent);
+        } catch (RuntimeException e) {
+            log.error("Error publicando lote de {} eventos del parque ya guardados", batch.size(), e);
+        } finally {
+            pending.addAndGet(-batch.size());
+        }
+    }
+
+    private synchronized void recordCommitLatency(List<ParkEvent> batch) {
+        long committedAt = System.nanoTime();
+        for (ParkEvent event : batch) {
+            if (event.getCreatedNanos() != 0) {
+                commitLatency.record(committedAt - event.getCreatedNanos());
+            }
+        }
+    }
+
+    private void checkAlerts(ParkEvent event) {
+        try {
+            alertService.checkAndTriggerAlerts(event);
+        } catch (RuntimeException e) {
+            failedAlertChecks.increment();
+            log.warn("Error evaluando alertas del evento {} ({}): {}", event.getId(), event.getEventType(),
+                    e.getMessage());
+        }
+    }
+}
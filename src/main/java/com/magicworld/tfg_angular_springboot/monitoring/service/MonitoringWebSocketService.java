@@ -12,19 +12,20 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class MonitoringWebSocketService {
 
-    private static final String TOPIC_DASHBOARD = "/topic/dashboard";
     private static final String TOPIC_EVENTS = "/topic/events";
     private static final String TOPIC_ALERTS = "/topic/alerts";
     private static final String TOPIC_ATTRACTION = "/topic/attraction/";
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final DashboardDeltaService dashboardDeltaService;
+    private final BroadcastCoalescer broadcastCoalescer;
 
     public void broadcastDashboard(DashboardSnapshot snapshot) {
-        messagingTemplate.convertAndSend(TOPIC_DASHBOARD, snapshot);
+        dashboardDeltaService.publish(snapshot);
     }
 
     public void broadcastEvent(ParkEvent event) {
-        messagingTemplate.convertAndSend(TOPIC_EVENTS, event);
+        broadcastCoalescer.submit(TOPIC_EVENTS, event);
     }
 
     public void broadcastAlert(AlertDTO alert) {
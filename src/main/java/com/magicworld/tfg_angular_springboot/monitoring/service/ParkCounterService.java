@@ -0,0 +1,255 @@
+package com.magicworld.tfg_angular_springboot.monitoring.service;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.purchase.PurchaseCreatedEvent;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for today's park entries, exits and tickets sold. Seeded from the database at
+ * startup and on day rollover, then updated incrementally as events and purchases commit and as
+ * purchase lines are deleted, so dashboard snapshots do not need to run COUNT/SUM queries. A new
+ * day's counters are installed with a compare-and-set, so callers racing over the rollover all
+ * update the same counters. Every change is also published as a
+ * delta through {@link ClusterCacheSync} in the writing transaction, so the other nodes' counters
+ * follow it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParkCounterService {
+
+    static final String CACHE_NAME = "park-counters";
+
+    private final ParkEventRepository eventRepository;
+    private final PurchaseLineService purchaseLineService;
+    private final ClusterCacheSync clusterCacheSync;
+
+    private final AtomicReference<DayCounters> counters = new AtomicReference<>();
+
+    @PostConstruct
+    public void registerSync() {
+        clusterCacheSync.register(CACHE_NAME, deltas -> deltas.forEach(this::applyDelta));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        reseed();
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollover() {
+        current();
+    }
+
+    /**
+     * Replaces the counters with a fresh count from the database.
+     */
+    public void reseed() {
+        DayCounters seeded = seed(LocalDate.now());
+        counters.set(seeded);
+        logSeeded(seeded);
+    }
+
+    public long getEntriesToday() {
+        return current().entries.sum();
+    }
+
+    public long getExitsToday() {
+        return current().exits.sum();
+    }
+
+    public int getTicketsSoldToday() {
+        return (int) current().ticketsSold.sum();
+    }
+
+    /**
+     * Counts events that have just been persisted outside of any transaction.
+     */
+    public void recordEvents(List<ParkEvent> events) {
+        DayCounters today = current();
+        for (ParkEvent event : events) {
+            if (event.getTimestamp() == null || !today.day.equals(event.getTimestamp().toLocalDate())) {
+                continue;
+            }
+            if (event.getEventType() == ParkEventType.PARK_ENTRY) {
+                today.entries.increment();
+            } else if (event.getEventType() == ParkEventType.PARK_EXIT) {
+                today.exits.increment();
+            }
+        }
+    }
+
+    /**
+     * Counts events once the surrounding transaction commits, or immediately when there is none.
+     */
+    public void recordEventsAfterCommit(List<ParkEvent> events) {
+        shareEvents(events);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordEvents(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordEvents(events);
+            }
+        });
+    }
+
+    /**
+     * Publishes today's entries and exits among {@code events} to the other nodes; call it in the
+     * transaction that persists them.
+     */
+    public void shareEvents(List<ParkEvent> events) {
+        LocalDate today = LocalDate.now();
+        long entries = 0;
+        long exits = 0;
+        for (ParkEvent event : events) {
+            if (event.getTimestamp() == null || !today.equals(event.getTimestamp().toLocalDate())) {
+                continue;
+            }
+            if (event.getEventType() == ParkEventType.PARK_ENTRY) {
+                entries++;
+            } else if (event.getEventType() == ParkEventType.PARK_EXIT) {
+                exits++;
+            }
+        }
+        shareDelta(today, entries, exits, 0);
+    }
+
+    /**
+     * Publishes the purchase to the other nodes from inside the purchase transaction.
+     */
+    @EventListener
+    public void sharePurchase(PurchaseCreatedEvent event) {
+        LocalDate today = LocalDate.now();
+        shareDelta(today, 0, 0, soldOn(today, event.getLines()));
+    }
+
+    /**
+     * Takes deleted purchase lines back off today's tickets sold once the surrounding transaction
+     * commits, or immediately when there is none, and publishes the change to the other nodes.
+     */
+    public void returnSold(List<PurchaseLine> lines) {
+        LocalDate today = LocalDate.now();
+        long returned = soldOn(today, lines);
+        if (returned == 0) {
+            return;
+        }
+        shareDelta(today, 0, 0, -returned);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            subtractSold(today, returned);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                subtractSold(today, returned);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPurchaseCreated(PurchaseCreatedEvent event) {
+        DayCounters today = current();
+        for (PurchaseLine line : event.getLines()) {
+            if (today.day.equals(line.getValidDate())) {
+                today.ticketsSold.add(line.getQuantity());
+            }
+        }
+    }
+
+    private static long soldOn(LocalDate day, List<PurchaseLine> lines) {
+        long sold = 0;
+        for (PurchaseLine line : lines) {
+            if (day.equals(line.getValidDate())) {
+                sold += line.getQuantity();
+            }
+        }
+        return sold;
+    }
+
+    private void shareDelta(LocalDate day, long entries, long exits, long ticketsSold) {
+        if (entries != 0 || exits != 0 || ticketsSold != 0) {
+            clusterCacheSync.publish(CACHE_NAME, day + "|" + entries + "|" + exits + "|" + ticketsSold);
+        }
+    }
+
+    /**
+     * Adds a delta published by another node, formatted {@code day|entries|exits|ticketsSold}.
+     */
+    void applyDelta(String delta) {
+        String[] parts = delta.split("\\|");
+        DayCounters today = current();
+        if (!today.day.equals(LocalDate.parse(parts[0]))) {
+            return;
+        }
+        today.entries.add(Long.parseLong(parts[1]));
+        today.exits.add(Long.parseLong(parts[2]));
+        today.ticketsSold.add(Long.parseLong(parts[3]));
+    }
+
+    private void subtractSold(LocalDate day, long returned) {
+        DayCounters today = current();
+        if (today.day.equals(day)) {
+            today.ticketsSold.add(-returned);
+        }
+    }
+
+    private DayCounters current() {
+        LocalDate today = LocalDate.now();
+        DayCounters snapshot = counters.get();
+        while (snapshot == null || !snapshot.day.equals(today)) {
+            DayCounters seeded = seed(today);
+            if (counters.compareAndSet(snapshot, seeded)) {
+                logSeeded(seeded);
+                return seeded;
+            }
+            snapshot = counters.get();
+        }
+        return snapshot;
+    }
+
+    private DayCounters seed(LocalDate today) {
+        DayCounters seeded = new DayCounters(today);
+        seeded.entries.add(eventRepository.countByEventTypeSince(ParkEventType.PARK_ENTRY, today.atStartOfDay()));
+        seeded.exits.add(eventRepository.countByEventTypeSince(ParkEventType.PARK_EXIT, today.atStartOfDay()));
+        seeded.ticketsSold.add(purchaseLineService.getTotalSoldForDate(today));
+        return seeded;
+    }
+
+    private static void logSeeded(DayCounters seeded) {
+        log.info("Contadores del parque inicializados para {}: {} entradas, {} salidas, {} tickets",
+                seeded.day, seeded.entries.sum(), seeded.exits.sum(), seeded.ticketsSold.sum());
+    }
+
+    private static final class DayCounters {
+        private final LocalDate day;
+        private final LongAdder entries = new LongAdder();
+        private final LongAdder exits = new LongAdder();
+        private final LongAdder ticketsSold = new LongAdder();
+
+        private DayCounters(LocalDate day) {
+            this.day = day;
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.magicworld.tfg_angular_springboot.monitoring.service;
 
-import com.magicworld.tfg_angular_springboot.attraction.Attraction;
-import com.magicworld.tfg_angular_springboot.attraction.AttractionRepository;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionCatalog;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionView;
 import com.magicworld.tfg_angular_springboot.employee.EmployeeRole;
-import com.magicworld.tfg_angular_springboot.employee.dto.AvailableEmployeesResponse;
-import com.magicworld.tfg_angular_springboot.employee.service.DailyOperationsService;
+import com.magicworld.tfg_angular_springboot.employee.StaffAvailabilityCatalog;
 import com.magicworld.tfg_angular_springboot.monitoring.alert.*;
 import com.magicworld.tfg_angular_springboot.monitoring.dto.*;
 import lombok.RequiredArgsConstructor;
@@ -17,20 +16,28 @@ import java.util.List;
 @SuppressWarnings("PMD.UnusedFormalParameter")
 public class ResolutionOptionsService {
 
-    private final AttractionRepository attractionRepository;
-    private final DailyOperationsService dailyOperationsService;
+    private final AttractionCatalog attractionCatalog;
+    private final StaffAvailabilityCatalog staffAvailabilityCatalog;
 
     public List<ResolutionOption> getResolutionOptions(ParkAlert alert) {
+        return getResolutionOptions(alert, staffAvailabilityCatalog.current());
+    }
+
+    /**
+     * Builds the options against an already loaded staff snapshot, so a batch of alerts can share
+     * one availability lookup.
+     */
+    public List<ResolutionOption> getResolutionOptions(ParkAlert alert, StaffAvailabilityCatalog.Snapshot staff) {
         AlertType type = alert.getAlertType();
         return switch (type) {
             case HIGH_QUEUE -> getQueueOptions(alert);
-            case MEDICAL_EMERGENCY -> getMedicalOptions(alert);
-            case GUEST_COMPLAINT -> getComplaintOptions();
-            case SAFETY_CONCERN, TECHNICAL_ISSUE -> getTechnicalOptions(alert);
-            case MAINTENANCE_REQUIRED -> getMaintenanceOptions(alert);
-            case LOST_CHILD -> getLostChildOptions(alert);
-            case LOW_STAFF -> getStaffOptions(alert);
-            case ATTRACTION_DOWN -> getAttractionDownOptions(alert);
+            case MEDICAL_EMERGENCY -> getMedicalOptions(staff);
+            case GUEST_COMPLAINT -> getComplaintOptions(staff);
+            case SAFETY_CONCERN, TECHNICAL_ISSUE -> getTechnicalOptions(alert, staff);
+            case MAINTENANCE_REQUIRED -> getMaintenanceOptions(alert, staff);
+            case LOST_CHILD -> getLostChildOptions(staff);
+            case LOW_STAFF -> getStaffOptions(staff);
+            case ATTRACTION_DOWN -> getAttractionDownOptions(staff);
             default -> getDefaultOptions();
         };
     }
@@ -45,87 +52,70 @@ public class ResolutionOptionsService {
                         "Inform visitors via PA system", true));
     }
 
-    private List<ResolutionOption> getMedicalOptions(ParkAlert alert) {
-        AvailableEmployeesResponse medical = dailyOperationsService.checkAvailableEmployees(EmployeeRole.MEDICAL);
-
+    private List<ResolutionOption> getMedicalOptions(StaffAvailabilityCatalog.Snapshot staff) {
         return List.of(
                 buildOption("send_medical", "Send medical team",
-                        "Assign park medical staff", medical.isHasAvailable()),
+                        "Assign park medical staff", staff.isAvailable(EmployeeRole.MEDICAL)),
                 buildOption("call_ambulance", "Call ambulance",
                         "Contact emergency services", true));
     }
 
-    private List<ResolutionOption> getComplaintOptions() {
-        AvailableEmployeesResponse guestServices = dailyOperationsService
-                .checkAvailableEmployees(EmployeeRole.GUEST_SERVICES);
-
+    private List<ResolutionOption> getComplaintOptions(StaffAvailabilityCatalog.Snapshot staff) {
         return List.of(
                 buildOption("assign_guest_services", "Assign guest services",
-                        "Send staff to handle complaint", guestServices.isHasAvailable()),
+                        "Send staff to handle complaint", staff.isAvailable(EmployeeRole.GUEST_SERVICES)),
                 buildOption("offer_compensation", "Offer compensation",
                         "Provide voucher or discount", true),
                 buildOption("offer_fastpass", "Offer FastPass",
                         "Priority access to another attraction", true));
     }
 
-    private List<ResolutionOption> getTechnicalOptions(ParkAlert alert) {
-        AvailableEmployeesResponse security = dailyOperationsService.checkAvailableEmployees(EmployeeRole.SECURITY);
-        AvailableEmployeesResponse maintenance = dailyOperationsService
-                .checkAvailableEmployees(EmployeeRole.MAINTENANCE);
+    private List<ResolutionOption> getTechnicalOptions(ParkAlert alert, StaffAvailabilityCatalog.Snapshot staff) {
         boolean canClose = canCloseAttraction(alert.getAttractionId());
 
         return List.of(
                 buildOption("security_patrol", "Send security",
-                        "Patrol to evaluate situation", security.isHasAvailable()),
+                        "Patrol to evaluate situation", staff.isAvailable(EmployeeRole.SECURITY)),
                 buildOption("immediate_maintenance", "Immediate maintenance",
-                        "Close and assign technician", maintenance.isHasAvailable() && canClose),
+                        "Close and assign technician", staff.isAvailable(EmployeeRole.MAINTENANCE) && canClose),
                 buildOption("temporary_close", "Temporary closure",
                         "Close for inspection", canClose),
                 buildOption("announce_pa", "PA announcement",
                         "Inform via loudspeaker", true));
     }
 
-    private List<ResolutionOption> getMaintenanceOptions(ParkAlert alert) {
-        AvailableEmployeesResponse maintenance = dailyOperationsService
-                .checkAvailableEmployees(EmployeeRole.MAINTENANCE);
+    private List<ResolutionOption> getMaintenanceOptions(ParkAlert alert, StaffAvailabilityCatalog.Snapshot staff) {
         boolean canClose = canCloseAttraction(alert.getAttractionId());
 
         return List.of(
                 buildOption("schedule_maintenance", "Schedule maintenance",
                         "Plan for next closing", true),
                 buildOption("immediate_maintenance", "Immediate maintenance",
-                        "Close now and repair", maintenance.isHasAvailable() && canClose));
+                        "Close now and repair", staff.isAvailable(EmployeeRole.MAINTENANCE) && canClose));
     }
 
-    private List<ResolutionOption> getLostChildOptions(ParkAlert alert) {
-        AvailableEmployeesResponse security = dailyOperationsService.checkAvailableEmployees(EmployeeRole.SECURITY);
-
+    private List<ResolutionOption> getLostChildOptions(StaffAvailabilityCatalog.Snapshot staff) {
         return List.of(
                 buildOption("activate_search", "Activate search protocol",
-                        "Full search with security", security.isHasAvailable()),
+                        "Full search with security", staff.isAvailable(EmployeeRole.SECURITY)),
                 buildOption("announce_pa", "PA announcement",
                         "Broadcast description", true),
                 buildOption("security_patrol", "Alert security",
-                        "Notify guards", security.isHasAvailable()));
+                        "Notify guards", staff.isAvailable(EmployeeRole.SECURITY)));
     }
 
-    private List<ResolutionOption> getStaffOptions(ParkAlert alert) {
-        AvailableEmployeesResponse operators = dailyOperationsService.checkAvailableEmployees(EmployeeRole.OPERATOR);
-
+    private List<ResolutionOption> getStaffOptions(StaffAvailabilityCatalog.Snapshot staff) {
         return List.of(
                 buildOption("add_staff", "Assign available staff",
-                        "Assign from available pool", operators.isHasAvailable()),
+                        "Assign from available pool", staff.isAvailable(EmployeeRole.OPERATOR)),
                 buildOption("announce_pa", "Request via PA",
                         "Call for staff assistance", true));
     }
 
-    private List<ResolutionOption> getAttractionDownOptions(ParkAlert alert) {
-        AvailableEmployeesResponse maintenance = dailyOperationsService
-                .checkAvailableEmployees(EmployeeRole.MAINTENANCE);
-
+    private List<ResolutionOption> getAttractionDownOptions(StaffAvailabilityCatalog.Snapshot staff) {
         return List.of(
                 buildOption("immediate_maintenance", "Assign maintenance",
-                        "Send technician to repair", maintenance.isHasAvailable()),
+                        "Send technician to repair", staff.isAvailable(EmployeeRole.MAINTENANCE)),
                 buildOption("schedule_maintenance", "Schedule repair",
                         "Plan repair for later", true),
                 buildOption("announce_pa", "Inform visitors",
@@ -141,8 +131,8 @@ public class ResolutionOptionsService {
     private boolean canCloseAttraction(Long attractionId) {
         if (attractionId == null)
             return false;
-        return attractionRepository.findById(attractionId)
-                .map(Attraction::getIsActive)
+        return attractionCatalog.findById(attractionId)
+                .map(AttractionView::isActive)
                 .orElse(false);
     }
 
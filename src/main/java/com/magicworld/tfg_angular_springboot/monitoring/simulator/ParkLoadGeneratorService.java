@@ -0,0 +1,342 @@
+package com.magicworld.tfg_angular_springboot.monitoring.simulator;
+
+import com.magicworld.tfg_angular_springboot.attraction.AttractionCatalog;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionView;
+import com.magicworld.tfg_angular_springboot.attraction.Intensity;
+import com.magicworld.tfg_angular_springboot.exceptions.BadRequestException;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.LoadGenerationReport;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.LoadGenerationRequest;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.monitoring.service.EventWriteBehindService;
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load-generation engine for capacity planning of the monitoring stack. Unlike
+ * {@link ParkSimulatorService}, which animates the dashboard at human speed, this models up to
+ * 100k visitors split across worker threads and feeds events straight into the write-behind
+ * buffer at a target rate.
+ * <p>
+ * Runs are reproducible: each worker owns a fixed slice of visitors and events and a
+ * {@link SplittableRandom} split from the run seed, so the same request always generates the
+ * same event sequence per worker (reported as {@code fingerprint}); only timestamps differ.
+ * Queue sizes are each worker's local queue scaled by the number of workers, which keeps
+ * workers independent of each other's scheduling.
+ * <p>
+ * Besides the time to enqueue, each event is stamped when it is created and the write-behind
+ * stage reports how long it took to commit, so the report covers buffering and batch writes too.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParkLoadGeneratorService {
+
+    private static final int EXIT_PERCENT = 5;
+    private static final String METADATA = "{\"source\":\"load-generator\"}";
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final EventWriteBehindService writeBehindService;
+    private final AttractionCatalog attractionCatalog;
+
+    @Value("${park.load.enabled:false}")
+    private boolean enabled;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile LoadGenerationReport lastReport;
+
+    /**
+     * Starts a run on a background thread and returns immediately.
+     */
+    public void start(LoadGenerationRequest request) {
+        acquire(request);
+        Thread runner = new Thread(() -> {
+            try {
+                execute(request);
+            } catch (RuntimeException e) {
+                log.error("Error en la generación de carga (semilla {})", request.getSeed(), e);
+            } finally {
+                running.set(false);
+            }
+        }, "park-load-runner");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    /**
+     * Runs to completion on the calling thread, including draining the write-behind buffer.
+     */
+    public LoadGenerationReport run(LoadGenerationRequest request) {
+        acquire(request);
+        try {
+            return execute(request);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("running", running.get());
+        status.put("lastReport", lastReport);
+        return status;
+    }
+
+    private void acquire(LoadGenerationRequest request) {
+        if (!enabled) {
+            throw new BadRequestException("error.monitoring.load.disabled");
+        }
+        if (request.getWorkers() > request.getVisitors()) {
+            throw new BadRequestException("error.monitoring.load.invalid_request");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("error.monitoring.load.already_running");
+        }
+    }
+
+    private LoadGenerationReport execute(LoadGenerationRequest request) {
+        List<AttractionView> attractions = attractionCatalog.getActive().stream()
+                .sorted(Comparator.comparing(AttractionView::getId))
+                .toList();
+        int workerCount = request.getWorkers();
+        long totalEvents = (long) request.getTargetEventsPerSecond() * request.getDurationSeconds();
+        double ratePerWorker = (double) request.getTargetEventsPerSecond() / workerCount;
+
+        SplittableRandom root = new SplittableRandom(request.getSeed());
+        List<Worker> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            int visitors = share(request.getVisitors(), workerCount, i);
+            long events = share(totalEvents, workerCount, i);
+            workers.add(new Worker(root.split(), attractions, workerCount, visitors, events, ratePerWorker));
+        }
+
+        log.info("Generación de carga iniciada: {} visitantes, {} hilos, {} eventos/s durante {} s (semilla {})",
+                request.getVisitors(), workerCount, request.getTargetEventsPerSecond(),
+                request.getDurationSeconds(), request.getSeed());
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "park-load-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        writeBehindService.drainCommitLatency();
+        long startNanos = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(workerCount);
+            for (Worker worker : workers) {
+                futures.add(pool.submit(() -> worker.run(startNanos)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        } catch (ExecutionException e) {
+            pool.shutdownNow();
+            throw new IllegalStateException("Load generation worker failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        long generatedNanos = System.nanoTime() - startNanos;
+        writeBehindService.flush();
+        long drainNanos = System.nanoTime() - startNanos - generatedNanos;
+
+        LoadGenerationReport report = buildReport(request, workers, startedAt, generatedNanos, drainNanos,
+                writeBehindService.drainCommitLatency());
+        lastReport = report;
+        log.info("Generación de carga terminada: {} eventos a {} eventos/s, p99 encolado {} ms, p99 hasta commit {} ms",
+                report.getEventsGenerated(), Math.round(report.getAchievedEventsPerSecond()),
+                report.getEnqueueLatency().get("p99Ms"), report.getEndToEndLatency().get("p99Ms"));
+        return report;
+    }
+
+    private LoadGenerationReport buildReport(LoadGenerationRequest request, List<Worker> workers,
+                                             LocalDateTime startedAt, long generatedNanos, long drainNanos,
+                                             LatencyHistogram endToEndLatency) {
+        LatencyHistogram enqueueLatency = new LatencyHistogram();
+        LatencyHistogram scheduleLatency = new LatencyHistogram();
+        long[] byType = new long[ParkEventType.values().length];
+        long fingerprint = FNV_OFFSET;
+        long generated = 0;
+        for (Worker worker : workers) {
+            enqueueLatency.merge(worker.enqueueLatency);
+            scheduleLatency.merge(worker.scheduleLatency);
+            for (int i = 0; i < byType.length; i++) {
+                byType[i] += worker.countsByType[i];
+            }
+            fingerprint = (fingerprint ^ worker.fingerprint) * FNV_PRIME;
+            generated += worker.generated;
+        }
+        Map<ParkEventType, Long> eventsByType = new EnumMap<>(ParkEventType.class);
+        for (ParkEventType type : ParkEventType.values()) {
+            if (byType[type.ordinal()] > 0) {
+                eventsByType.put(type, byType[type.ordinal()]);
+            }
+        }
+        double generationSeconds = generatedNanos / 1_000_000_000.0;
+        return LoadGenerationReport.builder()
+                .seed(request.getSeed())
+                .visitors(request.getVisitors())
+                .workers(request.getWorkers())
+                .targetEventsPerSecond(request.getTargetEventsPerSecond())
+                .durationSeconds(request.getDurationSeconds())
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .eventsGenerated(generated)
+                .generationSeconds(generationSeconds)
+                .achievedEventsPerSecond(generationSeconds > 0 ? generated / generationSeconds : 0.0)
+                .drainSeconds(drainNanos / 1_000_000_000.0)
+                .fingerprint(Long.toHexString(fingerprint))
+                .eventsByType(eventsByType)
+                .enqueueLatency(enqueueLatency.toSummary())
+                .scheduleLatency(scheduleLatency.toSummary())
+                .endToEndLatency(endToEndLatency.toSummary())
+                .writeBehind(writeBehindService.getStats())
+                .build();
+    }
+
+    private static int share(int total, int parts, int index) {
+        return total / parts + (index < total % parts ? 1 : 0);
+    }
+
+    private static long share(long total, int parts, int index) {
+        return total / parts + (index < total % parts ? 1 : 0);
+    }
+
+    private static int weightOf(Intensity intensity) {
+        if (intensity == Intensity.HIGH) {
+            return 3;
+        }
+        return intensity == Intensity.MEDIUM ? 2 : 1;
+    }
+
+    /**
+     * One worker's slice of the park. All state is thread-confined; results are read after the
+     * worker's future completes.
+     */
+    private final class Worker {
+
+        private final SplittableRandom random;
+        private final long[] attractionIds;
+        private final int[] cumulativeWeights;
+        private final int queueScale;
+        private final boolean[] inPark;
+        private final int[] queuedAt;
+        private final int[] localQueues;
+        private final long events;
+        private final double intervalNanos;
+
+        private final LatencyHistogram enqueueLatency = new LatencyHistogram();
+        private final LatencyHistogram scheduleLatency = new LatencyHistogram();
+        private final long[] countsByType = new long[ParkEventType.values().length];
+        private long fingerprint = FNV_OFFSET;
+        private long generated;
+
+        private Worker(SplittableRandom random, List<AttractionView> attractions, int queueScale,
+                       int visitors, long events, double ratePerWorker) {
+            this.random = random;
+            this.attractionIds = attractions.stream().mapToLong(AttractionView::getId).toArray();
+            this.cumulativeWeights = new int[attractions.size()];
+            int total = 0;
+            for (int i = 0; i < attractions.size(); i++) {
+                total += weightOf(attractions.get(i).getIntensity());
+                cumulativeWeights[i] = total;
+            }
+            this.queueScale = queueScale;
+            this.inPark = new boolean[visitors];
+            this.queuedAt = new int[visitors];
+            Arrays.fill(queuedAt, -1);
+            this.localQueues = new int[attractions.size()];
+            this.events = events;
+            this.intervalNanos = 1_000_000_000.0 / ratePerWorker;
+        }
+
+        private void run(long startNanos) {
+            for (long k = 0; k < events && !Thread.currentThread().isInterrupted(); k++) {
+                long intended = startNanos + (long) (k * intervalNanos);
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                ParkEvent event = nextEvent();
+                long before = System.nanoTime();
+                writeBehindService.enqueue(event);
+                long after = System.nanoTime();
+                enqueueLatency.record(after - before);
+                scheduleLatency.record(after - intended);
+                generated++;
+            }
+        }
+
+        private ParkEvent nextEvent() {
+            int visitor = random.nextInt(inPark.length);
+            if (!inPark[visitor]) {
+                inPark[visitor] = true;
+                return event(ParkEventType.PARK_ENTRY, -1);
+            }
+            int queued = queuedAt[visitor];
+            if (queued >= 0) {
+                queuedAt[visitor] = -1;
+                localQueues[queued]--;
+                return event(ParkEventType.ATTRACTION_QUEUE_LEAVE, queued);
+            }
+            if (attractionIds.length == 0 || random.nextInt(100) < EXIT_PERCENT) {
+                inPark[visitor] = false;
+                return event(ParkEventType.PARK_EXIT, -1);
+            }
+            int attraction = pickAttraction();
+            queuedAt[visitor] = attraction;
+            localQueues[attraction]++;
+            return event(ParkEventType.ATTRACTION_QUEUE_JOIN, attraction);
+        }
+
+        private int pickAttraction() {
+            int target = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            int index = Arrays.binarySearch(cumulativeWeights, target + 1);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private ParkEvent event(ParkEventType type, int attraction) {
+            Long attractionId = attraction >= 0 ? attractionIds[attraction] : null;
+            Integer queueSize = attraction >= 0 ? localQueues[attraction] * queueScale : null;
+            countsByType[type.ordinal()]++;
+            fingerprint = (fingerprint ^ type.ordinal()) * FNV_PRIME;
+            fingerprint = (fingerprint ^ (attractionId != null ? attractionId : -1L)) * FNV_PRIME;
+            fingerprint = (fingerprint ^ (queueSize != null ? queueSize : -1)) * FNV_PRIME;
+            return ParkEvent.builder()
+                    .eventType(type)
+                    .timestamp(LocalDateTime.now())
+                    .attractionId(attractionId)
+                    .visitorCount(1)
+                    .queueSize(queueSize)
+                    .metadata(METADATA)
+                    .createdNanos(System.nanoTime())
+                    .build();
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package com.magicworld.tfg_angular_springboot.monitoring.simulator;
 
-import com.magicworld.tfg_angular_springboot.attraction.Attraction;
-import com.magicworld.tfg_angular_springboot.attraction.AttractionRepository;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionCatalog;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionView;
+import com.magicworld.tfg_angular_springboot.attraction.Intensity;
 import com.magicworld.tfg_angular_springboot.monitoring.dto.EventRequest;
 import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
 import com.magicworld.tfg_angular_springboot.monitoring.service.AlertService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.DashboardDeltaService;
 import com.magicworld.tfg_angular_springboot.monitoring.service.DashboardService;
 import com.magicworld.tfg_angular_springboot.monitoring.service.EventIngestionService;
 import com.magicworld.tfg_angular_springboot.monitoring.service.MonitoringWebSocketService;
-import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.ParkCounterService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,10 +33,11 @@ public class ParkSimulatorService {
 
     private final EventIngestionService eventService;
     private final DashboardService dashboardService;
-    private final AttractionRepository attractionRepository;
+    private final AttractionCatalog attractionCatalog;
     private final MonitoringWebSocketService webSocketService;
     private final AlertService alertService;
-    private final PurchaseLineService purchaseLineService;
+    private final ParkCounterService counterService;
+    private final DashboardDeltaService dashboardDeltaService;
 
     @Value("${park.max-capacity:500}")
     private int parkMaxCapacity;
@@ -53,13 +56,16 @@ public class ParkSimulatorService {
 
     public void start() {
         running.set(true);
-        int ticketsSold = purchaseLineService.getTotalSoldForDate(java.time.LocalDate.now());
+        int ticketsSold = counterService.getTicketsSoldToday();
         maxVisitorsForSession = Math.max(0, Math.min(ticketsSold, parkMaxCapacity));
         simulatedVisitors.set(maxVisitorsForSession);
         initializeQueues();
         normalizeQueuesToCapacity();
         log.info("Simulador iniciado con {} visitantes (tickets vendidos: {}, máximo sesión: {})",
                 simulatedVisitors.get(), ticketsSold, maxVisitorsForSession);
+        if (!dashboardDeltaService.isPublisher()) {
+            log.warn("Este nodo no publica el dashboard: el simulador solo avanza en el nodo publicador");
+        }
     }
 
     public void stop() {
@@ -72,10 +78,8 @@ public class ParkSimulatorService {
     }
 
     private void initializeQueues() {
-        List<Attraction> allAttractions = attractionRepository.findAll();
-        List<Attraction> activeAttractions = allAttractions.stream()
-                .filter(Attraction::getIsActive)
-                .toList();
+        AttractionCatalog.Snapshot catalog = attractionCatalog.current();
+        List<AttractionView> activeAttractions = catalog.getActive();
 
         simulatedQueues.clear();
 
@@ -83,7 +87,7 @@ public class ParkSimulatorService {
         int budget = getQueueCapacity();
         int remaining = budget;
 
-        for (Attraction a : activeAttractions) {
+        for (AttractionView a : activeAttractions) {
             int maxForThis = Math.max(0, remaining);
             int initialQueue = maxForThis > 0 ? Math.min(5 + random.nextInt(Math.min(25, maxForThis)), maxForThis) : 0;
             simulatedQueues.put(a.getId(), new AtomicInteger(initialQueue));
@@ -93,8 +97,8 @@ public class ParkSimulatorService {
         }
 
         // Inactive attractions get zero
-        allAttractions.stream()
-                .filter(a -> !a.getIsActive())
+        catalog.getAll().stream()
+                .filter(a -> !a.isActive())
                 .forEach(a -> {
                     simulatedQueues.put(a.getId(), new AtomicInteger(0));
                     dashboardService.updateAttractionState(a.getId(), ParkEventType.ATTRACTION_CLOSE, null);
@@ -104,7 +108,8 @@ public class ParkSimulatorService {
 
     @Scheduled(fixedRate = 2000)
     public void simulateParkActivity() {
-        if (!running.get())
+        // Behind the relay broker only the publishing node ticks, so alerts and frames aren't duplicated
+        if (!running.get() || !dashboardDeltaService.isPublisher())
             return;
 
         tickCount++;
@@ -121,10 +126,10 @@ public class ParkSimulatorService {
     }
 
     private void generateRandomAlert() {
-        List<Attraction> attractions = attractionRepository.findAll();
+        List<AttractionView> attractions = attractionCatalog.getAll();
         if (attractions.isEmpty())
             return;
-        Attraction target = attractions.get(random.nextInt(attractions.size()));
+        AttractionView target = attractions.get(random.nextInt(attractions.size()));
         alertService.generateRandomAlert(target.getId());
     }
 
@@ -171,14 +176,11 @@ public class ParkSimulatorService {
     }
 
     private void simulateAllQueues() {
-        List<Attraction> attractions = attractionRepository.findAll();
+        List<AttractionView> attractions = attractionCatalog.getActive();
         int queueCapacity = getQueueCapacity();
         int totalInQueues = simulatedQueues.values().stream().mapToInt(AtomicInteger::get).sum();
 
-        for (Attraction attraction : attractions) {
-            if (!attraction.getIsActive())
-                continue;
-
+        for (AttractionView attraction : attractions) {
             AtomicInteger queueCounter = simulatedQueues.computeIfAbsent(
                     attraction.getId(), k -> new AtomicInteger(0));
 
@@ -208,11 +210,10 @@ public class ParkSimulatorService {
         }
     }
 
-    private int calculateQueueChange(Attraction attraction, int currentQueue) {
+    private int calculateQueueChange(AttractionView attraction, int currentQueue) {
         int baseChange = random.nextInt(7) - 3;
 
-        String intensity = attraction.getIntensity().name();
-        if ("HIGH".equals(intensity) && currentQueue < 60) {
+        if (attraction.getIntensity() == Intensity.HIGH && currentQueue < 60) {
             baseChange += random.nextInt(3);
         }
 
@@ -270,7 +271,7 @@ public class ParkSimulatorService {
         req.setAttractionId(attractionId);
         req.setQueueSize(queueSize);
         req.setVisitorCount(1);
-        eventService.recordEvent(req);
+        eventService.enqueueEvent(req);
     }
 
     private void broadcastUpdate() {
@@ -290,8 +291,8 @@ public class ParkSimulatorService {
         int redistributeCount = closedQueue != null ? closedQueue.getAndSet(0) : 0;
 
         if (redistributeCount > 0) {
-            List<Long> openIds = attractionRepository.findByIsActiveTrue().stream()
-                    .map(Attraction::getId)
+            List<Long> openIds = attractionCatalog.getActive().stream()
+                    .map(AttractionView::getId)
                     .filter(id -> !id.equals(attractionId))
                     .toList();
 
@@ -0,0 +1,203 @@
+package com.magicworld.tfg_angular_springboot.park_closure;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Closure days as a bitset indexed by epoch day, so closure checks and range lookups run without
+ * SQL. It is loaded once; {@link ParkClosureCalendarListener} sets or clears a day when a closure
+ * commits, and {@link #verifyConsistency()} periodically compares it with the database. A
+ * transaction that changed closures reads them from the database until it completes, so it
+ * always sees its own writes. Other nodes reload their calendar when {@link ClusterCacheSync}
+ * reports the change.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ParkClosureCalendar {
+
+    static final String CACHE_NAME = "park-closures";
+
+    private final ParkClosureDayRepository repository;
+    private final ClusterCacheSync clusterCacheSync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile BitSet closedDays;
+    private int pendingChanges;
+
+    @PostConstruct
+    public void registerSync() {
+        clusterCacheSync.register(CACHE_NAME, keys -> apply(null, null));
+    }
+
+    /**
+     * Whether {@code date} is a closure day, or {@code null} if the caller has to ask the database.
+     */
+    public Boolean isClosed(LocalDate date) {
+        if (TransactionSynchronizationManager.hasResource(this) || !indexable(date)) {
+            return null;
+        }
+        return current().get((int) date.toEpochDay());
+    }
+
+    /**
+     * Closure days in {@code [from, to]}, or {@code null} if the caller has to ask the database.
+     */
+    public List<LocalDate> closedDates(LocalDate from, LocalDate to) {
+        if (TransactionSynchronizationManager.hasResource(this) || !indexable(from) || !indexable(to)) {
+            return null;
+        }
+        BitSet days = current();
+        List<LocalDate> dates = new ArrayList<>();
+        int last = (int) to.toEpochDay();
+        for (int day = days.nextSetBit((int) from.toEpochDay()); day >= 0 && day <= last; day = days.nextSetBit(day + 1)) {
+            dates.add(LocalDate.ofEpochDay(day));
+        }
+        return dates;
+    }
+
+    public void onClosed(LocalDate date) {
+        recordChange(date, Boolean.TRUE);
+    }
+
+    public void onReopened(LocalDate date) {
+        recordChange(date, Boolean.FALSE);
+    }
+
+    /**
+     * Reloads the whole calendar once the surrounding transaction completes, for changes whose
+     * previous date is not known.
+     */
+    public void invalidate() {
+        recordChange(null, null);
+    }
+
+    /**
+     * Compares the calendar with the closure days in the database and replaces it if they differ,
+     * e.g. after rows were written outside JPA. Returns whether they matched.
+     */
+    @Scheduled(fixedDelayString = "${park.closure.calendar.check-interval-ms:900000}",
+            initialDelayString = "${park.closure.calendar.check-interval-ms:900000}")
+    public boolean verifyConsistency() {
+        lock.lock();
+        try {
+            if (closedDays == null || pendingChanges > 0) {
+                return true;
+            }
+            BitSet loaded = load();
+            if (loaded.equals(closedDays)) {
+                return true;
+            }
+            log.warn("Calendario de cierres desincronizado ({} días en memoria, {} en base de datos), recargado",
+                    closedDays.cardinality(), loaded.cardinality());
+            closedDays = loaded;
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BitSet current() {
+        BitSet days = closedDays;
+        if (days != null) {
+            return days;
+        }
+        lock.lock();
+        try {
+            if (closedDays != null) {
+                return closedDays;
+            }
+            BitSet loaded = load();
+            if (pendingChanges == 0) {
+                closedDays = loaded;
+            }
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BitSet load() {
+        BitSet days = new BitSet();
+        for (LocalDate date : repository.findAllClosureDates()) {
+            if (indexable(date)) {
+                days.set((int) date.toEpochDay());
+            }
+        }
+        return days;
+    }
+
+    private void recordChange(LocalDate date, Boolean closed) {
+        clusterCacheSync.publish(CACHE_NAME);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(date, closed);
+            return;
+        }
+        if (!TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ParkClosureCalendar.this);
+                }
+            });
+        }
+        lock.lock();
+        try {
+            pendingChanges++;
+        } finally {
+            lock.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(date, closed);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                lock.lock();
+                try {
+                    pendingChanges--;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    private void apply(LocalDate date, Boolean closed) {
+        lock.lock();
+        try {
+            if (closedDays == null) {
+                return;
+            }
+            if (closed == null || !indexable(date)) {
+                closedDays = null;
+                return;
+            }
+            BitSet updated = (BitSet) closedDays.clone();
+            updated.set((int) date.toEpochDay(), closed);
+            closedDays = updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean indexable(LocalDate date) {
+        long day = date.toEpochDay();
+        return day >= 0 && day < Integer.MAX_VALUE;
+    }
+}
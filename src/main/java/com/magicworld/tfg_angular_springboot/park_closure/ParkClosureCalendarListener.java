@@ -0,0 +1,34 @@
+package com.magicworld.tfg_angular_springboot.park_closure;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on closure days; keeps the {@link ParkClosureCalendar} in step with every persist,
+ * update and removal.
+ */
+public class ParkClosureCalendarListener {
+
+    private final ObjectProvider<ParkClosureCalendar> calendar;
+
+    public ParkClosureCalendarListener(ObjectProvider<ParkClosureCalendar> calendar) {
+        this.calendar = calendar;
+    }
+
+    @PostPersist
+    public void onPersist(ParkClosureDay closureDay) {
+        calendar.ifAvailable(c -> c.onClosed(closureDay.getClosureDate()));
+    }
+
+    @PostUpdate
+    public void onUpdate(ParkClosureDay closureDay) {
+        calendar.ifAvailable(ParkClosureCalendar::invalidate);
+    }
+
+    @PostRemove
+    public void onRemove(ParkClosureDay closureDay) {
+        calendar.ifAvailable(c -> c.onReopened(closureDay.getClosureDate()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.magicworld.tfg_angular_springboot.park_closure;
 
+import com.magicworld.tfg_angular_springboot.payment.TicketAvailabilityListener;
 import com.magicworld.tfg_angular_springboot.util.BaseEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -15,6 +16,7 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners({TicketAvailabilityListener.class, ParkClosureCalendarListener.class})
 @Table(name = "park_closure_day")
 public class ParkClosureDay extends BaseEntity {
 
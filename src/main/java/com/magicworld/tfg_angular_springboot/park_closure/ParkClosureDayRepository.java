@@ -1,6 +1,7 @@
 package com.magicworld.tfg_angular_springboot.park_closure;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -15,5 +16,8 @@ public interface ParkClosureDayRepository extends JpaRepository<ParkClosureDay,
     Optional<ParkClosureDay> findByClosureDate(LocalDate date);
 
     boolean existsByClosureDate(LocalDate date);
+
+    @Query("SELECT c.closureDate FROM ParkClosureDay c")
+    List<LocalDate> findAllClosureDates();
 }
 
@@ -15,6 +15,7 @@ import java.util.List;
 public class ParkClosureDayService {
 
     private final ParkClosureDayRepository repository;
+    private final ParkClosureCalendar calendar;
 
     @Transactional(readOnly = true)
     public List<ParkClosureDay> findAll() {
@@ -32,9 +33,22 @@ public class ParkClosureDayService {
         return repository.findByClosureDateBetween(from, to);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Closure dates in {@code [from, to]}, answered from the {@link ParkClosureCalendar}.
+     */
+    public List<LocalDate> findClosedDates(LocalDate from, LocalDate to) {
+        List<LocalDate> dates = calendar.closedDates(from, to);
+        if (dates != null) {
+            return dates;
+        }
+        return repository.findByClosureDateBetween(from, to).stream()
+                .map(ParkClosureDay::getClosureDate)
+                .toList();
+    }
+
     public boolean isClosedDay(LocalDate date) {
-        return repository.existsByClosureDate(date);
+        Boolean closed = calendar.isClosed(date);
+        return closed != null ? closed : repository.existsByClosureDate(date);
     }
 
     @Transactional
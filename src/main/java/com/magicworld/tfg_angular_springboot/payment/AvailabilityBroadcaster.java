@@ -0,0 +1,26 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Pushes a date's ticket availability from the {@link TicketAvailabilityCache} to
+ * {@code /topic/availability/{date}}; a closed date is sent as an empty list.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityBroadcaster {
+
+    private final TicketAvailabilityCache availabilityCache;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void broadcast(LocalDate date) {
+        TicketAvailabilityCache.DateAvailability availability = availabilityCache.get(date);
+        messagingTemplate.convertAndSend("/topic/availability/" + date,
+                availability.isClosed() ? List.of() : availability.toAvailability());
+    }
+}
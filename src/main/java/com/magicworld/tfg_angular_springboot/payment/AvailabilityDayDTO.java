@@ -0,0 +1,19 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDayDTO {
+    private LocalDate date;
+    private boolean closed;
+    private BigDecimal seasonalMultiplier;
+    private List<TicketAvailabilityDTO> tickets;
+}
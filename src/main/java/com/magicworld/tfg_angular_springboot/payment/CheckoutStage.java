@@ -0,0 +1,21 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The timed stages of {@link PaymentService#processPayment}, in the order they run.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CheckoutStage {
+    VALIDATE_PURCHASE("validate_purchase"),
+    CALCULATE_PRICE("calculate_price"),
+    RESERVE_CAPACITY("reserve_capacity"),
+    STRIPE_CHARGE("stripe_charge"),
+    FIND_OR_CREATE_USER("find_or_create_user"),
+    CREATE_PURCHASE("create_purchase"),
+    FULFILMENT_ENQUEUE("fulfilment_enqueue");
+
+    private final String label;
+}
@@ -0,0 +1,8 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+public enum CheckoutStatus {
+    PENDING,
+    COMPLETED,
+    FAILED,
+    REFUNDED
+}
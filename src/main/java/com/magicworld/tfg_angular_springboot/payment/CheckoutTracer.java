@@ -0,0 +1,221 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-stage latency of {@link PaymentService#processPayment}. Each checkout times its stages on a
+ * {@link Trace} of its own and hands it over once when it ends, so the shared histograms are only
+ * locked once per checkout. Checkouts slower than {@code slow-threshold-ms} are also kept, with
+ * their stage breakdown, in a ring of the last {@code slow-samples} entries.
+ */
+@Component
+public class CheckoutTracer {
+
+    private static final CheckoutStage[] STAGES = CheckoutStage.values();
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    @Value("${park.checkout.trace.slow-threshold-ms:2000}")
+    private long slowThresholdMs = 2000;
+
+    @Value("${park.checkout.trace.slow-samples:50}")
+    private int slowSamples = 50;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<CheckoutStage, LatencyHistogram> stages = new EnumMap<>(CheckoutStage.class);
+    private final Map<Outcome, LatencyHistogram> totals = new EnumMap<>(Outcome.class);
+    private final ArrayDeque<SlowCheckout> slowCheckouts = new ArrayDeque<>();
+    private long slowCount;
+
+    public CheckoutTracer() {
+        for (CheckoutStage stage : STAGES) {
+            stages.put(stage, new LatencyHistogram());
+        }
+        for (Outcome outcome : Outcome.values()) {
+            totals.put(outcome, new LatencyHistogram());
+        }
+    }
+
+    public Trace start() {
+        return new Trace();
+    }
+
+    public void finish(Trace trace) {
+        long totalNanos = System.nanoTime() - trace.startedAt;
+        SlowCheckout slow = totalNanos >= slowThresholdMs * 1_000_000 ? trace.toSlowCheckout(totalNanos) : null;
+        lock.lock();
+        try {
+            for (CheckoutStage stage : STAGES) {
+                if (trace.stageNanos[stage.ordinal()] >= 0) {
+                    stages.get(stage).record(trace.stageNanos[stage.ordinal()]);
+                }
+            }
+            totals.get(trace.outcome).record(totalNanos);
+            if (slow != null) {
+                slowCount++;
+                if (slowCheckouts.size() >= slowSamples) {
+                    slowCheckouts.pollFirst();
+                }
+                slowCheckouts.addLast(slow);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checkout counts and totals by outcome, latency summaries per stage and the retained slow
+     * checkouts, newest first.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            Map<String, Object> byOutcome = new LinkedHashMap<>();
+            totals.forEach((outcome, histogram) -> byOutcome.put(outcome.getLabel(), histogram.toSummary()));
+            Map<String, Object> byStage = new LinkedHashMap<>();
+            stages.forEach((stage, histogram) -> byStage.put(stage.getLabel(), histogram.toSummary()));
+            List<SlowCheckout> slow = new ArrayList<>(slowCheckouts.reversed());
+
+            stats.put("checkouts", byOutcome);
+            stats.put("stages", byStage);
+            stats.put("slowThresholdMs", slowThresholdMs);
+            stats.put("slowCount", slowCount);
+            stats.put("slowCheckouts", slow);
+        } finally {
+            lock.unlock();
+        }
+        return stats;
+    }
+
+    /**
+     * The same histograms in the Prometheus text exposition format, as summaries in seconds.
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        lock.lock();
+        try {
+            out.append("# HELP magicworld_checkout_stage_seconds Time spent in each checkout stage.\n");
+            out.append("# TYPE magicworld_checkout_stage_seconds summary\n");
+            stages.forEach((stage, histogram) ->
+                    appendSummary(out, "magicworld_checkout_stage_seconds", "stage", stage.getLabel(), histogram));
+            out.append("# HELP magicworld_checkout_seconds Total checkout time by outcome.\n");
+            out.append("# TYPE magicworld_checkout_seconds summary\n");
+            totals.forEach((outcome, histogram) ->
+                    appendSummary(out, "magicworld_checkout_seconds", "outcome", outcome.getLabel(), histogram));
+            out.append("# HELP magicworld_checkout_slow_total Checkouts slower than the slow threshold.\n");
+            out.append("# TYPE magicworld_checkout_slow_total counter\n");
+            out.append("magicworld_checkout_slow_total ").append(slowCount).append('\n');
+        } finally {
+            lock.unlock();
+        }
+        return out.toString();
+    }
+
+    private static void appendSummary(StringBuilder out, String name, String label, String value,
+            LatencyHistogram histogram) {
+        String labels = label + "=\"" + value + "\"";
+        for (double quantile : QUANTILES) {
+            out.append(name).append('{').append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.getCount() == 0 ? 0 : histogram.percentile(quantile * 100)))
+                    .append('\n');
+        }
+        out.append(name).append("_sum{").append(labels).append("} ").append(seconds(histogram.getSum())).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Outcome {
+        COMPLETED("completed"),
+        DECLINED("declined"),
+        REPLAYED("replayed"),
+        ERROR("error");
+
+        private final String label;
+    }
+
+    /**
+     * Stage timings of one checkout. Used by the thread running it only; a stage run more than
+     * once accumulates.
+     */
+    public static final class Trace {
+
+        private final Instant startedAtTime = Instant.now();
+        private final long startedAt = System.nanoTime();
+        private final long[] stageNanos = new long[STAGES.length];
+        @Setter
+        private String checkoutKey;
+        @Setter
+        private Outcome outcome = Outcome.ERROR;
+
+        private Trace() {
+            Arrays.fill(stageNanos, -1);
+        }
+
+        public <T, E extends Exception> T time(CheckoutStage stage, StageCall<T, E> call) throws E {
+            long start = System.nanoTime();
+            try {
+                return call.call();
+            } finally {
+                add(stage, System.nanoTime() - start);
+            }
+        }
+
+        public void run(CheckoutStage stage, Runnable action) {
+            long start = System.nanoTime();
+            try {
+                action.run();
+            } finally {
+                add(stage, System.nanoTime() - start);
+            }
+        }
+
+        private void add(CheckoutStage stage, long nanos) {
+            int index = stage.ordinal();
+            stageNanos[index] = Math.max(stageNanos[index], 0) + nanos;
+        }
+
+        private SlowCheckout toSlowCheckout(long totalNanos) {
+            Map<String, Double> breakdown = new LinkedHashMap<>();
+            for (CheckoutStage stage : STAGES) {
+                if (stageNanos[stage.ordinal()] >= 0) {
+                    breakdown.put(stage.getLabel(), toMillis(stageNanos[stage.ordinal()]));
+                }
+            }
+            return new SlowCheckout(startedAtTime, checkoutKey, outcome.getLabel(), toMillis(totalNanos), breakdown);
+        }
+    }
+
+    @FunctionalInterface
+    public interface StageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public record SlowCheckout(Instant startedAt, String checkoutKey, String outcome, double totalMs,
+            Map<String, Double> stagesMs) {
+    }
+}
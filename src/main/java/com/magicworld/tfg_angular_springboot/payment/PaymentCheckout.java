@@ -0,0 +1,84 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import com.magicworld.tfg_angular_springboot.util.BaseEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One checkout attempt, keyed by the client's idempotency key. It is written with the capacity
+ * hold before the card is charged and stays PENDING until the purchase commits, so a checkout
+ * whose outcome was lost can be reconciled against Stripe afterwards.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_checkout", indexes = {
+        @Index(name = "idx_payment_checkout_status_created", columnList = "status, created_at")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_checkout_idempotency_key", columnNames = "idempotency_key")
+})
+public class PaymentCheckout extends BaseEntity {
+
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "idempotency_key", nullable = false, length = 64)
+    private String idempotencyKey;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private CheckoutStatus status;
+
+    @NotNull
+    @Size(max = 36)
+    @Column(name = "hold_token", nullable = false, length = 36)
+    private String holdToken;
+
+    @NotNull
+    @Column(name = "amount_cents", nullable = false)
+    private Long amountCents;
+
+    @NotNull
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @NotNull
+    @Column(name = "discount_amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal discountAmount;
+
+    @Size(max = 10)
+    @Column(name = "lang", length = 10)
+    private String lang;
+
+    /** The {@link PaymentRequest} as JSON, replayed by the recovery job. */
+    @NotNull
+    @Lob
+    @Column(name = "request_json", nullable = false)
+    private String requestJson;
+
+    /**
+     * SHA-256 of what the request buys and for whom; a retry under the same key must match it.
+     * Null for checkouts recorded before it was introduced.
+     */
+    @Size(max = 64)
+    @Column(name = "request_fingerprint", length = 64)
+    private String requestFingerprint;
+
+    @Column(name = "stripe_payment_intent_id")
+    private String stripePaymentIntentId;
+
+    @Column(name = "purchase_id")
+    private Long purchaseId;
+
+    @NotNull
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,23 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentCheckoutRepository extends JpaRepository<PaymentCheckout, Long> {
+
+    Optional<PaymentCheckout> findByIdempotencyKey(String idempotencyKey);
+
+    List<PaymentCheckout> findByStatusAndCreatedAtBefore(CheckoutStatus status, LocalDateTime before);
+
+    @Modifying
+    @Query("UPDATE PaymentCheckout c SET c.status = :to WHERE c.id = :id AND c.status = :from")
+    int transition(@Param("id") Long id, @Param("from") CheckoutStatus from, @Param("to") CheckoutStatus to);
+}
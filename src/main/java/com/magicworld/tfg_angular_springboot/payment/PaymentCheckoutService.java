@@ -0,0 +1,180 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magicworld.tfg_angular_springboot.exceptions.InvalidOperationException;
+import com.magicworld.tfg_angular_springboot.purchase.Purchase;
+import com.magicworld.tfg_angular_springboot.reservation.ReservationLedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The two database stages of a checkout. {@link #reserve} holds capacity and records the pending
+ * checkout, {@link #complete} records the purchase and confirms the hold; each is a short
+ * transaction of its own so no connection is held while the card is being charged.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentCheckoutService {
+
+    private final PaymentCheckoutRepository checkoutRepository;
+    private final ReservationLedgerService reservationLedger;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public Optional<PaymentCheckout> findByIdempotencyKey(String idempotencyKey) {
+        return checkoutRepository.findByIdempotencyKey(idempotencyKey);
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentCheckout findById(Long id) {
+        return checkoutRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Checkout " + id + " not found"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<PaymentCheckout> findPendingBefore(LocalDateTime before) {
+        return checkoutRepository.findByStatusAndCreatedAtBefore(CheckoutStatus.PENDING, before);
+    }
+
+    /**
+     * Holds the requested tickets and records a PENDING checkout. A second checkout with the same
+     * key fails with a {@link org.springframework.dao.DataIntegrityViolationException} and its
+     * hold is rolled back with it.
+     */
+    @Transactional
+    public PaymentCheckout reserve(String idempotencyKey, PaymentRequest request, String lang,
+            PriceCalculationResponse priceCalc) {
+        String holdToken = reservationLedger.hold(request.getVisitDate(), quantitiesByType(request));
+        return checkoutRepository.saveAndFlush(PaymentCheckout.builder()
+                .idempotencyKey(idempotencyKey)
+                .status(CheckoutStatus.PENDING)
+                .holdToken(holdToken)
+                .amountCents(priceCalc.getTotal().multiply(BigDecimal.valueOf(100)).longValue())
+                .totalAmount(priceCalc.getTotal())
+                .discountAmount(priceCalc.getDiscountAmount())
+                .lang(lang)
+                .requestJson(writeRequest(request))
+                .requestFingerprint(fingerprint(request))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Records the purchase built by {@code purchaseWriter} and confirms the hold. Only a PENDING
+     * checkout completes, so a live checkout and the recovery job never both record it. If the
+     * hold expired while the charge was in flight the capacity is taken again, and if it is gone
+     * the whole stage rolls back and the checkout stays PENDING.
+     */
+    @Transactional
+    public Purchase complete(PaymentCheckout checkout, String paymentIntentId, Supplier<Purchase> purchaseWriter) {
+        if (checkoutRepository.transition(checkout.getId(), CheckoutStatus.PENDING, CheckoutStatus.COMPLETED) == 0) {
+            throw new InvalidOperationException("error.payment.checkout.in_progress");
+        }
+        Purchase purchase = purchaseWriter.get();
+        PaymentCheckout completed = checkoutRepository.findById(checkout.getId()).orElseThrow();
+        try {
+            reservationLedger.confirm(completed.getHoldToken());
+        } catch (InvalidOperationException e) {
+            PaymentRequest request = readRequest(completed);
+            String holdToken = reservationLedger.hold(request.getVisitDate(), quantitiesByType(request));
+            reservationLedger.confirm(holdToken);
+            completed.setHoldToken(holdToken);
+            log.warn("Reserva caducada durante el cobro del checkout {}, capacidad retenida de nuevo",
+                    completed.getIdempotencyKey());
+        }
+        completed.setStripePaymentIntentId(paymentIntentId);
+        completed.setPurchaseId(purchase.getId());
+        return purchase;
+    }
+
+    /**
+     * Marks a PENDING checkout as failed (or refunded) and gives its capacity back. Returns false
+     * if the checkout had already been settled.
+     */
+    @Transactional
+    public boolean fail(PaymentCheckout checkout, CheckoutStatus outcome) {
+        if (checkoutRepository.transition(checkout.getId(), CheckoutStatus.PENDING, outcome) == 0) {
+            return false;
+        }
+        reservationLedger.release(checkout.getHoldToken());
+        return true;
+    }
+
+    /**
+     * Marks a checkout that was failed while its charge was in flight as refunded. Its capacity
+     * was already released when it failed.
+     */
+    @Transactional
+    public void markRefunded(PaymentCheckout checkout) {
+        checkoutRepository.transition(checkout.getId(), CheckoutStatus.FAILED, CheckoutStatus.REFUNDED);
+    }
+
+    /**
+     * Rejects a request that reuses the idempotency key of {@code checkout} for a different
+     * purchase. The payment method is left out so a retry with a freshly tokenised card still
+     * replays the original outcome.
+     */
+    public void verifySameRequest(PaymentCheckout checkout, PaymentRequest request) {
+        if (checkout.getRequestFingerprint() != null
+                && !checkout.getRequestFingerprint().equals(fingerprint(request))) {
+            throw new InvalidOperationException("error.payment.idempotency_key.reused");
+        }
+    }
+
+    public PaymentRequest readRequest(PaymentCheckout checkout) {
+        try {
+            return objectMapper.readValue(checkout.getRequestJson(), PaymentRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable request for checkout " + checkout.getIdempotencyKey(), e);
+        }
+    }
+
+    private String writeRequest(PaymentRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize payment request", e);
+        }
+    }
+
+    private String fingerprint(PaymentRequest request) {
+        PaymentRequest purchase = PaymentRequest.builder()
+                .visitDate(request.getVisitDate())
+                .items(request.getItems())
+                .discountCodes(request.getDiscountCodes())
+                .email(request.getEmail())
+                .firstName(request.getFirstName())
+                .lastName(request.getLastName())
+                .build();
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(writeRequest(purchase).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Map<String, Integer> quantitiesByType(PaymentRequest request) {
+        Map<String, Integer> quantities = new HashMap<>();
+        for (PaymentRequest.PaymentLineItem item : request.getItems()) {
+            quantities.merge(item.getTicketTypeName(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
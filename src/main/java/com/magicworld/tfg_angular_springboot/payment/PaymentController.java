@@ -1,5 +1,8 @@
 package com.magicworld.tfg_angular_springboot.payment;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magicworld.tfg_angular_springboot.exceptions.InvalidOperationException;
 import com.stripe.exception.StripeException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,19 +14,29 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/v1/payment")
 @RequiredArgsConstructor
 public class PaymentController {
 
+    private static final Pattern IDEMPOTENCY_KEY = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
 
     @Value("${stripe.public.key}")
     private String stripePublicKey;
@@ -47,6 +60,39 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getAvailability(date));
     }
 
+    @Operation(summary = "Get availability calendar",
+            description = "Returns availability, seasonal multiplier and closure flag for every date in a range", tags = {"Payment"})
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Calendar returned", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Calendar unchanged since the given ETag", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid date range", content = @Content)
+    })
+    @GetMapping("/availability/calendar")
+    public ResponseEntity<StreamingResponseBody> getAvailabilityCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest webRequest) {
+        List<AvailabilityDayDTO> days = paymentService.getAvailabilityCalendar(from, to);
+        String eTag = calendarETag(days);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                for (AvailabilityDayDTO day : days) {
+                    generator.writeObject(day);
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @Getter
     @Setter
     public static class PriceCalculationRequest {
@@ -73,7 +119,14 @@ public class PaymentController {
     @PostMapping("/process")
     public ResponseEntity<PaymentResponse> processPayment(
             @RequestBody @Valid PaymentRequest request,
-            @RequestHeader(value = "Accept-Language", defaultValue = "en") String lang) {
+            @RequestHeader(value = "Accept-Language", defaultValue = "en") String lang,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (request.getIdempotencyKey() == null && idempotencyKey != null) {
+            if (!IDEMPOTENCY_KEY.matcher(idempotencyKey).matches()) {
+                throw new InvalidOperationException("error.payment.idempotency_key.invalid");
+            }
+            request.setIdempotencyKey(idempotencyKey);
+        }
         try {
             PaymentResponse response = paymentService.processPayment(request, lang);
             return ResponseEntity.ok(response);
@@ -84,5 +137,17 @@ public class PaymentController {
                     .build());
         }
     }
-}
 
+    private static String calendarETag(List<AvailabilityDayDTO> days) {
+        long hash = 1125899906842597L;
+        for (AvailabilityDayDTO day : days) {
+            hash = 31 * hash + Objects.hash(day.getDate(), day.isClosed(), day.getSeasonalMultiplier());
+            for (TicketAvailabilityDTO ticket : day.getTickets()) {
+                hash = 31 * hash + Objects.hash(ticket.getId(), ticket.getTypeName(), ticket.getDescription(),
+                        ticket.getCost(), ticket.getAdjustedCost(), ticket.getPhotoUrl(), ticket.getMaxPerDay(),
+                        ticket.getAvailable());
+            }
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+}
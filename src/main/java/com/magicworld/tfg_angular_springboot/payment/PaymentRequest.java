@@ -35,6 +35,10 @@ public class PaymentRequest {
 
     private String stripePaymentMethodId;
 
+    /** Client-generated key; retrying a checkout with the same key returns its original outcome. */
+    @Pattern(regexp = "[A-Za-z0-9_-]{1,64}", message = "error.payment.idempotency_key.invalid")
+    private String idempotencyKey;
+
     @Getter
     @Setter
     @Builder
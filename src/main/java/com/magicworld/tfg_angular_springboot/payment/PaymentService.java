@@ -1,91 +1,112 @@
 package com.magicworld.tfg_angular_springboot.payment;
 
-import com.magicworld.tfg_angular_springboot.discount.Discount;
-import com.magicworld.tfg_angular_springboot.discount.DiscountService;
-import com.magicworld.tfg_angular_springboot.discount_ticket_type.DiscountTicketTypeService;
-import com.magicworld.tfg_angular_springboot.email.EmailService;
+import com.magicworld.tfg_angular_springboot.discount.DiscountRuleIndex;
 import com.magicworld.tfg_angular_springboot.exceptions.InvalidOperationException;
+import com.magicworld.tfg_angular_springboot.fulfilment.FulfilmentService;
 import com.magicworld.tfg_angular_springboot.park_closure.ParkClosureDayService;
 import com.magicworld.tfg_angular_springboot.purchase.Purchase;
 import com.magicworld.tfg_angular_springboot.purchase.PurchaseService;
 import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
-import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
-import com.magicworld.tfg_angular_springboot.qr.QrCodeService;
 import com.magicworld.tfg_angular_springboot.seasonal_pricing.SeasonalPricingService;
 import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
 import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeService;
 import com.magicworld.tfg_angular_springboot.user.Role;
 import com.magicworld.tfg_angular_springboot.user.User;
 import com.magicworld.tfg_angular_springboot.user.UserRepository;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.CardException;
+import com.stripe.exception.IdempotencyException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentSearchResult;
+import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentSearchParams;
+import com.stripe.param.RefundCreateParams;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
-    @Value("${park.max-capacity:500}")
-    private int parkMaxCapacity;
+    private static final String CHECKOUT_METADATA = "checkout_key";
+
+    @Value("${park.availability.calendar.max-days:93}")
+    private int calendarMaxDays = 93;
+
+    @Value("${park.checkout.recovery.grace-seconds:120}")
+    private long recoveryGraceSeconds = 120;
+
+    @Value("${park.checkout.recovery.abandon-hours:24}")
+    private long recoveryAbandonHours = 24;
 
     private final TicketTypeService ticketTypeService;
-    private final PurchaseLineService purchaseLineService;
     private final PurchaseService purchaseService;
-    private final DiscountService discountService;
-    private final DiscountTicketTypeService discountTicketTypeService;
+    private final DiscountRuleIndex discountRuleIndex;
     private final UserRepository userRepository;
-    private final QrCodeService qrCodeService;
-    private final EmailService emailService;
-    private final SimpMessagingTemplate messagingTemplate;
     private final SeasonalPricingService seasonalPricingService;
     private final ParkClosureDayService parkClosureDayService;
+    private final TicketAvailabilityCache availabilityCache;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final PaymentCheckoutService checkoutService;
+    private final FulfilmentService fulfilmentService;
+    private final CheckoutTracer checkoutTracer;
 
     public List<TicketAvailabilityDTO> getAvailability(LocalDate date) {
-        if (parkClosureDayService.isClosedDay(date)) {
+        TicketAvailabilityCache.DateAvailability availability = availabilityCache.get(date);
+        if (availability.isClosed()) {
             throw new InvalidOperationException("error.payment.park.closed");
         }
+        return availability.toAvailability();
+    }
 
-        BigDecimal multiplier = seasonalPricingService.getMultiplier(date);
-        List<TicketType> ticketTypes = ticketTypeService.findAll();
-
-        return ticketTypes.stream()
-                .map(tt -> {
-                    int available = purchaseLineService.getAvailableQuantity(tt.getTypeName(), date);
-                    BigDecimal adjustedCost = tt.getCost().multiply(multiplier).setScale(2, RoundingMode.HALF_UP);
-                    return TicketAvailabilityDTO.builder()
-                            .id(tt.getId())
-                            .typeName(tt.getTypeName())
-                            .description(tt.getDescription())
-                            .cost(tt.getCost())
-                            .adjustedCost(adjustedCost)
-                            .seasonalMultiplier(multiplier)
-                            .photoUrl(tt.getPhotoUrl())
-                            .maxPerDay(tt.getMaxPerDay())
-                            .available(available)
-                            .build();
-                })
-                .collect(Collectors.toList());
+    /**
+     * Availability, multiplier and closure flag for every date in {@code [from, to]}. Dates not yet
+     * cached are loaded together through range queries rather than one lookup per date.
+     */
+    public List<AvailabilityDayDTO> getAvailabilityCalendar(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)
+                || ChronoUnit.DAYS.between(from, to) >= calendarMaxDays) {
+            throw new InvalidOperationException("error.payment.availability.invalid_range", calendarMaxDays);
+        }
+        return availabilityCache.getRange(from, to).stream()
+                .map(day -> AvailabilityDayDTO.builder()
+                        .date(day.getDate())
+                        .closed(day.isClosed())
+                        .seasonalMultiplier(day.isClosed() ? null : day.getMultiplier())
+                        .tickets(day.toAvailability())
+                        .build())
+                .toList();
     }
 
+    /**
+     * Prices a cart. Discounts come from the {@link DiscountRuleIndex}, so codes and their ticket
+     * types are matched in memory rather than with one query per code and item.
+     */
     @Transactional(readOnly = true)
     public PriceCalculationResponse calculatePrice(List<PaymentRequest.PaymentLineItem> items,
             List<String> discountCodes, LocalDate visitDate) {
         BigDecimal multiplier = visitDate != null ? seasonalPricingService.getMultiplier(visitDate) : BigDecimal.ONE;
         BigDecimal subtotal = BigDecimal.ZERO;
         Map<String, BigDecimal> itemSubtotals = new HashMap<>();
-        Set<String> itemTicketTypes = new HashSet<>();
+        Map<String, Long> itemTicketTypeIds = new HashMap<>();
 
         for (PaymentRequest.PaymentLineItem item : items) {
             TicketType ticketType = ticketTypeService.findByTypeName(item.getTicketTypeName());
@@ -93,39 +114,41 @@ public class PaymentService {
             BigDecimal lineTotal = adjustedCost.multiply(BigDecimal.valueOf(item.getQuantity()));
             subtotal = subtotal.add(lineTotal);
             itemSubtotals.put(item.getTicketTypeName(), lineTotal);
-            itemTicketTypes.add(item.getTicketTypeName());
+            itemTicketTypeIds.put(item.getTicketTypeName(), ticketType.getId());
         }
 
         List<String> validCodes = new ArrayList<>();
         List<String> invalidCodes = new ArrayList<>();
         List<String> validButNotApplicableCodes = new ArrayList<>();
         Map<String, Integer> discountPercentages = new HashMap<>();
-        Map<String, Discount> validDiscountsMap = new HashMap<>();
+        Map<String, DiscountRuleIndex.DiscountRule> validDiscountsMap = new HashMap<>();
         Map<String, List<String>> discountAppliesTo = new HashMap<>();
 
         if (discountCodes != null) {
+            Map<String, DiscountRuleIndex.DiscountRule> rules = discountRuleIndex.snapshot();
+            LocalDate today = LocalDate.now();
             for (String code : discountCodes) {
                 String trimmedCode = code.trim();
                 if (trimmedCode.isEmpty())
                     continue;
 
-                Discount discount = discountService.findByCode(trimmedCode);
-                if (discount != null && !discount.getExpiryDate().isBefore(LocalDate.now())) {
+                DiscountRuleIndex.DiscountRule discount = rules.get(trimmedCode);
+                if (discount != null && discount.isValidOn(today)) {
                     // Check which items this discount applies to
                     List<String> applicableItems = new ArrayList<>();
-                    for (String ticketTypeName : itemTicketTypes) {
-                        if (discountTicketTypeService.discountAppliesToTicketType(discount.getId(), ticketTypeName)) {
-                            applicableItems.add(ticketTypeName);
+                    for (Map.Entry<String, Long> itemType : itemTicketTypeIds.entrySet()) {
+                        if (discount.appliesTo(itemType.getValue())) {
+                            applicableItems.add(itemType.getKey());
                         }
                     }
 
                     if (applicableItems.isEmpty()) {
                         // Valid discount but no matching items in cart
                         validButNotApplicableCodes.add(trimmedCode);
-                        discountPercentages.put(trimmedCode, discount.getDiscountPercentage());
+                        discountPercentages.put(trimmedCode, discount.getPercentage());
                     } else {
                         validCodes.add(trimmedCode);
-                        discountPercentages.put(trimmedCode, discount.getDiscountPercentage());
+                        discountPercentages.put(trimmedCode, discount.getPercentage());
                         validDiscountsMap.put(trimmedCode, discount);
                         discountAppliesTo.put(trimmedCode, applicableItems);
                     }
@@ -135,7 +158,7 @@ public class PaymentService {
             }
         }
 
-        BigDecimal discountAmount = calculateDiscountAmount(items, validDiscountsMap, itemSubtotals);
+        BigDecimal discountAmount = calculateDiscountAmount(itemTicketTypeIds, validDiscountsMap, itemSubtotals);
         BigDecimal total = subtotal.subtract(discountAmount).max(BigDecimal.ZERO);
 
         return PriceCalculationResponse.builder()
@@ -150,29 +173,20 @@ public class PaymentService {
                 .build();
     }
 
-    private BigDecimal calculateDiscountAmount(List<PaymentRequest.PaymentLineItem> items,
-            Map<String, Discount> validDiscountsMap,
+    private BigDecimal calculateDiscountAmount(Map<String, Long> itemTicketTypeIds,
+            Map<String, DiscountRuleIndex.DiscountRule> validDiscountsMap,
             Map<String, BigDecimal> itemSubtotals) {
         BigDecimal totalDiscount = BigDecimal.ZERO;
-        Map<String, Integer> bestDiscountPerItem = new HashMap<>();
 
-        for (PaymentRequest.PaymentLineItem item : items) {
-            String ticketTypeName = item.getTicketTypeName();
+        for (Map.Entry<String, Long> itemType : itemTicketTypeIds.entrySet()) {
             int bestPercentage = 0;
-
-            for (Map.Entry<String, Discount> entry : validDiscountsMap.entrySet()) {
-                Discount discount = entry.getValue();
-                if (discountTicketTypeService.discountAppliesToTicketType(discount.getId(), ticketTypeName)) {
-                    bestPercentage = Math.max(bestPercentage, discount.getDiscountPercentage());
+            for (DiscountRuleIndex.DiscountRule discount : validDiscountsMap.values()) {
+                if (discount.appliesTo(itemType.getValue())) {
+                    bestPercentage = Math.max(bestPercentage, discount.getPercentage());
                 }
             }
-            bestDiscountPerItem.put(ticketTypeName, bestPercentage);
-        }
-
-        for (Map.Entry<String, Integer> entry : bestDiscountPerItem.entrySet()) {
-            if (entry.getValue() > 0) {
-                BigDecimal itemTotal = itemSubtotals.get(entry.getKey());
-                BigDecimal itemDiscount = itemTotal.multiply(BigDecimal.valueOf(entry.getValue()))
+            if (bestPercentage > 0) {
+                BigDecimal itemDiscount = itemSubtotals.get(itemType.getKey()).multiply(BigDecimal.valueOf(bestPercentage))
                         .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
                 totalDiscount = totalDiscount.add(itemDiscount);
             }
@@ -181,12 +195,31 @@ public class PaymentService {
         return totalDiscount;
     }
 
-    @Transactional
+    /**
+     * Checkout in three stages: a short transaction that holds capacity and records the pending
+     * checkout, the Stripe charge outside any transaction, and a short transaction that records the
+     * purchase together with its fulfilment outbox row. The QR code, confirmation email and
+     * availability broadcast are left to the {@link FulfilmentService}. The idempotency key makes a
+     * retried request return the original outcome, rejects a different request sent under it, and
+     * is passed to Stripe so a retried charge is never taken twice. Every stage is timed into the
+     * {@link CheckoutTracer}.
+     */
     public PaymentResponse processPayment(PaymentRequest request, String lang) throws StripeException {
-        validatePurchase(request);
+        CheckoutTracer.Trace trace = checkoutTracer.start();
+        try {
+            return processPayment(request, lang, trace);
+        } finally {
+            checkoutTracer.finish(trace);
+        }
+    }
+
+    private PaymentResponse processPayment(PaymentRequest request, String lang, CheckoutTracer.Trace trace)
+            throws StripeException {
+        trace.run(CheckoutStage.VALIDATE_PURCHASE, () -> validatePurchase(request));
 
         // Recalculate price at payment time to handle concurrent changes
-        PriceCalculationResponse priceCalc = calculatePrice(request.getItems(), request.getDiscountCodes(), request.getVisitDate());
+        PriceCalculationResponse priceCalc = trace.time(CheckoutStage.CALCULATE_PRICE,
+                () -> calculatePrice(request.getItems(), request.getDiscountCodes(), request.getVisitDate()));
 
         // Check if any discount codes the user thought were valid are now invalid or
         // not applicable
@@ -205,24 +238,43 @@ public class PaymentService {
             throw new InvalidOperationException("error.payment.invalid.total");
         }
 
-        long amountInCents = priceCalc.getTotal().multiply(BigDecimal.valueOf(100)).longValue();
+        String idempotencyKey = request.getIdempotencyKey() != null
+                ? request.getIdempotencyKey()
+                : UUID.randomUUID().toString();
+        trace.setCheckoutKey(idempotencyKey);
+        Optional<PaymentCheckout> previous = checkoutService.findByIdempotencyKey(idempotencyKey);
+        if (previous.isPresent()) {
+            checkoutService.verifySameRequest(previous.get(), request);
+            trace.setOutcome(CheckoutTracer.Outcome.REPLAYED);
+            return replay(previous.get());
+        }
 
-        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setAmount(amountInCents)
-                .setCurrency("eur")
-                .setPaymentMethod(request.getStripePaymentMethodId())
-                .setConfirm(true)
-                .setAutomaticPaymentMethods(
-                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
-                                .setEnabled(true)
-                                .setAllowRedirects(
-                                        PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
-                                .build())
-                .build();
+        PaymentCheckout checkout;
+        try {
+            checkout = trace.time(CheckoutStage.RESERVE_CAPACITY,
+                    () -> checkoutService.reserve(idempotencyKey, request, lang, priceCalc));
+        } catch (DataIntegrityViolationException e) {
+            PaymentCheckout concurrent = checkoutService.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+            checkoutService.verifySameRequest(concurrent, request);
+            trace.setOutcome(CheckoutTracer.Outcome.REPLAYED);
+            return replay(concurrent);
+        }
 
-        PaymentIntent paymentIntent = PaymentIntent.create(params);
+        PaymentIntent paymentIntent;
+        try {
+            paymentIntent = trace.time(CheckoutStage.STRIPE_CHARGE, () -> charge(checkout, request));
+        } catch (ApiConnectionException e) {
+            // The charge may have gone through; reconcilePendingCheckouts settles it
+            log.warn("Resultado del cobro desconocido para el checkout {}: {}", idempotencyKey, e.getMessage());
+            throw e;
+        } catch (StripeException e) {
+            checkoutService.fail(checkout, CheckoutStatus.FAILED);
+            throw e;
+        }
 
         if (!"succeeded".equals(paymentIntent.getStatus())) {
+            checkoutService.fail(checkout, CheckoutStatus.FAILED);
+            trace.setOutcome(CheckoutTracer.Outcome.DECLINED);
             return PaymentResponse.builder()
                     .success(false)
                     .message("error.payment.failed")
@@ -230,12 +282,25 @@ public class PaymentService {
                     .build();
         }
 
-        User buyer = findOrCreateGuestUser(request);
-        Purchase purchase = createPurchaseFromRequest(request, buyer, priceCalc);
-
-        sendConfirmationEmail(purchase, request, priceCalc, lang);
-        notifyAvailabilityChange(request.getVisitDate());
+        Purchase purchase;
+        try {
+            purchase = checkoutService.complete(checkout, paymentIntent.getId(),
+                    () -> recordPurchase(checkout, request, priceCalc, trace));
+        } catch (InvalidOperationException e) {
+            if ("error.payment.checkout.in_progress".equals(e.getCode())) {
+                // Settled by the recovery job while the charge was in flight
+                return settledElsewhere(checkout, paymentIntent, trace);
+            }
+            log.error("Checkout {} cobrado ({}) pero no registrado, queda pendiente de conciliación",
+                    idempotencyKey, paymentIntent.getId(), e);
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Checkout {} cobrado ({}) pero no registrado, queda pendiente de conciliación",
+                    idempotencyKey, paymentIntent.getId(), e);
+            throw e;
+        }
 
+        trace.setOutcome(CheckoutTracer.Outcome.COMPLETED);
         return PaymentResponse.builder()
                 .success(true)
                 .message("success.payment.completed")
@@ -247,6 +312,165 @@ public class PaymentService {
                 .build();
     }
 
+    /**
+     * Settles checkouts left PENDING by a lost Stripe response or a failed commit stage. Within the
+     * abandon window the charge is re-issued with its original parameters and idempotency key, so
+     * Stripe answers with the outcome of the first request (or takes the charge now if that request
+     * never arrived) and never charges twice; a request still in flight is left for the next run.
+     * Past the window, when Stripe may have forgotten the key, the intent is looked up by metadata.
+     * A succeeded intent is recorded as a purchase (or refunded if its capacity is gone), and a
+     * declined or missing one fails the checkout and releases its hold.
+     */
+    @Scheduled(fixedDelayString = "${park.checkout.recovery.interval-ms:60000}")
+    public void reconcilePendingCheckouts() {
+        LocalDateTime now = LocalDateTime.now();
+        for (PaymentCheckout checkout : checkoutService.findPendingBefore(now.minusSeconds(recoveryGraceSeconds))) {
+            try {
+                reconcile(checkout, checkout.getCreatedAt().isBefore(now.minusHours(recoveryAbandonHours)));
+            } catch (StripeException | RuntimeException e) {
+                log.warn("No se pudo conciliar el checkout {}: {}", checkout.getIdempotencyKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void reconcile(PaymentCheckout checkout, boolean abandoned) throws StripeException {
+        PaymentIntent paymentIntent;
+        if (abandoned) {
+            paymentIntent = findPaymentIntent(checkout.getIdempotencyKey());
+        } else {
+            try {
+                paymentIntent = charge(checkout, checkoutService.readRequest(checkout));
+            } catch (IdempotencyException e) {
+                log.info("Cobro del checkout {} aún en curso, se conciliará más tarde", checkout.getIdempotencyKey());
+                return;
+            } catch (CardException e) {
+                paymentIntent = null;
+            }
+        }
+        if (paymentIntent == null || !"succeeded".equals(paymentIntent.getStatus())) {
+            if (paymentIntent != null && !abandoned && isStillProcessing(paymentIntent)) {
+                return;
+            }
+            if (checkoutService.fail(checkout, CheckoutStatus.FAILED)) {
+                log.warn("Checkout {} sin cobro confirmado, reserva liberada", checkout.getIdempotencyKey());
+            }
+            return;
+        }
+
+        PaymentRequest request = checkoutService.readRequest(checkout);
+        // Recovery is not a live checkout, so its timings are not reported
+        CheckoutTracer.Trace untraced = checkoutTracer.start();
+        Purchase purchase;
+        try {
+            purchase = checkoutService.complete(checkout, paymentIntent.getId(),
+                    () -> recordPurchase(checkout, request, null, untraced));
+        } catch (InvalidOperationException e) {
+            if (!"error.payment.checkout.in_progress".equals(e.getCode())) {
+                refund(checkout, paymentIntent);
+                checkoutService.fail(checkout, CheckoutStatus.REFUNDED);
+                log.error("Checkout {} reembolsado: sin capacidad para registrar la compra",
+                        checkout.getIdempotencyKey());
+            }
+            return;
+        }
+        log.info("Checkout {} conciliado con la compra {}", checkout.getIdempotencyKey(), purchase.getId());
+    }
+
+    /**
+     * Records the buyer, the purchase and its fulfilment outbox row, inside the transaction that
+     * completes the checkout.
+     */
+    private Purchase recordPurchase(PaymentCheckout checkout, PaymentRequest request,
+            PriceCalculationResponse priceCalc, CheckoutTracer.Trace trace) {
+        User buyer = trace.time(CheckoutStage.FIND_OR_CREATE_USER, () -> findOrCreateGuestUser(request));
+        Purchase purchase = trace.time(CheckoutStage.CREATE_PURCHASE,
+                () -> createPurchaseFromRequest(request, buyer, priceCalc));
+        trace.run(CheckoutStage.FULFILMENT_ENQUEUE,
+                () -> fulfilmentService.enqueue(purchase.getId(), checkout.getId()));
+        return purchase;
+    }
+
+    /**
+     * The live charge succeeded but the checkout is no longer PENDING. If the recovery job recorded
+     * it, the purchase is returned as a replay; if it gave the checkout up, the charge is refunded.
+     */
+    private PaymentResponse settledElsewhere(PaymentCheckout checkout, PaymentIntent paymentIntent,
+            CheckoutTracer.Trace trace) throws StripeException {
+        PaymentCheckout settled = checkoutService.findById(checkout.getId());
+        if (settled.getStatus() == CheckoutStatus.COMPLETED) {
+            trace.setOutcome(CheckoutTracer.Outcome.REPLAYED);
+            return replay(settled);
+        }
+        refund(checkout, paymentIntent);
+        checkoutService.markRefunded(settled);
+        log.error("Checkout {} cobrado ({}) tras darse por fallido, cobro reembolsado",
+                checkout.getIdempotencyKey(), paymentIntent.getId());
+        trace.setOutcome(CheckoutTracer.Outcome.DECLINED);
+        return PaymentResponse.builder()
+                .success(false)
+                .message("error.payment.failed")
+                .stripePaymentIntentId(paymentIntent.getId())
+                .build();
+    }
+
+    private static void refund(PaymentCheckout checkout, PaymentIntent paymentIntent) throws StripeException {
+        Refund.create(RefundCreateParams.builder().setPaymentIntent(paymentIntent.getId()).build(),
+                RequestOptions.builder().setIdempotencyKey("refund-" + checkout.getIdempotencyKey()).build());
+    }
+
+    private PaymentIntent charge(PaymentCheckout checkout, PaymentRequest request) throws StripeException {
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(checkout.getAmountCents())
+                .setCurrency("eur")
+                .setPaymentMethod(request.getStripePaymentMethodId())
+                .setConfirm(true)
+                .setAutomaticPaymentMethods(
+                        PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                .setEnabled(true)
+                                .setAllowRedirects(
+                                        PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
+                                .build())
+                .putMetadata(CHECKOUT_METADATA, checkout.getIdempotencyKey())
+                .build();
+        RequestOptions options = RequestOptions.builder()
+                .setIdempotencyKey("checkout-" + checkout.getIdempotencyKey())
+                .build();
+        return PaymentIntent.create(params, options);
+    }
+
+    private static PaymentIntent findPaymentIntent(String idempotencyKey) throws StripeException {
+        PaymentIntentSearchResult result = PaymentIntent.search(PaymentIntentSearchParams.builder()
+                .setQuery("metadata['" + CHECKOUT_METADATA + "']:'" + idempotencyKey + "'")
+                .build());
+        return result.getData().stream()
+                .filter(intent -> "succeeded".equals(intent.getStatus()))
+                .findFirst()
+                .orElse(result.getData().isEmpty() ? null : result.getData().getFirst());
+    }
+
+    private static boolean isStillProcessing(PaymentIntent paymentIntent) {
+        return "processing".equals(paymentIntent.getStatus()) || "requires_capture".equals(paymentIntent.getStatus());
+    }
+
+    private static PaymentResponse replay(PaymentCheckout checkout) {
+        return switch (checkout.getStatus()) {
+            case PENDING -> throw new InvalidOperationException("error.payment.checkout.in_progress");
+            case COMPLETED -> PaymentResponse.builder()
+                    .success(true)
+                    .message("success.payment.completed")
+                    .purchaseId(checkout.getPurchaseId())
+                    .stripePaymentIntentId(checkout.getStripePaymentIntentId())
+                    .totalAmount(checkout.getTotalAmount())
+                    .discountAmount(checkout.getDiscountAmount())
+                    .build();
+            case FAILED, REFUNDED -> PaymentResponse.builder()
+                    .success(false)
+                    .message("error.payment.failed")
+                    .stripePaymentIntentId(checkout.getStripePaymentIntentId())
+                    .build();
+        };
+    }
+
     private void validatePurchase(PaymentRequest request) {
         if (request.getVisitDate().isBefore(LocalDate.now())) {
             throw new InvalidOperationException("error.payment.date.past");
@@ -259,22 +483,6 @@ public class PaymentService {
         if (parkClosureDayService.isClosedDay(request.getVisitDate())) {
             throw new InvalidOperationException("error.payment.park.closed");
         }
-
-        // Per-ticket-type availability check
-        for (PaymentRequest.PaymentLineItem item : request.getItems()) {
-            int available = purchaseLineService.getAvailableQuantity(item.getTicketTypeName(), request.getVisitDate());
-            if (item.getQuantity() > available) {
-                throw new InvalidOperationException("error.payment.insufficient.availability");
-            }
-        }
-
-        // Global park capacity check
-        int totalRequestedQuantity = request.getItems().stream()
-                .mapToInt(PaymentRequest.PaymentLineItem::getQuantity).sum();
-        int totalSoldForDay = purchaseLineService.getTotalSoldForDate(request.getVisitDate());
-        if (totalSoldForDay + totalRequestedQuantity > parkMaxCapacity) {
-            throw new InvalidOperationException("error.payment.park.capacity.exceeded");
-        }
     }
 
     private User findOrCreateGuestUser(PaymentRequest request) {
@@ -318,69 +526,20 @@ public class PaymentService {
         return purchaseService.createPurchase(buyer, lines);
     }
 
-    private void sendConfirmationEmail(Purchase purchase, PaymentRequest request,
-            PriceCalculationResponse priceCalc, String lang) {
-        String qrContent = "MAGICWORLD-TICKET-" + purchase.getId() + "-" + request.getVisitDate();
-        byte[] qrCode = qrCodeService.generateQrCodeBytes(qrContent);
-
-        boolean isSpanish = "es".equalsIgnoreCase(lang);
-        String currencySymbol = isSpanish ? "€" : "$";
-        BigDecimal exchangeRate = isSpanish ? BigDecimal.ONE : new BigDecimal("1.08");
-
-        List<Map<String, Object>> orderLines = new ArrayList<>();
-        for (PaymentRequest.PaymentLineItem item : request.getItems()) {
-            TicketType tt = ticketTypeService.findByTypeName(item.getTicketTypeName());
-            BigDecimal lineTotalEur = tt.getCost().multiply(BigDecimal.valueOf(item.getQuantity()));
-            BigDecimal lineTotalConverted = lineTotalEur.multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
-            Map<String, Object> lineMap = new HashMap<>();
-            lineMap.put("ticketTypeName", item.getTicketTypeName());
-            lineMap.put("quantity", item.getQuantity());
-            lineMap.put("totalCost", lineTotalConverted);
-            orderLines.add(lineMap);
-        }
-
-        BigDecimal discountConverted = priceCalc.getDiscountAmount().multiply(exchangeRate).setScale(2,
-                RoundingMode.HALF_UP);
-        BigDecimal totalConverted = priceCalc.getTotal().multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
-
-        Map<String, Object> vars = new HashMap<>();
-        vars.put("subject", isSpanish ? "Confirmación de compra - MagicWorld" : "Purchase Confirmation - MagicWorld");
-        vars.put("headerText", isSpanish ? "Confirmación de Compra" : "Purchase Confirmation");
-        vars.put("greeting",
-                isSpanish ? "¡Hola " + request.getFirstName() + "!" : "Hello " + request.getFirstName() + "!");
-        vars.put("thankYouMessage", isSpanish ? "¡Gracias por tu compra! Aquí tienes los detalles de tu pedido."
-                : "Thank you for your purchase! Here are your order details.");
-        vars.put("visitDateLabel", isSpanish ? "Fecha de visita" : "Visit Date");
-        vars.put("visitDate", request.getVisitDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
-        vars.put("orderSummaryTitle", isSpanish ? "Resumen del Pedido" : "Order Summary");
-        vars.put("orderLines", orderLines);
-        vars.put("currencySymbol", currencySymbol);
-        vars.put("discountApplied", priceCalc.getDiscountAmount().compareTo(BigDecimal.ZERO) > 0);
-        vars.put("discountLabel", isSpanish ? "Descuento" : "Discount");
-        vars.put("discountAmount", discountConverted);
-        vars.put("totalLabel", "Total");
-        vars.put("totalAmount", totalConverted);
-        vars.put("qrTitle", isSpanish ? "Tu Código QR de Entrada" : "Your Entry QR Code");
-        vars.put("qrInstructions", isSpanish ? "Muestra este código QR en la entrada del parque"
-                : "Show this QR code at the park entrance");
-        vars.put("purchaseId", purchase.getId());
-        vars.put("footerMessage",
-                isSpanish ? "¡Te esperamos en MagicWorld!" : "We look forward to seeing you at MagicWorld!");
-        vars.put("footerRights", isSpanish ? "Todos los derechos reservados" : "All rights reserved");
-        vars.put("contactInfo", isSpanish ? "Contáctanos en info@magicworld.com" : "Contact us at info@magicworld.com");
-
-        String subject = isSpanish ? "Confirmación de compra - MagicWorld" : "Purchase Confirmation - MagicWorld";
-        emailService.sendHtmlEmailWithQr(request.getEmail(), subject, "purchase-confirmation", vars, qrCode);
-    }
-
-    @Transactional
+    /**
+     * Broadcasts the date's availability. Inside a transaction the message is sent after commit,
+     * once the new purchase lines have reached the {@link TicketAvailabilityCache}.
+     */
     public void notifyAvailabilityChange(LocalDate date) {
-        try {
-            List<TicketAvailabilityDTO> availability = getAvailability(date);
-            messagingTemplate.convertAndSend("/topic/availability/" + date, availability);
-        } catch (InvalidOperationException e) {
-            // Park is closed on this date, send empty list
-            messagingTemplate.convertAndSend("/topic/availability/" + date, List.of());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    availabilityBroadcaster.broadcast(date);
+                }
+            });
+        } else {
+            availabilityBroadcaster.broadcast(date);
         }
     }
 }
@@ -0,0 +1,307 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.park_closure.ParkClosureDayService;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
+import com.magicworld.tfg_angular_springboot.seasonal_pricing.SeasonalPricingService;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeService;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-date ticket availability, priced with the date's seasonal multiplier. A date is loaded
+ * once (closure check, multiplier, ticket types and one GROUP BY over its purchase lines) and
+ * then served without queries. Committed purchase lines are added to the cached sold counts in
+ * place; ticket type, seasonal pricing and closure changes drop every cached date through
+ * {@link TicketAvailabilityListener}. Ranges of dates are loaded in bulk with range queries.
+ *
+ * <p>A load is only kept if no purchase line was pending and nothing was invalidated while it
+ * ran, so a concurrent commit is never counted twice or lost. Sales and invalidations are
+ * published through {@link ClusterCacheSync}; other nodes drop the dates concerned and reload them.
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketAvailabilityCache {
+
+    static final String CACHE_NAME = "ticket-availability";
+
+    @Value("${park.availability.cache.max-dates:180}")
+    private int maxDates = 180;
+
+    private final TicketTypeService ticketTypeService;
+    private final SeasonalPricingService seasonalPricingService;
+    private final ParkClosureDayService parkClosureDayService;
+    private final PurchaseLineService purchaseLineService;
+    private final ClusterCacheSync clusterCacheSync;
+
+    private final Map<LocalDate, DateAvailability> byDate = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicInteger pendingLines = new AtomicInteger();
+
+    @PostConstruct
+    public void registerSync() {
+        clusterCacheSync.register(CACHE_NAME, this::dropRemote);
+    }
+
+    public DateAvailability get(LocalDate date) {
+        DateAvailability cached = byDate.get(date);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = generation.get();
+        boolean quiet = pendingLines.get() == 0;
+        DateAvailability loaded = load(date);
+        if (quiet) {
+            store(loaded, loadGeneration);
+        }
+        return loaded;
+    }
+
+    /**
+     * Every date in {@code [from, to]}. If any date is missing the whole range is loaded from the
+     * closure and multiplier calendars and one GROUP BY over purchase lines.
+     */
+    public List<DateAvailability> getRange(LocalDate from, LocalDate to) {
+        List<DateAvailability> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DateAvailability cached = byDate.get(date);
+            if (cached == null) {
+                return loadRange(from, to);
+            }
+            days.add(cached);
+        }
+        return days;
+    }
+
+    /**
+     * Adds a persisted purchase line to its date once the surrounding transaction commits.
+     * Runs ahead of other commit callbacks so availability broadcasts see the new counts.
+     */
+    public void recordSale(PurchaseLine line) {
+        LocalDate date = line.getValidDate();
+        String typeName = line.getTicketTypeName();
+        int quantity = line.getQuantity();
+        clusterCacheSync.publish(CACHE_NAME, date.toString());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generation.incrementAndGet();
+            byDate.computeIfPresent(date, (key, entry) -> entry.withSale(typeName, quantity));
+            return;
+        }
+        pendingLines.incrementAndGet();
+        generation.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                byDate.computeIfPresent(date, (key, entry) -> entry.withSale(typeName, quantity));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                generation.incrementAndGet();
+                pendingLines.decrementAndGet();
+            }
+
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        clear();
+        clusterCacheSync.publish(CACHE_NAME);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+            });
+        }
+    }
+
+    int size() {
+        return byDate.size();
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        byDate.clear();
+    }
+
+    /**
+     * Drops the dates another node sold on, or everything for a {@code null} key.
+     */
+    void dropRemote(List<String> dates) {
+        if (dates.contains(null)) {
+            clear();
+            return;
+        }
+        generation.incrementAndGet();
+        dates.forEach(date -> byDate.remove(LocalDate.parse(date)));
+    }
+
+    private boolean hasRoom() {
+        if (byDate.size() < maxDates) {
+            return true;
+        }
+        LocalDate today = LocalDate.now();
+        byDate.keySet().removeIf(date -> date.isBefore(today));
+        return byDate.size() < maxDates;
+    }
+
+    private void store(DateAvailability loaded, long loadGeneration) {
+        if (!hasRoom()) {
+            return;
+        }
+        byDate.compute(loaded.getDate(), (key, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            return generation.get() == loadGeneration ? loaded : null;
+        });
+    }
+
+    private List<DateAvailability> loadRange(LocalDate from, LocalDate to) {
+        long loadGeneration = generation.get();
+        boolean quiet = pendingLines.get() == 0;
+        Set<LocalDate> closedDates = new HashSet<>(parkClosureDayService.findClosedDates(from, to));
+        Map<LocalDate, BigDecimal> multipliers = seasonalPricingService.getMultipliers(from, to);
+        List<TicketType> ticketTypes = ticketTypeService.findAll();
+        Map<LocalDate, Map<String, Integer>> sold = purchaseLineService.getSoldQuantitiesByDate(from, to);
+
+        List<DateAvailability> days = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DateAvailability loaded;
+            if (closedDates.contains(date)) {
+                loaded = DateAvailability.closed(date);
+            } else {
+                BigDecimal multiplier = multipliers.getOrDefault(date, BigDecimal.ONE);
+                loaded = new DateAvailability(date, false, multiplier, price(ticketTypes, multiplier),
+                        sold.getOrDefault(date, Map.of()));
+            }
+            if (quiet) {
+                store(loaded, loadGeneration);
+            }
+            days.add(loaded);
+        }
+        return days;
+    }
+
+    private DateAvailability load(LocalDate date) {
+        if (parkClosureDayService.isClosedDay(date)) {
+            return DateAvailability.closed(date);
+        }
+        BigDecimal multiplier = seasonalPricingService.getMultiplier(date);
+        return new DateAvailability(date, false, multiplier, price(ticketTypeService.findAll(), multiplier),
+                purchaseLineService.getSoldQuantitiesByTicketType(date));
+    }
+
+    private static List<PricedTicket> price(List<TicketType> ticketTypes, BigDecimal multiplier) {
+        return ticketTypes.stream()
+                .map(tt -> new PricedTicket(tt, multiplier))
+                .toList();
+    }
+
+    @Getter
+    public static final class DateAvailability {
+
+        private final LocalDate date;
+        private final boolean closed;
+        private final BigDecimal multiplier;
+        private final List<PricedTicket> tickets;
+        private final Map<String, Integer> soldByType;
+
+        DateAvailability(LocalDate date, boolean closed, BigDecimal multiplier, List<PricedTicket> tickets,
+                Map<String, Integer> soldByType) {
+            this.date = date;
+            this.closed = closed;
+            this.multiplier = multiplier;
+            this.tickets = tickets;
+            this.soldByType = Collections.unmodifiableMap(soldByType);
+        }
+
+        static DateAvailability closed(LocalDate date) {
+            return new DateAvailability(date, true, BigDecimal.ONE, List.of(), Map.of());
+        }
+
+        public int getSold(String typeName) {
+            return soldByType.getOrDefault(typeName, 0);
+        }
+
+        public List<TicketAvailabilityDTO> toAvailability() {
+            return tickets.stream()
+                    .map(ticket -> ticket.toDTO(multiplier, Math.max(0, ticket.maxPerDay - getSold(ticket.typeName))))
+                    .toList();
+        }
+
+        DateAvailability withSale(String typeName, int quantity) {
+            Map<String, Integer> sold = new HashMap<>(soldByType);
+            sold.merge(typeName, quantity, Integer::sum);
+            return new DateAvailability(date, closed, multiplier, tickets, sold);
+        }
+    }
+
+    static final class PricedTicket {
+
+        private final Long id;
+        private final String typeName;
+        private final String description;
+        private final BigDecimal cost;
+        private final BigDecimal adjustedCost;
+        private final String photoUrl;
+        private final int maxPerDay;
+
+        PricedTicket(TicketType ticketType, BigDecimal multiplier) {
+            this.id = ticketType.getId();
+            this.typeName = ticketType.getTypeName();
+            this.description = ticketType.getDescription();
+            this.cost = ticketType.getCost();
+            this.adjustedCost = ticketType.getCost().multiply(multiplier).setScale(2, RoundingMode.HALF_UP);
+            this.photoUrl = ticketType.getPhotoUrl();
+            this.maxPerDay = ticketType.getMaxPerDay();
+        }
+
+        TicketAvailabilityDTO toDTO(BigDecimal multiplier, int available) {
+            return TicketAvailabilityDTO.builder()
+                    .id(id)
+                    .typeName(typeName)
+                    .description(description)
+                    .cost(cost)
+                    .adjustedCost(adjustedCost)
+                    .seasonalMultiplier(multiplier)
+                    .photoUrl(photoUrl)
+                    .maxPerDay(maxPerDay)
+                    .available(available)
+                    .build();
+        }
+    }
+}
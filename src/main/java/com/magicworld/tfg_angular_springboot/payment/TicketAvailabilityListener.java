@@ -0,0 +1,37 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on purchase lines, ticket types, seasonal pricings and closure days. New purchase
+ * lines are added to the {@link TicketAvailabilityCache} in place; any other change drops it.
+ */
+public class TicketAvailabilityListener {
+
+    private final ObjectProvider<TicketAvailabilityCache> cache;
+
+    public TicketAvailabilityListener(ObjectProvider<TicketAvailabilityCache> cache) {
+        this.cache = cache;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof PurchaseLine line) {
+            cache.ifAvailable(c -> c.recordSale(line));
+        } else {
+            onChange(entity);
+        }
+    }
+
+    @PostUpdate
+    @PreRemove
+    @PostRemove
+    public void onChange(Object entity) {
+        cache.ifAvailable(TicketAvailabilityCache::invalidateAll);
+    }
+}
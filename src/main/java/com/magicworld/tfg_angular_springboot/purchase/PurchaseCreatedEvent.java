@@ -0,0 +1,18 @@
+package com.magicworld.tfg_angular_springboot.purchase;
+
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published by {@link PurchaseService#createPurchase} once the purchase and its lines are saved.
+ * Listeners that keep in-memory views of sales should react after the transaction commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PurchaseCreatedEvent {
+    private final Long purchaseId;
+    private final List<PurchaseLine> lines;
+}
@@ -5,6 +5,7 @@ import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
 import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
 import com.magicworld.tfg_angular_springboot.user.User;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +18,7 @@ public class PurchaseService {
 
     private final PurchaseRepository purchaseRepository;
     private final PurchaseLineService purchaseLineService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public Purchase findById(Long id) {
@@ -40,6 +42,7 @@ public class PurchaseService {
 
         lines.forEach(line -> line.setPurchase(savedPurchase));
         purchaseLineService.saveAll(lines);
+        eventPublisher.publishEvent(new PurchaseCreatedEvent(savedPurchase.getId(), List.copyOf(lines)));
 
         return savedPurchase;
     }
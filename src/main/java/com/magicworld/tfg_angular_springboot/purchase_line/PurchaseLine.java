@@ -1,9 +1,11 @@
 package com.magicworld.tfg_angular_springboot.purchase_line;
 
+import com.magicworld.tfg_angular_springboot.payment.TicketAvailabilityListener;
 import com.magicworld.tfg_angular_springboot.purchase.Purchase;
 import com.magicworld.tfg_angular_springboot.util.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -22,6 +24,7 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(TicketAvailabilityListener.class)
 @Table(name = "purchase_line")
 public class PurchaseLine extends BaseEntity {
 
@@ -17,6 +17,14 @@ public interface PurchaseLineRepository extends JpaRepository<PurchaseLine, Long
     @Query("SELECT COALESCE(SUM(pl.quantity), 0) FROM PurchaseLine pl WHERE pl.ticketTypeName = :typeName AND pl.validDate = :date")
     Integer sumQuantityByTicketTypeNameAndValidDate(@Param("typeName") String typeName, @Param("date") LocalDate date);
 
+    @Query("SELECT pl.ticketTypeName, SUM(pl.quantity) FROM PurchaseLine pl " +
+           "WHERE pl.validDate = :date GROUP BY pl.ticketTypeName")
+    List<Object[]> sumQuantityByTicketTypeForDate(@Param("date") LocalDate date);
+
+    @Query("SELECT pl.validDate, pl.ticketTypeName, SUM(pl.quantity) FROM PurchaseLine pl " +
+           "WHERE pl.validDate BETWEEN :from AND :to GROUP BY pl.validDate, pl.ticketTypeName")
+    List<Object[]> sumQuantityByDateAndTicketType(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
     @Query("SELECT COALESCE(SUM(pl.quantity), 0) FROM PurchaseLine pl WHERE pl.validDate = :date")
     Integer sumTotalQuantityByValidDate(@Param("date") LocalDate date);
 
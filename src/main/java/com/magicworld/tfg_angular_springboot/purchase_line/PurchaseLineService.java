@@ -7,7 +7,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +28,25 @@ public class PurchaseLineService {
         return purchaseLineRepository.sumQuantityByTicketTypeNameAndValidDate(ticketTypeName, date);
     }
 
+    @Transactional(readOnly = true)
+    public Map<String, Integer> getSoldQuantitiesByTicketType(LocalDate date) {
+        Map<String, Integer> sold = new HashMap<>();
+        for (Object[] row : purchaseLineRepository.sumQuantityByTicketTypeForDate(date)) {
+            sold.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        return sold;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<LocalDate, Map<String, Integer>> getSoldQuantitiesByDate(LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<String, Integer>> sold = new HashMap<>();
+        for (Object[] row : purchaseLineRepository.sumQuantityByDateAndTicketType(from, to)) {
+            sold.computeIfAbsent((LocalDate) row[0], date -> new HashMap<>())
+                    .put((String) row[1], ((Number) row[2]).intValue());
+        }
+        return sold;
+    }
+
     @Transactional(readOnly = true)
     public int getAvailableQuantity(String ticketTypeName, LocalDate date) {
         TicketType ticketType = ticketTypeService.findByTypeName(ticketTypeName);
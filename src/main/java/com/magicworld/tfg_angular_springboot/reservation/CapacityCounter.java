@@ -0,0 +1,46 @@
+package com.magicworld.tfg_angular_springboot.reservation;
+
+import com.magicworld.tfg_angular_springboot.util.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Remaining capacity for one visit date and scope: a ticket type name, or
+ * {@link ReservationLedgerService#PARK_SCOPE} for the whole park. Only changed through the
+ * conditional updates in {@link CapacityCounterRepository}.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "capacity_counter",
+        uniqueConstraints = @UniqueConstraint(name = "uk_capacity_counter_date_scope",
+                columnNames = {"valid_date", "scope"}))
+public class CapacityCounter extends BaseEntity {
+
+    @NotNull
+    @Column(name = "valid_date", nullable = false)
+    private LocalDate validDate;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "scope", nullable = false, length = 50)
+    private String scope;
+
+    @NotNull
+    @Column(name = "capacity", nullable = false)
+    private Integer capacity;
+
+    @NotNull
+    @Column(name = "remaining", nullable = false)
+    private Integer remaining;
+}
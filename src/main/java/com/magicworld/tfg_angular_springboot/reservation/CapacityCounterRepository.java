@@ -0,0 +1,39 @@
+package com.magicworld.tfg_angular_springboot.reservation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface CapacityCounterRepository extends JpaRepository<CapacityCounter, Long> {
+
+    Optional<CapacityCounter> findByValidDateAndScope(LocalDate validDate, String scope);
+
+    boolean existsByValidDateAndScope(LocalDate validDate, String scope);
+
+    /**
+     * Takes {@code quantity} from the counter only if enough remains, first applying any change
+     * of the configured capacity. Returns 0 when the counter would go negative.
+     */
+    @Modifying
+    @Query("UPDATE CapacityCounter c " +
+           "SET c.remaining = c.remaining + (:capacity - c.capacity) - :quantity, c.capacity = :capacity " +
+           "WHERE c.validDate = :date AND c.scope = :scope " +
+           "AND c.remaining + (:capacity - c.capacity) >= :quantity")
+    int tryReserve(@Param("date") LocalDate date, @Param("scope") String scope,
+                   @Param("capacity") int capacity, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE CapacityCounter c SET c.remaining = c.remaining + :quantity " +
+           "WHERE c.validDate = :date AND c.scope = :scope")
+    int restore(@Param("date") LocalDate date, @Param("scope") String scope, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("DELETE FROM CapacityCounter c WHERE c.validDate < :date")
+    int deleteByValidDateBefore(@Param("date") LocalDate date);
+}
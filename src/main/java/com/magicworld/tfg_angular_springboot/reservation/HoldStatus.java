@@ -0,0 +1,7 @@
+package com.magicworld.tfg_angular_springboot.reservation;
+
+public enum HoldStatus {
+    HELD,
+    CONFIRMED,
+    RELEASED
+}
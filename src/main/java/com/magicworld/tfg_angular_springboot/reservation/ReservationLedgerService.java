@@ -0,0 +1,184 @@
+package com.magicworld.tfg_angular_springboot.reservation;
+
+import com.magicworld.tfg_angular_springboot.exceptions.InvalidOperationException;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Capacity ledger for checkout. A hold takes the requested quantities from the per-(date, ticket
+ * type) counters and the park counter with conditional updates, in the caller's short reserve
+ * transaction (or one of its own), so concurrent buyers never oversell and only contend on the
+ * rows they touch. The hold is confirmed together with the purchase lines, released when the
+ * charge fails, and released by {@link #releaseExpiredHolds()} if it is abandoned.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservationLedgerService {
+
+    public static final String PARK_SCOPE = "*PARK*";
+
+    @Value("${park.max-capacity:500}")
+    private int parkMaxCapacity;
+
+    @Value("${park.reservation.hold-ttl-seconds:600}")
+    private long holdTtlSeconds;
+
+    @Value("${park.reservation.settled-retention-hours:24}")
+    private long settledRetentionHours;
+
+    private final CapacityCounterRepository counterRepository;
+    private final TicketHoldRepository holdRepository;
+    private final TicketTypeService ticketTypeService;
+    private final PurchaseLineService purchaseLineService;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Holds the given quantity per ticket type for {@code date} and returns the hold token. Throws
+     * if a ticket type or the park is out of capacity, leaving every counter untouched.
+     */
+    public String hold(LocalDate date, Map<String, Integer> quantities) {
+        Map<String, int[]> scopes = new LinkedHashMap<>();
+        int total = 0;
+        // Sorted so concurrent holds lock counter rows in the same order
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            int capacity = ticketTypeService.findByTypeName(entry.getKey()).getMaxPerDay();
+            scopes.put(entry.getKey(), new int[] { capacity, entry.getValue() });
+            total += entry.getValue();
+        }
+        scopes.put(PARK_SCOPE, new int[] { parkMaxCapacity, total });
+
+        String token = UUID.randomUUID().toString();
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(holdTtlSeconds);
+        transaction().executeWithoutResult(status -> scopes.forEach((scope, amounts) -> {
+            if (!reserve(date, scope, amounts[0], amounts[1])) {
+                throw new InvalidOperationException(PARK_SCOPE.equals(scope)
+                        ? "error.payment.park.capacity.exceeded"
+                        : "error.payment.insufficient.availability");
+            }
+            holdRepository.save(TicketHold.builder()
+                    .token(token)
+                    .validDate(date)
+                    .scope(scope)
+                    .quantity(amounts[1])
+                    .status(HoldStatus.HELD)
+                    .expiresAt(expiresAt)
+                    .build());
+        }));
+        return token;
+    }
+
+    /**
+     * Marks the hold as sold. Must run in the transaction that inserts the purchase lines so
+     * both commit or roll back together.
+     */
+    public void confirm(String token) {
+        if (holdRepository.transitionToken(token, HoldStatus.HELD, HoldStatus.CONFIRMED) == 0) {
+            throw new InvalidOperationException("error.payment.reservation.expired");
+        }
+    }
+
+    /**
+     * Gives a hold's capacity back. A no-op for holds already confirmed or released.
+     */
+    public void release(String token) {
+        transaction().executeWithoutResult(status -> {
+            for (TicketHold hold : holdRepository.findByTokenAndStatus(token, HoldStatus.HELD)) {
+                if (holdRepository.transition(hold.getId(), HoldStatus.HELD, HoldStatus.RELEASED) == 1) {
+                    counterRepository.restore(hold.getValidDate(), hold.getScope(), hold.getQuantity());
+                }
+            }
+        });
+    }
+
+    /**
+     * Gives the capacity of sold purchase lines back before they are deleted. Must run in the
+     * transaction that deletes the lines. Past dates are skipped, and so are dates without a
+     * counter yet, which will be seeded from the lines that remain.
+     */
+    public void returnSold(List<PurchaseLine> lines) {
+        LocalDate today = LocalDate.now();
+        for (PurchaseLine line : lines) {
+            if (line.getValidDate().isBefore(today)) {
+                continue;
+            }
+            counterRepository.restore(line.getValidDate(), line.getTicketTypeName(), line.getQuantity());
+            counterRepository.restore(line.getValidDate(), PARK_SCOPE, line.getQuantity());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${park.reservation.sweep-interval-ms:30000}")
+    public void releaseExpiredHolds() {
+        List<String> expired = holdRepository.findTokensExpiredBefore(HoldStatus.HELD, LocalDateTime.now());
+        expired.forEach(this::release);
+        if (!expired.isEmpty()) {
+            log.warn("Liberadas {} reservas de entradas caducadas", expired.size());
+        }
+        newTransaction().executeWithoutResult(status -> {
+            holdRepository.deleteSettledBefore(HoldStatus.HELD,
+                    LocalDateTime.now().minusHours(settledRetentionHours));
+            counterRepository.deleteByValidDateBefore(LocalDate.now());
+        });
+    }
+
+    private boolean reserve(LocalDate date, String scope, int capacity, int quantity) {
+        if (counterRepository.tryReserve(date, scope, capacity, quantity) == 1) {
+            return true;
+        }
+        if (counterRepository.existsByValidDateAndScope(date, scope)) {
+            return false;
+        }
+        createCounter(date, scope, capacity);
+        return counterRepository.tryReserve(date, scope, capacity, quantity) == 1;
+    }
+
+    /**
+     * Creates a counter on first use, seeded with what is already sold for that date. Holds
+     * cannot exist before their counter, so sold lines are the only prior usage.
+     */
+    private void createCounter(LocalDate date, String scope, int capacity) {
+        try {
+            newTransaction().executeWithoutResult(status -> {
+                int sold = PARK_SCOPE.equals(scope)
+                        ? purchaseLineService.getTotalSoldForDate(date)
+                        : purchaseLineService.getSoldQuantity(scope, date);
+                counterRepository.save(CapacityCounter.builder()
+                        .validDate(date)
+                        .scope(scope)
+                        .capacity(capacity)
+                        .remaining(capacity - sold)
+                        .build());
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Contador de capacidad {} {} creado concurrentemente", date, scope);
+        }
+    }
+
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
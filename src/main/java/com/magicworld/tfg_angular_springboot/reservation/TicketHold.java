@@ -0,0 +1,56 @@
+package com.magicworld.tfg_angular_springboot.reservation;
+
+import com.magicworld.tfg_angular_springboot.util.BaseEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Capacity taken from one {@link CapacityCounter} by a checkout. All holds of a checkout share a
+ * token and move together from HELD to CONFIRMED or RELEASED.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ticket_hold", indexes = {
+        @Index(name = "idx_ticket_hold_token", columnList = "token"),
+        @Index(name = "idx_ticket_hold_status_expires", columnList = "status, expires_at")
+})
+public class TicketHold extends BaseEntity {
+
+    @NotNull
+    @Size(max = 36)
+    @Column(name = "token", nullable = false, length = 36)
+    private String token;
+
+    @NotNull
+    @Column(name = "valid_date", nullable = false)
+    private LocalDate validDate;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "scope", nullable = false, length = 50)
+    private String scope;
+
+    @NotNull
+    @Positive
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private HoldStatus status;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
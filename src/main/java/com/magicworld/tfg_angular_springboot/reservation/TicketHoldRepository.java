@@ -0,0 +1,33 @@
+package com.magicworld.tfg_angular_springboot.reservation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TicketHoldRepository extends JpaRepository<TicketHold, Long> {
+
+    List<TicketHold> findByTokenAndStatus(String token, HoldStatus status);
+
+    long countByStatus(HoldStatus status);
+
+    @Modifying
+    @Query("UPDATE TicketHold h SET h.status = :to WHERE h.token = :token AND h.status = :from")
+    int transitionToken(@Param("token") String token, @Param("from") HoldStatus from, @Param("to") HoldStatus to);
+
+    @Modifying
+    @Query("UPDATE TicketHold h SET h.status = :to WHERE h.id = :id AND h.status = :from")
+    int transition(@Param("id") Long id, @Param("from") HoldStatus from, @Param("to") HoldStatus to);
+
+    @Query("SELECT DISTINCT h.token FROM TicketHold h WHERE h.status = :status AND h.expiresAt < :now")
+    List<String> findTokensExpiredBefore(@Param("status") HoldStatus status, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM TicketHold h WHERE h.status <> :status AND h.expiresAt < :before")
+    int deleteSettledBefore(@Param("status") HoldStatus status, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,118 @@
+package com.magicworld.tfg_angular_springboot.seasonal_pricing;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.util.InvalidatingSnapshot;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Accumulated seasonal multiplier for every date from today through {@code window-days} ahead,
+ * precomputed into an array indexed by day offset. It is built from all pricing rows in one query
+ * on first use and each new day, and dropped by {@link SeasonalMultiplierListener} whenever a
+ * pricing changes, here and, through {@link ClusterCacheSync}, on the other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class SeasonalMultiplierCalendar {
+
+    static final String CACHE_NAME = "seasonal-pricing";
+
+    @Value("${park.pricing.calendar.window-days:75}")
+    private int windowDays = 75;
+
+    private final SeasonalPricingRepository repository;
+    private final ClusterCacheSync clusterCacheSync;
+
+    private final InvalidatingSnapshot<Snapshot> snapshot = new InvalidatingSnapshot<>(
+            () -> build(LocalDate.now()), calendar -> calendar.start.equals(LocalDate.now()));
+
+    /**
+     * The multiplier for {@code date}, or {@code null} if the date falls outside the window.
+     */
+    public BigDecimal get(LocalDate date) {
+        return current().get(date);
+    }
+
+    /**
+     * The multipliers for {@code [from, to]}, or {@code null} if any date falls outside the window.
+     */
+    public BigDecimal[] getRange(LocalDate from, LocalDate to) {
+        Snapshot calendar = current();
+        if (calendar.get(from) == null || calendar.get(to) == null) {
+            return null;
+        }
+        int offset = (int) ChronoUnit.DAYS.between(calendar.start, from);
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        BigDecimal[] range = new BigDecimal[days];
+        System.arraycopy(calendar.multipliers, offset, range, 0, days);
+        return range;
+    }
+
+    @PostConstruct
+    public void registerSync() {
+        clusterCacheSync.register(CACHE_NAME, keys -> snapshot.invalidate());
+    }
+
+    public void invalidate() {
+        snapshot.invalidate();
+        clusterCacheSync.publish(CACHE_NAME);
+    }
+
+    /**
+     * Product of the multipliers of every pricing active on {@code date} that applies to its day
+     * of the week.
+     */
+    static BigDecimal multiplierFor(LocalDate date, List<SeasonalPricing> activePricings) {
+        boolean isWeekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+
+        BigDecimal multiplier = BigDecimal.ONE;
+        for (SeasonalPricing sp : activePricings) {
+            if (isWeekend && Boolean.TRUE.equals(sp.getApplyOnWeekends())) {
+                multiplier = multiplier.multiply(sp.getMultiplier());
+            } else if (!isWeekend && Boolean.TRUE.equals(sp.getApplyOnWeekdays())) {
+                multiplier = multiplier.multiply(sp.getMultiplier());
+            }
+        }
+        return multiplier;
+    }
+
+    private Snapshot current() {
+        return snapshot.get();
+    }
+
+    private Snapshot build(LocalDate start) {
+        List<SeasonalPricing> pricings = repository.findAll();
+        BigDecimal[] multipliers = new BigDecimal[windowDays + 1];
+        for (int i = 0; i < multipliers.length; i++) {
+            LocalDate day = start.plusDays(i);
+            multipliers[i] = multiplierFor(day, pricings.stream()
+                    .filter(sp -> !sp.getStartDate().isAfter(day) && !sp.getEndDate().isBefore(day))
+                    .toList());
+        }
+        return new Snapshot(start, multipliers);
+    }
+
+    private static final class Snapshot {
+
+        private final LocalDate start;
+        private final BigDecimal[] multipliers;
+
+        private Snapshot(LocalDate start, BigDecimal[] multipliers) {
+            this.start = start;
+            this.multipliers = multipliers;
+        }
+
+        private BigDecimal get(LocalDate date) {
+            long offset = ChronoUnit.DAYS.between(start, date);
+            return offset >= 0 && offset < multipliers.length ? multipliers[(int) offset] : null;
+        }
+    }
+}
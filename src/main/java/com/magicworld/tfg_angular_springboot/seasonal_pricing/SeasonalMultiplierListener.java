@@ -0,0 +1,25 @@
+package com.magicworld.tfg_angular_springboot.seasonal_pricing;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on seasonal pricings; any change drops the {@link SeasonalMultiplierCalendar}.
+ */
+public class SeasonalMultiplierListener {
+
+    private final ObjectProvider<SeasonalMultiplierCalendar> calendar;
+
+    public SeasonalMultiplierListener(ObjectProvider<SeasonalMultiplierCalendar> calendar) {
+        this.calendar = calendar;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(SeasonalPricing pricing) {
+        calendar.ifAvailable(SeasonalMultiplierCalendar::invalidate);
+    }
+}
@@ -1,5 +1,6 @@
 package com.magicworld.tfg_angular_springboot.seasonal_pricing;
 
+import com.magicworld.tfg_angular_springboot.payment.TicketAvailabilityListener;
 import com.magicworld.tfg_angular_springboot.util.BaseEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -14,6 +15,7 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners({TicketAvailabilityListener.class, SeasonalMultiplierListener.class})
 @Table(name = "seasonal_pricing")
 public class SeasonalPricing extends BaseEntity {
 
@@ -13,5 +13,8 @@ public interface SeasonalPricingRepository extends JpaRepository<SeasonalPricing
 
     @Query("SELECT sp FROM SeasonalPricing sp WHERE sp.startDate <= :date AND sp.endDate >= :date")
     List<SeasonalPricing> findActiveForDate(@Param("date") LocalDate date);
+
+    @Query("SELECT sp FROM SeasonalPricing sp WHERE sp.startDate <= :to AND sp.endDate >= :from")
+    List<SeasonalPricing> findOverlapping(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
 
@@ -7,15 +7,17 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class SeasonalPricingService {
 
     private final SeasonalPricingRepository repository;
+    private final SeasonalMultiplierCalendar calendar;
 
     @Transactional(readOnly = true)
     public List<SeasonalPricing> findAll() {
@@ -56,21 +58,37 @@ public class SeasonalPricingService {
     /**
      * Calculates the accumulated multiplier for a given date.
      * All active seasonal pricings that match the date and day-of-week are multiplied together.
+     * Dates inside the {@link SeasonalMultiplierCalendar} window are answered without a query.
      */
-    @Transactional(readOnly = true)
     public BigDecimal getMultiplier(LocalDate date) {
-        List<SeasonalPricing> activePricings = repository.findActiveForDate(date);
-        boolean isWeekend = date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY;
+        BigDecimal multiplier = calendar.get(date);
+        if (multiplier != null) {
+            return multiplier;
+        }
+        return SeasonalMultiplierCalendar.multiplierFor(date, repository.findActiveForDate(date));
+    }
 
-        BigDecimal multiplier = BigDecimal.ONE;
-        for (SeasonalPricing sp : activePricings) {
-            if (isWeekend && Boolean.TRUE.equals(sp.getApplyOnWeekends())) {
-                multiplier = multiplier.multiply(sp.getMultiplier());
-            } else if (!isWeekend && Boolean.TRUE.equals(sp.getApplyOnWeekdays())) {
-                multiplier = multiplier.multiply(sp.getMultiplier());
+    /**
+     * Multipliers for every date in {@code [from, to]}, from the calendar when the whole range is
+     * inside its window and otherwise from a single range query.
+     */
+    public Map<LocalDate, BigDecimal> getMultipliers(LocalDate from, LocalDate to) {
+        Map<LocalDate, BigDecimal> multipliers = new HashMap<>();
+        BigDecimal[] cached = calendar.getRange(from, to);
+        if (cached != null) {
+            for (int i = 0; i < cached.length; i++) {
+                multipliers.put(from.plusDays(i), cached[i]);
             }
+            return multipliers;
+        }
+        List<SeasonalPricing> pricings = repository.findOverlapping(from, to);
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            LocalDate day = date;
+            multipliers.put(day, SeasonalMultiplierCalendar.multiplierFor(day, pricings.stream()
+                    .filter(sp -> !sp.getStartDate().isAfter(day) && !sp.getEndDate().isBefore(day))
+                    .toList()));
         }
-        return multiplier;
+        return multipliers;
     }
 
     private void validateDates(SeasonalPricing pricing) {
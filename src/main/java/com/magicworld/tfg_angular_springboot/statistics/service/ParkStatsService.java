@@ -2,7 +2,8 @@ package com.magicworld.tfg_angular_springboot.statistics.service;
 
 import com.magicworld.tfg_angular_springboot.attraction.Attraction;
 import com.magicworld.tfg_angular_springboot.attraction.AttractionRepository;
-import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.RollupGranularity;
 import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineRepository;
 import com.magicworld.tfg_angular_springboot.statistics.dto.*;
 import lombok.RequiredArgsConstructor;
@@ -21,7 +22,7 @@ import java.util.*;
 public class ParkStatsService {
 
     private final PurchaseLineRepository purchaseLineRepository;
-    private final ParkEventRepository parkEventRepository;
+    private final ParkEventRollupRepository rollupRepository;
     private final AttractionRepository attractionRepository;
 
     @Transactional(readOnly = true)
@@ -76,7 +77,8 @@ public class ParkStatsService {
         LocalDateTime fromTime = from.atStartOfDay();
         LocalDateTime toTime = to.plusDays(1).atStartOfDay();
 
-        List<Object[]> rawData = parkEventRepository.findAttractionPerformanceStats(fromTime, toTime);
+        List<Object[]> rawData = rollupRepository.findAttractionPerformanceStats(
+                RollupGranularity.HOUR, fromTime, toTime);
 
         Map<Long, Attraction> attractionMap = new HashMap<>();
         attractionRepository.findAll().forEach(a -> attractionMap.put(a.getId(), a));
@@ -86,7 +88,8 @@ public class ParkStatsService {
                     Long attractionId = ((Number) row[0]).longValue();
                     long totalEvents = ((Number) row[1]).longValue();
                     int maxQueue = ((Number) row[2]).intValue();
-                    double avgQueue = ((Number) row[3]).doubleValue();
+                    long queueSamples = ((Number) row[4]).longValue();
+                    double avgQueue = queueSamples > 0 ? ((Number) row[3]).doubleValue() / queueSamples : 0;
 
                     Attraction attraction = attractionMap.get(attractionId);
                     String name = attraction != null ? attraction.getName() : "Unknown (#" + attractionId + ")";
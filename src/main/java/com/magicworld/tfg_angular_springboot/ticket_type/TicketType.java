@@ -1,8 +1,10 @@
 package com.magicworld.tfg_angular_springboot.ticket_type;
 
+import com.magicworld.tfg_angular_springboot.payment.TicketAvailabilityListener;
 import com.magicworld.tfg_angular_springboot.util.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -18,6 +20,7 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners({TicketAvailabilityListener.class, TicketTypeCatalogListener.class})
 @Table(name = "ticket_type")
 public class TicketType extends BaseEntity {
 
@@ -0,0 +1,100 @@
+package com.magicworld.tfg_angular_springboot.ticket_type;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.util.InvalidatingSnapshot;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of every ticket type by name and by id, with the summed {@code maxPerDay},
+ * so the checkout path never queries {@code ticket_type}. Entries are detached copies and must
+ * not be modified. The snapshot is loaded with one query and dropped by
+ * {@link TicketTypeService} and {@link TicketTypeCatalogListener} on every change, here and,
+ * through {@link ClusterCacheSync}, on the other nodes.
+ */
+@Component
+@RequiredArgsConstructor
+public class TicketTypeCatalog {
+
+    static final String CACHE_NAME = "ticket-types";
+
+    private final TicketTypeRepository ticketTypeRepository;
+    private final ClusterCacheSync clusterCacheSync;
+
+    private final InvalidatingSnapshot<Snapshot> snapshot = new InvalidatingSnapshot<>(() -> load());
+
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    @PostConstruct
+    public void registerSync() {
+        clusterCacheSync.register(CACHE_NAME, keys -> snapshot.invalidate());
+    }
+
+    public void invalidate() {
+        snapshot.invalidate();
+        clusterCacheSync.publish(CACHE_NAME);
+    }
+
+    private Snapshot load() {
+        return new Snapshot(ticketTypeRepository.findAll(Sort.by("id")));
+    }
+
+    @Getter
+    public static final class Snapshot {
+
+        private final List<TicketType> all;
+        @Getter(lombok.AccessLevel.NONE)
+        private final Map<String, TicketType> byName;
+        @Getter(lombok.AccessLevel.NONE)
+        private final Map<Long, TicketType> byId;
+        private final int totalMaxPerDay;
+
+        Snapshot(List<TicketType> ticketTypes) {
+            List<TicketType> copies = new ArrayList<>(ticketTypes.size());
+            Map<String, TicketType> names = new HashMap<>();
+            Map<Long, TicketType> ids = new HashMap<>();
+            int total = 0;
+            for (TicketType ticketType : ticketTypes) {
+                TicketType copy = copyOf(ticketType);
+                copies.add(copy);
+                names.put(copy.getTypeName(), copy);
+                ids.put(copy.getId(), copy);
+                total += copy.getMaxPerDay();
+            }
+            this.all = List.copyOf(copies);
+            this.byName = Map.copyOf(names);
+            this.byId = Map.copyOf(ids);
+            this.totalMaxPerDay = total;
+        }
+
+        public TicketType byName(String typeName) {
+            return typeName != null ? byName.get(typeName) : null;
+        }
+
+        public TicketType byId(Long id) {
+            return id != null ? byId.get(id) : null;
+        }
+
+        private static TicketType copyOf(TicketType ticketType) {
+            TicketType copy = TicketType.builder()
+                    .cost(ticketType.getCost())
+                    .typeName(ticketType.getTypeName())
+                    .description(ticketType.getDescription())
+                    .maxPerDay(ticketType.getMaxPerDay())
+                    .photoUrl(ticketType.getPhotoUrl())
+                    .build();
+            copy.setId(ticketType.getId());
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.magicworld.tfg_angular_springboot.ticket_type;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on ticket types; any change drops the {@link TicketTypeCatalog}, including writes
+ * made directly through the repository.
+ */
+public class TicketTypeCatalogListener {
+
+    private final ObjectProvider<TicketTypeCatalog> catalog;
+
+    public TicketTypeCatalogListener(ObjectProvider<TicketTypeCatalog> catalog) {
+        this.catalog = catalog;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(TicketType ticketType) {
+        catalog.ifAvailable(TicketTypeCatalog::invalidate);
+    }
+}
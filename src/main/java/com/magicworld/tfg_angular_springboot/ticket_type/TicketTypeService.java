@@ -17,13 +17,17 @@ public class TicketTypeService {
 
     private final TicketTypeRepository ticketTypeRepository;
     private final DiscountTicketTypeService discountTicketTypeService;
+    private final TicketTypeCatalog catalog;
 
     @Value("${park.max-capacity:500}")
     private int parkMaxCapacity;
 
-    @Transactional(readOnly = true)
+    /**
+     * Every ticket type, ordered by id, from the {@link TicketTypeCatalog}. The returned entities
+     * are shared and must not be modified.
+     */
     public List<TicketType> findAll() {
-        return ticketTypeRepository.findAll();
+        return catalog.snapshot().getAll();
     }
 
     @Transactional(readOnly = true)
@@ -32,16 +36,24 @@ public class TicketTypeService {
                 .orElseThrow(() -> new ResourceNotFoundException("error.ticket_type.notfound"));
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Looks the type up in the {@link TicketTypeCatalog}; the returned entity is shared and must
+     * not be modified.
+     */
     public TicketType findByTypeName(String typeName) {
-        return ticketTypeRepository.findByTypeName(typeName)
-                .orElseThrow(() -> new ResourceNotFoundException("error.ticket_type.notfound"));
+        TicketType ticketType = catalog.snapshot().byName(typeName);
+        if (ticketType == null) {
+            throw new ResourceNotFoundException("error.ticket_type.notfound");
+        }
+        return ticketType;
     }
 
     @Transactional
     public TicketType save(TicketType ticketType) {
         validateCapacityConstraint(null, ticketType.getMaxPerDay());
-        return ticketTypeRepository.save(ticketType);
+        TicketType saved = ticketTypeRepository.save(ticketType);
+        catalog.invalidate();
+        return saved;
     }
 
     @Transactional
@@ -55,7 +67,9 @@ public class TicketTypeService {
         if (updatedTicketType.getPhotoUrl() != null) {
             existingTicketType.setPhotoUrl(updatedTicketType.getPhotoUrl());
         }
-        return ticketTypeRepository.save(existingTicketType);
+        TicketType saved = ticketTypeRepository.save(existingTicketType);
+        catalog.invalidate();
+        return saved;
     }
 
     @Transactional
@@ -65,13 +79,13 @@ public class TicketTypeService {
             throw new NoDiscountsCanBeAssignedToTicketTypeException();
         }
         ticketTypeRepository.delete(ticketType);
+        catalog.invalidate();
     }
 
     private void validateCapacityConstraint(Long excludeId, int newMaxPerDay) {
-        int currentTotal = ticketTypeRepository.findAll().stream()
-                .filter(tt -> excludeId == null || !tt.getId().equals(excludeId))
-                .mapToInt(TicketType::getMaxPerDay)
-                .sum();
+        TicketTypeCatalog.Snapshot snapshot = catalog.snapshot();
+        TicketType excluded = snapshot.byId(excludeId);
+        int currentTotal = snapshot.getTotalMaxPerDay() - (excluded != null ? excluded.getMaxPerDay() : 0);
         if (currentTotal + newMaxPerDay > parkMaxCapacity) {
             throw new BadRequestException("error.ticket_type.max_per_day.exceeds_capacity");
         }
@@ -3,8 +3,11 @@ package com.magicworld.tfg_angular_springboot.user;
 import com.magicworld.tfg_angular_springboot.exceptions.EmailAlreadyExistsException;
 import com.magicworld.tfg_angular_springboot.exceptions.InvalidOperationException;
 import com.magicworld.tfg_angular_springboot.exceptions.UsernameAlreadyExistsException;
+import com.magicworld.tfg_angular_springboot.monitoring.service.ParkCounterService;
 import com.magicworld.tfg_angular_springboot.purchase.PurchaseRepository;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
 import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineRepository;
+import com.magicworld.tfg_angular_springboot.reservation.ReservationLedgerService;
 import com.magicworld.tfg_angular_springboot.review.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -16,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.regex.Pattern;
 
 @Service
@@ -26,6 +30,8 @@ public class UserService {
     private final PurchaseRepository purchaseRepository;
     private final PurchaseLineRepository purchaseLineRepository;
     private final ReviewRepository reviewRepository;
+    private final ReservationLedgerService reservationLedger;
+    private final ParkCounterService counterService;
     private final PasswordEncoder passwordEncoder;
 
     private static final Pattern PASSWORD_PATTERN = Pattern.compile(
@@ -83,8 +89,10 @@ public class UserService {
                         .toList());
 
         purchaseRepository.findByBuyerId(user.getId()).forEach(purchase -> {
-            purchaseLineRepository.deleteAll(
-                    purchaseLineRepository.findByPurchaseId(purchase.getId()));
+            List<PurchaseLine> lines = purchaseLineRepository.findByPurchaseId(purchase.getId());
+            reservationLedger.returnSold(lines);
+            counterService.returnSold(lines);
+            purchaseLineRepository.deleteAll(lines);
         });
         purchaseRepository.deleteAll(purchaseRepository.findByBuyerId(user.getId()));
         userRepository.delete(user);
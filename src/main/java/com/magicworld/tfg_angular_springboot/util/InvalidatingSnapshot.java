@@ -0,0 +1,86 @@
+package com.magicworld.tfg_angular_springboot.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A value loaded on first use, kept until {@link #invalidate()} and then replaced as a whole, so
+ * readers never see a half-built one. A change made inside a transaction drops the value again
+ * when the transaction completes, and a value loaded while such a change is still uncommitted is
+ * served but not kept.
+ */
+public final class InvalidatingSnapshot<T> {
+
+    private final Supplier<T> loader;
+    private final Predicate<T> usable;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile T value;
+    private int pendingChanges;
+
+    public InvalidatingSnapshot(Supplier<T> loader) {
+        this(loader, loaded -> true);
+    }
+
+    /**
+     * @param usable whether a kept value may still be served, e.g. because it was built for today
+     */
+    public InvalidatingSnapshot(Supplier<T> loader, Predicate<T> usable) {
+        this.loader = loader;
+        this.usable = usable;
+    }
+
+    public T get() {
+        T current = value;
+        if (current != null && usable.test(current)) {
+            return current;
+        }
+        lock.lock();
+        try {
+            current = value;
+            if (current != null && usable.test(current)) {
+                return current;
+            }
+            T loaded = loader.get();
+            if (pendingChanges == 0) {
+                value = loaded;
+            }
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the value now and again when the surrounding transaction completes, so the next
+     * lookup after commit (or rollback) reloads it from the database.
+     */
+    public void invalidate() {
+        lock.lock();
+        try {
+            value = null;
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            pendingChanges++;
+        } finally {
+            lock.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.lock();
+                try {
+                    value = null;
+                    pendingChanges--;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+}
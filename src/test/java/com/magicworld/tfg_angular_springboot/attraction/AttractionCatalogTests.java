@@ -0,0 +1,111 @@
+package com.magicworld.tfg_angular_springboot.attraction;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Epic("Gestión de Atracciones")
+@Feature("Catálogo en Memoria de Atracciones")
+public class AttractionCatalogTests {
+
+    @Autowired
+    private AttractionCatalog attractionCatalog;
+
+    @Autowired
+    private AttractionService attractionService;
+
+    @Autowired
+    private AttractionRepository attractionRepository;
+
+    private Attraction testAttraction;
+
+    @BeforeEach
+    void setUp() {
+        testAttraction = attractionRepository.save(Attraction.builder()
+                .name("Catalog Coaster")
+                .intensity(Intensity.HIGH)
+                .category(AttractionCategory.ROLLER_COASTER)
+                .minimumHeight(120)
+                .minimumAge(10)
+                .minimumWeight(30)
+                .description("Test attraction")
+                .photoUrl("http://test.com/photo.jpg")
+                .isActive(true)
+                .mapPositionX(25.0)
+                .mapPositionY(75.0)
+                .build());
+    }
+
+    @Test
+    @Story("Lectura")
+    @Description("Verifica que el catálogo contiene las atracciones guardadas")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Catálogo refleja atracción nueva")
+    void testCatalogContainsSavedAttraction() {
+        AttractionView view = attractionCatalog.findById(testAttraction.getId()).orElseThrow();
+
+        assertEquals("Catalog Coaster", view.getName());
+        assertEquals(Intensity.HIGH, view.getIntensity());
+        assertEquals(25.0, view.getMapPositionX());
+        assertEquals(75.0, view.getMapPositionY());
+        assertTrue(view.isActive());
+        assertTrue(attractionCatalog.getActive().contains(view));
+    }
+
+    @Test
+    @Story("Lectura")
+    @Description("Verifica que lecturas repetidas no reconstruyen el snapshot")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Lecturas repetidas reutilizan el snapshot")
+    void testRepeatedReadsReuseSnapshot() {
+        AttractionCatalog.Snapshot first = attractionCatalog.current();
+        AttractionCatalog.Snapshot second = attractionCatalog.current();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que actualizar una atracción genera una nueva versión del catálogo")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Actualización invalida el catálogo")
+    void testUpdateInvalidatesCatalog() {
+        long version = attractionCatalog.current().getVersion();
+
+        Attraction changes = attractionRepository.findById(testAttraction.getId()).orElseThrow();
+        changes.setName("Renamed Coaster");
+        changes.setIsActive(false);
+        attractionService.updateAttraction(testAttraction.getId(), changes);
+        attractionRepository.flush();
+
+        AttractionCatalog.Snapshot snapshot = attractionCatalog.current();
+        assertTrue(snapshot.getVersion() > version);
+        assertEquals("Renamed Coaster", attractionCatalog.getName(testAttraction.getId()));
+        assertFalse(attractionCatalog.findById(testAttraction.getId()).orElseThrow().isActive());
+        assertTrue(snapshot.getActive().stream().noneMatch(a -> a.getId().equals(testAttraction.getId())));
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que eliminar una atracción la retira del catálogo")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Eliminación invalida el catálogo")
+    void testDeleteInvalidatesCatalog() {
+        assertTrue(attractionCatalog.findById(testAttraction.getId()).isPresent());
+
+        attractionRepository.delete(testAttraction);
+
+        assertTrue(attractionCatalog.findById(testAttraction.getId()).isEmpty());
+        assertNull(attractionCatalog.getName(testAttraction.getId()));
+    }
+}
@@ -0,0 +1,131 @@
+package com.magicworld.tfg_angular_springboot.cluster;
+
+import com.magicworld.tfg_angular_springboot.monitoring.service.ParkCounterService;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeCatalog;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Epic("Infraestructura")
+@Feature("Sincronización de Cachés entre Nodos")
+public class ClusterCacheSyncTests {
+
+    private static final String OTHER_NODE = UUID.randomUUID().toString();
+
+    @Autowired
+    private ClusterCacheSync clusterCacheSync;
+
+    @Autowired
+    private TicketTypeCatalog ticketTypeCatalog;
+
+    @Autowired
+    private ParkCounterService counterService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(clusterCacheSync, "enabledSetting", "true");
+        clusterCacheSync.poll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(clusterCacheSync, "enabledSetting", "");
+    }
+
+    @Test
+    @Story("Publicación")
+    @Description("Verifica que un cambio local queda registrado con el identificador de este nodo")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Cambio local publicado")
+    void testLocalChangeIsPublished() {
+        ticketTypeCatalog.invalidate();
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cache_invalidation WHERE cache_name = 'ticket-types' AND node_id = ?",
+                Integer.class, clusterCacheSync.getNodeId());
+        assertTrue(rows > 0);
+    }
+
+    @Test
+    @Story("Aplicación")
+    @Description("Verifica que una invalidación de otro nodo hace que el catálogo recargue los tipos de entrada")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Invalidación remota recarga el catálogo")
+    void testRemoteInvalidationReloadsCatalog() {
+        assertNull(ticketTypeCatalog.snapshot().byName("CLUSTER_SYNC"));
+
+        jdbcTemplate.update("INSERT INTO ticket_type (cost, type_name, description, max_per_day, photo_url) "
+                + "VALUES (10.00, 'CLUSTER_SYNC', 'Entrada de prueba', 7, 'cluster.png')");
+        assertNull(ticketTypeCatalog.snapshot().byName("CLUSTER_SYNC"));
+
+        insertFromOtherNode("ticket-types", null);
+        assertEquals(1, clusterCacheSync.poll());
+
+        TicketType reloaded = ticketTypeCatalog.snapshot().byName("CLUSTER_SYNC");
+        assertNotNull(reloaded);
+        assertEquals(7, reloaded.getMaxPerDay());
+    }
+
+    @Test
+    @Story("Aplicación")
+    @Description("Verifica que los contadores suman los incrementos publicados por otro nodo")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Contadores siguen a otro nodo")
+    void testRemoteCounterDeltaIsAdded() {
+        long entries = counterService.getEntriesToday();
+        long exits = counterService.getExitsToday();
+        int tickets = counterService.getTicketsSoldToday();
+
+        insertFromOtherNode("park-counters", LocalDate.now() + "|3|1|2");
+        insertFromOtherNode("park-counters", LocalDate.now().minusDays(1) + "|50|50|50");
+        clusterCacheSync.poll();
+
+        assertEquals(entries + 3, counterService.getEntriesToday());
+        assertEquals(exits + 1, counterService.getExitsToday());
+        assertEquals(tickets + 2, counterService.getTicketsSoldToday());
+    }
+
+    @Test
+    @Story("Aplicación")
+    @Description("Verifica que un nodo ignora sus propias invalidaciones y las ya aplicadas")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Invalidaciones propias y repetidas ignoradas")
+    void testOwnAndSeenRowsAreIgnored() {
+        long entries = counterService.getEntriesToday();
+
+        clusterCacheSync.publish("park-counters", LocalDate.now() + "|5|0|0");
+        assertEquals(0, clusterCacheSync.poll());
+
+        insertFromOtherNode("park-counters", LocalDate.now() + "|1|0|0");
+        assertEquals(1, clusterCacheSync.poll());
+        assertEquals(0, clusterCacheSync.poll());
+
+        assertEquals(entries + 1, counterService.getEntriesToday());
+    }
+
+    private void insertFromOtherNode(String cache, String key) {
+        jdbcTemplate.update("INSERT INTO cache_invalidation (cache_name, entry_key, node_id, created_at) VALUES (?, ?, ?, ?)",
+                cache, key, OTHER_NODE, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,216 @@
+package com.magicworld.tfg_angular_springboot.configuration;
+
+import com.magicworld.tfg_angular_springboot.fulfilment.FulfilmentTaskRepository;
+import com.magicworld.tfg_angular_springboot.payment.PaymentCheckoutRepository;
+import com.magicworld.tfg_angular_springboot.purchase.PurchaseRepository;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineRepository;
+import com.magicworld.tfg_angular_springboot.reservation.CapacityCounterRepository;
+import com.magicworld.tfg_angular_springboot.reservation.TicketHoldRepository;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeRepository;
+import com.magicworld.tfg_angular_springboot.user.Role;
+import com.magicworld.tfg_angular_springboot.user.User;
+import com.magicworld.tfg_angular_springboot.user.UserRepository;
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import com.stripe.Stripe;
+import com.sun.net.httpserver.HttpServer;
+import io.qameta.allure.Allure;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires N concurrent checkouts at {@code /api/v1/payment/process} against stubbed external
+ * services: Stripe is pointed at a local HTTP stub and SMTP is a mock, each answering after a fixed
+ * delay. The platform and virtual-thread subclasses run with the same Tomcat and Hikari limits, so
+ * the throughput attached to the Allure report is directly comparable. The report also shows how
+ * long each checkout keeps a pooled connection, which no longer includes the Stripe round-trip
+ * now that the charge runs between the reserve and commit transactions. Tune with
+ * {@code -Dcheckout.bench.requests=500 -Dcheckout.bench.stripe-latency-ms=250}.
+ */
+abstract class CheckoutThroughputBenchmark {
+
+    static final String TOMCAT_THREADS = "server.tomcat.threads.max=16";
+    static final String POOL_SIZE = "spring.datasource.hikari.maximum-pool-size=64";
+    static final String CAPACITY = "park.max-capacity=1000000";
+
+    private static final String TICKET_TYPE = "BENCH";
+    private static final String EMAIL = "bench.buyer@magicworld.com";
+
+    private final int requests = Integer.getInteger("checkout.bench.requests", 200);
+    private final long stripeLatencyMs = Long.getLong("checkout.bench.stripe-latency-ms", 100L);
+    private final long smtpLatencyMs = Long.getLong("checkout.bench.smtp-latency-ms", 50L);
+
+    @LocalServerPort
+    private int port;
+
+    @MockitoBean
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private PurchaseLineRepository purchaseLineRepository;
+
+    @Autowired
+    private TicketHoldRepository holdRepository;
+
+    @Autowired
+    private CapacityCounterRepository counterRepository;
+
+    @Autowired
+    private PaymentCheckoutRepository checkoutRepository;
+
+    @Autowired
+    private FulfilmentTaskRepository fulfilmentRepository;
+
+    @Autowired
+    private ConnectionHoldRecorder connectionHolds;
+
+    private HttpServer stripeStub;
+
+    @BeforeEach
+    void setUpStubs() throws IOException {
+        AtomicInteger intents = new AtomicInteger();
+        stripeStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stripeStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stripeStub.createContext("/v1/payment_intents", exchange -> {
+            sleep(stripeLatencyMs);
+            byte[] body = ("{\"id\":\"pi_bench_" + intents.incrementAndGet()
+                    + "\",\"object\":\"payment_intent\",\"status\":\"succeeded\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stripeStub.start();
+        Stripe.overrideApiBase("http://localhost:" + stripeStub.getAddress().getPort());
+
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        doAnswer(invocation -> {
+            sleep(smtpLatencyMs);
+            return null;
+        }).when(mailSender).send(any(MimeMessage.class));
+
+        ticketTypeRepository.save(TicketType.builder()
+                .typeName(TICKET_TYPE)
+                .description("Benchmark ticket")
+                .cost(new BigDecimal("40.00"))
+                .maxPerDay(1_000_000)
+                .photoUrl("https://example.com/bench.jpg")
+                .build());
+        userRepository.save(User.builder()
+                .username("bench_buyer")
+                .firstname("Bench")
+                .lastname("Buyer")
+                .email(EMAIL)
+                .userRole(Role.USER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDownStubs() {
+        Stripe.overrideApiBase(Stripe.LIVE_API_BASE);
+        stripeStub.stop(0);
+        fulfilmentRepository.deleteAll();
+        checkoutRepository.deleteAll();
+        holdRepository.deleteAll();
+        counterRepository.deleteAll();
+        purchaseLineRepository.deleteAll();
+        purchaseRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        ticketTypeRepository.findAll().stream()
+                .filter(t -> TICKET_TYPE.equals(t.getTypeName()))
+                .forEach(ticketTypeRepository::delete);
+    }
+
+    protected void runCheckoutBenchmark(String mode) throws Exception {
+        String body = "{\"visitDate\":\"" + LocalDate.now().plusDays(1)
+                + "\",\"items\":[{\"ticketTypeName\":\"" + TICKET_TYPE + "\",\"quantity\":1}],"
+                + "\"email\":\"" + EMAIL + "\",\"firstName\":\"Bench\",\"lastName\":\"Buyer\","
+                + "\"stripePaymentMethodId\":\"pm_card_visa\"}";
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/payment/process");
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder().executor(clientThreads).build();
+            long[] latencies = new long[requests];
+            connectionHolds.reset();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(requests);
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                int slot = i;
+                long sentAt = System.nanoTime();
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, error) -> latencies[slot] = System.nanoTime() - sentAt));
+            }
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+            double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            LatencyHistogram holds = connectionHolds.snapshot();
+
+            long succeeded = responses.stream()
+                    .map(CompletableFuture::join)
+                    .filter(r -> r.statusCode() == 200 && r.body().contains("\"success\":true"))
+                    .count();
+            Arrays.sort(latencies);
+            Allure.addAttachment("Checkout " + mode, String.format(
+                    "%s: %d checkouts concurrentes (Stripe %d ms, SMTP %d ms) en %.2f s = %.1f checkouts/s, "
+                            + "p50=%.1f ms p99=%.1f ms; conexión retenida por checkout %.1f ms "
+                            + "(%d préstamos, p99=%.1f ms, máx=%.1f ms)",
+                    mode, requests, stripeLatencyMs, smtpLatencyMs, elapsedSeconds, requests / elapsedSeconds,
+                    latencies[requests / 2] / 1_000_000.0,
+                    latencies[Math.max(0, (int) Math.ceil(requests * 0.99) - 1)] / 1_000_000.0,
+                    holds.getMean() * holds.getCount() / requests / 1_000_000.0, holds.getCount(),
+                    holds.percentile(99) / 1_000_000.0, holds.getMax() / 1_000_000.0));
+
+            assertEquals(requests, succeeded, "Todos los checkouts deben completarse");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.magicworld.tfg_angular_springboot.configuration;
+
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wraps the application {@link DataSource} so a benchmark can see how long each pooled connection
+ * stays checked out, from {@code getConnection()} to {@code close()}. Register it with
+ * {@code @Import(ConnectionHoldRecorder.class)}.
+ */
+class ConnectionHoldRecorder implements BeanPostProcessor {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private LatencyHistogram holds = new LatencyHistogram();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return timed(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return timed(super.getConnection(username, password));
+                }
+            };
+        }
+        return bean;
+    }
+
+    void reset() {
+        lock.lock();
+        try {
+            holds = new LatencyHistogram();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    LatencyHistogram snapshot() {
+        lock.lock();
+        try {
+            LatencyHistogram copy = new LatencyHistogram();
+            copy.merge(holds);
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection timed(Connection connection) {
+        long checkedOut = System.nanoTime();
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && !closed[0]) {
+                        closed[0] = true;
+                        record(System.nanoTime() - checkedOut);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void record(long nanos) {
+        lock.lock();
+        try {
+            holds.record(nanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
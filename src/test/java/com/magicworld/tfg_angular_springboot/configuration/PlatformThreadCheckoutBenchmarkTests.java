@@ -0,0 +1,32 @@
+package com.magicworld.tfg_angular_springboot.configuration;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=false",
+        CheckoutThroughputBenchmark.TOMCAT_THREADS,
+        CheckoutThroughputBenchmark.POOL_SIZE,
+        CheckoutThroughputBenchmark.CAPACITY
+})
+@ActiveProfiles("test")
+@Import(ConnectionHoldRecorder.class)
+@Epic("Infraestructura de Ejecución")
+@Feature("Rendimiento de Checkout por Modo de Hilos")
+@Tag("benchmark")
+public class PlatformThreadCheckoutBenchmarkTests extends CheckoutThroughputBenchmark {
+
+    @Test
+    @Story("Checkout Concurrente")
+    @Description("Mide el throughput de checkouts concurrentes con hilos de plataforma y servicios externos simulados")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Checkouts concurrentes con hilos de plataforma")
+    void testConcurrentCheckoutThroughput() throws Exception {
+        runCheckoutBenchmark("hilos de plataforma");
+    }
+}
@@ -0,0 +1,157 @@
+package com.magicworld.tfg_angular_springboot.configuration;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Connects N STOMP subscribers to {@code /ws} and measures the time from publishing on the
+ * server until every subscriber has received each message. Run with
+ * {@code -Dws.loadtest.subscribers=500 -Dws.loadtest.messages=100} for a heavier pass, and with
+ * {@code APP_WEBSOCKET_BROKER_MODE=relay} to measure through an external broker.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Epic("Infraestructura WebSocket")
+@Feature("Difusión a Múltiples Suscriptores")
+@Tag("benchmark")
+public class WebSocketFanOutLoadTests {
+
+    private static final String DESTINATION = "/topic/loadtest";
+    private static final long WARM_UP = -1L;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        sessions.forEach(StompSession::disconnect);
+    }
+
+    @Test
+    @Story("Latencia de Difusión")
+    @Description("Verifica que todos los suscriptores reciben cada mensaje y mide la latencia extremo a extremo")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Fan-out a N suscriptores")
+    void testFanOutLatency() throws Exception {
+        int subscribers = Integer.getInteger("ws.loadtest.subscribers", 50);
+        int messages = Integer.getInteger("ws.loadtest.messages", 20);
+
+        WebSocketStompClient client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+
+        CountDownLatch ready = new CountDownLatch(subscribers);
+        CountDownLatch delivered = new CountDownLatch(subscribers * messages);
+        long[] latencies = new long[subscribers * messages];
+        AtomicInteger received = new AtomicInteger();
+
+        for (int i = 0; i < subscribers; i++) {
+            StompSession session = client.connectAsync("http://localhost:" + port + "/ws",
+                    new StompSessionHandlerAdapter() { }).get(10, TimeUnit.SECONDS);
+            sessions.add(session);
+            session.subscribe(DESTINATION, new LatencyHandler(ready, delivered, latencies, received));
+        }
+
+        long warmUpDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!ready.await(50, TimeUnit.MILLISECONDS) && System.nanoTime() < warmUpDeadline) {
+            messagingTemplate.convertAndSend(DESTINATION, WARM_UP);
+        }
+        assertEquals(0, ready.getCount(), "No todos los suscriptores quedaron registrados");
+
+        for (int i = 0; i < messages; i++) {
+            messagingTemplate.convertAndSend(DESTINATION, System.nanoTime());
+            Thread.sleep(10);
+        }
+
+        assertTrue(delivered.await(30, TimeUnit.SECONDS), "Mensajes no entregados a todos los suscriptores");
+
+        long[] sorted = Arrays.copyOf(latencies, received.get());
+        Arrays.sort(sorted);
+        Allure.addAttachment("Latencia fan-out", String.format(
+                "%d suscriptores x %d mensajes: p50=%.2f ms p99=%.2f ms max=%.2f ms",
+                subscribers, messages, millis(percentile(sorted, 50)), millis(percentile(sorted, 99)),
+                millis(sorted[sorted.length - 1])));
+        assertTrue(millis(percentile(sorted, 99)) < 5000);
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class LatencyHandler implements StompFrameHandler {
+
+        private final CountDownLatch ready;
+        private final CountDownLatch delivered;
+        private final long[] latencies;
+        private final AtomicInteger received;
+        private boolean warmedUp;
+
+        private LatencyHandler(CountDownLatch ready, CountDownLatch delivered, long[] latencies,
+                               AtomicInteger received) {
+            this.ready = ready;
+            this.delivered = delivered;
+            this.latencies = latencies;
+            this.received = received;
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Long.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long sentAt = (Long) payload;
+            if (sentAt == WARM_UP) {
+                if (!warmedUp) {
+                    warmedUp = true;
+                    ready.countDown();
+                }
+                return;
+            }
+            int slot = received.getAndIncrement();
+            if (slot < latencies.length) {
+                latencies[slot] = System.nanoTime() - sentAt;
+            }
+            delivered.countDown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.magicworld.tfg_angular_springboot.discount;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.discount_ticket_type.DiscountTicketTypeRepository;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Epic("Gestión de Descuentos")
+@Feature("Índice de Reglas de Descuento")
+public class DiscountRuleIndexTests {
+
+    @Mock
+    private DiscountRepository discountRepository;
+    @Mock
+    private DiscountTicketTypeRepository discountTicketTypeRepository;
+
+    private DiscountRuleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Discount discount = Discount.builder()
+                .discountCode("SPRING")
+                .discountPercentage(15)
+                .expiryDate(LocalDate.now().plusDays(5))
+                .build();
+        discount.setId(3L);
+        when(discountRepository.findAll()).thenReturn(List.of(discount));
+        when(discountTicketTypeRepository.findAllDiscountAndTicketTypeIds())
+                .thenReturn(List.<Object[]>of(new Object[] { 3L, 4L }, new Object[] { 3L, 9L }));
+
+        index = new DiscountRuleIndex(discountRepository, discountTicketTypeRepository, mock(ClusterCacheSync.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Story("Consultas")
+    @Description("Verifica que las reglas se cargan una vez y resuelven porcentaje, caducidad y tipos de entrada")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Reglas compiladas en memoria")
+    void testRulesAreLoadedOnce() {
+        DiscountRuleIndex.DiscountRule rule = index.find("SPRING");
+
+        assertEquals(15, rule.getPercentage());
+        assertTrue(rule.appliesTo(4L));
+        assertTrue(rule.appliesTo(9L));
+        assertFalse(rule.appliesTo(5L));
+        assertTrue(rule.isValidOn(LocalDate.now()));
+        assertFalse(rule.isValidOn(LocalDate.now().plusDays(6)));
+        assertNull(index.find("UNKNOWN"));
+        verify(discountRepository, times(1)).findAll();
+        verify(discountTicketTypeRepository, times(1)).findAllDiscountAndTicketTypeIds();
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que un cambio fuera de transacción recarga las reglas en la siguiente consulta")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Invalidación fuerza recarga")
+    void testInvalidateReloads() {
+        index.find("SPRING");
+
+        index.invalidate();
+        index.find("SPRING");
+
+        verify(discountRepository, times(2)).findAll();
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que las reglas leídas con un cambio sin confirmar no se conservan tras el commit")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Reglas con cambios pendientes no se conservan")
+    void testSnapshotDuringPendingChangeIsNotKept() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.invalidate();
+
+        index.find("SPRING");
+        index.find("SPRING");
+        verify(discountRepository, times(2)).findAll();
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        index.find("SPRING");
+        index.find("SPRING");
+        verify(discountRepository, times(3)).findAll();
+    }
+}
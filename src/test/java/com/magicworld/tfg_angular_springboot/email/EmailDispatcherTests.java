@@ -0,0 +1,171 @@
+package com.magicworld.tfg_angular_springboot.email;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Delivers the outbox to a {@link SmtpStandIn}. Not {@code @Transactional}: the dispatcher claims
+ * and updates messages in its own transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Epic("Gestión de Email")
+@Feature("Outbox de Email")
+public class EmailDispatcherTests {
+
+    private static final SmtpStandIn SMTP = SmtpStandIn.start();
+    private static final String REJECTED = "bounce@magicworld.com";
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.port", SMTP::getPort);
+    }
+
+    @Autowired
+    private EmailDispatcher dispatcher;
+
+    @Autowired
+    private EmailMessageRepository messageRepository;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository.deleteAll();
+        SMTP.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageRepository.deleteAll();
+        dispatcher.start();
+    }
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @Test
+    @Story("Envío por Lotes")
+    @Description("Verifica que un lote de mensajes pendientes se entrega por una sola conexión SMTP")
+    @Severity(SeverityLevel.BLOCKER)
+    @DisplayName("Lote entregado por una conexión SMTP")
+    void testBatchIsSentOverOneConnection() {
+        EmailMessage first = pending("first@magicworld.com", null, 0);
+        EmailMessage second = pending("second@magicworld.com", null, 0);
+        EmailMessage withQr = pending("qr@magicworld.com", new byte[]{1, 2, 3}, 0);
+
+        dispatcher.dispatch();
+
+        for (EmailMessage message : new EmailMessage[]{first, second, withQr}) {
+            EmailMessage sent = messageRepository.findById(message.getId()).orElseThrow();
+            assertEquals(EmailStatus.SENT, sent.getStatus());
+            assertNotNull(sent.getSentAt());
+            assertEquals(1, sent.getAttempts());
+        }
+        assertEquals(3, SMTP.getMessages().size());
+        assertEquals(1, SMTP.getConnections());
+        assertTrue(SMTP.getMessages().stream().anyMatch(data -> data.contains("Content-ID: <qrCode>")));
+    }
+
+    @Test
+    @Story("Reintentos")
+    @Description("Verifica que un mensaje rechazado se reprograma con espera sin afectar al resto del lote")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Mensaje rechazado se reintenta")
+    void testRejectedMessageIsRetried() {
+        SMTP.reject(REJECTED);
+        EmailMessage accepted = pending("ok@magicworld.com", null, 0);
+        EmailMessage rejected = pending(REJECTED, null, 0);
+
+        dispatcher.dispatch();
+
+        assertEquals(EmailStatus.SENT, messageRepository.findById(accepted.getId()).orElseThrow().getStatus());
+        EmailMessage retried = messageRepository.findById(rejected.getId()).orElseThrow();
+        assertEquals(EmailStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertNotNull(retried.getLastError());
+        assertTrue(retried.getNextAttemptAt().isAfter(LocalDateTime.now()));
+
+        dispatcher.dispatch();
+        assertEquals(1, messageRepository.findById(rejected.getId()).orElseThrow().getAttempts(),
+                "Un mensaje no vence antes de su espera");
+    }
+
+    @Test
+    @Story("Reintentos")
+    @Description("Verifica que un mensaje que agota sus intentos queda marcado como fallido")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Mensaje sin intentos restantes se abandona")
+    void testMessageIsAbandonedAfterMaxAttempts() {
+        SMTP.reject(REJECTED);
+        EmailMessage rejected = pending(REJECTED, null, 7);
+
+        dispatcher.dispatch();
+
+        EmailMessage failed = messageRepository.findById(rejected.getId()).orElseThrow();
+        assertEquals(EmailStatus.FAILED, failed.getStatus());
+        assertEquals(8, failed.getAttempts());
+    }
+
+    @Test
+    @Story("Límite de Envío")
+    @Description("Verifica que el límite de envíos por segundo deja el resto del backlog pendiente y sin reclamar")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Límite de envío acota cada despacho")
+    void testRateLimitCapsDispatch() {
+        ReflectionTestUtils.setField(dispatcher, "rateLimiter", Bucket.builder()
+                .addLimit(Bandwidth.classic(2, Refill.intervally(2, Duration.ofHours(1))))
+                .build());
+        pending("one@magicworld.com", null, 0);
+        pending("two@magicworld.com", null, 0);
+        pending("three@magicworld.com", null, 0);
+
+        dispatcher.dispatch();
+
+        assertEquals(2, SMTP.getMessages().size());
+        assertEquals(2, messageRepository.countByStatus(EmailStatus.SENT));
+        EmailMessage waiting = messageRepository.findAll().stream()
+                .filter(m -> m.getStatus() == EmailStatus.PENDING)
+                .findFirst().orElseThrow();
+        assertEquals(0, waiting.getAttempts());
+
+        Map<String, Object> stats = dispatcher.getStats();
+        assertEquals(1L, stats.get("pending"));
+        assertEquals(0L, stats.get("availableTokens"));
+    }
+
+    private EmailMessage pending(String recipient, byte[] inlineImage, int attempts) {
+        LocalDateTime now = LocalDateTime.now();
+        return messageRepository.save(EmailMessage.builder()
+                .recipient(recipient)
+                .subject("Outbox test")
+                .body(inlineImage == null ? "Plain body" : "<html><img src=\"cid:qrCode\"/></html>")
+                .html(inlineImage != null)
+                .inlineImage(inlineImage)
+                .status(EmailStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(now.minusSeconds(1))
+                .createdAt(now)
+                .build());
+    }
+}
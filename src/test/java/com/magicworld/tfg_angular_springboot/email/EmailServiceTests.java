@@ -1,19 +1,13 @@
 package com.magicworld.tfg_angular_springboot.email;
 
 import io.qameta.allure.*;
-import com.sendgrid.helpers.mail.Mail;
-import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,171 +20,79 @@ import static org.mockito.Mockito.*;
 @Feature("Servicio de Email")
 public class EmailServiceTests {
 
-    private JavaMailSender mailSender;
+    private EmailMessageRepository messageRepository;
     private TemplateEngine templateEngine;
     private EmailService emailService;
 
     @BeforeEach
     void setUp() {
-        mailSender = mock(JavaMailSender.class);
+        messageRepository = mock(EmailMessageRepository.class);
         templateEngine = mock(TemplateEngine.class);
-        emailService = new EmailService(mailSender, templateEngine);
-        ReflectionTestUtils.setField(emailService, "sendGridApiKey", "");
-        ReflectionTestUtils.setField(emailService, "mailFrom", "noreply@magicworld.local");
+        when(messageRepository.save(any(EmailMessage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        emailService = new EmailService(messageRepository, templateEngine);
     }
 
     @Test
-    @DisplayName("Enviar mensaje simple llama a mailSender")
+    @DisplayName("Enviar mensaje simple lo encola como texto")
     @Story("Enviar Email Simple")
     @Severity(SeverityLevel.CRITICAL)
-    @Description("Verifica que enviar un mensaje simple invoca el mailSender")
-    void sendSimpleMessageCallsMailSender() {
-        emailService.sendSimpleMessage("test@example.com", "Subject", "Body");
-
-        verify(mailSender, timeout(1000)).send(any(SimpleMailMessage.class));
-    }
-
-    @Test
-    @DisplayName("Enviar mensaje simple configura destinatario correcto")
-    @Story("Enviar Email Simple")
-    @Severity(SeverityLevel.NORMAL)
-    @Description("Verifica que el mensaje simple tiene el destinatario correcto")
-    void sendSimpleMessageSetsCorrectRecipient() {
-        ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
-
-        emailService.sendSimpleMessage("recipient@example.com", "Test Subject", "Test Body");
-
-        verify(mailSender, timeout(1000)).send(captor.capture());
-        assertEquals("recipient@example.com", captor.getValue().getTo()[0]);
-    }
-
-    @Test
-    @DisplayName("Enviar mensaje simple configura asunto correcto")
-    @Story("Enviar Email Simple")
-    @Severity(SeverityLevel.NORMAL)
-    @Description("Verifica que el mensaje simple tiene el asunto correcto")
-    void sendSimpleMessageSetsCorrectSubject() {
-        ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
-
-        emailService.sendSimpleMessage("test@example.com", "My Subject", "Body");
-
-        verify(mailSender, timeout(1000)).send(captor.capture());
-        assertEquals("My Subject", captor.getValue().getSubject());
+    @Description("Verifica que un mensaje simple se guarda en el outbox como texto plano pendiente")
+    void sendSimpleMessageQueuesPlainText() {
+        emailService.sendSimpleMessage("recipient@example.com", "My Subject", "My Body Text");
+
+        EmailMessage message = captureSaved();
+        assertEquals("recipient@example.com", message.getRecipient());
+        assertEquals("My Subject", message.getSubject());
+        assertEquals("My Body Text", message.getBody());
+        assertFalse(message.getHtml());
+        assertNull(message.getInlineImage());
+        assertEquals(EmailStatus.PENDING, message.getStatus());
+        assertEquals(0, message.getAttempts());
+        assertNotNull(message.getNextAttemptAt());
     }
 
     @Test
-    @DisplayName("Enviar mensaje simple configura texto correcto")
-    @Story("Enviar Email Simple")
-    @Severity(SeverityLevel.NORMAL)
-    @Description("Verifica que el mensaje simple tiene el texto correcto")
-    void sendSimpleMessageSetsCorrectText() {
-        ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
-
-        emailService.sendSimpleMessage("test@example.com", "Subject", "My Body Text");
-
-        verify(mailSender, timeout(1000)).send(captor.capture());
-        assertEquals("My Body Text", captor.getValue().getText());
-    }
-
-    @Test
-    @DisplayName("Enviar email HTML con QR llama a mailSender")
+    @DisplayName("Enviar email HTML con QR encola el HTML renderizado")
     @Story("Enviar Email HTML con QR")
     @Severity(SeverityLevel.CRITICAL)
-    @Description("Verifica que enviar un email HTML con QR invoca el mailSender")
-    void sendHtmlEmailWithQrCallsMailSender() {
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(eq("template"), any(Context.class))).thenReturn("<html>Test</html>");
-
-        Map<String, Object> vars = new HashMap<>();
-        vars.put("name", "Test");
+    @Description("Verifica que el template se renderiza al encolar y el QR se guarda como imagen en línea")
+    void sendHtmlEmailWithQrQueuesRenderedHtml() {
+        when(templateEngine.process(eq("purchase-confirmation"), any(Context.class)))
+                .thenReturn("<html>Content</html>");
         byte[] qrCode = new byte[]{1, 2, 3};
 
-        emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "template", vars, qrCode);
+        emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "purchase-confirmation", new HashMap<>(),
+                qrCode);
 
-        verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
+        EmailMessage message = captureSaved();
+        assertEquals("<html>Content</html>", message.getBody());
+        assertTrue(message.getHtml());
+        assertArrayEquals(qrCode, message.getInlineImage());
+        assertEquals(EmailStatus.PENDING, message.getStatus());
     }
 
     @Test
-    @DisplayName("Enviar email HTML con QR procesa template")
+    @DisplayName("Enviar email HTML sin QR no guarda imagen")
     @Story("Enviar Email HTML con QR")
     @Severity(SeverityLevel.NORMAL)
-    @Description("Verifica que se procesa el template con Thymeleaf")
-    void sendHtmlEmailWithQrProcessesTemplate() {
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(eq("purchase-confirmation"), any(Context.class))).thenReturn("<html>Content</html>");
-
-        Map<String, Object> vars = new HashMap<>();
-        byte[] qrCode = new byte[]{1, 2, 3};
-
-        emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "purchase-confirmation", vars, qrCode);
-
-        verify(templateEngine, timeout(1000)).process(eq("purchase-confirmation"), any(Context.class));
-    }
-
-    @Test
-    @DisplayName("Enviar email HTML sin QR funciona correctamente")
-    @Story("Enviar Email HTML con QR")
-    @Severity(SeverityLevel.NORMAL)
-    @Description("Verifica que enviar email sin imagen QR funciona")
-    void sendHtmlEmailWithoutQrWorks() {
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+    @Description("Verifica que un email sin QR, o con QR vacío, se encola sin imagen en línea")
+    void sendHtmlEmailWithoutQrStoresNoImage() {
         when(templateEngine.process(eq("template"), any(Context.class))).thenReturn("<html>No QR</html>");
 
-        Map<String, Object> vars = new HashMap<>();
-
-        emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "template", vars, null);
-
-        verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
-    }
-
-    @Test
-    @DisplayName("Enviar email HTML con QR vacío funciona correctamente")
-    @Story("Enviar Email HTML con QR")
-    @Severity(SeverityLevel.MINOR)
-    @Description("Verifica que enviar email con imagen QR vacía funciona")
-    void sendHtmlEmailWithEmptyQrWorks() {
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(eq("template"), any(Context.class))).thenReturn("<html>Empty QR</html>");
-
-        Map<String, Object> vars = new HashMap<>();
-
-        emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "template", vars, new byte[0]);
-
-        verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
-    }
-
-    @Test
-    @DisplayName("Enviar email HTML con múltiples variables")
-    @Story("Enviar Email HTML con QR")
-    @Severity(SeverityLevel.NORMAL)
-    @Description("Verifica que múltiples variables se procesan correctamente")
-    void sendHtmlEmailWithMultipleVariables() {
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(eq("template"), any(Context.class))).thenReturn("<html>Content</html>");
-
-        Map<String, Object> vars = new HashMap<>();
-        vars.put("name", "Test User");
-        vars.put("amount", 100);
-        vars.put("date", "2024-01-15");
-
-        emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "template", vars, null);
+        emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "template", new HashMap<>(), null);
+        emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "template", new HashMap<>(), new byte[0]);
 
-        verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
+        ArgumentCaptor<EmailMessage> captor = ArgumentCaptor.forClass(EmailMessage.class);
+        verify(messageRepository, times(2)).save(captor.capture());
+        captor.getAllValues().forEach(message -> assertNull(message.getInlineImage()));
     }
 
     @Test
     @DisplayName("Enviar email HTML pasa variables al template")
     @Story("Enviar Email HTML con QR")
     @Severity(SeverityLevel.NORMAL)
-    @Description("Verifica que las variables se pasan correctamente al contexto")
+    @Description("Verifica que las variables se pasan correctamente al contexto de Thymeleaf")
     void sendHtmlEmailPassesVariablesToTemplate() {
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
         ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
         when(templateEngine.process(eq("template"), contextCaptor.capture())).thenReturn("<html>Content</html>");
 
@@ -200,77 +102,27 @@ public class EmailServiceTests {
 
         emailService.sendHtmlEmailWithQr("test@example.com", "Subject", "template", vars, null);
 
-        verify(templateEngine, timeout(1000)).process(eq("template"), any(Context.class));
+        assertEquals("John", contextCaptor.getValue().getVariable("userName"));
+        assertEquals(123, contextCaptor.getValue().getVariable("orderId"));
     }
 
     @Test
-    @DisplayName("Con API key usa SendGrid para mensaje simple")
-    @Story("Proveedor de Email")
-    @Severity(SeverityLevel.CRITICAL)
-    @Description("Verifica que con SENDGRID_API_KEY se usa SendGrid en lugar de SMTP")
-    void sendSimpleMessageUsesSendGridWhenApiKeyPresent() throws IOException {
-        EmailService serviceSpy = spy(emailService);
-        ReflectionTestUtils.setField(serviceSpy, "sendGridApiKey", "SG.test-key");
-        doReturn(null).when(serviceSpy).invokeSendGridApi(any(Mail.class));
-
-        serviceSpy.sendSimpleMessage("test@example.com", "Subject", "Body");
-
-        verify(serviceSpy, timeout(1000)).invokeSendGridApi(any(Mail.class));
-        verify(mailSender, never()).send(any(SimpleMailMessage.class));
-    }
-
-    @Test
-    @DisplayName("Si SendGrid falla en simple, hace fallback a SMTP")
-    @Story("Proveedor de Email")
-    @Severity(SeverityLevel.CRITICAL)
-    @Description("Verifica fallback a SMTP cuando SendGrid lanza excepción en mensaje simple")
-    void sendSimpleMessageFallsBackToSmtpWhenSendGridFails() throws IOException {
-        EmailService serviceSpy = spy(emailService);
-        ReflectionTestUtils.setField(serviceSpy, "sendGridApiKey", "SG.test-key");
-        doThrow(new IOException("SendGrid unavailable")).when(serviceSpy).invokeSendGridApi(any(Mail.class));
-
-        serviceSpy.sendSimpleMessage("test@example.com", "Subject", "Body");
-
-        verify(serviceSpy, timeout(1000)).invokeSendGridApi(any(Mail.class));
-        verify(mailSender, timeout(1000)).send(any(SimpleMailMessage.class));
-    }
-
-    @Test
-    @DisplayName("Con API key usa SendGrid para email HTML")
-    @Story("Proveedor de Email")
-    @Severity(SeverityLevel.CRITICAL)
-    @Description("Verifica que email HTML con QR se envia por SendGrid cuando hay API key")
-    void sendHtmlEmailWithQrUsesSendGridWhenApiKeyPresent() throws IOException {
-        EmailService serviceSpy = spy(emailService);
-        ReflectionTestUtils.setField(serviceSpy, "sendGridApiKey", "SG.test-key");
-        when(templateEngine.process(eq("template"), any(Context.class))).thenReturn("<html>HTML</html>");
-        doReturn(null).when(serviceSpy).invokeSendGridApi(any(Mail.class));
-
-        Map<String, Object> vars = new HashMap<>();
-        vars.put("name", "Test");
-
-        serviceSpy.sendHtmlEmailWithQr("test@example.com", "Subject", "template", vars, new byte[]{1, 2, 3});
-
-        verify(serviceSpy, timeout(1000)).invokeSendGridApi(any(Mail.class));
-        verify(mailSender, never()).send(any(MimeMessage.class));
+    @DisplayName("Fallo del template no encola nada")
+    @Story("Enviar Email HTML con QR")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifica que si el template falla la excepción llega al llamante y no se encola el email")
+    void templateFailurePropagates() {
+        when(templateEngine.process(eq("template"), any(Context.class)))
+                .thenThrow(new IllegalStateException("template error"));
+
+        assertThrows(IllegalStateException.class, () -> emailService.sendHtmlEmailWithQr("test@example.com",
+                "Subject", "template", new HashMap<>(), null));
+        verify(messageRepository, never()).save(any());
     }
 
-    @Test
-    @DisplayName("Si SendGrid falla en HTML, hace fallback a SMTP")
-    @Story("Proveedor de Email")
-    @Severity(SeverityLevel.CRITICAL)
-    @Description("Verifica fallback a SMTP cuando SendGrid falla en email HTML con QR")
-    void sendHtmlEmailWithQrFallsBackToSmtpWhenSendGridFails() throws IOException {
-        EmailService serviceSpy = spy(emailService);
-        ReflectionTestUtils.setField(serviceSpy, "sendGridApiKey", "SG.test-key");
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        when(templateEngine.process(eq("template"), any(Context.class))).thenReturn("<html>HTML</html>");
-        doThrow(new IOException("SendGrid unavailable")).when(serviceSpy).invokeSendGridApi(any(Mail.class));
-
-        serviceSpy.sendHtmlEmailWithQr("test@example.com", "Subject", "template", new HashMap<>(), new byte[]{1, 2, 3});
-
-        verify(serviceSpy, timeout(1000)).invokeSendGridApi(any(Mail.class));
-        verify(mailSender, timeout(1000)).send(any(MimeMessage.class));
+    private EmailMessage captureSaved() {
+        ArgumentCaptor<EmailMessage> captor = ArgumentCaptor.forClass(EmailMessage.class);
+        verify(messageRepository).save(captor.capture());
+        return captor.getValue();
     }
 }
@@ -0,0 +1,116 @@
+package com.magicworld.tfg_angular_springboot.email;
+
+import com.sendgrid.helpers.mail.Mail;
+import io.qameta.allure.*;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Epic("Gestión de Email")
+@Feature("Transporte de Email")
+public class EmailTransportTests {
+
+    private JavaMailSender mailSender;
+    private EmailTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        transport = new EmailTransport(mailSender);
+        ReflectionTestUtils.setField(transport, "sendGridApiKey", "");
+        ReflectionTestUtils.setField(transport, "mailFrom", "noreply@magicworld.local");
+    }
+
+    @Test
+    @DisplayName("Sin API key el lote entero sale por SMTP en un envío")
+    @Story("Proveedor de Email")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifica que sin SendGrid todos los mensajes del lote se entregan en una sola llamada SMTP")
+    void batchIsSentInOneSmtpCall() {
+        EmailTransport.BatchResult result = transport.deliver(List.of(message(1L, false), message(2L, true)));
+
+        verify(mailSender, times(1)).send(any(MimeMessage[].class));
+        assertEquals(2, result.viaSmtp());
+        assertEquals(0, result.viaSendGrid());
+        assertTrue(result.failures().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Con API key usa SendGrid")
+    @Story("Proveedor de Email")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifica que con SENDGRID_API_KEY se usa SendGrid en lugar de SMTP")
+    void usesSendGridWhenApiKeyPresent() throws IOException {
+        EmailTransport transportSpy = spy(transport);
+        ReflectionTestUtils.setField(transportSpy, "sendGridApiKey", "SG.test-key");
+        doReturn(null).when(transportSpy).invokeSendGridApi(any(Mail.class));
+
+        EmailTransport.BatchResult result = transportSpy.deliver(List.of(message(1L, true)));
+
+        verify(transportSpy).invokeSendGridApi(any(Mail.class));
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+        assertEquals(1, result.viaSendGrid());
+    }
+
+    @Test
+    @DisplayName("Si SendGrid falla, hace fallback a SMTP")
+    @Story("Proveedor de Email")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifica fallback a SMTP cuando SendGrid lanza excepción")
+    void fallsBackToSmtpWhenSendGridFails() throws IOException {
+        EmailTransport transportSpy = spy(transport);
+        ReflectionTestUtils.setField(transportSpy, "sendGridApiKey", "SG.test-key");
+        doThrow(new IOException("SendGrid unavailable")).when(transportSpy).invokeSendGridApi(any(Mail.class));
+
+        EmailTransport.BatchResult result = transportSpy.deliver(List.of(message(1L, false)));
+
+        verify(mailSender).send(any(MimeMessage[].class));
+        assertEquals(0, result.viaSendGrid());
+        assertEquals(1, result.viaSmtp());
+    }
+
+    @Test
+    @DisplayName("Si SMTP falla, todo el lote queda como fallido")
+    @Story("Proveedor de Email")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifica que un fallo de conexión SMTP se reporta para cada mensaje del lote")
+    void smtpConnectionFailureFailsWholeBatch() {
+        doThrow(new MailSendException("Mail server connection failed")).when(mailSender)
+                .send(any(MimeMessage[].class));
+
+        EmailTransport.BatchResult result = transport.deliver(List.of(message(1L, false), message(2L, false)));
+
+        assertEquals(0, result.viaSmtp());
+        assertEquals(2, result.failures().size());
+    }
+
+    private EmailMessage message(Long id, boolean withImage) {
+        EmailMessage message = EmailMessage.builder()
+                .recipient("user" + id + "@example.com")
+                .subject("Subject " + id)
+                .body(withImage ? "<html><img src=\"cid:qrCode\"/></html>" : "Body " + id)
+                .html(withImage)
+                .inlineImage(withImage ? new byte[]{1, 2, 3} : null)
+                .status(EmailStatus.PENDING)
+                .attempts(1)
+                .nextAttemptAt(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+        message.setId(id);
+        return message;
+    }
+}
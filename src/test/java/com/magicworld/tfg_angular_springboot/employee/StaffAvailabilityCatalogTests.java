@@ -0,0 +1,88 @@
+package com.magicworld.tfg_angular_springboot.employee;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Epic("Gestión de Empleados")
+@Feature("Disponibilidad de Personal por Rol")
+public class StaffAvailabilityCatalogTests {
+
+    @Autowired
+    private StaffAvailabilityCatalog staffAvailabilityCatalog;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DailyAssignmentRepository dailyAssignmentRepository;
+
+    private Employee medic;
+
+    @BeforeEach
+    void setUp() {
+        dailyAssignmentRepository.deleteAll();
+        medic = employeeRepository.save(Employee.builder()
+                .firstName("Ana").lastName("Medic").email("ana.medic@magicworld.com")
+                .role(EmployeeRole.MEDICAL).status(EmployeeStatus.ACTIVE).hireDate(LocalDate.of(2024, 1, 1))
+                .build());
+    }
+
+    @Test
+    @Story("Caché")
+    @Description("Verifica que sin cambios se reutiliza la misma instantánea de disponibilidad")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Instantánea reutilizada sin cambios")
+    void testSnapshotReusedWithoutChanges() {
+        StaffAvailabilityCatalog.Snapshot first = staffAvailabilityCatalog.current();
+        StaffAvailabilityCatalog.Snapshot second = staffAvailabilityCatalog.current();
+
+        assertSame(first, second);
+        assertFalse(first.isAvailable(EmployeeRole.MEDICAL));
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que una nueva asignación WORKING aparece como disponible")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Asignación nueva invalida la caché")
+    void testNewAssignmentInvalidatesSnapshot() {
+        assertFalse(staffAvailabilityCatalog.isAvailable(EmployeeRole.MEDICAL));
+
+        dailyAssignmentRepository.save(DailyAssignment.builder()
+                .employee(medic).assignmentDate(LocalDate.now()).currentStatus(DailyStatus.WORKING).build());
+
+        StaffAvailabilityCatalog.Snapshot snapshot = staffAvailabilityCatalog.current();
+        assertTrue(snapshot.isAvailable(EmployeeRole.MEDICAL));
+        assertEquals(1, snapshot.getAvailable(EmployeeRole.MEDICAL));
+        assertFalse(snapshot.isAvailable(EmployeeRole.SECURITY));
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que un cambio de estado retira al empleado de la disponibilidad")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Cambio de estado invalida la caché")
+    void testStatusChangeInvalidatesSnapshot() {
+        DailyAssignment assignment = dailyAssignmentRepository.save(DailyAssignment.builder()
+                .employee(medic).assignmentDate(LocalDate.now()).currentStatus(DailyStatus.WORKING).build());
+        assertTrue(staffAvailabilityCatalog.isAvailable(EmployeeRole.MEDICAL));
+
+        assignment.setCurrentStatus(DailyStatus.ASSIGNED_TO_ALERT);
+        dailyAssignmentRepository.saveAndFlush(assignment);
+
+        assertFalse(staffAvailabilityCatalog.isAvailable(EmployeeRole.MEDICAL));
+    }
+}
@@ -0,0 +1,230 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magicworld.tfg_angular_springboot.email.EmailService;
+import com.magicworld.tfg_angular_springboot.payment.CheckoutStatus;
+import com.magicworld.tfg_angular_springboot.payment.PaymentCheckout;
+import com.magicworld.tfg_angular_springboot.payment.PaymentCheckoutRepository;
+import com.magicworld.tfg_angular_springboot.payment.PaymentRequest;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeRepository;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Not {@code @Transactional}: the outbox row is only handed to a worker after its transaction
+ * commits. The poller is slowed down so each test drives its own attempts.
+ */
+@SpringBootTest(properties = "park.fulfilment.poll-interval-ms=3600000")
+@ActiveProfiles("test")
+@Epic("Entrega de Compras")
+@Feature("Outbox de Entrega")
+public class FulfilmentServiceTests {
+
+    private static final String TYPE = "FULFILMENT_TYPE";
+    private static final String EMAIL = "fulfilment@magicworld.com";
+    private static final long PURCHASE_ID = 4242L;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @Autowired
+    private FulfilmentService fulfilmentService;
+
+    @Autowired
+    private FulfilmentTaskRepository taskRepository;
+
+    @Autowired
+    private PaymentCheckoutRepository checkoutRepository;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private PaymentCheckout checkout;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ticketTypeRepository.save(TicketType.builder()
+                .typeName(TYPE)
+                .description("Fulfilment ticket")
+                .cost(new BigDecimal("25.00"))
+                .maxPerDay(10)
+                .photoUrl("https://example.com/fulfilment.jpg")
+                .build());
+        PaymentRequest request = PaymentRequest.builder()
+                .visitDate(LocalDate.now().plusDays(3))
+                .items(List.of(PaymentRequest.PaymentLineItem.builder().ticketTypeName(TYPE).quantity(2).build()))
+                .email(EMAIL)
+                .firstName("Ful")
+                .lastName("Filment")
+                .stripePaymentMethodId("pm_card_visa")
+                .build();
+        checkout = checkoutRepository.save(PaymentCheckout.builder()
+                .idempotencyKey("fulfilment-1")
+                .status(CheckoutStatus.COMPLETED)
+                .holdToken("hold-fulfilment-1")
+                .amountCents(5000L)
+                .totalAmount(new BigDecimal("50.00"))
+                .discountAmount(BigDecimal.ZERO)
+                .lang("es")
+                .requestJson(objectMapper.writeValueAsString(request))
+                .purchaseId(PURCHASE_ID)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        checkoutRepository.deleteAll();
+        ticketTypeRepository.findAll().stream()
+                .filter(t -> TYPE.equals(t.getTypeName()))
+                .forEach(ticketTypeRepository::delete);
+    }
+
+    @Test
+    @Story("Encolado")
+    @Description("Verifica que una tarea encolada se entrega al confirmarse la transacción de la compra")
+    @Severity(SeverityLevel.BLOCKER)
+    @DisplayName("Tarea encolada se entrega tras el commit")
+    void testEnqueuedTaskIsFulfilledAfterCommit() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> fulfilmentService.enqueue(PURCHASE_ID, checkout.getId()));
+
+        verify(emailService, timeout(5000)).sendRenderedHtmlEmailWithQr(eq(EMAIL), anyString(),
+                contains("¡Hola Ful!"), any(byte[].class));
+        FulfilmentTask task = awaitStatus(FulfilmentStatus.DONE);
+        assertNotNull(task.getEmailSentAt());
+        assertEquals(1, task.getAttempts());
+    }
+
+    @Test
+    @Story("Encolado")
+    @Description("Verifica que no se puede encolar una entrega fuera de la transacción de la compra")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Encolar fuera de transacción falla")
+    void testEnqueueRequiresTransaction() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> fulfilmentService.enqueue(PURCHASE_ID, checkout.getId()));
+        assertEquals(0, taskRepository.count());
+    }
+
+    @Test
+    @Story("Reintentos")
+    @Description("Verifica que un envío fallido se reprograma con espera y el siguiente intento completa la entrega")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Envío fallido se reintenta")
+    void testFailedAttemptIsRetried() {
+        doThrow(new IllegalStateException("Template error")).doNothing().when(emailService)
+                .sendRenderedHtmlEmailWithQr(anyString(), anyString(), anyString(), any());
+        FulfilmentTask task = dueTask(0, null);
+
+        fulfilmentService.process(task.getId());
+
+        FulfilmentTask retried = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(FulfilmentStatus.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertTrue(retried.getLastError().contains("Template error"));
+        assertTrue(retried.getNextAttemptAt().isAfter(LocalDateTime.now()));
+
+        fulfilmentService.process(task.getId());
+        assertEquals(FulfilmentStatus.PENDING, taskRepository.findById(task.getId()).orElseThrow().getStatus(),
+                "Una tarea no vence antes de su espera");
+
+        makeDue(task.getId());
+        fulfilmentService.process(task.getId());
+
+        FulfilmentTask done = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(FulfilmentStatus.DONE, done.getStatus());
+        assertNull(done.getLastError());
+        verify(emailService, times(2)).sendRenderedHtmlEmailWithQr(anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    @Story("Reintentos")
+    @Description("Verifica que una tarea que agota sus intentos queda marcada como fallida")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Tarea sin intentos restantes se abandona")
+    void testTaskIsAbandonedAfterMaxAttempts() {
+        doThrow(new IllegalStateException("Template error")).when(emailService)
+                .sendRenderedHtmlEmailWithQr(anyString(), anyString(), anyString(), any());
+        FulfilmentTask task = dueTask(7, null);
+
+        fulfilmentService.process(task.getId());
+
+        FulfilmentTask failed = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(FulfilmentStatus.FAILED, failed.getStatus());
+        assertEquals(8, failed.getAttempts());
+    }
+
+    @Test
+    @Story("Reintentos")
+    @Description("Verifica que un reintento de una entrega con email ya enviado no lo reenvía")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Reintento no reenvía el email")
+    void testRetryDoesNotResendEmail() {
+        FulfilmentTask task = dueTask(1, LocalDateTime.now().minusMinutes(1));
+
+        fulfilmentService.process(task.getId());
+
+        assertEquals(FulfilmentStatus.DONE, taskRepository.findById(task.getId()).orElseThrow().getStatus());
+        verifyNoInteractions(emailService);
+    }
+
+    private FulfilmentTask dueTask(int attempts, LocalDateTime emailSentAt) {
+        return taskRepository.save(FulfilmentTask.builder()
+                .purchaseId(PURCHASE_ID)
+                .checkoutId(checkout.getId())
+                .status(FulfilmentStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(LocalDateTime.now().minusSeconds(1))
+                .emailSentAt(emailSentAt)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void makeDue(Long taskId) {
+        FulfilmentTask task = taskRepository.findById(taskId).orElseThrow();
+        task.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        taskRepository.save(task);
+    }
+
+    private FulfilmentTask awaitStatus(FulfilmentStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            FulfilmentTask task = taskRepository.findAll().getFirst();
+            if (task.getStatus() == status) {
+                return task;
+            }
+            Thread.sleep(20);
+        }
+        fail("La tarea no llegó al estado " + status);
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Renders the same confirmations through the full Thymeleaf template and through the precomputed
+ * per-language fragments, on one thread after a warm-up, and attaches renders per second of each
+ * to the Allure report. Tune with {@code -Dconfirmation.bench.renders=50000}.
+ */
+@Epic("Entrega de Compras")
+@Feature("Rendimiento del Email de Confirmación")
+@Tag("benchmark")
+public class PurchaseConfirmationRenderBenchmarkTests {
+
+    private final int renders = Integer.getInteger("confirmation.bench.renders", 5000);
+
+    @Test
+    @Story("Renderizado")
+    @Description("Mide los renders por segundo del email de confirmación con la plantilla completa y con fragmentos")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Renders por segundo antes y después de los fragmentos")
+    void testRenderThroughput() {
+        PurchaseConfirmationRenderer renderer =
+                new PurchaseConfirmationRenderer(PurchaseConfirmationRendererTests.templateEngine());
+        List<PurchaseConfirmation> orders = List.of(
+                PurchaseConfirmationRendererTests.confirmation("es", 1L, "Ana", 2, "5.00"),
+                PurchaseConfirmationRendererTests.confirmation("en", 2L, "John", 1, "0.00"),
+                PurchaseConfirmationRendererTests.confirmation("es", 3L, "Luis", 4, "0.00"),
+                PurchaseConfirmationRendererTests.confirmation("en", 4L, "Mary", 3, "12.50"));
+
+        double template = measure(orders, renderer::renderWithTemplate);
+        double fragments = measure(orders, renderer::render);
+
+        Allure.addAttachment("Email de confirmación", String.format(
+                "%d renders: plantilla Thymeleaf completa %.0f renders/s, fragmentos precalculados %.0f renders/s "
+                        + "(x%.1f)",
+                renders, template, fragments, fragments / template));
+        orders.forEach(order -> assertEquals(renderer.renderWithTemplate(order), renderer.render(order)));
+    }
+
+    private double measure(List<PurchaseConfirmation> orders, Function<PurchaseConfirmation, String> render) {
+        long chars = 0;
+        for (int i = 0; i < renders / 5; i++) {
+            chars += render.apply(orders.get(i % orders.size())).length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < renders; i++) {
+            chars += render.apply(orders.get(i % orders.size())).length();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        assertTrue(chars > 0);
+        return renders / elapsedSeconds;
+    }
+}
@@ -0,0 +1,134 @@
+package com.magicworld.tfg_angular_springboot.fulfilment;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Epic("Entrega de Compras")
+@Feature("Email de Confirmación")
+public class PurchaseConfirmationRendererTests {
+
+    private PurchaseConfirmationRenderer renderer;
+
+    /** The engine Spring Boot configures for {@code classpath:/templates/}, without a context. */
+    static TemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    static PurchaseConfirmation confirmation(String lang, long purchaseId, String firstName, int lines,
+            String discount) {
+        List<PurchaseConfirmation.Line> orderLines = IntStream.range(0, lines)
+                .mapToObj(i -> new PurchaseConfirmation.Line("TYPE_" + i, i + 1, new BigDecimal("25.00")
+                        .multiply(BigDecimal.valueOf(i + 1))))
+                .toList();
+        return new PurchaseConfirmation(lang, purchaseId, firstName, LocalDate.of(2026, 7, 14), orderLines,
+                new BigDecimal(discount), new BigDecimal("137.50"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        renderer = new PurchaseConfirmationRenderer(templateEngine());
+    }
+
+    @Test
+    @Story("Fragmentos Precalculados")
+    @Description("Verifica que el email en español con varias líneas y descuento es idéntico al de Thymeleaf")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Fragmentos en español equivalen a la plantilla")
+    void testSpanishFragmentsMatchTemplate() {
+        PurchaseConfirmation first = confirmation("es", 42L, "Ana", 3, "12.50");
+        PurchaseConfirmation second = confirmation("es", 43L, "Luis", 2, "5.00");
+
+        assertEquals(renderer.renderWithTemplate(first), renderer.render(first));
+        assertEquals(renderer.renderWithTemplate(second), renderer.render(second));
+    }
+
+    @Test
+    @Story("Fragmentos Precalculados")
+    @Description("Verifica que el email en inglés con una línea y sin descuento es idéntico al de Thymeleaf")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Fragmentos en inglés sin descuento equivalen a la plantilla")
+    void testEnglishFragmentsWithoutDiscountMatchTemplate() {
+        PurchaseConfirmation confirmation = confirmation("en", 7L, "John", 1, "0.00");
+
+        String html = renderer.render(confirmation);
+
+        assertEquals(renderer.renderWithTemplate(confirmation), html);
+        assertTrue(html.contains("Hello John!"));
+        assertFalse(html.contains("Discount"));
+        assertEquals("Purchase Confirmation - MagicWorld", renderer.subject("en"));
+    }
+
+    @Test
+    @Story("Fragmentos Precalculados")
+    @Description("Verifica que los campos del pedido se escapan igual que con th:text")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Campos del pedido escapados")
+    void testOrderFieldsAreEscaped() {
+        PurchaseConfirmation confirmation = confirmation("es", 9L, "<b>Ana & \"Bob\"</b>", 2, "1.00");
+
+        String html = renderer.render(confirmation);
+
+        assertEquals(renderer.renderWithTemplate(confirmation), html);
+        assertFalse(html.contains("<b>Ana"));
+        assertTrue(html.contains("&lt;b&gt;Ana &amp;"));
+    }
+
+    @Test
+    @Story("Fragmentos Precalculados")
+    @Description("Verifica que si la plantilla no tiene la estructura esperada cada email se renderiza con Thymeleaf")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Plantilla desconocida se renderiza completa")
+    void testUnknownLayoutFallsBackToTemplate() {
+        TemplateEngine engine = mock(TemplateEngine.class);
+        when(engine.process(eq(PurchaseConfirmationRenderer.TEMPLATE), any(IContext.class)))
+                .thenReturn("<p>static</p>");
+        PurchaseConfirmationRenderer fallback = new PurchaseConfirmationRenderer(engine);
+
+        assertEquals("<p>static</p>", fallback.render(confirmation("es", 1L, "Ana", 1, "0.00")));
+        assertEquals("<p>static</p>", fallback.render(confirmation("es", 2L, "Ana", 1, "0.00")));
+        verify(engine, times(4)).process(eq(PurchaseConfirmationRenderer.TEMPLATE), any(IContext.class));
+    }
+
+    @Test
+    @Story("Fragmentos Precalculados")
+    @Description("Verifica que si la plantilla falla al precompilarse el email se renderiza igualmente con Thymeleaf")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Fallo al precompilar se renderiza completa")
+    void testCompileFailureFallsBackToTemplate() {
+        TemplateEngine engine = mock(TemplateEngine.class);
+        when(engine.process(eq(PurchaseConfirmationRenderer.TEMPLATE), any(IContext.class)))
+                .thenThrow(new TemplateProcessingException("marcador inválido"))
+                .thenReturn("<p>static</p>");
+        PurchaseConfirmationRenderer fallback = new PurchaseConfirmationRenderer(engine);
+
+        assertEquals("<p>static</p>", fallback.render(confirmation("es", 1L, "Ana", 1, "0.00")));
+        assertEquals("<p>static</p>", fallback.render(confirmation("es", 2L, "Ana", 1, "0.00")));
+        verify(engine, times(3)).process(eq(PurchaseConfirmationRenderer.TEMPLATE), any(IContext.class));
+    }
+}
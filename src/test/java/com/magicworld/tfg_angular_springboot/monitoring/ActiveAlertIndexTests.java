@@ -0,0 +1,133 @@
+package com.magicworld.tfg_angular_springboot.monitoring;
+
+import com.magicworld.tfg_angular_springboot.monitoring.alert.*;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.monitoring.service.AlertService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.MonitoringWebSocketService;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Epic("Monitorización del Parque")
+@Feature("Índice de Alertas Activas")
+public class ActiveAlertIndexTests {
+
+    private static final Long ATTRACTION_ID = 4242L;
+
+    @Autowired
+    private ActiveAlertIndex activeAlertIndex;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private ParkAlertRepository alertRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private MonitoringWebSocketService webSocketService;
+
+    @BeforeEach
+    void setUp() {
+        alertRepository.deleteAll();
+        activeAlertIndex.invalidate();
+    }
+
+    @Test
+    @Story("Deduplicación")
+    @Description("Verifica que una alerta guardada se refleja en el índice sin recargarlo")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Alerta guardada entra en el índice")
+    void testSavedAlertIsIndexed() {
+        assertEquals(0, activeAlertIndex.size());
+
+        alertRepository.saveAndFlush(alert(AlertSeverity.WARNING));
+
+        assertTrue(activeAlertIndex.contains(ATTRACTION_ID, AlertType.HIGH_QUEUE, AlertSeverity.WARNING));
+        assertFalse(activeAlertIndex.contains(ATTRACTION_ID, AlertType.HIGH_QUEUE, AlertSeverity.CRITICAL));
+        assertEquals(1, activeAlertIndex.size());
+    }
+
+    @Test
+    @Story("Deduplicación")
+    @Description("Verifica que eventos de cola repetidos solo generan una alerta por severidad")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Colas repetidas no duplican alertas")
+    void testRepeatedQueueEventsCreateSingleAlert() {
+        for (int i = 0; i < 5; i++) {
+            alertService.checkAndTriggerAlerts(queueEvent(90));
+        }
+        alertService.checkAndTriggerAlerts(queueEvent(130));
+
+        assertEquals(2, alertRepository.findByAttractionIdAndIsActiveTrue(ATTRACTION_ID).size());
+    }
+
+    @Test
+    @Story("Resolución")
+    @Description("Verifica que desactivar una alerta la elimina del índice")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Alerta resuelta sale del índice")
+    void testResolvedAlertLeavesIndex() {
+        ParkAlert saved = alertRepository.saveAndFlush(alert(AlertSeverity.WARNING));
+        assertTrue(activeAlertIndex.contains(ATTRACTION_ID, AlertType.HIGH_QUEUE, AlertSeverity.WARNING));
+
+        saved.setIsActive(false);
+        saved.setResolvedAt(LocalDateTime.now());
+        alertRepository.saveAndFlush(saved);
+
+        assertFalse(activeAlertIndex.contains(ATTRACTION_ID, AlertType.HIGH_QUEUE, AlertSeverity.WARNING));
+        assertEquals(0, activeAlertIndex.size());
+    }
+
+    @Test
+    @Story("Consistencia")
+    @Description("Verifica que el índice se recarga tras borrados fuera de JPA")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Invalidación recarga el índice")
+    void testInvalidateReloadsFromDatabase() {
+        alertRepository.saveAndFlush(alert(AlertSeverity.CRITICAL));
+        assertTrue(activeAlertIndex.contains(ATTRACTION_ID, AlertType.HIGH_QUEUE, AlertSeverity.CRITICAL));
+
+        jdbcTemplate.update("DELETE FROM park_alert WHERE attraction_id = ?", ATTRACTION_ID);
+        activeAlertIndex.invalidate();
+
+        assertFalse(activeAlertIndex.contains(ATTRACTION_ID, AlertType.HIGH_QUEUE, AlertSeverity.CRITICAL));
+    }
+
+    private ParkAlert alert(AlertSeverity severity) {
+        return ParkAlert.builder()
+                .alertType(AlertType.HIGH_QUEUE)
+                .severity(severity)
+                .message("alerts.messages.high_queue")
+                .attractionId(ATTRACTION_ID)
+                .timestamp(LocalDateTime.now())
+                .isActive(true)
+                .build();
+    }
+
+    private ParkEvent queueEvent(int queueSize) {
+        return ParkEvent.builder()
+                .eventType(ParkEventType.ATTRACTION_QUEUE_JOIN)
+                .attractionId(ATTRACTION_ID)
+                .queueSize(queueSize)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.magicworld.tfg_angular_springboot.monitoring;
+
+import com.magicworld.tfg_angular_springboot.monitoring.service.BroadcastCoalescer;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Epic("Monitorización del Parque")
+@Feature("Agrupación de Difusiones WebSocket")
+public class BroadcastCoalescerTests {
+
+    private static final String DESTINATION = "/topic/events";
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private BroadcastCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        coalescer = new BroadcastCoalescer(messagingTemplate);
+        ReflectionTestUtils.setField(coalescer, "windowMs", 100L);
+        ReflectionTestUtils.setField(coalescer, "maxPending", 10);
+        ReflectionTestUtils.setField(coalescer, "maxFrameSize", 4);
+    }
+
+    @Test
+    @Story("Agrupación")
+    @Description("Verifica que los mensajes de una ventana se publican en un único frame")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Mensajes agrupados en un frame")
+    void testMessagesPublishedAsSingleFrame() {
+        coalescer.submit(DESTINATION, "a");
+        coalescer.submit(DESTINATION, "b");
+        coalescer.submit(DESTINATION, "c");
+
+        coalescer.flush();
+
+        verify(messagingTemplate, times(1)).convertAndSend(DESTINATION, (Object) List.of("a", "b", "c"));
+        assertEquals(1L, coalescer.getStats().get("frames"));
+    }
+
+    @Test
+    @Story("Sobrecarga")
+    @Description("Verifica que se descartan mensajes cuando el buffer está lleno y se muestrean frames grandes")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Descarte y muestreo con contadores")
+    void testDropAndSampleOnOverload() {
+        for (int i = 0; i < 12; i++) {
+            coalescer.submit(DESTINATION, i);
+        }
+
+        coalescer.flush();
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq(DESTINATION), captor.capture());
+        assertEquals(4, ((List<?>) captor.getValue()).size());
+
+        Map<String, Object> stats = coalescer.getStats();
+        assertEquals(2L, stats.get("dropped"));
+        assertEquals(6L, stats.get("sampledOut"));
+        assertEquals(4L, stats.get("published"));
+    }
+
+    @Test
+    @Story("Agrupación")
+    @Description("Verifica que un flush sin mensajes no envía frames")
+    @Severity(SeverityLevel.MINOR)
+    @DisplayName("Flush vacío no publica")
+    void testEmptyFlushSendsNothing() {
+        coalescer.flush();
+
+        verifyNoInteractions(messagingTemplate);
+    }
+}
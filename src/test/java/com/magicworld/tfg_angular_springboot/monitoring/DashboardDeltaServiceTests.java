@@ -0,0 +1,211 @@
+package com.magicworld.tfg_angular_springboot.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magicworld.tfg_angular_springboot.monitoring.alert.AlertSeverity;
+import com.magicworld.tfg_angular_springboot.monitoring.alert.AlertType;
+import com.magicworld.tfg_angular_springboot.monitoring.dashboard.DashboardFrame;
+import com.magicworld.tfg_angular_springboot.monitoring.dashboard.DashboardFrameRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.AlertDTO;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.AttractionStatus;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.DashboardPatch;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.DashboardSnapshot;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.SequencedDashboardSnapshot;
+import com.magicworld.tfg_angular_springboot.monitoring.service.DashboardDeltaService;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Epic("Monitorización del Parque")
+@Feature("Difusión Incremental del Dashboard")
+public class DashboardDeltaServiceTests {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private DashboardFrameRepository frameRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private DashboardDeltaService deltaService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(frameRepository.findById(DashboardFrame.CURRENT)).thenReturn(Optional.empty());
+        deltaService = new DashboardDeltaService(messagingTemplate, frameRepository, objectMapper);
+    }
+
+    @Test
+    @Story("Snapshot Inicial")
+    @Description("Verifica que la suscripción devuelve el snapshot completo con su número de secuencia")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Suscripción recibe snapshot secuenciado")
+    void testCurrentFrameReturnsSequencedSnapshot() {
+        DashboardSnapshot snapshot = snapshot(10, List.of(status(1L, 5)), List.of());
+
+        SequencedDashboardSnapshot frame = deltaService.currentFrame(() -> snapshot);
+
+        assertEquals(1, frame.getSequence());
+        assertSame(snapshot, frame.getSnapshot());
+    }
+
+    @Test
+    @Story("Parches")
+    @Description("Verifica que el parche solo contiene contadores y atracciones modificados")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Parche contiene solo los cambios")
+    void testPatchContainsOnlyChanges() {
+        deltaService.publish(snapshot(10, List.of(status(1L, 5), status(2L, 8)), List.of()));
+        reset(messagingTemplate);
+
+        deltaService.publish(snapshot(11, List.of(status(1L, 5), status(2L, 9)), List.of()));
+
+        DashboardPatch patch = capturePatch();
+        assertEquals(2, patch.getSequence());
+        assertEquals(11, patch.getCurrentVisitors());
+        assertNull(patch.getParkMaxCapacity());
+        assertEquals(1, patch.getAttractionStatuses().size());
+        assertEquals(2L, patch.getAttractionStatuses().get(0).getAttractionId());
+        assertNull(patch.getRemovedAttractionIds());
+        assertNull(patch.getActiveAlerts());
+    }
+
+    @Test
+    @Story("Parches")
+    @Description("Verifica que un tick sin cambios no envía frame ni avanza la secuencia")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Sin cambios no se envía parche")
+    void testUnchangedSnapshotIsNotSent() {
+        deltaService.publish(snapshot(10, List.of(status(1L, 5)), List.of()));
+        reset(messagingTemplate);
+
+        deltaService.publish(snapshot(10, List.of(status(1L, 5)), List.of()));
+
+        verifyNoInteractions(messagingTemplate);
+        assertEquals(1, deltaService.getSequence());
+    }
+
+    @Test
+    @Story("Parches")
+    @Description("Verifica que las alertas resueltas se envían solo como ids eliminados")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Alertas resueltas se envían por id")
+    void testResolvedAlertsSentAsIds() {
+        deltaService.publish(snapshot(10, List.of(), List.of(alert(7L), alert(8L))));
+        reset(messagingTemplate);
+
+        deltaService.publish(snapshot(10, List.of(), List.of(alert(8L))));
+
+        DashboardPatch patch = capturePatch();
+        assertEquals(List.of(7L), patch.getRemovedAlertIds());
+        assertNull(patch.getActiveAlerts());
+    }
+
+    @Test
+    @Story("Broker Externo")
+    @Description("Verifica que con el broker externo solo el nodo publicador envía parches y guarda el frame compartido")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Relay: el publicador guarda el frame y continúa su secuencia")
+    void testRelayPublisherStoresFrameAndResumesSequence() throws Exception {
+        when(frameRepository.findById(DashboardFrame.CURRENT)).thenReturn(Optional.of(frame(41, snapshot(9, List.of(), List.of()))));
+        DashboardDeltaService publisher = relayNode("true");
+
+        publisher.publish(snapshot(10, List.of(status(1L, 5)), List.of(alert(7L))));
+
+        ArgumentCaptor<DashboardFrame> stored = ArgumentCaptor.forClass(DashboardFrame.class);
+        verify(frameRepository).save(stored.capture());
+        assertEquals(42, stored.getValue().getSequence());
+        assertEquals(snapshot(10, List.of(status(1L, 5)), List.of(alert(7L))),
+                objectMapper.readValue(stored.getValue().getSnapshotJson(), DashboardSnapshot.class));
+        assertEquals(42, capturePatch().getSequence());
+    }
+
+    @Test
+    @Story("Broker Externo")
+    @Description("Verifica que un nodo no publicador no envía parches y responde la suscripción con el frame compartido")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Relay: los demás nodos sirven el frame compartido")
+    void testRelayFollowerServesSharedFrame() throws Exception {
+        DashboardSnapshot shared = snapshot(25, List.of(status(2L, 8)), List.of());
+        when(frameRepository.findById(DashboardFrame.CURRENT)).thenReturn(Optional.of(frame(17, shared)));
+        DashboardDeltaService follower = relayNode("");
+
+        follower.publish(snapshot(3, List.of(), List.of()));
+        SequencedDashboardSnapshot frame = follower.currentFrame(() -> snapshot(3, List.of(), List.of()));
+
+        assertFalse(follower.isPublisher());
+        verifyNoInteractions(messagingTemplate);
+        verify(frameRepository, never()).save(any());
+        assertEquals(17, frame.getSequence());
+        assertEquals(shared, frame.getSnapshot());
+    }
+
+    private DashboardDeltaService relayNode(String publisher) {
+        DashboardDeltaService node = new DashboardDeltaService(messagingTemplate, frameRepository, objectMapper);
+        ReflectionTestUtils.setField(node, "brokerMode", "relay");
+        ReflectionTestUtils.setField(node, "publisherSetting", publisher);
+        return node;
+    }
+
+    private DashboardFrame frame(long sequence, DashboardSnapshot snapshot) throws Exception {
+        return DashboardFrame.builder()
+                .id(DashboardFrame.CURRENT)
+                .sequence(sequence)
+                .snapshotJson(objectMapper.writeValueAsString(snapshot))
+                .publishedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private DashboardPatch capturePatch() {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq(DashboardDeltaService.TOPIC_DASHBOARD_DELTA), captor.capture());
+        verify(messagingTemplate, never()).convertAndSend(eq("/topic/dashboard"), any(Object.class));
+        return (DashboardPatch) captor.getValue();
+    }
+
+    private DashboardSnapshot snapshot(int visitors, List<AttractionStatus> statuses, List<AlertDTO> alerts) {
+        return DashboardSnapshot.builder()
+                .currentVisitors(visitors)
+                .parkMaxCapacity(500)
+                .attractionStatuses(statuses)
+                .activeAlerts(alerts)
+                .build();
+    }
+
+    private AttractionStatus status(Long id, int queueSize) {
+        return AttractionStatus.builder()
+                .attractionId(id)
+                .name("Attraction " + id)
+                .open(true)
+                .queueSize(queueSize)
+                .intensity("HIGH")
+                .build();
+    }
+
+    private AlertDTO alert(Long id) {
+        return AlertDTO.builder()
+                .id(id)
+                .alertType(AlertType.HIGH_QUEUE)
+                .severity(AlertSeverity.WARNING)
+                .message("Queue")
+                .active(true)
+                .resolutionOptions(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.magicworld.tfg_angular_springboot.monitoring;
+
+import com.magicworld.tfg_angular_springboot.monitoring.dto.EventRequest;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.service.AlertService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.EventIngestionService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.EventWriteBehindService;
+import com.magicworld.tfg_angular_springboot.monitoring.service.MonitoringWebSocketService;
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Epic("Monitorización del Parque")
+@Feature("Ingesta Write-Behind de Eventos")
+public class EventWriteBehindServiceTests {
+
+    @Autowired
+    private EventWriteBehindService writeBehindService;
+
+    @Autowired
+    private EventIngestionService eventIngestionService;
+
+    @Autowired
+    private ParkEventRepository eventRepository;
+
+    @Autowired
+    private ParkEventRollupRepository rollupRepository;
+
+    @MockitoBean
+    private MonitoringWebSocketService webSocketService;
+
+    @MockitoBean
+    private AlertService alertService;
+
+    @BeforeEach
+    void setUp() {
+        writeBehindService.flush();
+        eventRepository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehindService.flush();
+        eventRepository.deleteAll();
+        rollupRepository.deleteAll();
+    }
+
+    @Test
+    @Story("Escritura por Lotes")
+    @Description("Verifica que los eventos encolados se persisten al vaciar el buffer")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Eventos encolados se persisten tras flush")
+    void testEnqueuedEventsArePersistedOnFlush() {
+        for (int i = 0; i < 25; i++) {
+            writeBehindService.enqueue(ParkEvent.builder()
+                    .eventType(ParkEventType.PARK_ENTRY)
+                    .timestamp(LocalDateTime.now())
+                    .visitorCount(1)
+                    .build());
+        }
+
+        writeBehindService.flush();
+
+        assertEquals(25, eventRepository.count());
+        ArgumentCaptor<ParkEvent> broadcast = ArgumentCaptor.forClass(ParkEvent.class);
+        verify(webSocketService, atLeast(25)).broadcastEvent(broadcast.capture());
+        Set<Long> broadcastIds = broadcast.getAllValues().stream().map(ParkEvent::getId).collect(Collectors.toSet());
+        assertFalse(broadcastIds.contains(null));
+        assertTrue(broadcastIds.containsAll(eventRepository.findAll().stream().map(ParkEvent::getId).toList()));
+    }
+
+    @Test
+    @Story("Escritura por Lotes")
+    @Description("Verifica que enqueueEvent del servicio de ingesta usa el buffer write-behind")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Ingesta asíncrona mediante enqueueEvent")
+    void testEnqueueEventThroughIngestionService() {
+        EventRequest request = new EventRequest();
+        request.setEventType(ParkEventType.ATTRACTION_QUEUE_JOIN);
+        request.setAttractionId(99L);
+        request.setQueueSize(12);
+
+        eventIngestionService.enqueueEvent(request);
+        writeBehindService.flush();
+
+        ParkEvent stored = eventRepository.findAll().get(0);
+        assertEquals(ParkEventType.ATTRACTION_QUEUE_JOIN, stored.getEventType());
+        assertEquals(99L, stored.getAttractionId());
+        assertEquals(12, stored.getQueueSize());
+        assertNull(stored.getUserId());
+    }
+
+    @Test
+    @Story("Escritura por Lotes")
+    @Description("Verifica que un fallo al evaluar alertas de un evento no deshace el lote ni bloquea al resto")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Fallo de alertas aislado por evento")
+    void testAlertFailureIsIsolatedFromBatch() {
+        long failedBefore = (long) writeBehindService.getStats().get("failedAlertChecks");
+        doThrow(new IllegalStateException("alert store down"))
+                .when(alertService).checkAndTriggerAlerts(argThat(e -> Integer.valueOf(13).equals(e.getQueueSize())));
+        for (int queueSize : new int[] { 12, 13, 14 }) {
+            writeBehindService.enqueue(ParkEvent.builder()
+                    .eventType(ParkEventType.ATTRACTION_QUEUE_JOIN)
+                    .attractionId(99L)
+                    .queueSize(queueSize)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        }
+
+        writeBehindService.flush();
+
+        assertEquals(3, eventRepository.count());
+        verify(alertService, times(3)).checkAndTriggerAlerts(any(ParkEvent.class));
+        verify(webSocketService, times(3)).broadcastEvent(any(ParkEvent.class));
+        assertEquals(failedBefore + 1, (long) writeBehindService.getStats().get("failedAlertChecks"));
+    }
+
+    @Test
+    @Story("Métricas")
+    @Description("Verifica que las estadísticas reflejan los eventos escritos")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Estadísticas de throughput")
+    void testStatsReflectWrittenEvents() {
+        long before = (long) writeBehindService.getStats().get("eventsWritten");
+        writeBehindService.enqueue(ParkEvent.builder()
+                .eventType(ParkEventType.PARK_EXIT)
+                .timestamp(LocalDateTime.now())
+                .build());
+        writeBehindService.flush();
+
+        Map<String, Object> stats = writeBehindService.getStats();
+        assertEquals(before + 1, (long) stats.get("eventsWritten"));
+        assertEquals(0, stats.get("bufferSize"));
+        assertTrue((double) stats.get("lastFlushEventsPerSecond") > 0);
+    }
+
+    @Test
+    @Story("Métricas")
+    @Description("Verifica que se mide la latencia desde la creación hasta el commit solo de los eventos marcados")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Latencia de extremo a extremo hasta el commit")
+    void testCommitLatencyMeasuresStampedEvents() {
+        writeBehindService.drainCommitLatency();
+        long createdNanos = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            writeBehindService.enqueue(ParkEvent.builder()
+                    .eventType(ParkEventType.PARK_ENTRY)
+                    .timestamp(LocalDateTime.now())
+                    .createdNanos(createdNanos)
+                    .build());
+        }
+        writeBehindService.enqueue(ParkEvent.builder()
+                .eventType(ParkEventType.PARK_EXIT)
+                .timestamp(LocalDateTime.now())
+                .build());
+        writeBehindService.flush();
+        long elapsedNanos = System.nanoTime() - createdNanos;
+
+        LatencyHistogram latency = writeBehindService.drainCommitLatency();
+        assertEquals(3, latency.getCount());
+        assertTrue(latency.getMax() > 0 && latency.getMax() <= elapsedNanos);
+        assertEquals(0, writeBehindService.drainCommitLatency().getCount());
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -105,4 +106,29 @@ public class MonitoringControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.running").isBoolean());
     }
+
+    @Test
+    @Story("Métricas de Checkout")
+    @Description("Verifica que las latencias de checkout se exportan en formato de texto Prometheus")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("GET /checkout/metrics retorna texto Prometheus")
+    @WithMockUser(roles = "ADMIN")
+    void testCheckoutMetricsPrometheusText() throws Exception {
+        mockMvc.perform(get("/api/v1/monitoring/checkout/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andExpect(content().string(containsString(
+                        "# TYPE magicworld_checkout_stage_seconds summary")));
+    }
+
+    @Test
+    @Story("Métricas de Checkout")
+    @Description("Verifica que las métricas de checkout están protegidas para admins")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("GET /checkout/stats como user retorna 403")
+    @WithMockUser(roles = "USER")
+    void testCheckoutStatsAsUserForbidden() throws Exception {
+        mockMvc.perform(get("/api/v1/monitoring/checkout/stats"))
+                .andExpect(status().isForbidden());
+    }
 }
@@ -31,7 +31,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -145,6 +147,75 @@ public class MonitoringE2ETests {
                 .andExpect(jsonPath("$.eventType").value("ATTRACTION_QUEUE_JOIN"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @Story("Eventos")
+    @Description("Verifica que el endpoint bulk persiste los válidos y rechaza los inválidos con estado por elemento")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("POST /events/bulk con array JSON retorna estado por elemento")
+    void testRecordEventsBulkJsonArray() throws Exception {
+        EventRequest entry = new EventRequest();
+        entry.setEventType(ParkEventType.PARK_ENTRY);
+        entry.setVisitorCount(1);
+        EventRequest queue = new EventRequest();
+        queue.setEventType(ParkEventType.ATTRACTION_QUEUE_JOIN);
+        queue.setAttractionId(testAttraction.getId());
+        queue.setQueueSize(15);
+        EventRequest invalid = new EventRequest();
+
+        mockMvc.perform(post(API_MONITORING + "/events/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(entry, queue, invalid))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[2].accepted").value(false))
+                .andExpect(jsonPath("$.results[2].error").exists());
+
+        assertEquals(2, eventRepository.count());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @Story("Eventos")
+    @Description("Verifica que el endpoint bulk acepta NDJSON y marca las líneas mal formadas")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("POST /events/bulk con NDJSON retorna estado por línea")
+    void testRecordEventsBulkNdjson() throws Exception {
+        String body = "{\"eventType\":\"PARK_ENTRY\",\"visitorCount\":1}\n"
+                + "not-json\n"
+                + "{\"eventType\":\"PARK_EXIT\",\"visitorCount\":1}\n";
+
+        mockMvc.perform(post(API_MONITORING + "/events/bulk")
+                        .with(csrf())
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.results[1].accepted").value(false))
+                .andExpect(jsonPath("$.results[1].error").value("error.monitoring.event.malformed"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @Story("Eventos")
+    @Description("Verifica que un flujo NDJSON con más líneas que el máximo se rechaza sin registrar eventos")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("POST /events/bulk con NDJSON demasiado grande retorna 400")
+    void testRecordEventsBulkNdjsonTooManyLines() throws Exception {
+        String body = "{\"eventType\":\"PARK_ENTRY\",\"visitorCount\":1}\n".repeat(5001);
+
+        mockMvc.perform(post(API_MONITORING + "/events/bulk")
+                        .with(csrf())
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, eventRepository.count());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     @Story("Eventos")
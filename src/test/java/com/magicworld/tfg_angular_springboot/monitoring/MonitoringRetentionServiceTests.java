@@ -0,0 +1,183 @@
+package com.magicworld.tfg_angular_springboot.monitoring;
+
+import com.magicworld.tfg_angular_springboot.monitoring.alert.AlertSeverity;
+import com.magicworld.tfg_angular_springboot.monitoring.alert.AlertType;
+import com.magicworld.tfg_angular_springboot.monitoring.alert.ParkAlert;
+import com.magicworld.tfg_angular_springboot.monitoring.alert.ParkAlertRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.monitoring.retention.MonitoringArchive;
+import com.magicworld.tfg_angular_springboot.monitoring.retention.MonitoringRetentionService;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupRepository;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Epic("Monitorización del Parque")
+@Feature("Retención y Archivo de Eventos")
+public class MonitoringRetentionServiceTests {
+
+    private static final Long PURGED_ATTRACTION = 515151L;
+
+    @TempDir
+    Path archiveDir;
+
+    @Autowired
+    private MonitoringRetentionService retentionService;
+
+    @Autowired
+    private MonitoringArchive archive;
+
+    @Autowired
+    private ParkEventRepository eventRepository;
+
+    @Autowired
+    private ParkAlertRepository alertRepository;
+
+    @Autowired
+    private ParkEventRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(archive, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(retentionService, "chunkSize", 2);
+    }
+
+    @Test
+    @Story("Archivo de Eventos")
+    @Description("Verifica que los eventos fuera de la ventana caliente se archivan y eliminan por lotes")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Eventos antiguos se archivan y eliminan")
+    void testOldEventsAreArchivedAndDeleted() {
+        LocalDateTime old = retentionService.getCutoff().minusDays(3).plusHours(10);
+        List<ParkEvent> oldEvents = List.of(event(old, 10), event(old.plusMinutes(1), 20), event(old.plusMinutes(2), 30));
+        oldEvents.forEach(eventRepository::save);
+        ParkEvent recent = eventRepository.save(event(LocalDateTime.now(), 40));
+
+        Map<String, Object> result = retentionService.archiveExpired();
+
+        assertTrue((long) result.get("eventsArchived") >= 3);
+        oldEvents.forEach(e -> assertFalse(eventRepository.existsById(e.getId())));
+        assertTrue(eventRepository.existsById(recent.getId()));
+
+        List<ParkEvent> archived = new ArrayList<>();
+        retentionService.forEachArchivedEvent(old.minusHours(1), old.plusHours(1), archived::add);
+        assertEquals(3, archived.size());
+        assertEquals(List.of(10, 20, 30), archived.stream().map(ParkEvent::getQueueSize).sorted().toList());
+    }
+
+    @Test
+    @Story("Retención de Alertas")
+    @Description("Verifica que solo las alertas resueltas antiguas se eliminan")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Alertas activas antiguas se conservan")
+    void testOnlyResolvedOldAlertsAreDeleted() {
+        LocalDateTime old = retentionService.getCutoff().minusDays(1);
+        ParkAlert resolved = alertRepository.save(alert(old, false));
+        ParkAlert active = alertRepository.save(alert(old, true));
+
+        Map<String, Object> result = retentionService.archiveExpired();
+
+        assertTrue((long) result.get("alertsDeleted") >= 1);
+        assertFalse(alertRepository.existsById(resolved.getId()));
+        assertTrue(alertRepository.existsById(active.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Story("Borrado de Atracciones")
+    @Description("Verifica que los eventos y agregados de una atracción se eliminan por lotes confirmados")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Purga de atracción por lotes")
+    void testPurgeAttractionDeletesEventsAndRollupsInChunks() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            eventRepository.save(event(PURGED_ATTRACTION, now.minusMinutes(i), i));
+        }
+        ParkEvent kept = eventRepository.save(event(424242L, now, 50));
+        try {
+            long purged = retentionService.purgeAttraction(PURGED_ATTRACTION);
+
+            assertTrue(purged >= 5);
+            assertTrue(eventRepository.findIdsByAttractionId(PURGED_ATTRACTION, PageRequest.of(0, 10)).isEmpty());
+            assertTrue(rollupRepository.findIdsByAttractionId(PURGED_ATTRACTION, PageRequest.of(0, 10)).isEmpty());
+            assertTrue(eventRepository.existsById(kept.getId()));
+        } finally {
+            retentionService.purgeAttraction(424242L);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Story("Borrado de Atracciones")
+    @Description("Verifica que la purga diferida solo se ejecuta si la transacción que la registra se confirma")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Purga de atracción tras el commit")
+    void testDeferredPurgeRunsOnlyAfterCommit() {
+        ParkEvent event = eventRepository.save(event(PURGED_ATTRACTION, LocalDateTime.now(), 10));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                retentionService.purgeAttractionAfterCommit(PURGED_ATTRACTION);
+                status.setRollbackOnly();
+            });
+            assertTrue(eventRepository.existsById(event.getId()));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                retentionService.purgeAttractionAfterCommit(PURGED_ATTRACTION);
+                assertTrue(eventRepository.existsById(event.getId()));
+            });
+            assertFalse(eventRepository.existsById(event.getId()));
+            assertTrue(rollupRepository.findIdsByAttractionId(PURGED_ATTRACTION, PageRequest.of(0, 10)).isEmpty());
+        } finally {
+            retentionService.purgeAttraction(PURGED_ATTRACTION);
+        }
+    }
+
+    private ParkEvent event(LocalDateTime timestamp, int queueSize) {
+        return event(424242L, timestamp, queueSize);
+    }
+
+    private ParkEvent event(Long attractionId, LocalDateTime timestamp, int queueSize) {
+        return ParkEvent.builder()
+                .eventType(ParkEventType.ATTRACTION_QUEUE_JOIN)
+                .attractionId(attractionId)
+                .queueSize(queueSize)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private ParkAlert alert(LocalDateTime timestamp, boolean active) {
+        return ParkAlert.builder()
+                .alertType(AlertType.HIGH_QUEUE)
+                .severity(AlertSeverity.WARNING)
+                .message("Old alert")
+                .timestamp(timestamp)
+                .isActive(active)
+                .build();
+    }
+}
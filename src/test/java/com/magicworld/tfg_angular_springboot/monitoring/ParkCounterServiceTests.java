@@ -0,0 +1,165 @@
+package com.magicworld.tfg_angular_springboot.monitoring;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.monitoring.service.ParkCounterService;
+import com.magicworld.tfg_angular_springboot.purchase.PurchaseCreatedEvent;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Epic("Monitorización del Parque")
+@Feature("Contadores en Memoria del Parque")
+public class ParkCounterServiceTests {
+
+    @Mock
+    private ParkEventRepository eventRepository;
+
+    @Mock
+    private PurchaseLineService purchaseLineService;
+
+    @Mock
+    private ClusterCacheSync clusterCacheSync;
+
+    private ParkCounterService counterService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(eventRepository.countByEventTypeSince(eq(ParkEventType.PARK_ENTRY), any(LocalDateTime.class)))
+                .thenReturn(10L);
+        when(eventRepository.countByEventTypeSince(eq(ParkEventType.PARK_EXIT), any(LocalDateTime.class)))
+                .thenReturn(4L);
+        when(purchaseLineService.getTotalSoldForDate(any(LocalDate.class))).thenReturn(30);
+
+        counterService = new ParkCounterService(eventRepository, purchaseLineService, clusterCacheSync);
+        counterService.reseed();
+    }
+
+    @Test
+    @Story("Inicialización")
+    @Description("Verifica que los contadores se inicializan desde la base de datos")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Contadores sembrados desde BD")
+    void testCountersSeededFromDatabase() {
+        assertEquals(10, counterService.getEntriesToday());
+        assertEquals(4, counterService.getExitsToday());
+        assertEquals(30, counterService.getTicketsSoldToday());
+    }
+
+    @Test
+    @Story("Actualización Incremental")
+    @Description("Verifica que los eventos de hoy incrementan los contadores sin consultar la BD")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Eventos incrementan contadores sin SQL")
+    void testEventsIncrementCountersWithoutQueries() {
+        counterService.recordEvents(List.of(
+                event(ParkEventType.PARK_ENTRY, LocalDateTime.now()),
+                event(ParkEventType.PARK_ENTRY, LocalDateTime.now()),
+                event(ParkEventType.PARK_EXIT, LocalDateTime.now()),
+                event(ParkEventType.ATTRACTION_QUEUE_JOIN, LocalDateTime.now()),
+                event(ParkEventType.PARK_ENTRY, LocalDateTime.now().minusDays(1))));
+
+        assertEquals(12, counterService.getEntriesToday());
+        assertEquals(5, counterService.getExitsToday());
+        verify(eventRepository, times(2)).countByEventTypeSince(any(), any());
+    }
+
+    @Test
+    @Story("Actualización Incremental")
+    @Description("Verifica que solo las líneas de compra para hoy cuentan como tickets vendidos hoy")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Compras actualizan tickets vendidos de hoy")
+    void testPurchaseUpdatesTicketsSoldToday() {
+        counterService.onPurchaseCreated(new PurchaseCreatedEvent(1L, List.of(
+                line(LocalDate.now(), 3),
+                line(LocalDate.now().plusDays(5), 7))));
+
+        assertEquals(33, counterService.getTicketsSoldToday());
+    }
+
+    @Test
+    @Story("Actualización Incremental")
+    @Description("Verifica que borrar líneas de compra de hoy descuenta los tickets vendidos y lo publica a los demás nodos")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Líneas borradas descuentan tickets vendidos de hoy")
+    void testReturnedLinesDecrementTicketsSoldToday() {
+        counterService.returnSold(List.of(
+                line(LocalDate.now(), 3),
+                line(LocalDate.now().plusDays(5), 7)));
+
+        assertEquals(27, counterService.getTicketsSoldToday());
+        verify(clusterCacheSync).publish("park-counters", LocalDate.now() + "|0|0|-3");
+    }
+
+    @Test
+    @Story("Inicialización")
+    @Description("Verifica que hilos concurrentes que inicializan el día comparten los mismos contadores")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Inicialización concurrente no pierde incrementos")
+    void testConcurrentSeedKeepsEveryIncrement() throws Exception {
+        when(eventRepository.countByEventTypeSince(eq(ParkEventType.PARK_ENTRY), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(20);
+                    return 10L;
+                });
+        ParkCounterService fresh = new ParkCounterService(eventRepository, purchaseLineService, clusterCacheSync);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    fresh.recordEvents(List.of(event(ParkEventType.PARK_ENTRY, LocalDateTime.now())));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10 + threads, fresh.getEntriesToday());
+    }
+
+    private ParkEvent event(ParkEventType type, LocalDateTime timestamp) {
+        return ParkEvent.builder().eventType(type).timestamp(timestamp).build();
+    }
+
+    private PurchaseLine line(LocalDate validDate, int quantity) {
+        return PurchaseLine.builder()
+                .validDate(validDate)
+                .quantity(quantity)
+                .totalCost(BigDecimal.TEN)
+                .ticketTypeName("ADULT")
+                .build();
+    }
+}
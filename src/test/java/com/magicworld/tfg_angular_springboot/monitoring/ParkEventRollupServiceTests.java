@@ -0,0 +1,161 @@
+package com.magicworld.tfg_angular_springboot.monitoring;
+
+import com.magicworld.tfg_angular_springboot.exceptions.BadRequestException;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventJdbcRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollup;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.ParkEventRollupService;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.RollupBackfillState;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.RollupBackfillStateRepository;
+import com.magicworld.tfg_angular_springboot.monitoring.rollup.RollupGranularity;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Epic("Monitorización del Parque")
+@Feature("Agregados Temporales de Eventos")
+public class ParkEventRollupServiceTests {
+
+    private static final long ATTRACTION_ID = 987654L;
+
+    @Autowired
+    private ParkEventRollupService rollupService;
+
+    @Autowired
+    private ParkEventRollupRepository rollupRepository;
+
+    @Autowired
+    private ParkEventRepository eventRepository;
+
+    @Autowired
+    private ParkEventJdbcRepository eventJdbcRepository;
+
+    @Autowired
+    private RollupBackfillStateRepository backfillStateRepository;
+
+    @Test
+    @Story("Actualización Incremental")
+    @Description("Verifica que guardar eventos por JPA actualiza los agregados por minuto y por hora")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Eventos JPA actualizan rollups")
+    void testJpaEventsUpdateRollups() {
+        LocalDateTime now = LocalDateTime.now();
+        eventRepository.save(queueJoin(now, 40));
+        eventRepository.save(queueJoin(now, 70));
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            ParkEventRollup rollup = single(granularity);
+            assertEquals(granularity.bucketOf(now), rollup.getBucketStart());
+            assertEquals(2, rollup.getEventCount());
+            assertEquals(70, rollup.getMaxQueue());
+            assertEquals(110, rollup.getQueueSum());
+            assertEquals(2, rollup.getQueueSamples());
+        }
+    }
+
+    @Test
+    @Story("Actualización Incremental")
+    @Description("Verifica que los lotes se agregan en memoria y se suman a los agregados existentes")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Lotes suman a rollups existentes")
+    void testBatchesAddToExistingRollups() {
+        LocalDateTime now = LocalDateTime.now();
+        rollupService.apply(List.of(queueJoin(now, 10), queueJoin(now, 30)));
+        rollupService.apply(List.of(queueJoin(now, 20)));
+
+        ParkEventRollup hour = single(RollupGranularity.HOUR);
+        assertEquals(3, hour.getEventCount());
+        assertEquals(30, hour.getMaxQueue());
+        assertEquals(60, hour.getQueueSum());
+    }
+
+    @Test
+    @Story("Backfill")
+    @Description("Verifica que la reconstrucción recalcula horas pasadas desde los eventos en bruto")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Reconstrucción desde eventos en bruto")
+    void testRebuildRecomputesPastHours() {
+        LocalDateTime twoHoursAgo = LocalDateTime.now().minusHours(2).truncatedTo(ChronoUnit.HOURS).plusMinutes(5);
+        eventJdbcRepository.batchInsert(List.of(queueJoin(twoHoursAgo, 15), queueJoin(twoHoursAgo, 25)), 10);
+        assertTrue(rollupRepository.findByGranularityAndAttractionIdAndEventType(
+                RollupGranularity.HOUR, ATTRACTION_ID, ParkEventType.ATTRACTION_QUEUE_JOIN).isEmpty());
+
+        long aggregated = rollupService.rebuild(twoHoursAgo.minusHours(1), LocalDateTime.now());
+
+        assertTrue(aggregated >= 2);
+        ParkEventRollup hour = single(RollupGranularity.HOUR);
+        assertEquals(2, hour.getEventCount());
+        assertEquals(25, hour.getMaxQueue());
+    }
+
+    @Test
+    @Story("Backfill")
+    @Description("Verifica que reconstruir un rango sin horas completas pasadas es rechazado")
+    @Severity(SeverityLevel.MINOR)
+    @DisplayName("Rango de reconstrucción inválido")
+    void testRebuildRejectsOpenHour() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(BadRequestException.class, () -> rollupService.rebuild(now, now.plusHours(2)));
+    }
+
+    @Test
+    @Story("Backfill")
+    @Description("Verifica que el backfill de arranque continúa desde la marca persistida y no vuelve a sumar eventos")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Backfill reanuda desde la marca de agua")
+    void testBackfillResumesFromWatermark() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime covered = currentHour.minusHours(3);
+        eventJdbcRepository.batchInsert(List.of(
+                queueJoin(covered.minusHours(2), 90),
+                queueJoin(currentHour.minusHours(2).plusMinutes(5), 15),
+                queueJoin(currentHour.minusHours(2).plusMinutes(10), 25)), 10);
+        backfillStateRepository.save(RollupBackfillState.builder()
+                .id(RollupBackfillState.CURRENT)
+                .backfillUntil(currentHour)
+                .coveredUntil(covered)
+                .build());
+
+        assertTrue(rollupService.resumeBackfill() >= 2);
+        assertEquals(0, rollupService.resumeBackfill());
+
+        ParkEventRollup hour = single(RollupGranularity.HOUR);
+        assertEquals(currentHour.minusHours(2), hour.getBucketStart());
+        assertEquals(2, hour.getEventCount());
+        assertEquals(25, hour.getMaxQueue());
+        assertEquals(currentHour, backfillStateRepository.findById(RollupBackfillState.CURRENT)
+                .orElseThrow().getCoveredUntil());
+    }
+
+    private ParkEventRollup single(RollupGranularity granularity) {
+        List<ParkEventRollup> rollups = rollupRepository.findByGranularityAndAttractionIdAndEventType(
+                granularity, ATTRACTION_ID, ParkEventType.ATTRACTION_QUEUE_JOIN);
+        assertEquals(1, rollups.size());
+        return rollups.get(0);
+    }
+
+    private ParkEvent queueJoin(LocalDateTime timestamp, int queueSize) {
+        return ParkEvent.builder()
+                .eventType(ParkEventType.ATTRACTION_QUEUE_JOIN)
+                .attractionId(ATTRACTION_ID)
+                .queueSize(queueSize)
+                .timestamp(timestamp)
+                .build();
+    }
+}
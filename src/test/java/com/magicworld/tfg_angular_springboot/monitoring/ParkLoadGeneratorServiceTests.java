@@ -0,0 +1,142 @@
+package com.magicworld.tfg_angular_springboot.monitoring;
+
+import com.magicworld.tfg_angular_springboot.attraction.Attraction;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionCatalog;
+import com.magicworld.tfg_angular_springboot.attraction.AttractionView;
+import com.magicworld.tfg_angular_springboot.attraction.Intensity;
+import com.magicworld.tfg_angular_springboot.exceptions.BadRequestException;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.LoadGenerationReport;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.LoadGenerationRequest;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEvent;
+import com.magicworld.tfg_angular_springboot.monitoring.event.ParkEventType;
+import com.magicworld.tfg_angular_springboot.monitoring.service.EventWriteBehindService;
+import com.magicworld.tfg_angular_springboot.monitoring.simulator.ParkLoadGeneratorService;
+import com.magicworld.tfg_angular_springboot.util.LatencyHistogram;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Epic("Monitorización del Parque")
+@Feature("Generador de Carga")
+public class ParkLoadGeneratorServiceTests {
+
+    @Mock
+    private EventWriteBehindService writeBehindService;
+
+    @Mock
+    private AttractionCatalog attractionCatalog;
+
+    private ParkLoadGeneratorService loadGeneratorService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(attractionCatalog.getActive()).thenReturn(List.of(
+                view(3L, Intensity.LOW), view(1L, Intensity.HIGH), view(2L, Intensity.MEDIUM)));
+        when(writeBehindService.getStats()).thenReturn(Map.of("eventsWritten", 0L));
+        when(writeBehindService.drainCommitLatency()).thenAnswer(invocation -> new LatencyHistogram());
+
+        loadGeneratorService = new ParkLoadGeneratorService(writeBehindService, attractionCatalog);
+        ReflectionTestUtils.setField(loadGeneratorService, "enabled", true);
+    }
+
+    @Test
+    @Story("Reproducibilidad")
+    @Description("Verifica que la misma semilla genera la misma secuencia de eventos")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Misma semilla produce la misma huella")
+    void testSameSeedIsReproducible() {
+        LoadGenerationReport first = loadGeneratorService.run(request(7L));
+        LoadGenerationReport second = loadGeneratorService.run(request(7L));
+
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+        assertEquals(first.getEventsByType(), second.getEventsByType());
+    }
+
+    @Test
+    @Story("Reproducibilidad")
+    @Description("Verifica que semillas distintas generan secuencias distintas")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Semillas distintas producen huellas distintas")
+    void testDifferentSeedsDiffer() {
+        LoadGenerationReport first = loadGeneratorService.run(request(7L));
+        LoadGenerationReport second = loadGeneratorService.run(request(8L));
+
+        assertNotEquals(first.getFingerprint(), second.getFingerprint());
+    }
+
+    @Test
+    @Story("Ritmo Objetivo")
+    @Description("Verifica que se generan exactamente los eventos pedidos y se reporta la latencia")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Eventos generados e histogramas")
+    void testGeneratesTargetEventsWithLatencyReport() {
+        LatencyHistogram committed = new LatencyHistogram();
+        doAnswer(invocation -> {
+            ParkEvent event = invocation.getArgument(0);
+            synchronized (committed) {
+                if (event.getCreatedNanos() != 0) {
+                    committed.record(System.nanoTime() - event.getCreatedNanos());
+                }
+            }
+            return null;
+        }).when(writeBehindService).enqueue(any(ParkEvent.class));
+        when(writeBehindService.drainCommitLatency()).thenReturn(new LatencyHistogram(), committed);
+
+        LoadGenerationReport report = loadGeneratorService.run(request(7L));
+
+        assertEquals(2_000, report.getEventsGenerated());
+        verify(writeBehindService, times(2_000)).enqueue(any(ParkEvent.class));
+        verify(writeBehindService).flush();
+        assertEquals(2_000L, report.getEnqueueLatency().get("count"));
+        assertEquals(2_000L, report.getEndToEndLatency().get("count"));
+        assertTrue(report.getEventsByType().get(ParkEventType.PARK_ENTRY) > 0);
+        assertTrue(report.getEventsByType().containsKey(ParkEventType.ATTRACTION_QUEUE_JOIN));
+        assertEquals(report, loadGeneratorService.getStatus().get("lastReport"));
+    }
+
+    @Test
+    @Story("Protección")
+    @Description("Verifica que el generador rechaza ejecuciones cuando está desactivado")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Generador desactivado lanza excepción")
+    void testDisabledGeneratorRejectsRuns() {
+        ReflectionTestUtils.setField(loadGeneratorService, "enabled", false);
+
+        assertThrows(BadRequestException.class, () -> loadGeneratorService.run(request(7L)));
+        verify(writeBehindService, never()).enqueue(any());
+    }
+
+    private LoadGenerationRequest request(long seed) {
+        LoadGenerationRequest request = new LoadGenerationRequest();
+        request.setSeed(seed);
+        request.setVisitors(500);
+        request.setWorkers(4);
+        request.setTargetEventsPerSecond(2_000);
+        request.setDurationSeconds(1);
+        return request;
+    }
+
+    private AttractionView view(Long id, Intensity intensity) {
+        Attraction attraction = Attraction.builder()
+                .name("Load " + id)
+                .intensity(intensity)
+                .isActive(true)
+                .mapPositionX(0.0)
+                .mapPositionY(0.0)
+                .build();
+        attraction.setId(id);
+        return new AttractionView(attraction);
+    }
+}
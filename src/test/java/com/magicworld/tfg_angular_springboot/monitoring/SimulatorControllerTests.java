@@ -8,6 +8,8 @@ import com.magicworld.tfg_angular_springboot.monitoring.controller.SimulatorCont
 import com.magicworld.tfg_angular_springboot.monitoring.dto.DashboardSnapshot;
 import com.magicworld.tfg_angular_springboot.monitoring.service.DashboardService;
 import com.magicworld.tfg_angular_springboot.monitoring.service.MonitoringWebSocketService;
+import com.magicworld.tfg_angular_springboot.monitoring.dto.LoadGenerationRequest;
+import com.magicworld.tfg_angular_springboot.monitoring.simulator.ParkLoadGeneratorService;
 import com.magicworld.tfg_angular_springboot.monitoring.simulator.ParkSimulatorService;
 import io.qameta.allure.*;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +20,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -51,6 +54,9 @@ public class SimulatorControllerTests {
     @Autowired
     private ParkSimulatorService simulatorService;
 
+    @Autowired
+    private ParkLoadGeneratorService loadGeneratorService;
+
     @Autowired
     private DashboardService dashboardService;
 
@@ -121,11 +127,42 @@ public class SimulatorControllerTests {
         verify(webSocketService).broadcastDashboard(any(DashboardSnapshot.class));
     }
 
+    @Test
+    @Story("Generación de Carga")
+    @Description("Verifica que lanzar una generación de carga retorna 202 Accepted")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("POST /load retorna 202 Accepted")
+    void testStartLoadReturnsAccepted() throws Exception {
+        when(loadGeneratorService.getStatus()).thenReturn(Map.of(FIELD_RUNNING, true, "enabled", true));
+
+        mockMvc.perform(post(API_BASE + "/load")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"seed\":7,\"visitors\":1000,\"workers\":2,\"targetEventsPerSecond\":500,\"durationSeconds\":5}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$." + FIELD_RUNNING).value(true));
+
+        verify(loadGeneratorService).start(any(LoadGenerationRequest.class));
+    }
+
+    @Test
+    @Story("Generación de Carga")
+    @Description("Verifica que una solicitud de carga fuera de rango se rechaza")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("POST /load con visitantes fuera de rango retorna 400")
+    void testStartLoadRejectsTooManyVisitors() throws Exception {
+        mockMvc.perform(post(API_BASE + "/load")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"visitors\":500000}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @TestConfiguration
     static class Config {
         @Bean
         public ParkSimulatorService parkSimulatorService() { return Mockito.mock(ParkSimulatorService.class); }
         @Bean
+        public ParkLoadGeneratorService parkLoadGeneratorService() { return Mockito.mock(ParkLoadGeneratorService.class); }
+        @Bean
         public DashboardService dashboardService() { return Mockito.mock(DashboardService.class); }
         @Bean
         public MonitoringWebSocketService monitoringWebSocketService() { return Mockito.mock(MonitoringWebSocketService.class); }
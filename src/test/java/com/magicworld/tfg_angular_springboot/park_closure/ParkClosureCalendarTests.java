@@ -0,0 +1,121 @@
+package com.magicworld.tfg_angular_springboot.park_closure;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Epic("Cierre del Parque")
+@Feature("Calendario de Cierres")
+public class ParkClosureCalendarTests {
+
+    private static final LocalDate CLOSED = LocalDate.of(2026, 12, 25);
+
+    @Mock
+    private ParkClosureDayRepository repository;
+
+    private ParkClosureCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.findAllClosureDates()).thenReturn(List.of(CLOSED, CLOSED.plusDays(7)));
+
+        calendar = new ParkClosureCalendar(repository, mock(ClusterCacheSync.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(calendar);
+    }
+
+    @Test
+    @Story("Consultas")
+    @Description("Verifica que los días y rangos de cierre se responden en memoria tras una única carga")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Cierres servidos desde el calendario")
+    void testLookupsLoadOnce() {
+        assertTrue(calendar.isClosed(CLOSED));
+        assertFalse(calendar.isClosed(CLOSED.plusDays(1)));
+        assertEquals(List.of(CLOSED, CLOSED.plusDays(7)), calendar.closedDates(CLOSED.minusDays(3), CLOSED.plusDays(30)));
+        assertEquals(List.of(CLOSED), calendar.closedDates(CLOSED, CLOSED.plusDays(6)));
+        verify(repository, times(1)).findAllClosureDates();
+    }
+
+    @Test
+    @Story("Actualización")
+    @Description("Verifica que un cierre confirmado se aplica en sitio y la transacción que lo escribe consulta la base de datos")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Cierre confirmado actualiza el calendario")
+    void testCommittedClosureUpdatesInPlace() {
+        LocalDate added = CLOSED.plusDays(1);
+        calendar.isClosed(CLOSED);
+        TransactionSynchronizationManager.initSynchronization();
+
+        calendar.onClosed(added);
+        calendar.onReopened(CLOSED);
+        assertNull(calendar.isClosed(added));
+
+        complete(true);
+        assertTrue(calendar.isClosed(added));
+        assertFalse(calendar.isClosed(CLOSED));
+        verify(repository, times(1)).findAllClosureDates();
+    }
+
+    @Test
+    @Story("Actualización")
+    @Description("Verifica que un cierre revertido no modifica el calendario")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Cierre revertido se descarta")
+    void testRolledBackClosureIsIgnored() {
+        calendar.isClosed(CLOSED);
+        TransactionSynchronizationManager.initSynchronization();
+
+        calendar.onClosed(CLOSED.plusDays(1));
+        complete(false);
+
+        assertFalse(calendar.isClosed(CLOSED.plusDays(1)));
+    }
+
+    @Test
+    @Story("Consistencia")
+    @Description("Verifica que la comprobación periódica detecta y corrige cierres escritos fuera de JPA")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Comprobación de consistencia recarga el calendario")
+    void testConsistencyCheckRepairsDrift() {
+        calendar.isClosed(CLOSED);
+        assertTrue(calendar.verifyConsistency());
+
+        when(repository.findAllClosureDates()).thenReturn(List.of(CLOSED.plusDays(2)));
+
+        assertFalse(calendar.verifyConsistency());
+        assertFalse(calendar.isClosed(CLOSED));
+        assertTrue(calendar.isClosed(CLOSED.plusDays(2)));
+    }
+
+    private void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (committed) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        int status = committed ? TransactionSynchronization.STATUS_COMMITTED
+                : TransactionSynchronization.STATUS_ROLLED_BACK;
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+}
@@ -0,0 +1,113 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Epic("Pasarela de Pago")
+@Feature("Trazas de Checkout")
+public class CheckoutTracerTests {
+
+    private CheckoutTracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        tracer = new CheckoutTracer();
+    }
+
+    @Test
+    @Story("Histogramas")
+    @Description("Verifica que cada etapa ejecutada se registra una vez por checkout y las no ejecutadas quedan vacías")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Etapas registradas por checkout")
+    @SuppressWarnings("unchecked")
+    void testStagesAreRecordedPerCheckout() {
+        CheckoutTracer.Trace trace = tracer.start();
+        trace.run(CheckoutStage.VALIDATE_PURCHASE, () -> { });
+        String price = trace.time(CheckoutStage.CALCULATE_PRICE, () -> "42.00");
+        trace.setOutcome(CheckoutTracer.Outcome.COMPLETED);
+        tracer.finish(trace);
+
+        Map<String, Object> stats = tracer.getStats();
+        Map<String, Map<String, Object>> stages = (Map<String, Map<String, Object>>) stats.get("stages");
+        Map<String, Map<String, Object>> checkouts = (Map<String, Map<String, Object>>) stats.get("checkouts");
+        assertEquals("42.00", price);
+        assertEquals(1L, stages.get("validate_purchase").get("count"));
+        assertEquals(1L, stages.get("calculate_price").get("count"));
+        assertEquals(0L, stages.get("stripe_charge").get("count"));
+        assertEquals(1L, checkouts.get("completed").get("count"));
+        assertEquals(0L, checkouts.get("error").get("count"));
+    }
+
+    @Test
+    @Story("Histogramas")
+    @Description("Verifica que una etapa que lanza excepción se cronometra y el checkout cuenta como error")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Etapa fallida se registra como error")
+    @SuppressWarnings("unchecked")
+    void testFailedStageIsTimed() {
+        CheckoutTracer.Trace trace = tracer.start();
+        assertThrows(IllegalStateException.class, () -> trace.run(CheckoutStage.STRIPE_CHARGE, () -> {
+            throw new IllegalStateException("timeout");
+        }));
+        tracer.finish(trace);
+
+        Map<String, Object> stats = tracer.getStats();
+        Map<String, Map<String, Object>> stages = (Map<String, Map<String, Object>>) stats.get("stages");
+        Map<String, Map<String, Object>> checkouts = (Map<String, Map<String, Object>>) stats.get("checkouts");
+        assertEquals(1L, stages.get("stripe_charge").get("count"));
+        assertEquals(1L, checkouts.get("error").get("count"));
+    }
+
+    @Test
+    @Story("Checkouts Lentos")
+    @Description("Verifica que los checkouts lentos se conservan con su desglose en un anillo acotado, el más reciente primero")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Anillo de checkouts lentos acotado")
+    @SuppressWarnings("unchecked")
+    void testSlowCheckoutsAreKeptInBoundedRing() {
+        ReflectionTestUtils.setField(tracer, "slowThresholdMs", 0L);
+        ReflectionTestUtils.setField(tracer, "slowSamples", 2);
+
+        for (String key : List.of("slow-1", "slow-2", "slow-3")) {
+            CheckoutTracer.Trace trace = tracer.start();
+            trace.setCheckoutKey(key);
+            trace.run(CheckoutStage.CREATE_PURCHASE, () -> { });
+            tracer.finish(trace);
+        }
+
+        Map<String, Object> stats = tracer.getStats();
+        List<CheckoutTracer.SlowCheckout> slow = (List<CheckoutTracer.SlowCheckout>) stats.get("slowCheckouts");
+        assertEquals(3L, stats.get("slowCount"));
+        assertEquals(List.of("slow-3", "slow-2"), slow.stream().map(CheckoutTracer.SlowCheckout::checkoutKey).toList());
+        assertEquals(Map.of("create_purchase", slow.getFirst().stagesMs().get("create_purchase")), slow.getFirst().stagesMs());
+    }
+
+    @Test
+    @Story("Exportación")
+    @Description("Verifica que el texto Prometheus incluye cuantiles, suma y recuento por etapa")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Exportación en formato Prometheus")
+    void testPrometheusText() {
+        CheckoutTracer.Trace trace = tracer.start();
+        trace.run(CheckoutStage.FULFILMENT_ENQUEUE, () -> { });
+        trace.setOutcome(CheckoutTracer.Outcome.DECLINED);
+        tracer.finish(trace);
+
+        String text = tracer.toPrometheus();
+
+        assertTrue(text.contains("# TYPE magicworld_checkout_stage_seconds summary\n"));
+        assertTrue(text.contains("magicworld_checkout_stage_seconds{stage=\"fulfilment_enqueue\",quantile=\"0.99\"} "));
+        assertTrue(text.contains("magicworld_checkout_stage_seconds_count{stage=\"fulfilment_enqueue\"} 1\n"));
+        assertTrue(text.contains("magicworld_checkout_stage_seconds_count{stage=\"stripe_charge\"} 0\n"));
+        assertTrue(text.contains("magicworld_checkout_seconds_count{outcome=\"declined\"} 1\n"));
+        assertTrue(text.contains("magicworld_checkout_slow_total 0\n"));
+    }
+}
@@ -0,0 +1,346 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import com.magicworld.tfg_angular_springboot.email.EmailService;
+import com.magicworld.tfg_angular_springboot.exceptions.InvalidOperationException;
+import com.magicworld.tfg_angular_springboot.fulfilment.FulfilmentTaskRepository;
+import com.magicworld.tfg_angular_springboot.purchase.PurchaseRepository;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineRepository;
+import com.magicworld.tfg_angular_springboot.reservation.CapacityCounterRepository;
+import com.magicworld.tfg_angular_springboot.reservation.HoldStatus;
+import com.magicworld.tfg_angular_springboot.reservation.TicketHoldRepository;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeRepository;
+import com.magicworld.tfg_angular_springboot.user.Role;
+import com.magicworld.tfg_angular_springboot.user.User;
+import com.magicworld.tfg_angular_springboot.user.UserRepository;
+import com.stripe.Stripe;
+import com.stripe.exception.CardException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the staged checkout against a local Stripe stub. Not {@code @Transactional}: each stage
+ * commits on its own, so the tests clean up after themselves.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Epic("Pasarela de Pago")
+@Feature("Checkout por Etapas")
+public class PaymentCheckoutServiceTests {
+
+    private static final String TYPE = "CHECKOUT_STAGE";
+    private static final String EMAIL = "checkout.stage@magicworld.com";
+    private static final LocalDate VISIT_DATE = LocalDate.now().plusDays(12);
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentCheckoutService checkoutService;
+
+    @Autowired
+    private PaymentCheckoutRepository checkoutRepository;
+
+    @Autowired
+    private FulfilmentTaskRepository fulfilmentRepository;
+
+    @Autowired
+    private CapacityCounterRepository counterRepository;
+
+    @Autowired
+    private TicketHoldRepository holdRepository;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private PurchaseLineRepository purchaseLineRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private HttpServer stripeStub;
+    private final Queue<String> stripeIdempotencyKeys = new ConcurrentLinkedQueue<>();
+    private final Queue<String> refundIdempotencyKeys = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Runnable> duringCharge = new AtomicReference<>(() -> { });
+    private final AtomicReference<String> createResponse = new AtomicReference<>();
+    private final AtomicReference<String> searchResponse = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        createResponse.set(intent("succeeded"));
+        searchResponse.set(searchResult());
+        stripeStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stripeStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stripeStub.createContext("/v1/payment_intents", exchange -> {
+            stripeIdempotencyKeys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            duringCharge.get().run();
+            String body = createResponse.get();
+            respond(exchange, body.contains("idempotency_error") ? 409 : body.contains("\"error\"") ? 402 : 200, body);
+        });
+        stripeStub.createContext("/v1/payment_intents/search", exchange -> respond(exchange, 200, searchResponse.get()));
+        stripeStub.createContext("/v1/refunds", exchange -> {
+            refundIdempotencyKeys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            respond(exchange, 200, "{\"id\":\"re_stage\",\"object\":\"refund\",\"status\":\"succeeded\"}");
+        });
+        stripeStub.start();
+        Stripe.overrideApiBase("http://localhost:" + stripeStub.getAddress().getPort());
+
+        ticketTypeRepository.save(TicketType.builder()
+                .typeName(TYPE)
+                .description("Staged checkout ticket")
+                .cost(new BigDecimal("40.00"))
+                .maxPerDay(10)
+                .photoUrl("https://example.com/stage.jpg")
+                .build());
+        userRepository.save(User.builder()
+                .username("checkout_stage")
+                .firstname("Stage")
+                .lastname("Buyer")
+                .email(EMAIL)
+                .userRole(Role.USER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        Stripe.overrideApiBase(Stripe.LIVE_API_BASE);
+        stripeStub.stop(0);
+        fulfilmentRepository.deleteAll();
+        checkoutRepository.deleteAll();
+        holdRepository.deleteAll();
+        counterRepository.deleteAll();
+        purchaseLineRepository.deleteAll();
+        purchaseRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        ticketTypeRepository.findAll().stream()
+                .filter(t -> TYPE.equals(t.getTypeName()))
+                .forEach(ticketTypeRepository::delete);
+    }
+
+    @Test
+    @Story("Idempotencia")
+    @Description("Verifica que repetir un checkout con la misma clave devuelve la compra original sin volver a cobrar")
+    @Severity(SeverityLevel.BLOCKER)
+    @DisplayName("Checkout repetido no cobra dos veces")
+    void testRetriedCheckoutReturnsOriginalPurchase() throws Exception {
+        PaymentResponse first = paymentService.processPayment(request("retry-1", 2), "es");
+        PaymentResponse second = paymentService.processPayment(request("retry-1", 2), "es");
+
+        assertTrue(first.isSuccess());
+        assertTrue(second.isSuccess());
+        assertEquals(first.getPurchaseId(), second.getPurchaseId());
+        assertEquals(List.of("checkout-retry-1"), List.copyOf(stripeIdempotencyKeys));
+        assertEquals(1, purchaseRepository.count());
+        assertEquals(8, remaining());
+        assertEquals(CheckoutStatus.COMPLETED, checkoutRepository.findByIdempotencyKey("retry-1").orElseThrow().getStatus());
+        assertEquals(1, fulfilmentRepository.count());
+        verify(emailService, timeout(5000)).sendRenderedHtmlEmailWithQr(eq(EMAIL), anyString(), anyString(),
+                any(byte[].class));
+    }
+
+    @Test
+    @Story("Idempotencia")
+    @Description("Verifica que reutilizar la clave de un checkout para otra compra se rechaza sin cobrar")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Clave reutilizada para otra compra rechazada")
+    void testReusedKeyForDifferentRequestIsRejected() throws Exception {
+        assertTrue(paymentService.processPayment(request("reuse-1", 2), "es").isSuccess());
+        PaymentRequest retry = request("reuse-1", 2);
+        retry.setStripePaymentMethodId("pm_card_mastercard");
+        assertTrue(paymentService.processPayment(retry, "es").isSuccess());
+
+        InvalidOperationException ex = assertThrows(InvalidOperationException.class,
+                () -> paymentService.processPayment(request("reuse-1", 3), "es"));
+
+        assertEquals("error.payment.idempotency_key.reused", ex.getCode());
+        assertEquals(List.of("checkout-reuse-1"), List.copyOf(stripeIdempotencyKeys));
+        assertEquals(1, purchaseRepository.count());
+        assertEquals(8, remaining());
+        verify(emailService, timeout(5000)).sendRenderedHtmlEmailWithQr(eq(EMAIL), anyString(), anyString(),
+                any(byte[].class));
+    }
+
+    @Test
+    @Story("Cobro")
+    @Description("Verifica que un cobro rechazado marca el checkout como fallido y libera la capacidad")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Cobro rechazado libera la reserva")
+    void testDeclinedChargeReleasesHold() {
+        createResponse.set("{\"error\":{\"type\":\"card_error\",\"code\":\"card_declined\",\"message\":\"Declined\"}}");
+
+        assertThrows(CardException.class, () -> paymentService.processPayment(request("declined-1", 3), "es"));
+
+        assertEquals(CheckoutStatus.FAILED, checkoutRepository.findByIdempotencyKey("declined-1").orElseThrow().getStatus());
+        assertEquals(10, remaining());
+        assertEquals(0, holdRepository.countByStatus(HoldStatus.HELD));
+        assertEquals(0, purchaseRepository.count());
+    }
+
+    @Test
+    @Story("Cobro")
+    @Description("Verifica que un cobro confirmado después de que la conciliación diera el checkout por fallido se reembolsa")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Cobro tardío sobre checkout fallido se reembolsa")
+    void testLateChargeOnFailedCheckoutIsRefunded() throws Exception {
+        duringCharge.set(() -> checkoutService.fail(
+                checkoutRepository.findByIdempotencyKey("late-1").orElseThrow(), CheckoutStatus.FAILED));
+
+        PaymentResponse response = paymentService.processPayment(request("late-1", 3), "es");
+
+        assertFalse(response.isSuccess());
+        assertEquals(CheckoutStatus.REFUNDED, checkoutRepository.findByIdempotencyKey("late-1").orElseThrow().getStatus());
+        assertEquals(List.of("refund-late-1"), List.copyOf(refundIdempotencyKeys));
+        assertEquals(10, remaining());
+        assertEquals(0, purchaseRepository.count());
+    }
+
+    @Test
+    @Story("Conciliación")
+    @Description("Verifica que un checkout pendiente con cobro confirmado en Stripe se registra como compra")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Conciliación registra cobros confirmados")
+    void testRecoveryCompletesSucceededCharge() {
+        PaymentCheckout checkout = pendingCheckout("lost-1", 4);
+
+        paymentService.reconcilePendingCheckouts();
+
+        PaymentCheckout reconciled = checkoutRepository.findById(checkout.getId()).orElseThrow();
+        assertEquals(CheckoutStatus.COMPLETED, reconciled.getStatus());
+        assertNotNull(reconciled.getPurchaseId());
+        assertEquals(4, purchaseLineRepository.sumQuantityByTicketTypeNameAndValidDate(TYPE, VISIT_DATE));
+        assertEquals(6, remaining());
+        assertEquals(List.of("checkout-lost-1"), List.copyOf(stripeIdempotencyKeys),
+                "La conciliación repite el cobro con la clave original");
+        verify(emailService, timeout(5000)).sendRenderedHtmlEmailWithQr(eq(EMAIL), anyString(), anyString(),
+                any(byte[].class));
+    }
+
+    @Test
+    @Story("Conciliación")
+    @Description("Verifica que un checkout pendiente sin cobro en Stripe se marca como fallido y libera la capacidad")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Conciliación libera checkouts sin cobro")
+    void testRecoveryFailsCheckoutWithoutCharge() {
+        PaymentCheckout checkout = pendingCheckout("lost-2", 5);
+        createResponse.set("{\"error\":{\"type\":\"card_error\",\"code\":\"card_declined\",\"message\":\"Declined\"}}");
+
+        paymentService.reconcilePendingCheckouts();
+
+        assertEquals(CheckoutStatus.FAILED, checkoutRepository.findById(checkout.getId()).orElseThrow().getStatus());
+        assertEquals(10, remaining());
+        assertEquals(0, purchaseRepository.count());
+    }
+
+    @Test
+    @Story("Conciliación")
+    @Description("Verifica que un checkout cuyo cobro original sigue en curso en Stripe queda pendiente")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Conciliación espera cobros en curso")
+    void testRecoveryKeepsCheckoutWithChargeInFlight() {
+        PaymentCheckout checkout = pendingCheckout("lost-3", 2);
+        createResponse.set("{\"error\":{\"type\":\"idempotency_error\",\"message\":\"Request in progress\"}}");
+
+        paymentService.reconcilePendingCheckouts();
+
+        assertEquals(CheckoutStatus.PENDING, checkoutRepository.findById(checkout.getId()).orElseThrow().getStatus());
+        assertEquals(8, remaining());
+    }
+
+    @Test
+    @Story("Conciliación")
+    @Description("Verifica que un checkout abandonado sin intento en Stripe se marca como fallido sin volver a cobrar")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Conciliación libera checkouts abandonados")
+    void testRecoveryFailsAbandonedCheckoutWithoutIntent() {
+        PaymentCheckout checkout = pendingCheckout("lost-4", 3);
+        checkout.setCreatedAt(LocalDateTime.now().minusDays(2));
+        checkoutRepository.save(checkout);
+
+        paymentService.reconcilePendingCheckouts();
+
+        assertEquals(CheckoutStatus.FAILED, checkoutRepository.findById(checkout.getId()).orElseThrow().getStatus());
+        assertTrue(stripeIdempotencyKeys.isEmpty(), "Un checkout abandonado nunca vuelve a cobrarse");
+        assertEquals(10, remaining());
+    }
+
+    private PaymentCheckout pendingCheckout(String key, int quantity) {
+        PaymentRequest request = request(key, quantity);
+        PriceCalculationResponse priceCalc = paymentService.calculatePrice(request.getItems(), null, VISIT_DATE);
+        PaymentCheckout checkout = checkoutService.reserve(key, request, "es", priceCalc);
+        checkout.setCreatedAt(LocalDateTime.now().minusMinutes(10));
+        return checkoutRepository.save(checkout);
+    }
+
+    private int remaining() {
+        return counterRepository.findByValidDateAndScope(VISIT_DATE, TYPE).orElseThrow().getRemaining();
+    }
+
+    private static PaymentRequest request(String key, int quantity) {
+        return PaymentRequest.builder()
+                .visitDate(VISIT_DATE)
+                .items(List.of(PaymentRequest.PaymentLineItem.builder()
+                        .ticketTypeName(TYPE)
+                        .quantity(quantity)
+                        .build()))
+                .email(EMAIL)
+                .firstName("Stage")
+                .lastName("Buyer")
+                .stripePaymentMethodId("pm_card_visa")
+                .idempotencyKey(key)
+                .build();
+    }
+
+    private static String intent(String status) {
+        return "{\"id\":\"pi_stage\",\"object\":\"payment_intent\",\"status\":\"" + status + "\"}";
+    }
+
+    private static String searchResult(String... intents) {
+        return "{\"object\":\"search_result\",\"url\":\"/v1/payment_intents/search\",\"has_more\":false,\"data\":["
+                + String.join(",", intents) + "]}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -189,5 +190,61 @@ public class PaymentControllerTests {
                 .andExpect(jsonPath("$[0].typeName").exists())
                 .andExpect(jsonPath("$[0].cost").exists());
     }
-}
 
+    @Test
+    @DisplayName("GET /api/v1/payment/availability/calendar - Devuelve cada fecha del rango")
+    @Story("Calendario de disponibilidad")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifica que el calendario devuelve disponibilidad, multiplicador y cierre por fecha con ETag")
+    void getAvailabilityCalendarShouldReturnEveryDate() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(1);
+        MvcResult started = mockMvc.perform(get("/api/v1/payment/availability/calendar")
+                        .param("from", from.toString())
+                        .param("to", from.plusDays(6).toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.length()").value(7))
+                .andExpect(jsonPath("$[0].date").value(from.toString()))
+                .andExpect(jsonPath("$[0].closed").value(false))
+                .andExpect(jsonPath("$[0].seasonalMultiplier").exists())
+                .andExpect(jsonPath("$[0].tickets.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/payment/availability/calendar - 304 con ETag vigente")
+    @Story("Calendario de disponibilidad")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifica que un ETag vigente en If-None-Match devuelve 304 sin cuerpo")
+    void getAvailabilityCalendarShouldHonourETag() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(1);
+        MvcResult started = mockMvc.perform(get("/api/v1/payment/availability/calendar")
+                        .param("from", from.toString())
+                        .param("to", from.plusDays(2).toString()))
+                .andReturn();
+        String eTag = mockMvc.perform(asyncDispatch(started)).andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/payment/availability/calendar")
+                        .param("from", from.toString())
+                        .param("to", from.plusDays(2).toString())
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/payment/availability/calendar - Rango inválido")
+    @Story("Calendario de disponibilidad")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verifica que un rango invertido se rechaza")
+    void getAvailabilityCalendarShouldRejectInvertedRange() throws Exception {
+        LocalDate from = LocalDate.now().plusDays(5);
+
+        mockMvc.perform(get("/api/v1/payment/availability/calendar")
+                        .param("from", from.toString())
+                        .param("to", from.minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+    }
+}
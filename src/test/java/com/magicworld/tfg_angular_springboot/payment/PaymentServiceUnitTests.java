@@ -1,13 +1,15 @@
 package com.magicworld.tfg_angular_springboot.payment;
 
-import com.magicworld.tfg_angular_springboot.discount.DiscountService;
-import com.magicworld.tfg_angular_springboot.discount_ticket_type.DiscountTicketTypeService;
-import com.magicworld.tfg_angular_springboot.email.EmailService;
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.discount.Discount;
+import com.magicworld.tfg_angular_springboot.discount.DiscountRepository;
+import com.magicworld.tfg_angular_springboot.discount.DiscountRuleIndex;
+import com.magicworld.tfg_angular_springboot.discount_ticket_type.DiscountTicketTypeRepository;
 import com.magicworld.tfg_angular_springboot.exceptions.InvalidOperationException;
+import com.magicworld.tfg_angular_springboot.fulfilment.FulfilmentService;
 import com.magicworld.tfg_angular_springboot.park_closure.ParkClosureDayService;
 import com.magicworld.tfg_angular_springboot.purchase.PurchaseService;
 import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
-import com.magicworld.tfg_angular_springboot.qr.QrCodeService;
 import com.magicworld.tfg_angular_springboot.seasonal_pricing.SeasonalPricingService;
 import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
 import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeService;
@@ -23,6 +25,7 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -40,39 +43,42 @@ public class PaymentServiceUnitTests {
         @Mock
         private PurchaseService purchaseService;
         @Mock
-        private DiscountService discountService;
+        private DiscountRepository discountRepository;
         @Mock
-        private DiscountTicketTypeService discountTicketTypeService;
+        private DiscountTicketTypeRepository discountTicketTypeRepository;
         @Mock
         private UserRepository userRepository;
         @Mock
-        private QrCodeService qrCodeService;
-        @Mock
-        private EmailService emailService;
-        @Mock
         private SimpMessagingTemplate messagingTemplate;
         @Mock
         private SeasonalPricingService seasonalPricingService;
         @Mock
         private ParkClosureDayService parkClosureDayService;
+        @Mock
+        private PaymentCheckoutService checkoutService;
+        @Mock
+        private FulfilmentService fulfilmentService;
 
         private PaymentService paymentService;
 
         @BeforeEach
         void setUp() {
                 MockitoAnnotations.openMocks(this);
+                TicketAvailabilityCache availabilityCache = new TicketAvailabilityCache(ticketTypeService,
+                                seasonalPricingService, parkClosureDayService, purchaseLineService, mock(ClusterCacheSync.class));
                 paymentService = new PaymentService(
                                 ticketTypeService,
-                                purchaseLineService,
                                 purchaseService,
-                                discountService,
-                                discountTicketTypeService,
+                                new DiscountRuleIndex(discountRepository, discountTicketTypeRepository,
+                                                mock(ClusterCacheSync.class)),
                                 userRepository,
-                                qrCodeService,
-                                emailService,
-                                messagingTemplate,
                                 seasonalPricingService,
-                                parkClosureDayService);
+                                parkClosureDayService,
+                                availabilityCache,
+                                new AvailabilityBroadcaster(availabilityCache, messagingTemplate),
+                                checkoutService,
+                                fulfilmentService,
+                                new CheckoutTracer());
 
                 // Default: no closures, multiplier = 1
                 when(parkClosureDayService.isClosedDay(any(LocalDate.class))).thenReturn(false);
@@ -99,28 +105,6 @@ public class PaymentServiceUnitTests {
                 assertThrows(InvalidOperationException.class, () -> paymentService.processPayment(request, "es"));
         }
 
-        @Test
-        @DisplayName("ValidatePurchase lanza excepción si no hay disponibilidad")
-        @Story("Validación de Compra")
-        @Severity(SeverityLevel.CRITICAL)
-        @Description("Verifica que no se permite compra sin disponibilidad suficiente")
-        void validatePurchaseThrowsExceptionForInsufficientAvailability() {
-                when(purchaseLineService.getAvailableQuantity(anyString(), any(LocalDate.class))).thenReturn(5);
-
-                PaymentRequest request = PaymentRequest.builder()
-                                .visitDate(LocalDate.now().plusDays(1))
-                                .items(List.of(PaymentRequest.PaymentLineItem.builder()
-                                                .ticketTypeName("ADULT")
-                                                .quantity(10)
-                                                .build()))
-                                .email("test@example.com")
-                                .firstName("John")
-                                .lastName("Doe")
-                                .build();
-
-                assertThrows(InvalidOperationException.class, () -> paymentService.processPayment(request, "es"));
-        }
-
         @Test
         @DisplayName("GetAvailability retorna lista de disponibilidad")
         @Story("Consulta de Disponibilidad")
@@ -137,7 +121,7 @@ public class PaymentServiceUnitTests {
                 ticketType.setId(1L);
 
                 when(ticketTypeService.findAll()).thenReturn(List.of(ticketType));
-                when(purchaseLineService.getAvailableQuantity(anyString(), any(LocalDate.class))).thenReturn(100);
+                when(purchaseLineService.getSoldQuantitiesByTicketType(any(LocalDate.class))).thenReturn(Map.of());
 
                 List<TicketAvailabilityDTO> result = paymentService.getAvailability(LocalDate.now().plusDays(1));
 
@@ -161,7 +145,8 @@ public class PaymentServiceUnitTests {
                 ticketType.setId(1L);
 
                 when(ticketTypeService.findAll()).thenReturn(List.of(ticketType));
-                when(purchaseLineService.getAvailableQuantity(anyString(), any(LocalDate.class))).thenReturn(80);
+                when(purchaseLineService.getSoldQuantitiesByTicketType(any(LocalDate.class)))
+                                .thenReturn(Map.of("ADULT", 20));
 
                 List<TicketAvailabilityDTO> result = paymentService.getAvailability(LocalDate.now().plusDays(1));
 
@@ -205,7 +190,7 @@ public class PaymentServiceUnitTests {
                                 .build();
 
                 when(ticketTypeService.findByTypeName("ADULT")).thenReturn(ticketType);
-                when(discountService.findByCode("INVALID")).thenReturn(null);
+                when(discountRepository.findAll()).thenReturn(List.of());
 
                 List<PaymentRequest.PaymentLineItem> items = List.of(
                                 PaymentRequest.PaymentLineItem.builder()
@@ -218,6 +203,50 @@ public class PaymentServiceUnitTests {
                 assertTrue(response.getInvalidDiscountCodes().contains("INVALID"));
         }
 
+        @Test
+        @DisplayName("CalculatePrice aplica descuentos sin consultas repetidas")
+        @Story("Cálculo de Precios")
+        @Severity(SeverityLevel.CRITICAL)
+        @Description("Verifica que los descuentos se resuelven desde el índice en memoria y solo se cargan una vez")
+        void calculatePriceResolvesDiscountsInMemory() {
+                TicketType adult = TicketType.builder()
+                                .typeName("ADULT")
+                                .cost(new BigDecimal("50.00"))
+                                .build();
+                adult.setId(1L);
+                TicketType child = TicketType.builder()
+                                .typeName("CHILD")
+                                .cost(new BigDecimal("30.00"))
+                                .build();
+                child.setId(2L);
+                Discount summer = Discount.builder()
+                                .discountCode("SUMMER")
+                                .discountPercentage(20)
+                                .expiryDate(LocalDate.now().plusDays(30))
+                                .build();
+                summer.setId(7L);
+
+                when(ticketTypeService.findByTypeName("ADULT")).thenReturn(adult);
+                when(ticketTypeService.findByTypeName("CHILD")).thenReturn(child);
+                when(discountRepository.findAll()).thenReturn(List.of(summer));
+                when(discountTicketTypeRepository.findAllDiscountAndTicketTypeIds())
+                                .thenReturn(List.<Object[]>of(new Object[] { 7L, 1L }));
+
+                List<PaymentRequest.PaymentLineItem> items = List.of(
+                                PaymentRequest.PaymentLineItem.builder().ticketTypeName("ADULT").quantity(2).build(),
+                                PaymentRequest.PaymentLineItem.builder().ticketTypeName("CHILD").quantity(1).build());
+
+                PriceCalculationResponse first = paymentService.calculatePrice(items, List.of("SUMMER"), LocalDate.now().plusDays(1));
+                PriceCalculationResponse second = paymentService.calculatePrice(items, List.of("SUMMER"), LocalDate.now().plusDays(1));
+
+                assertEquals(new BigDecimal("20.00"), first.getDiscountAmount());
+                assertEquals(new BigDecimal("110.00"), first.getTotal());
+                assertEquals(List.of("ADULT"), first.getDiscountAppliesTo().get("SUMMER"));
+                assertEquals(first.getTotal(), second.getTotal());
+                verify(discountRepository, times(1)).findAll();
+                verify(discountTicketTypeRepository, times(1)).findAllDiscountAndTicketTypeIds();
+        }
+
         @Test
         @DisplayName("NotifyAvailabilityChange envía mensaje WebSocket")
         @Story("Notificación de Disponibilidad")
@@ -300,29 +329,6 @@ public class PaymentServiceUnitTests {
                 assertThrows(InvalidOperationException.class, () -> paymentService.processPayment(request, "es"));
         }
 
-        @Test
-        @DisplayName("ValidatePurchase lanza excepción si capacidad global excedida")
-        @Story("Validación de Compra")
-        @Severity(SeverityLevel.CRITICAL)
-        @Description("Verifica que no se permite exceder la capacidad del parque")
-        void validatePurchaseThrowsExceptionWhenCapacityExceeded() {
-                when(purchaseLineService.getAvailableQuantity(anyString(), any(LocalDate.class))).thenReturn(1000);
-                when(purchaseLineService.getTotalSoldForDate(any(LocalDate.class))).thenReturn(499);
-
-                PaymentRequest request = PaymentRequest.builder()
-                        .visitDate(LocalDate.now().plusDays(1))
-                        .items(List.of(PaymentRequest.PaymentLineItem.builder()
-                                .ticketTypeName("ADULT")
-                                .quantity(10)
-                                .build()))
-                        .email("test@example.com")
-                        .firstName("John")
-                        .lastName("Doe")
-                        .build();
-
-                assertThrows(InvalidOperationException.class, () -> paymentService.processPayment(request, "es"));
-        }
-
         @Test
         @DisplayName("CalculatePrice con visitDate null usa multiplicador 1")
         @Story("Cálculo de Precios")
@@ -398,7 +404,7 @@ public class PaymentServiceUnitTests {
                 ticketType.setId(1L);
 
                 when(ticketTypeService.findAll()).thenReturn(List.of(ticketType));
-                when(purchaseLineService.getAvailableQuantity(anyString(), any(LocalDate.class))).thenReturn(100);
+                when(purchaseLineService.getSoldQuantitiesByTicketType(any(LocalDate.class))).thenReturn(Map.of());
 
                 List<TicketAvailabilityDTO> result = paymentService.getAvailability(LocalDate.now().plusDays(1));
 
@@ -0,0 +1,216 @@
+package com.magicworld.tfg_angular_springboot.payment;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import com.magicworld.tfg_angular_springboot.park_closure.ParkClosureDayService;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLine;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineService;
+import com.magicworld.tfg_angular_springboot.seasonal_pricing.SeasonalPricingService;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeService;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Epic("Pasarela de Pago")
+@Feature("Caché de Disponibilidad")
+public class TicketAvailabilityCacheTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    @Mock
+    private TicketTypeService ticketTypeService;
+    @Mock
+    private SeasonalPricingService seasonalPricingService;
+    @Mock
+    private ParkClosureDayService parkClosureDayService;
+    @Mock
+    private PurchaseLineService purchaseLineService;
+
+    private TicketAvailabilityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        TicketType adult = TicketType.builder()
+                .typeName("ADULT")
+                .description("Adult ticket")
+                .cost(new BigDecimal("40.00"))
+                .maxPerDay(100)
+                .photoUrl("http://example.com/adult.jpg")
+                .build();
+        adult.setId(1L);
+        when(ticketTypeService.findAll()).thenReturn(List.of(adult));
+        when(seasonalPricingService.getMultiplier(any(LocalDate.class))).thenReturn(new BigDecimal("1.25"));
+        when(parkClosureDayService.isClosedDay(any(LocalDate.class))).thenReturn(false);
+        when(purchaseLineService.getSoldQuantitiesByTicketType(any(LocalDate.class)))
+                .thenReturn(Map.of("ADULT", 30));
+
+        cache = new TicketAvailabilityCache(ticketTypeService, seasonalPricingService, parkClosureDayService,
+                purchaseLineService, mock(ClusterCacheSync.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Story("Lecturas")
+    @Description("Verifica que la segunda lectura de una fecha no lanza consultas")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Lecturas repetidas se sirven desde caché")
+    void testRepeatedReadsHitCache() {
+        List<TicketAvailabilityDTO> first = cache.get(DATE).toAvailability();
+        List<TicketAvailabilityDTO> second = cache.get(DATE).toAvailability();
+
+        assertEquals(70, first.getFirst().getAvailable());
+        assertEquals(new BigDecimal("50.00"), first.getFirst().getAdjustedCost());
+        assertEquals(new BigDecimal("1.25"), first.getFirst().getSeasonalMultiplier());
+        assertEquals(70, second.getFirst().getAvailable());
+        verify(ticketTypeService, times(1)).findAll();
+        verify(seasonalPricingService, times(1)).getMultiplier(DATE);
+        verify(purchaseLineService, times(1)).getSoldQuantitiesByTicketType(DATE);
+    }
+
+    @Test
+    @Story("Lecturas")
+    @Description("Verifica que un día cerrado se cachea sin consultar precios ni ventas")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Día cerrado se marca como cerrado")
+    void testClosedDay() {
+        when(parkClosureDayService.isClosedDay(DATE)).thenReturn(true);
+
+        assertTrue(cache.get(DATE).isClosed());
+        assertTrue(cache.get(DATE).toAvailability().isEmpty());
+        verify(parkClosureDayService, times(1)).isClosedDay(DATE);
+        verify(ticketTypeService, never()).findAll();
+    }
+
+    @Test
+    @Story("Ventas")
+    @Description("Verifica que una línea de compra confirmada se suma en sitio tras el commit")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Venta confirmada actualiza la disponibilidad")
+    void testCommittedSaleUpdatesInPlace() {
+        cache.get(DATE);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.recordSale(line(5));
+        assertEquals(70, cache.get(DATE).toAvailability().getFirst().getAvailable());
+
+        complete(true);
+        assertEquals(65, cache.get(DATE).toAvailability().getFirst().getAvailable());
+        verify(purchaseLineService, times(1)).getSoldQuantitiesByTicketType(DATE);
+    }
+
+    @Test
+    @Story("Ventas")
+    @Description("Verifica que una venta revertida no modifica la disponibilidad")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Venta revertida se descarta")
+    void testRolledBackSaleIsIgnored() {
+        cache.get(DATE);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.recordSale(line(5));
+        complete(false);
+
+        assertEquals(70, cache.get(DATE).toAvailability().getFirst().getAvailable());
+    }
+
+    @Test
+    @Story("Ventas")
+    @Description("Verifica que una carga concurrente con una venta pendiente no se guarda en caché")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Carga con venta pendiente no se cachea")
+    void testLoadDuringPendingSaleIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.recordSale(line(5));
+
+        cache.get(DATE);
+        assertEquals(0, cache.size());
+
+        complete(true);
+        cache.get(DATE);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que un cambio de tarifas o tipos de entrada recarga la fecha")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Invalidación fuerza recarga")
+    void testInvalidateAllReloads() {
+        cache.get(DATE);
+        when(seasonalPricingService.getMultiplier(any(LocalDate.class))).thenReturn(new BigDecimal("2"));
+
+        cache.invalidateAll();
+
+        assertEquals(new BigDecimal("80.00"), cache.get(DATE).toAvailability().getFirst().getAdjustedCost());
+        verify(ticketTypeService, times(2)).findAll();
+    }
+
+    @Test
+    @Story("Rangos")
+    @Description("Verifica que un rango se carga con consultas agregadas y luego se sirve desde caché")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Rango cargado en bloque")
+    void testRangeLoadsInBulk() {
+        LocalDate to = DATE.plusDays(4);
+        when(parkClosureDayService.findClosedDates(DATE, to)).thenReturn(List.of(DATE.plusDays(2)));
+        when(seasonalPricingService.getMultipliers(DATE, to)).thenReturn(Map.of(DATE, new BigDecimal("2")));
+        when(purchaseLineService.getSoldQuantitiesByDate(DATE, to))
+                .thenReturn(Map.of(DATE.plusDays(1), Map.of("ADULT", 40)));
+
+        List<TicketAvailabilityCache.DateAvailability> days = cache.getRange(DATE, to);
+        cache.getRange(DATE, to);
+
+        assertEquals(5, days.size());
+        assertEquals(new BigDecimal("80.00"), days.get(0).toAvailability().getFirst().getAdjustedCost());
+        assertEquals(60, days.get(1).toAvailability().getFirst().getAvailable());
+        assertTrue(days.get(2).isClosed());
+        assertEquals(100, days.get(3).toAvailability().getFirst().getAvailable());
+        assertSame(days.get(1), cache.get(DATE.plusDays(1)));
+        verify(ticketTypeService, times(1)).findAll();
+        verify(purchaseLineService, times(1)).getSoldQuantitiesByDate(DATE, to);
+        verify(purchaseLineService, never()).getSoldQuantitiesByTicketType(any(LocalDate.class));
+        verify(parkClosureDayService, never()).isClosedDay(any(LocalDate.class));
+    }
+
+    private PurchaseLine line(int quantity) {
+        return PurchaseLine.builder()
+                .validDate(DATE)
+                .ticketTypeName("ADULT")
+                .quantity(quantity)
+                .totalCost(new BigDecimal("40.00"))
+                .build();
+    }
+
+    private void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (committed) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        int status = committed ? TransactionSynchronization.STATUS_COMMITTED
+                : TransactionSynchronization.STATUS_ROLLED_BACK;
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+}
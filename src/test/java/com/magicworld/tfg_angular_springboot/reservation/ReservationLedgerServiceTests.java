@@ -0,0 +1,333 @@
+package com.magicworld.tfg_angular_springboot.reservation;
+
+import com.magicworld.tfg_angular_springboot.email.EmailService;
+import com.magicworld.tfg_angular_springboot.exceptions.InvalidOperationException;
+import com.magicworld.tfg_angular_springboot.fulfilment.FulfilmentTaskRepository;
+import com.magicworld.tfg_angular_springboot.payment.PaymentCheckoutRepository;
+import com.magicworld.tfg_angular_springboot.payment.PaymentRequest;
+import com.magicworld.tfg_angular_springboot.payment.PaymentResponse;
+import com.magicworld.tfg_angular_springboot.payment.PaymentService;
+import com.magicworld.tfg_angular_springboot.purchase.PurchaseRepository;
+import com.magicworld.tfg_angular_springboot.purchase_line.PurchaseLineRepository;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketType;
+import com.magicworld.tfg_angular_springboot.ticket_type.TicketTypeRepository;
+import com.magicworld.tfg_angular_springboot.user.Role;
+import com.magicworld.tfg_angular_springboot.user.User;
+import com.magicworld.tfg_angular_springboot.user.UserRepository;
+import com.magicworld.tfg_angular_springboot.user.UserService;
+import com.stripe.Stripe;
+import com.sun.net.httpserver.HttpServer;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs against committed data: holds are taken in their own transactions, so this class is not
+ * {@code @Transactional} and cleans up after each test.
+ */
+@SpringBootTest(properties = {
+        "park.max-capacity=150",
+        "spring.datasource.hikari.maximum-pool-size=64"
+})
+@ActiveProfiles("test")
+@Epic("Pasarela de Pago")
+@Feature("Libro de Reservas")
+public class ReservationLedgerServiceTests {
+
+    private static final String TYPE_A = "LEDGER_A";
+    private static final String TYPE_B = "LEDGER_B";
+    private static final String EMAIL = "ledger.buyer@magicworld.com";
+    private static final LocalDate VISIT_DATE = LocalDate.now().plusDays(10);
+    private static final int CHECKOUTS = 500;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @Autowired
+    private ReservationLedgerService ledger;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private CapacityCounterRepository counterRepository;
+
+    @Autowired
+    private TicketHoldRepository holdRepository;
+
+    @Autowired
+    private PaymentCheckoutRepository checkoutRepository;
+
+    @Autowired
+    private FulfilmentTaskRepository fulfilmentRepository;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private PurchaseLineRepository purchaseLineRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private HttpServer stripeStub;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        AtomicInteger intents = new AtomicInteger();
+        stripeStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stripeStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stripeStub.createContext("/v1/payment_intents", exchange -> {
+            byte[] body = ("{\"id\":\"pi_ledger_" + intents.incrementAndGet()
+                    + "\",\"object\":\"payment_intent\",\"status\":\"succeeded\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stripeStub.start();
+        Stripe.overrideApiBase("http://localhost:" + stripeStub.getAddress().getPort());
+
+        ticketTypeRepository.save(ticketType(TYPE_A));
+        ticketTypeRepository.save(ticketType(TYPE_B));
+        userRepository.save(User.builder()
+                .username("ledger_buyer")
+                .firstname("Ledger")
+                .lastname("Buyer")
+                .email(EMAIL)
+                .userRole(Role.USER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        Stripe.overrideApiBase(Stripe.LIVE_API_BASE);
+        stripeStub.stop(0);
+        fulfilmentRepository.deleteAll();
+        checkoutRepository.deleteAll();
+        holdRepository.deleteAll();
+        counterRepository.deleteAll();
+        purchaseLineRepository.deleteAll();
+        purchaseRepository.deleteAll();
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        ticketTypeRepository.findAll().stream()
+                .filter(t -> TYPE_A.equals(t.getTypeName()) || TYPE_B.equals(t.getTypeName()))
+                .forEach(ticketTypeRepository::delete);
+    }
+
+    @Test
+    @Story("Retención")
+    @Description("Verifica que una retención descuenta capacidad y liberarla la devuelve")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Retener y liberar restaura la capacidad")
+    void testHoldAndReleaseRestoresCapacity() {
+        String token = ledger.hold(VISIT_DATE, Map.of(TYPE_A, 30));
+
+        assertEquals(70, remaining(TYPE_A));
+        assertEquals(120, remaining(ReservationLedgerService.PARK_SCOPE));
+
+        ledger.release(token);
+        ledger.release(token);
+
+        assertEquals(100, remaining(TYPE_A));
+        assertEquals(150, remaining(ReservationLedgerService.PARK_SCOPE));
+    }
+
+    @Test
+    @Story("Retención")
+    @Description("Verifica que una retención que excede la capacidad no modifica ningún contador")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Retención sin capacidad es atómica")
+    void testRejectedHoldLeavesCountersUntouched() {
+        ledger.hold(VISIT_DATE, Map.of(TYPE_B, 100));
+
+        assertThrows(InvalidOperationException.class,
+                () -> ledger.hold(VISIT_DATE, Map.of(TYPE_A, 60, TYPE_B, 1)));
+
+        assertEquals(100, remaining(TYPE_A));
+        assertEquals(0, remaining(TYPE_B));
+        assertEquals(50, remaining(ReservationLedgerService.PARK_SCOPE));
+    }
+
+    @Test
+    @Story("Retención")
+    @Description("Verifica que un checkout que excede la capacidad de su tipo de entrada se rechaza sin registrarse")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Checkout sin disponibilidad del tipo rechazado")
+    void testCheckoutBeyondTicketTypeCapacityIsRejected() {
+        ledger.hold(VISIT_DATE, Map.of(TYPE_A, 95));
+
+        InvalidOperationException ex = assertThrows(InvalidOperationException.class,
+                () -> paymentService.processPayment(request(TYPE_A, 10), "es"));
+
+        assertEquals("error.payment.insufficient.availability", ex.getCode());
+        assertEquals(5, remaining(TYPE_A));
+        assertEquals(55, remaining(ReservationLedgerService.PARK_SCOPE));
+        assertEquals(0, checkoutRepository.count());
+    }
+
+    @Test
+    @Story("Retención")
+    @Description("Verifica que un checkout que excede la capacidad del parque se rechaza sin registrarse")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Checkout sin capacidad del parque rechazado")
+    void testCheckoutBeyondParkCapacityIsRejected() {
+        ledger.hold(VISIT_DATE, Map.of(TYPE_A, 100, TYPE_B, 45));
+
+        InvalidOperationException ex = assertThrows(InvalidOperationException.class,
+                () -> paymentService.processPayment(request(TYPE_B, 10), "es"));
+
+        assertEquals("error.payment.park.capacity.exceeded", ex.getCode());
+        assertEquals(55, remaining(TYPE_B));
+        assertEquals(5, remaining(ReservationLedgerService.PARK_SCOPE));
+        assertEquals(0, checkoutRepository.count());
+    }
+
+    @Test
+    @Story("Retención")
+    @Description("Verifica que borrar las compras de un usuario devuelve su capacidad a los contadores")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Borrar compras devuelve la capacidad")
+    void testDeletedPurchasesReturnCapacity() throws Exception {
+        assertTrue(paymentService.processPayment(request(TYPE_A, 3), "es").isSuccess());
+        assertEquals(97, remaining(TYPE_A));
+        verify(emailService, timeout(5000)).sendRenderedHtmlEmailWithQr(eq(EMAIL), anyString(), anyString(),
+                any(byte[].class));
+
+        userService.deleteUserWithRelatedData(userRepository.findByEmail(EMAIL).orElseThrow());
+
+        assertEquals(100, remaining(TYPE_A));
+        assertEquals(150, remaining(ReservationLedgerService.PARK_SCOPE));
+    }
+
+    @Test
+    @Story("Caducidad")
+    @Description("Verifica que las retenciones abandonadas se liberan al caducar")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Retenciones caducadas se liberan")
+    void testExpiredHoldsAreReleased() {
+        String token = ledger.hold(VISIT_DATE, Map.of(TYPE_B, 40));
+        holdRepository.findByTokenAndStatus(token, HoldStatus.HELD).forEach(hold -> {
+            hold.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            holdRepository.save(hold);
+        });
+
+        ledger.releaseExpiredHolds();
+
+        assertEquals(100, remaining(TYPE_B));
+        assertEquals(0, holdRepository.countByStatus(HoldStatus.HELD));
+    }
+
+    @Test
+    @Tag("benchmark")
+    @Story("Concurrencia")
+    @Description("Lanza 500 checkouts en paralelo contra Stripe simulado y verifica que no se vende por encima de la capacidad")
+    @Severity(SeverityLevel.BLOCKER)
+    @DisplayName("500 checkouts concurrentes sin sobreventa")
+    void testParallelCheckoutsNeverOversell() throws Exception {
+        AtomicInteger soldBySuccess = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(CHECKOUTS);
+
+        try (ExecutorService buyers = Executors.newFixedThreadPool(32)) {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                String type = i % 2 == 0 ? TYPE_A : TYPE_B;
+                int quantity = i % 2 == 0 ? 1 : 2;
+                futures.add(buyers.submit(() -> {
+                    try {
+                        PaymentResponse response = paymentService.processPayment(request(type, quantity), "es");
+                        if (response.isSuccess()) {
+                            soldBySuccess.addAndGet(quantity);
+                        }
+                    } catch (InvalidOperationException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        int soldA = purchaseLineRepository.sumQuantityByTicketTypeNameAndValidDate(TYPE_A, VISIT_DATE);
+        int soldB = purchaseLineRepository.sumQuantityByTicketTypeNameAndValidDate(TYPE_B, VISIT_DATE);
+        Allure.addAttachment("Checkouts concurrentes", String.format(
+                "%d checkouts: vendidas %s=%d %s=%d total=%d (capacidad 150), rechazados=%d",
+                CHECKOUTS, TYPE_A, soldA, TYPE_B, soldB, soldA + soldB, rejected.get()));
+
+        assertTrue(soldA <= 100, "Sobreventa de " + TYPE_A);
+        assertTrue(soldB <= 100, "Sobreventa de " + TYPE_B);
+        assertTrue(soldA + soldB <= 150, "Sobreventa del parque");
+        assertEquals(soldBySuccess.get(), soldA + soldB);
+        assertEquals(100 - soldA, remaining(TYPE_A));
+        assertEquals(100 - soldB, remaining(TYPE_B));
+        assertEquals(150 - soldA - soldB, remaining(ReservationLedgerService.PARK_SCOPE));
+        assertEquals(0, holdRepository.countByStatus(HoldStatus.HELD));
+        assertTrue(rejected.get() > 0);
+    }
+
+    private int remaining(String scope) {
+        return counterRepository.findByValidDateAndScope(VISIT_DATE, scope).orElseThrow().getRemaining();
+    }
+
+    private PaymentRequest request(String type, int quantity) {
+        return PaymentRequest.builder()
+                .visitDate(VISIT_DATE)
+                .items(List.of(PaymentRequest.PaymentLineItem.builder()
+                        .ticketTypeName(type)
+                        .quantity(quantity)
+                        .build()))
+                .email(EMAIL)
+                .firstName("Ledger")
+                .lastName("Buyer")
+                .stripePaymentMethodId("pm_card_visa")
+                .build();
+    }
+
+    private static TicketType ticketType(String name) {
+        return TicketType.builder()
+                .typeName(name)
+                .description("Ledger ticket")
+                .cost(new BigDecimal("40.00"))
+                .maxPerDay(100)
+                .photoUrl("https://example.com/ledger.jpg")
+                .build();
+    }
+}
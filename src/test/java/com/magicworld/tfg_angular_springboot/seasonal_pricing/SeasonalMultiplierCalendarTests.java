@@ -0,0 +1,103 @@
+package com.magicworld.tfg_angular_springboot.seasonal_pricing;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@Epic("Precios Estacionales")
+@Feature("Calendario de Multiplicadores")
+public class SeasonalMultiplierCalendarTests {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private SeasonalPricingRepository repository;
+
+    private SeasonalMultiplierCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.findAll()).thenReturn(List.of(SeasonalPricing.builder()
+                .name("Peak")
+                .startDate(TODAY.plusDays(5))
+                .endDate(TODAY.plusDays(6))
+                .multiplier(new BigDecimal("1.50"))
+                .applyOnWeekdays(true)
+                .applyOnWeekends(true)
+                .build()));
+
+        calendar = new SeasonalMultiplierCalendar(repository, mock(ClusterCacheSync.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Story("Consultas")
+    @Description("Verifica que el calendario se construye con una consulta y responde a cada fecha de la ventana")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Multiplicadores servidos desde el calendario")
+    void testLookupsInsideWindowUseOneQuery() {
+        assertEquals(0, BigDecimal.ONE.compareTo(calendar.get(TODAY)));
+        assertEquals(0, new BigDecimal("1.50").compareTo(calendar.get(TODAY.plusDays(5))));
+        BigDecimal[] range = calendar.getRange(TODAY.plusDays(4), TODAY.plusDays(7));
+        assertEquals(4, range.length);
+        assertEquals(0, new BigDecimal("1.50").compareTo(range[2]));
+        assertEquals(0, BigDecimal.ONE.compareTo(range[3]));
+        verify(repository, times(1)).findAll();
+    }
+
+    @Test
+    @Story("Consultas")
+    @Description("Verifica que las fechas fuera de la ventana no se responden desde el calendario")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Fechas fuera de la ventana")
+    void testDatesOutsideWindowAreNotCovered() {
+        assertNull(calendar.get(TODAY.minusDays(1)));
+        assertNull(calendar.get(TODAY.plusDays(76)));
+        assertNotNull(calendar.get(TODAY.plusDays(75)));
+        assertNull(calendar.getRange(TODAY.plusDays(70), TODAY.plusDays(80)));
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que un calendario construido con un cambio sin confirmar no se conserva")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Calendario con cambios pendientes no se conserva")
+    void testCalendarDuringPendingChangeIsNotKept() {
+        calendar.get(TODAY);
+        TransactionSynchronizationManager.initSynchronization();
+        calendar.invalidate();
+
+        calendar.get(TODAY);
+        calendar.get(TODAY);
+        verify(repository, times(3)).findAll();
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        calendar.get(TODAY);
+        calendar.get(TODAY);
+        verify(repository, times(4)).findAll();
+    }
+}
@@ -125,6 +125,30 @@ public class SeasonalPricingServiceTests {
         assertEquals(0, expected.compareTo(multiplier));
     }
 
+    @Test
+    @DisplayName("getMultiplier refleja cambios dentro de la ventana precalculada")
+    @Story("Calendario de Multiplicadores")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verifica que guardar o borrar una regla se refleja en fechas servidas desde el calendario")
+    void getMultiplierReflectsChangesInsideCalendarWindow() {
+        LocalDate date = LocalDate.now().plusDays(10);
+        assertEquals(0, BigDecimal.ONE.compareTo(service.getMultiplier(date)));
+
+        SeasonalPricing pricing = repository.save(SeasonalPricing.builder()
+                .name("Autumn surcharge")
+                .startDate(date.minusDays(1))
+                .endDate(date.plusDays(1))
+                .multiplier(new BigDecimal("1.40"))
+                .applyOnWeekdays(true)
+                .applyOnWeekends(true)
+                .build());
+        assertEquals(0, new BigDecimal("1.40").compareTo(service.getMultiplier(date)));
+        assertEquals(0, new BigDecimal("1.40").compareTo(service.getMultipliers(date, date.plusDays(1)).get(date)));
+
+        repository.delete(pricing);
+        assertEquals(0, BigDecimal.ONE.compareTo(service.getMultiplier(date)));
+    }
+
     @Test
     @DisplayName("save lanza excepción si fecha fin antes de fecha inicio")
     @Story("CRUD de Reglas")
@@ -0,0 +1,112 @@
+package com.magicworld.tfg_angular_springboot.ticket_type;
+
+import com.magicworld.tfg_angular_springboot.cluster.ClusterCacheSync;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@Epic("Gestión de Tipos de Entrada")
+@Feature("Catálogo de Tipos de Entrada")
+public class TicketTypeCatalogTests {
+
+    @Mock
+    private TicketTypeRepository ticketTypeRepository;
+
+    private TicketType adult;
+    private TicketTypeCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        adult = ticketType(1L, "ADULT", 120);
+        when(ticketTypeRepository.findAll(any(Sort.class))).thenReturn(List.of(adult, ticketType(2L, "CHILD", 80)));
+
+        catalog = new TicketTypeCatalog(ticketTypeRepository, mock(ClusterCacheSync.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Story("Consultas")
+    @Description("Verifica que el catálogo se carga una vez y resuelve tipos por nombre, id y capacidad total")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Catálogo servido desde memoria")
+    void testLookupsLoadOnce() {
+        TicketTypeCatalog.Snapshot snapshot = catalog.snapshot();
+
+        assertEquals(2, snapshot.getAll().size());
+        assertEquals("CHILD", snapshot.byId(2L).getTypeName());
+        assertEquals(new BigDecimal("30.00"), snapshot.byName("ADULT").getCost());
+        assertNull(snapshot.byName("UNKNOWN"));
+        assertEquals(200, catalog.snapshot().getTotalMaxPerDay());
+        verify(ticketTypeRepository, times(1)).findAll(any(Sort.class));
+    }
+
+    @Test
+    @Story("Consultas")
+    @Description("Verifica que las entradas del catálogo son copias independientes de las entidades cargadas")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Catálogo guarda copias de las entidades")
+    void testEntriesAreCopies() {
+        TicketType cached = catalog.snapshot().byName("ADULT");
+
+        adult.setMaxPerDay(10);
+
+        assertNotSame(adult, cached);
+        assertEquals(120, cached.getMaxPerDay());
+        assertEquals(200, catalog.snapshot().getTotalMaxPerDay());
+    }
+
+    @Test
+    @Story("Invalidación")
+    @Description("Verifica que el catálogo leído con un cambio sin confirmar no se conserva tras el commit")
+    @Severity(SeverityLevel.CRITICAL)
+    @DisplayName("Catálogo con cambios pendientes no se conserva")
+    void testSnapshotDuringPendingChangeIsNotKept() {
+        TransactionSynchronizationManager.initSynchronization();
+        catalog.invalidate();
+
+        catalog.snapshot();
+        catalog.snapshot();
+        verify(ticketTypeRepository, times(2)).findAll(any(Sort.class));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        catalog.snapshot();
+        catalog.snapshot();
+        verify(ticketTypeRepository, times(3)).findAll(any(Sort.class));
+    }
+
+    private static TicketType ticketType(Long id, String name, int maxPerDay) {
+        TicketType ticketType = TicketType.builder()
+                .typeName(name)
+                .description(name + " ticket")
+                .cost(new BigDecimal("30.00"))
+                .maxPerDay(maxPerDay)
+                .photoUrl("https://example.com/" + name + ".jpg")
+                .build();
+        ticketType.setId(id);
+        return ticketType;
+    }
+}